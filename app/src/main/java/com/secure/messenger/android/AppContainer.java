@@ -0,0 +1,147 @@
+package com.secure.messenger.android;
+
+import android.content.Context;
+
+import com.secure.messenger.android.data.api.AuthApiService;
+import com.secure.messenger.android.data.api.AuthServiceClient;
+import com.secure.messenger.android.data.api.GroupServiceClient;
+import com.secure.messenger.android.data.api.MessageServiceClient;
+import com.secure.messenger.android.data.local.KeyValueStorage;
+import com.secure.messenger.android.data.local.PreferenceManager;
+import com.secure.messenger.android.data.local.TokenManager;
+import com.secure.messenger.android.data.repository.AuthRepository;
+import com.secure.messenger.android.data.repository.GroupRepository;
+import com.secure.messenger.android.data.repository.MessageRepository;
+import com.secure.messenger.android.data.repository.UserRepository;
+import com.secure.messenger.android.util.SecurityUtils;
+
+/**
+ * Контейнер залежностей рівня додатку.
+ * Сховища, криптографічні утиліти, gRPC клієнти та репозиторії створюються
+ * один раз при першому зверненні і спільно використовуються всіма екранами,
+ * тому ініціалізація KeyStore та EncryptedSharedPreferences не повторюється
+ * при кожному відкритті екрана.
+ */
+public class AppContainer {
+
+    private static final String SERVER_HOST = "10.0.2.2"; // localhost для емулятора
+    private static final int SERVER_PORT = 9090;
+
+    private final Context context;
+
+    private TokenManager tokenManager;
+    private PreferenceManager preferenceManager;
+    private KeyValueStorage keyValueStorage;
+    private SecurityUtils securityUtils;
+
+    private MessageServiceClient messageServiceClient;
+    private GroupServiceClient groupServiceClient;
+    private AuthServiceClient authServiceClient;
+    private AuthApiService authApiService;
+
+    private MessageRepository messageRepository;
+    private GroupRepository groupRepository;
+    private UserRepository userRepository;
+    private AuthRepository authRepository;
+
+    /**
+     * Конструктор
+     *
+     * @param context контекст додатку
+     */
+    public AppContainer(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    // Сховища та безпека
+
+    public synchronized TokenManager getTokenManager() {
+        if (tokenManager == null) {
+            tokenManager = new TokenManager(context);
+        }
+        return tokenManager;
+    }
+
+    public synchronized PreferenceManager getPreferenceManager() {
+        if (preferenceManager == null) {
+            preferenceManager = new PreferenceManager(context);
+        }
+        return preferenceManager;
+    }
+
+    public synchronized KeyValueStorage getKeyValueStorage() {
+        if (keyValueStorage == null) {
+            keyValueStorage = new KeyValueStorage(context);
+        }
+        return keyValueStorage;
+    }
+
+    public synchronized SecurityUtils getSecurityUtils() {
+        if (securityUtils == null) {
+            securityUtils = new SecurityUtils(context, getPreferenceManager());
+        }
+        return securityUtils;
+    }
+
+    // gRPC клієнти
+
+    public synchronized MessageServiceClient getMessageServiceClient() {
+        if (messageServiceClient == null) {
+            messageServiceClient = new MessageServiceClient(SERVER_HOST, SERVER_PORT);
+        }
+        return messageServiceClient;
+    }
+
+    public synchronized GroupServiceClient getGroupServiceClient() {
+        if (groupServiceClient == null) {
+            groupServiceClient = new GroupServiceClient(SERVER_HOST, SERVER_PORT);
+        }
+        return groupServiceClient;
+    }
+
+    public synchronized AuthServiceClient getAuthServiceClient() {
+        if (authServiceClient == null) {
+            authServiceClient = new AuthServiceClient(SERVER_HOST, SERVER_PORT);
+        }
+        return authServiceClient;
+    }
+
+    public synchronized AuthApiService getAuthApiService() {
+        if (authApiService == null) {
+            authApiService = new AuthApiService(context, getKeyValueStorage());
+        }
+        return authApiService;
+    }
+
+    // Репозиторії
+
+    public synchronized MessageRepository getMessageRepository() {
+        if (messageRepository == null) {
+            messageRepository = new MessageRepository(context, getMessageServiceClient(),
+                    getTokenManager(), getSecurityUtils());
+        }
+        return messageRepository;
+    }
+
+    public synchronized GroupRepository getGroupRepository() {
+        if (groupRepository == null) {
+            groupRepository = new GroupRepository(context, getGroupServiceClient(),
+                    getTokenManager(), getSecurityUtils());
+        }
+        return groupRepository;
+    }
+
+    public synchronized UserRepository getUserRepository() {
+        if (userRepository == null) {
+            userRepository = new UserRepository(context);
+        }
+        return userRepository;
+    }
+
+    public synchronized AuthRepository getAuthRepository() {
+        if (authRepository == null) {
+            authRepository = new AuthRepository(context, getAuthServiceClient(), getTokenManager());
+        }
+        return authRepository;
+    }
+}
@@ -18,6 +18,7 @@ import androidx.fragment.app.Fragment;
 import com.google.android.material.navigation.NavigationView;
 import com.secure.messenger.android.data.local.PreferenceManager;
 import com.secure.messenger.android.data.local.TokenManager;
+import com.secure.messenger.android.data.repository.AuthRepository;
 import com.secure.messenger.android.ui.auth.LoginActivity;
 import com.secure.messenger.android.ui.chat.ChatListFragment;
 import com.secure.messenger.android.ui.group.GroupListFragment;
@@ -42,8 +43,9 @@ public class MainActivity extends AppCompatActivity implements NavigationView.On
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
 
-        tokenManager = new TokenManager(this);
-        preferenceManager = new PreferenceManager(this);
+        AppContainer container = SecureMessengerApp.getInstance().getContainer();
+        tokenManager = container.getTokenManager();
+        preferenceManager = container.getPreferenceManager();
 
         // Перевіряємо, чи користувач авторизований
         if (!tokenManager.isLoggedIn()) {
@@ -140,8 +142,19 @@ public class MainActivity extends AppCompatActivity implements NavigationView.On
      */
     private void logout() {
         Log.d(TAG, "Logging out...");
-        tokenManager.clearTokens();
-        navigateToLogin();
+        // AuthRepository очищає токени та локальні дані користувача (превью розмов)
+        SecureMessengerApp.getInstance().getContainer().getAuthRepository()
+                .logout(new AuthRepository.AuthCallback() {
+                    @Override
+                    public void onSuccess() {
+                        runOnUiThread(MainActivity.this::navigateToLogin);
+                    }
+
+                    @Override
+                    public void onError(String errorMessage) {
+                        runOnUiThread(MainActivity.this::navigateToLogin);
+                    }
+                });
     }
 
     /**
@@ -6,7 +6,12 @@ import android.app.NotificationManager;
 import android.os.Build;
 import android.util.Log;
 
+import com.secure.messenger.android.data.local.ExpiredMessageReaper;
 import com.secure.messenger.android.data.local.PreferenceManager;
+import com.secure.messenger.android.data.local.SecureStore;
+import com.secure.messenger.android.ui.common.adapter.SharedViewPool;
+import com.secure.messenger.android.ui.common.image.AvatarLoader;
+import com.secure.messenger.android.util.AppExecutors;
 import com.secure.messenger.android.util.SecurityUtils;
 
 /**
@@ -20,6 +25,7 @@ public class SecureMessengerApp extends Application {
     private static final String VOICE_CHANNEL_ID = "voice_channel";
 
     private static SecureMessengerApp instance;
+    private AppContainer container;
     private PreferenceManager preferenceManager;
 
     @Override
@@ -27,8 +33,11 @@ public class SecureMessengerApp extends Application {
         super.onCreate();
         instance = this;
 
+        // Контейнер залежностей; компоненти створюються при першому зверненні
+        container = new AppContainer(this);
+
         // Ініціалізація менеджера налаштувань
-        preferenceManager = new PreferenceManager(this);
+        preferenceManager = container.getPreferenceManager();
 
         // Ініціалізація криптографічних компонентів
         initializeCrypto();
@@ -36,9 +45,26 @@ public class SecureMessengerApp extends Application {
         // Створення каналів сповіщень
         createNotificationChannels();
 
+        // Запуск фонового видалення прострочених повідомлень
+        ExpiredMessageReaper.getInstance(this).start();
+
         Log.i(TAG, "SecureMessenger App initialized");
     }
 
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        if (level >= TRIM_MEMORY_UI_HIDDEN) {
+            // Додаток іде у фон: записуємо незбережені налаштування, поки процес живий
+            AppExecutors.getInstance().io().execute(() -> SecureStore.getInstance(this).flush());
+        }
+        if (level >= TRIM_MEMORY_BACKGROUND) {
+            // Заздалегідь створені елементи списків легко відновити
+            SharedViewPool.clear();
+        }
+        AvatarLoader.getInstance(this).trimMemory(level);
+    }
+
     /**
      * Отримання екземпляру додатку
      * @return екземпляр класу Application
@@ -47,6 +73,14 @@ public class SecureMessengerApp extends Application {
         return instance;
     }
 
+    /**
+     * Отримання контейнера залежностей
+     * @return екземпляр AppContainer
+     */
+    public AppContainer getContainer() {
+        return container;
+    }
+
     /**
      * Отримання менеджера налаштувань
      * @return екземпляр PreferenceManager
@@ -60,7 +94,7 @@ public class SecureMessengerApp extends Application {
      */
     private void initializeCrypto() {
         try {
-            SecurityUtils securityUtils = new SecurityUtils(this);
+            SecurityUtils securityUtils = container.getSecurityUtils();
             if (!preferenceManager.isKeysGenerated()) {
                 securityUtils.generateAndStoreKeys();
                 preferenceManager.setKeysGenerated(true);
@@ -37,10 +37,27 @@ public class AuthApiService extends GrpcClient {
      * @param context контекст додатка
      */
     public AuthApiService(Context context) {
-        super(context);
-        blockingStub = AuthServiceGrpc.newBlockingStub(getChannel())
-                .withDeadlineAfter(30, TimeUnit.SECONDS);
-        keyValueStorage = new KeyValueStorage(context);
+        this(context, new KeyValueStorage(context));
+    }
+
+    /**
+     * Конструктор зі спільним сховищем
+     * @param context контекст додатка
+     * @param keyValueStorage сховище авторизаційних даних
+     */
+    public AuthApiService(Context context, KeyValueStorage keyValueStorage) {
+        super(context, keyValueStorage);
+        blockingStub = AuthServiceGrpc.newBlockingStub(getChannel());
+        this.keyValueStorage = keyValueStorage;
+    }
+
+    /**
+     * Повертає стаб з дедлайном, що відраховується від моменту виклику.
+     * Дедлайн не можна задати один раз у конструкторі: екземпляр сервісу спільний
+     * і живе довше за 30 секунд
+     */
+    private AuthServiceGrpc.AuthServiceBlockingStub stub() {
+        return blockingStub.withDeadlineAfter(30, TimeUnit.SECONDS);
     }
 
     /**
@@ -69,7 +86,7 @@ public class AuthApiService extends GrpcClient {
                     .setDeviceName(android.os.Build.MODEL)
                     .build();
 
-            AuthResponse response = blockingStub.register(request);
+            AuthResponse response = stub().register(request);
             saveAuthData(response);
             return new AuthResult(true, null);
         } catch (StatusRuntimeException e) {
@@ -104,7 +121,7 @@ public class AuthApiService extends GrpcClient {
                     .setDeviceName(android.os.Build.MODEL)
                     .build();
 
-            AuthResponse response = blockingStub.login(request);
+            AuthResponse response = stub().login(request);
             saveAuthData(response);
             return new AuthResult(true, null);
         } catch (StatusRuntimeException e) {
@@ -133,7 +150,7 @@ public class AuthApiService extends GrpcClient {
                     .setRefreshToken(refreshToken)
                     .build();
 
-            AuthResponse response = blockingStub.refreshToken(request);
+            AuthResponse response = stub().refreshToken(request);
             saveAuthData(response);
             return new AuthResult(true, null);
         } catch (StatusRuntimeException e) {
@@ -164,7 +181,7 @@ public class AuthApiService extends GrpcClient {
                     .build();
 
             // Додаємо авторизаційні метадані до запиту
-            blockingStub.withCallCredentials(getCallCredentials()).logout(request);
+            stub().withCallCredentials(getCallCredentials()).logout(request);
 
             // Очищаємо локальні авторизаційні дані
             keyValueStorage.clearAuthData();
@@ -36,6 +36,7 @@ public class GroupServiceClient {
         // Ініціалізація gRPC каналу
         channel = ManagedChannelBuilder.forAddress(serverHost, serverPort)
                 .usePlaintext() // Для розробки, в продакшені використовуйте TLS
+                .intercept(MetricsClientInterceptor.getInstance())
                 .build();
 
         // Ініціалізація стабу
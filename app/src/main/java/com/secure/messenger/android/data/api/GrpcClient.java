@@ -4,9 +4,9 @@ import android.content.Context;
 import android.util.Log;
 
 import com.secure.messenger.android.data.local.KeyValueStorage;
+import com.secure.messenger.android.util.AppExecutors;
 
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 import io.grpc.CallCredentials;
@@ -25,9 +25,11 @@ public class GrpcClient {
     private static final String SERVER_HOST = "10.0.2.2"; // localhost для емулятора Android
     private static final int SERVER_PORT = 9090;
     private static final int TIMEOUT_SECONDS = 10;
+    private static final Metadata.Key<String> AUTHORIZATION_KEY =
+            Metadata.Key.of("Authorization", Metadata.ASCII_STRING_MARSHALLER);
 
     private ManagedChannel channel;
-    private final Executor executor = Executors.newSingleThreadExecutor();
+    private final Executor executor = AppExecutors.getInstance().io();
     private final KeyValueStorage keyValueStorage;
 
     /**
@@ -35,7 +37,16 @@ public class GrpcClient {
      * @param context контекст додатка для доступу до сховища авторизаційних даних
      */
     public GrpcClient(Context context) {
-        this.keyValueStorage = new KeyValueStorage(context);
+        this(context, new KeyValueStorage(context));
+    }
+
+    /**
+     * Конструктор зі спільним сховищем
+     * @param context контекст додатка
+     * @param keyValueStorage сховище авторизаційних даних
+     */
+    public GrpcClient(Context context, KeyValueStorage keyValueStorage) {
+        this.keyValueStorage = keyValueStorage;
         setupChannel();
     }
 
@@ -45,6 +56,7 @@ public class GrpcClient {
     private void setupChannel() {
         channel = ManagedChannelBuilder.forAddress(SERVER_HOST, SERVER_PORT)
                 .usePlaintext() // Для розробки. В продакшені використовувати TLS!
+                .intercept(MetricsClientInterceptor.getInstance())
                 .build();
     }
 
@@ -62,8 +74,7 @@ public class GrpcClient {
         }
 
         Metadata metadata = new Metadata();
-        Metadata.Key<String> authKey = Metadata.Key.of("Authorization", Metadata.ASCII_STRING_MARSHALLER);
-        metadata.put(authKey, "Bearer " + token);
+        metadata.put(AUTHORIZATION_KEY, "Bearer " + token);
 
         return MetadataUtils.newAttachHeadersInterceptor(metadata);
     }
@@ -77,21 +88,20 @@ public class GrpcClient {
         return new CallCredentials() {
             @Override
             public void applyRequestMetadata(RequestInfo requestInfo, Executor appExecutor, MetadataApplier applier) {
-                appExecutor.execute(() -> {
-                    try {
+                // Токен читається зі знімка SecureStore в пам'яті, тому
+                // метадані додаються одразу, без переходу в інший потік
+                try {
+                    String token = keyValueStorage.getAuthToken();
+                    if (token != null && !token.isEmpty()) {
                         Metadata headers = new Metadata();
-                        String token = keyValueStorage.getAuthToken();
-                        if (token != null && !token.isEmpty()) {
-                            Metadata.Key<String> authKey = Metadata.Key.of("Authorization", Metadata.ASCII_STRING_MARSHALLER);
-                            headers.put(authKey, "Bearer " + token);
-                            applier.apply(headers);
-                        } else {
-                            applier.fail(Status.fromThrowable(new IllegalStateException("Немає авторизаційного токена")));
-                        }
-                    } catch (Throwable e) {
-                        applier.fail(Status.fromThrowable(e));
+                        headers.put(AUTHORIZATION_KEY, "Bearer " + token);
+                        applier.apply(headers);
+                    } else {
+                        applier.fail(Status.fromThrowable(new IllegalStateException("Немає авторизаційного токена")));
                     }
-                });
+                } catch (Throwable e) {
+                    applier.fail(Status.fromThrowable(e));
+                }
             }
 
             @Override
@@ -40,9 +40,19 @@ public class MessageServiceClient {
      */
     public MessageServiceClient(String serverHost, int serverPort) {
         // Ініціалізація gRPC каналу
-        channel = ManagedChannelBuilder.forAddress(serverHost, serverPort)
+        this(ManagedChannelBuilder.forAddress(serverHost, serverPort)
                 .usePlaintext() // Для розробки, в продакшені використовуйте TLS
-                .build();
+                .intercept(MetricsClientInterceptor.getInstance())
+                .build());
+    }
+
+    /**
+     * Створює клієнт поверх готового каналу (наприклад, in-process каналу для бенчмарків)
+     *
+     * @param channel gRPC канал
+     */
+    public MessageServiceClient(ManagedChannel channel) {
+        this.channel = channel;
 
         // Ініціалізація стабів
         asyncStub = MessageServiceGrpc.newStub(channel);
@@ -0,0 +1,192 @@
+package com.secure.messenger.android.data.api;
+
+import com.google.protobuf.MessageLite;
+import com.secure.messenger.android.util.MetricsRegistry;
+import com.secure.messenger.proto.MessageRequest;
+import com.secure.messenger.proto.MessageResponse;
+import com.secure.messenger.proto.VoiceChunk;
+import com.secure.messenger.proto.VoiceRequest;
+import com.secure.messenger.proto.VoiceResponse;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+
+/**
+ * Перехоплювач gRPC-викликів, що записує метрики кожного методу в MetricsRegistry:
+ * час до першої відповіді, загальну тривалість, кількість повідомлень і байтів в обидва боки
+ * та коди статусу. Обсяг даних повідомлень додатково рахується за типом вмісту
+ * (TEXT, IMAGE, VOICE...). Встановлюється на канал кожного клієнта.
+ */
+public final class MetricsClientInterceptor implements ClientInterceptor {
+
+    // Заголовок кадру gRPC: прапорець стиснення (1 байт) та довжина повідомлення (4 байти)
+    private static final int FRAME_HEADER_BYTES = 5;
+
+    private static MetricsClientInterceptor instance;
+
+    private final MetricsRegistry registry;
+    private final ConcurrentHashMap<String, MethodMetrics> methods = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, MetricsRegistry.Counter> bytesByType = new ConcurrentHashMap<>();
+
+    private MetricsClientInterceptor(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Отримує екземпляр MetricsClientInterceptor
+     *
+     * @return екземпляр MetricsClientInterceptor
+     */
+    public static synchronized MetricsClientInterceptor getInstance() {
+        if (instance == null) {
+            instance = new MetricsClientInterceptor(MetricsRegistry.getInstance());
+        }
+        return instance;
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                               CallOptions callOptions, Channel next) {
+        MethodMetrics metrics = metricsFor(method);
+        return new ForwardingClientCall.SimpleForwardingClientCall<ReqT, RespT>(next.newCall(method, callOptions)) {
+            private long startNanos;
+
+            @Override
+            public void start(Listener<RespT> responseListener, Metadata headers) {
+                startNanos = System.nanoTime();
+                metrics.calls.increment();
+                super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<RespT>(responseListener) {
+                    // Колбеки слухача викликаються послідовно, тому синхронізація не потрібна
+                    private boolean firstByteRecorded;
+
+                    @Override
+                    public void onHeaders(Metadata headers) {
+                        recordFirstByte();
+                        super.onHeaders(headers);
+                    }
+
+                    @Override
+                    public void onMessage(RespT message) {
+                        recordFirstByte();
+                        metrics.messagesReceived.increment();
+                        metrics.bytesReceived.add(recordPayload(message));
+                        super.onMessage(message);
+                    }
+
+                    @Override
+                    public void onClose(Status status, Metadata trailers) {
+                        metrics.duration.recordSince(startNanos);
+                        metrics.status(status.getCode()).increment();
+                        super.onClose(status, trailers);
+                    }
+
+                    private void recordFirstByte() {
+                        if (!firstByteRecorded) {
+                            firstByteRecorded = true;
+                            metrics.timeToFirstByte.recordSince(startNanos);
+                        }
+                    }
+                }, headers);
+            }
+
+            @Override
+            public void sendMessage(ReqT message) {
+                metrics.messagesSent.increment();
+                metrics.bytesSent.add(recordPayload(message));
+                super.sendMessage(message);
+            }
+        };
+    }
+
+    private MethodMetrics metricsFor(MethodDescriptor<?, ?> method) {
+        String fullName = method.getFullMethodName();
+        MethodMetrics metrics = methods.get(fullName);
+        if (metrics == null) {
+            String bareName = method.getBareMethodName() != null ? method.getBareMethodName() : fullName;
+            metrics = methods.computeIfAbsent(fullName, key -> new MethodMetrics(registry, "grpc." + bareName));
+        }
+        return metrics;
+    }
+
+    /**
+     * Рахує розмір повідомлення на дроті та додає його до обсягу даних за типом вмісту
+     *
+     * @return розмір у байтах
+     */
+    private long recordPayload(Object message) {
+        if (!(message instanceof MessageLite)) {
+            return 0;
+        }
+        long bytes = ((MessageLite) message).getSerializedSize() + FRAME_HEADER_BYTES;
+
+        String type = contentTypeOf(message);
+        if (type != null) {
+            MetricsRegistry.Counter counter = bytesByType.get(type);
+            if (counter == null) {
+                counter = bytesByType.computeIfAbsent(type, key -> registry.counter("grpc.data." + key + ".bytes"));
+            }
+            counter.add(bytes);
+        }
+        return bytes;
+    }
+
+    private static String contentTypeOf(Object message) {
+        if (message instanceof MessageRequest) {
+            return ((MessageRequest) message).getContent().getType().name();
+        }
+        if (message instanceof MessageResponse) {
+            return ((MessageResponse) message).getContent().getType().name();
+        }
+        if (message instanceof VoiceRequest || message instanceof VoiceResponse || message instanceof VoiceChunk) {
+            return "VOICE";
+        }
+        return null;
+    }
+
+    /**
+     * Метрики одного методу
+     */
+    private static final class MethodMetrics {
+        final MetricsRegistry registry;
+        final String prefix;
+        final MetricsRegistry.Counter calls;
+        final MetricsRegistry.Histogram timeToFirstByte;
+        final MetricsRegistry.Histogram duration;
+        final MetricsRegistry.Counter messagesSent;
+        final MetricsRegistry.Counter messagesReceived;
+        final MetricsRegistry.Counter bytesSent;
+        final MetricsRegistry.Counter bytesReceived;
+        final MetricsRegistry.Counter[] statuses = new MetricsRegistry.Counter[Status.Code.values().length];
+
+        MethodMetrics(MetricsRegistry registry, String prefix) {
+            this.registry = registry;
+            this.prefix = prefix;
+            calls = registry.counter(prefix + ".calls");
+            timeToFirstByte = registry.histogram(prefix + ".ttfb");
+            duration = registry.histogram(prefix + ".duration");
+            messagesSent = registry.counter(prefix + ".messages.sent");
+            messagesReceived = registry.counter(prefix + ".messages.received");
+            bytesSent = registry.counter(prefix + ".bytes.sent");
+            bytesReceived = registry.counter(prefix + ".bytes.received");
+        }
+
+        MetricsRegistry.Counter status(Status.Code code) {
+            MetricsRegistry.Counter counter = statuses[code.ordinal()];
+            if (counter == null) {
+                // Гонка лише створить той самий лічильник повторно: реєстр повертає наявний
+                counter = registry.counter(prefix + ".status." + code.name());
+                statuses[code.ordinal()] = counter;
+            }
+            return counter;
+        }
+    }
+}
@@ -39,6 +39,7 @@ public class VoiceServiceClient {
         // Ініціалізація gRPC каналу
         channel = ManagedChannelBuilder.forAddress(serverHost, serverPort)
                 .usePlaintext() // Для розробки, в продакшені використовуйте TLS
+                .intercept(MetricsClientInterceptor.getInstance())
                 .build();
 
         // Ініціалізація стабів
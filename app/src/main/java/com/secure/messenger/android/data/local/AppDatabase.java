@@ -2,16 +2,23 @@ package com.secure.messenger.android.data.local;
 
 import android.content.Context;
 
+import androidx.annotation.NonNull;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
 import androidx.room.TypeConverters;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
 
 import com.secure.messenger.android.data.local.converter.DateConverter;
 import com.secure.messenger.android.data.local.dao.ChatGroupDao;
+import com.secure.messenger.android.data.local.dao.ConversationPreviewDao;
+import com.secure.messenger.android.data.local.dao.GroupMemberDao;
 import com.secure.messenger.android.data.local.dao.MessageDao;
 import com.secure.messenger.android.data.local.dao.UserDao;
 import com.secure.messenger.android.data.local.entity.ChatGroupEntity;
+import com.secure.messenger.android.data.local.entity.ConversationPreviewEntity;
+import com.secure.messenger.android.data.local.entity.GroupMemberEntity;
 import com.secure.messenger.android.data.local.entity.MessageEntity;
 import com.secure.messenger.android.data.local.entity.UserEntity;
 
@@ -22,9 +29,11 @@ import com.secure.messenger.android.data.local.entity.UserEntity;
         entities = {
                 UserEntity.class,
                 MessageEntity.class,
-                ChatGroupEntity.class
+                ChatGroupEntity.class,
+                GroupMemberEntity.class,
+                ConversationPreviewEntity.class
         },
-        version = 1,
+        version = 6,
         exportSchema = false
 )
 @TypeConverters({DateConverter.class})
@@ -33,6 +42,93 @@ public abstract class AppDatabase extends RoomDatabase {
     private static final String DATABASE_NAME = "secure_messenger.db";
     private static AppDatabase instance;
 
+    /**
+     * Міграція 1 -> 2: компактна схема таблиці повідомлень.
+     * Дати переводяться в мілісекунди (DateConverter вже зберігав їх саме так),
+     * тип повідомлення - у числовий код, а три булеві поля статусу - в бітову маску.
+     */
+    static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `messages_new` ("
+                    + "`id` TEXT NOT NULL, `senderId` TEXT, `recipientId` TEXT, `groupId` TEXT, "
+                    + "`typeCode` INTEGER NOT NULL, `encryptedContent` BLOB, "
+                    + "`createdAtMillis` INTEGER NOT NULL, `expiresAtMillis` INTEGER NOT NULL, "
+                    + "`statusFlags` INTEGER NOT NULL, PRIMARY KEY(`id`), "
+                    + "FOREIGN KEY(`senderId`) REFERENCES `users`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE , "
+                    + "FOREIGN KEY(`recipientId`) REFERENCES `users`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE , "
+                    + "FOREIGN KEY(`groupId`) REFERENCES `chat_groups`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+
+            db.execSQL("INSERT INTO `messages_new` (`id`, `senderId`, `recipientId`, `groupId`, `typeCode`, "
+                    + "`encryptedContent`, `createdAtMillis`, `expiresAtMillis`, `statusFlags`) "
+                    + "SELECT `id`, `senderId`, `recipientId`, `groupId`, "
+                    + "CASE UPPER(`messageType`) WHEN 'IMAGE' THEN 1 WHEN 'DOCUMENT' THEN 2 "
+                    + "WHEN 'VOICE' THEN 3 WHEN 'REPORT' THEN 4 ELSE 0 END, "
+                    + "`encryptedContent`, IFNULL(`createdAt`, 0), IFNULL(`expiresAt`, 0), "
+                    + "(CASE WHEN `isSent` THEN 1 ELSE 0 END) "
+                    + "| (CASE WHEN `isDelivered` THEN 2 ELSE 0 END) "
+                    + "| (CASE WHEN `isRead` THEN 4 ELSE 0 END) "
+                    + "FROM `messages`");
+
+            db.execSQL("DROP TABLE `messages`");
+            db.execSQL("ALTER TABLE `messages_new` RENAME TO `messages`");
+
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_messages_senderId` ON `messages` (`senderId`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_messages_recipientId` ON `messages` (`recipientId`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_messages_groupId` ON `messages` (`groupId`)");
+        }
+    };
+
+    /**
+     * Міграція 2 -> 3: індекс за часом закінчення терміну дії повідомлень
+     * для пакетного видалення прострочених повідомлень
+     */
+    static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_messages_expiresAtMillis` ON `messages` (`expiresAtMillis`)");
+        }
+    };
+
+    /**
+     * Міграція 3 -> 4: таблиця учасників груп
+     */
+    static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `group_members` ("
+                    + "`groupId` TEXT NOT NULL, `userId` TEXT NOT NULL, `username` TEXT, "
+                    + "`roleCode` INTEGER NOT NULL, `encryptedKey` BLOB, `joinedAtMillis` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`groupId`, `userId`), "
+                    + "FOREIGN KEY(`groupId`) REFERENCES `chat_groups`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_group_members_userId` ON `group_members` (`userId`)");
+        }
+    };
+
+    /**
+     * Міграція 4 -> 5: превью останніх повідомлень розмов
+     */
+    static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `conversation_previews` ("
+                    + "`conversationKey` TEXT NOT NULL, `messageId` TEXT NOT NULL, `typeCode` INTEGER NOT NULL, "
+                    + "`encryptedSnippet` BLOB, `createdAtMillis` INTEGER NOT NULL, PRIMARY KEY(`conversationKey`))");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_conversation_previews_messageId` "
+                    + "ON `conversation_previews` (`messageId`)");
+        }
+    };
+
+    /**
+     * Міграція 5 -> 6: мініатюри медіа-повідомлень
+     */
+    static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `messages` ADD COLUMN `placeholder` BLOB");
+        }
+    };
+
     /**
      * Отримує DAO для роботи з користувачами
      * @return UserDao
@@ -51,6 +147,18 @@ public abstract class AppDatabase extends RoomDatabase {
      */
     public abstract ChatGroupDao chatGroupDao();
 
+    /**
+     * Отримує DAO для роботи з учасниками груп
+     * @return GroupMemberDao
+     */
+    public abstract GroupMemberDao groupMemberDao();
+
+    /**
+     * Отримує DAO для роботи з превью розмов
+     * @return ConversationPreviewDao
+     */
+    public abstract ConversationPreviewDao conversationPreviewDao();
+
     /**
      * Отримує або створює екземпляр бази даних
      *
@@ -63,6 +171,7 @@ public abstract class AppDatabase extends RoomDatabase {
                             context.getApplicationContext(),
                             AppDatabase.class,
                             DATABASE_NAME)
+                    .addMigrations(MIGRATION_1_2, MIGRATION_2_3, MIGRATION_3_4, MIGRATION_4_5, MIGRATION_5_6)
                     .fallbackToDestructiveMigration()
                     .build();
         }
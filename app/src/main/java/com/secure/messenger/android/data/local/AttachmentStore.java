@@ -0,0 +1,171 @@
+package com.secure.messenger.android.data.local;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.secure.messenger.android.util.SecurityUtils;
+import com.secure.messenger.android.util.StorageUtils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+
+import javax.crypto.SecretKey;
+
+/**
+ * Локальні файли вкладень повідомлень (наприклад, мініатюри та тіла зображень).
+ * Файли зберігаються в директорії вкладень під ідентифікатором повідомлення і шифруються
+ * окремим локальним ключем із SecureStore; видаляються разом із повідомленням.
+ * Методи звертаються до диска, тому не викликати їх на головному потоці.
+ */
+public class AttachmentStore {
+    private static final String TAG = "AttachmentStore";
+
+    // Вміст рядка медіаповідомлення, тіло якого зберігається у файлі (не null, щоб повідомлення розшифровувалося)
+    public static final byte[] BODY_REFERENCE = new byte[0];
+
+    private static AttachmentStore instance;
+
+    private final Context context;
+    private final SecureStore secureStore;
+    private SecretKey attachmentKey;
+
+    private AttachmentStore(Context context) {
+        this.context = context;
+        this.secureStore = SecureStore.getInstance(context);
+    }
+
+    /**
+     * Отримує екземпляр AttachmentStore
+     *
+     * @param context контекст додатка
+     * @return екземпляр AttachmentStore
+     */
+    public static synchronized AttachmentStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new AttachmentStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Зберігає вкладення повідомлення
+     *
+     * @param messageId ідентифікатор повідомлення
+     * @param data вміст вкладення
+     * @return true, якщо вкладення збережено
+     */
+    public boolean write(String messageId, byte[] data) {
+        return writeFile(StorageUtils.getAttachmentFile(context, messageId), data);
+    }
+
+    /**
+     * Читає вкладення повідомлення
+     *
+     * @param messageId ідентифікатор повідомлення
+     * @return вміст вкладення або null, якщо його немає
+     */
+    public byte[] read(String messageId) {
+        return readFile(StorageUtils.getAttachmentFile(context, messageId));
+    }
+
+    /**
+     * Зберігає тіло медіаповідомлення (вміст, зашифрований для отримувача або групи),
+     * щоб великі дані не зберігалися в рядку бази даних. Рядок натомість містить BODY_REFERENCE
+     *
+     * @param messageId ідентифікатор повідомлення
+     * @param encryptedBody зашифрований вміст повідомлення
+     * @return true, якщо тіло збережено
+     */
+    public boolean writeBody(String messageId, byte[] encryptedBody) {
+        return writeFile(StorageUtils.getAttachmentBodyFile(context, messageId), encryptedBody);
+    }
+
+    /**
+     * @param messageId ідентифікатор повідомлення
+     * @return true, якщо тіло медіаповідомлення вже збережено
+     */
+    public boolean hasBody(String messageId) {
+        return StorageUtils.getAttachmentBodyFile(context, messageId).isFile();
+    }
+
+    /**
+     * Читає тіло медіаповідомлення
+     *
+     * @param messageId ідентифікатор повідомлення
+     * @return зашифрований вміст повідомлення або null, якщо його немає
+     */
+    public byte[] readBody(String messageId) {
+        return readFile(StorageUtils.getAttachmentBodyFile(context, messageId));
+    }
+
+    /**
+     * @param content вміст рядка повідомлення
+     * @return true, якщо тіло повідомлення зберігається у файлі (див. writeBody)
+     */
+    public static boolean isBodyReference(byte[] content) {
+        return content != null && content.length == 0;
+    }
+
+    /**
+     * Шифрує невеликі дані вкладення, що зберігаються в базі даних (наприклад, мініатюри)
+     *
+     * @param data дані
+     * @return зашифровані дані
+     * @throws Exception якщо дані неможливо зашифрувати
+     */
+    public byte[] encrypt(byte[] data) throws Exception {
+        return SecurityUtils.encryptWithAES(data, getAttachmentKey());
+    }
+
+    /**
+     * Розшифровує дані, зашифровані методом encrypt
+     *
+     * @param encrypted зашифровані дані
+     * @return розшифровані дані
+     * @throws Exception якщо дані неможливо розшифрувати
+     */
+    public byte[] decrypt(byte[] encrypted) throws Exception {
+        return SecurityUtils.decryptWithAES(encrypted, getAttachmentKey());
+    }
+
+    private boolean writeFile(File file, byte[] data) {
+        File dir = file.getParentFile();
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+            Log.e(TAG, "Cannot create attachments directory");
+            return false;
+        }
+
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(SecurityUtils.encryptWithAES(data, getAttachmentKey()));
+            return true;
+        } catch (Exception e) {
+            Log.e(TAG, "Error writing attachment: " + e.getMessage(), e);
+            file.delete();
+            return false;
+        }
+    }
+
+    private byte[] readFile(File file) {
+        if (!file.isFile()) {
+            return null;
+        }
+
+        try {
+            return SecurityUtils.decryptWithAES(Files.readAllBytes(file.toPath()), getAttachmentKey());
+        } catch (Exception e) {
+            Log.e(TAG, "Error reading attachment: " + e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Локальний ключ вкладень: створюється один раз і зберігається в SecureStore
+     */
+    private synchronized SecretKey getAttachmentKey() throws Exception {
+        if (attachmentKey == null) {
+            attachmentKey = secureStore.getOrCreateAesKey(SecureStore.KEY_ATTACHMENT_KEY);
+        }
+        return attachmentKey;
+    }
+}
@@ -0,0 +1,192 @@
+package com.secure.messenger.android.data.local;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.secure.messenger.android.util.SecurityUtils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import javax.crypto.SecretKey;
+
+/**
+ * Дисковий кеш зменшених аватарів у директорії кешу додатка.
+ * Файли шифруються окремим локальним ключем із SecureStore, а при перевищенні
+ * ліміту розміру видаляються файли, до яких найдовше не зверталися.
+ * Методи звертаються до диска, тому не викликати їх на головному потоці.
+ */
+public class AvatarDiskCache {
+    private static final String TAG = "AvatarDiskCache";
+    private static final String AVATARS_DIR = "avatars";
+    private static final long MAX_SIZE_BYTES = 20L * 1024 * 1024;
+
+    private static AvatarDiskCache instance;
+
+    private final File dir;
+    private final SecureStore secureStore;
+    private SecretKey cacheKey;
+
+    // Поточний розмір кешу (-1 - ще не підраховано)
+    private long size = -1;
+
+    private AvatarDiskCache(Context context) {
+        this.dir = new File(context.getCacheDir(), AVATARS_DIR);
+        this.secureStore = SecureStore.getInstance(context);
+    }
+
+    /**
+     * Отримує екземпляр AvatarDiskCache
+     *
+     * @param context контекст додатка
+     * @return екземпляр AvatarDiskCache
+     */
+    public static synchronized AvatarDiskCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new AvatarDiskCache(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Читає закодоване зображення з кешу
+     *
+     * @param key ключ аватара
+     * @return байти зображення або null, якщо аватара немає в кеші
+     */
+    public synchronized byte[] get(String key) {
+        File file = fileFor(key);
+        if (!file.isFile()) {
+            return null;
+        }
+
+        try {
+            byte[] data = SecurityUtils.decryptWithAES(Files.readAllBytes(file.toPath()), getCacheKey());
+            // Позначаємо файл як нещодавно використаний
+            file.setLastModified(System.currentTimeMillis());
+            return data;
+        } catch (Exception e) {
+            Log.e(TAG, "Error reading cached avatar: " + e.getMessage(), e);
+            removeFile(file);
+            return null;
+        }
+    }
+
+    /**
+     * Зберігає закодоване зображення в кеш
+     *
+     * @param key ключ аватара
+     * @param data байти зображення
+     */
+    public synchronized void put(String key, byte[] data) {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            Log.e(TAG, "Cannot create avatar cache directory");
+            return;
+        }
+
+        File file = fileFor(key);
+        try {
+            byte[] encrypted = SecurityUtils.encryptWithAES(data, getCacheKey());
+            currentSize();
+            removeFile(file);
+            try (FileOutputStream out = new FileOutputStream(file)) {
+                out.write(encrypted);
+            }
+            size += file.length();
+            trim();
+        } catch (Exception e) {
+            Log.e(TAG, "Error writing cached avatar: " + e.getMessage(), e);
+            removeFile(file);
+        }
+    }
+
+    /**
+     * Очищає кеш аватарів, наприклад при виході з облікового запису
+     */
+    public synchronized void clear() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        size = 0;
+    }
+
+    /**
+     * Видаляє файли, до яких найдовше не зверталися, поки кеш перевищує ліміт
+     */
+    private void trim() {
+        if (size <= MAX_SIZE_BYTES) {
+            return;
+        }
+
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (File file : files) {
+            if (size <= MAX_SIZE_BYTES) {
+                break;
+            }
+            removeFile(file);
+        }
+    }
+
+    private void removeFile(File file) {
+        long length = file.length();
+        if (file.delete() && size >= 0) {
+            size = Math.max(0, size - length);
+        }
+    }
+
+    private long currentSize() {
+        if (size < 0) {
+            size = 0;
+            File[] files = dir.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    size += file.length();
+                }
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Ім'я файлу - хеш ключа, щоб ідентифікатори та URL не потрапляли у файлову систему
+     */
+    private File fileFor(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                name.append(String.format("%02x", b));
+            }
+            return new File(dir, name.toString());
+        } catch (Exception e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Локальний ключ кешу: створюється один раз і зберігається в SecureStore
+     */
+    private SecretKey getCacheKey() throws Exception {
+        if (cacheKey == null) {
+            boolean existed = secureStore.contains(SecureStore.KEY_AVATAR_CACHE_KEY);
+            cacheKey = secureStore.getOrCreateAesKey(SecureStore.KEY_AVATAR_CACHE_KEY);
+            if (!existed) {
+                // Файли, зашифровані попереднім ключем, неможливо прочитати
+                clear();
+            }
+        }
+        return cacheKey;
+    }
+}
@@ -0,0 +1,259 @@
+package com.secure.messenger.android.data.local;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.secure.messenger.android.data.local.dao.ConversationPreviewDao;
+import com.secure.messenger.android.data.local.entity.ConversationPreviewEntity;
+import com.secure.messenger.android.data.local.entity.MessageEntity;
+import com.secure.messenger.android.util.AppExecutors;
+import com.secure.messenger.android.util.SecurityUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import javax.crypto.SecretKey;
+
+/**
+ * Кеш превью останніх повідомлень розмов для списку чатів.
+ * Превью створюється один раз, коли повідомлення зберігається або розшифровується,
+ * а короткий фрагмент тексту шифрується окремим локальним ключем із SecureStore.
+ * Список чатів завантажує всі превью одним запитом і не розшифровує повідомлення розмов.
+ * Методи звертаються до бази даних, тому не викликати їх на головному потоці;
+ * записи, крім onMessageDecrypted, виконуються в потоці запису бази даних.
+ */
+public class ConversationPreviewCache {
+    private static final String TAG = "ConversationPreviewCache";
+    private static final int SNIPPET_LENGTH = 80;
+
+    private static ConversationPreviewCache instance;
+
+    private final ConversationPreviewDao previewDao;
+    private final SecureStore secureStore;
+    private final Executor dbWriteExecutor;
+    private SecretKey previewKey;
+
+    // Повідомлення превью, для яких ще немає фрагмента тексту (null - ще не завантажено)
+    private Set<String> idsWithoutSnippet;
+
+    private ConversationPreviewCache(Context context) {
+        this.previewDao = AppDatabase.getInstance(context).conversationPreviewDao();
+        this.secureStore = SecureStore.getInstance(context);
+        this.dbWriteExecutor = AppExecutors.getInstance().dbWrite();
+    }
+
+    /**
+     * Отримує екземпляр ConversationPreviewCache
+     *
+     * @param context контекст додатка
+     * @return екземпляр ConversationPreviewCache
+     */
+    public static synchronized ConversationPreviewCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new ConversationPreviewCache(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Оновлює превью розмови збереженим повідомленням, якщо воно не старше поточного превью
+     *
+     * @param entity збережене повідомлення
+     * @param currentUserId ідентифікатор поточного користувача
+     * @param plaintext текст повідомлення або null, якщо він ще не відомий
+     * @return true, якщо повідомлення стало превью розмови
+     */
+    public synchronized boolean onMessageStored(MessageEntity entity, String currentUserId, String plaintext) {
+        String conversationKey = conversationKeyOf(entity, currentUserId);
+        if (conversationKey == null) {
+            return false;
+        }
+
+        try {
+            byte[] snippet = plaintext != null ? encryptSnippet(plaintext) : null;
+            ConversationPreviewEntity preview = new ConversationPreviewEntity(conversationKey, entity.getId(),
+                    entity.getTypeCode(), snippet, entity.getCreatedAtMillis());
+            if (!previewDao.upsertIfNewer(preview)) {
+                return false;
+            }
+            if (idsWithoutSnippet != null && snippet == null) {
+                idsWithoutSnippet.add(entity.getId());
+            }
+            return true;
+        } catch (Exception e) {
+            Log.e(TAG, "Error updating conversation preview: " + e.getMessage(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Додає фрагмент тексту до превью, якщо розшифроване повідомлення є превью розмови.
+     * Фрагмент шифрується в потоці, що викликав метод, а запис у базу даних
+     * ставиться в чергу запису. Для інших повідомлень до бази даних не звертається
+     *
+     * @param messageId ідентифікатор повідомлення
+     * @param plaintext розшифрований вміст
+     */
+    public void onMessageDecrypted(String messageId, byte[] plaintext) {
+        if (messageId == null || plaintext == null || !takeIdWithoutSnippet(messageId)) {
+            return;
+        }
+
+        try {
+            byte[] snippet = encryptSnippet(new String(plaintext, StandardCharsets.UTF_8));
+            dbWriteExecutor.execute(() -> {
+                try {
+                    previewDao.updateSnippet(messageId, snippet);
+                } catch (Exception e) {
+                    Log.e(TAG, "Error updating preview snippet: " + e.getMessage(), e);
+                }
+            });
+        } catch (Exception e) {
+            Log.e(TAG, "Error encrypting preview snippet: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Видаляє превью видалених повідомлень
+     *
+     * @param messageIds ідентифікатори видалених повідомлень
+     */
+    public synchronized void onMessagesRemoved(List<String> messageIds) {
+        for (int start = 0; start < messageIds.size(); start += ConversationPreviewDao.MAX_BATCH_SIZE) {
+            List<String> chunk = messageIds.subList(start,
+                    Math.min(start + ConversationPreviewDao.MAX_BATCH_SIZE, messageIds.size()));
+            previewDao.deleteByMessageIds(chunk);
+        }
+        if (idsWithoutSnippet != null) {
+            idsWithoutSnippet.removeAll(messageIds);
+        }
+    }
+
+    /**
+     * Завантажує всі превью одним запитом
+     *
+     * @return превью за ключем розмови (див. ConversationPreviewEntity.directKey та groupKey)
+     */
+    public Map<String, Preview> getAll() {
+        Map<String, Preview> result = new HashMap<>();
+        for (ConversationPreviewEntity entity : previewDao.getAll()) {
+            String snippet = null;
+            if (entity.getEncryptedSnippet() != null) {
+                try {
+                    snippet = new String(SecurityUtils.decryptWithAES(entity.getEncryptedSnippet(), getPreviewKey()),
+                            StandardCharsets.UTF_8);
+                } catch (Exception e) {
+                    Log.e(TAG, "Error decrypting preview snippet: " + e.getMessage(), e);
+                }
+            }
+            result.put(entity.getConversationKey(), new Preview(entity.getMessageId(), entity.getTypeCode(),
+                    snippet, entity.getCreatedAtMillis()));
+        }
+        return result;
+    }
+
+    /**
+     * Видаляє всі превью та ключ превью (наприклад, під час виходу користувача),
+     * щоб наступний обліковий запис на пристрої не міг прочитати старі фрагменти.
+     * Викликати лише в потоці запису бази даних
+     */
+    public synchronized void clear() {
+        previewDao.deleteAll();
+        idsWithoutSnippet = new HashSet<>();
+        previewKey = null;
+        secureStore.edit().remove(SecureStore.KEY_PREVIEW_KEY).apply();
+        secureStore.flush();
+    }
+
+    /**
+     * @return true, якщо повідомлення було превью без фрагмента тексту (і більше не очікує його)
+     */
+    private synchronized boolean takeIdWithoutSnippet(String messageId) {
+        return getIdsWithoutSnippet().remove(messageId);
+    }
+
+    private Set<String> getIdsWithoutSnippet() {
+        if (idsWithoutSnippet == null) {
+            idsWithoutSnippet = new HashSet<>(previewDao.getMessageIdsWithoutSnippet());
+        }
+        return idsWithoutSnippet;
+    }
+
+    /**
+     * Ключ розмови повідомлення: група або співрозмовник поточного користувача
+     */
+    private static String conversationKeyOf(MessageEntity entity, String currentUserId) {
+        if (entity.getGroupId() != null) {
+            return ConversationPreviewEntity.groupKey(entity.getGroupId());
+        }
+        if (currentUserId == null) {
+            return null;
+        }
+        String otherUserId = currentUserId.equals(entity.getSenderId()) ? entity.getRecipientId() : entity.getSenderId();
+        return otherUserId != null ? ConversationPreviewEntity.directKey(otherUserId) : null;
+    }
+
+    private byte[] encryptSnippet(String text) throws Exception {
+        String snippet = text.replace('\n', ' ');
+        if (snippet.length() > SNIPPET_LENGTH) {
+            int end = SNIPPET_LENGTH;
+            // Не розриваємо сурогатну пару
+            if (Character.isHighSurrogate(snippet.charAt(end - 1))) {
+                end--;
+            }
+            snippet = snippet.substring(0, end) + "…";
+        }
+        return SecurityUtils.encryptWithAES(snippet.getBytes(StandardCharsets.UTF_8), getPreviewKey());
+    }
+
+    /**
+     * Локальний ключ превью: створюється один раз і зберігається в SecureStore
+     */
+    private synchronized SecretKey getPreviewKey() throws Exception {
+        if (previewKey == null) {
+            previewKey = secureStore.getOrCreateAesKey(SecureStore.KEY_PREVIEW_KEY);
+        }
+        return previewKey;
+    }
+
+    /**
+     * Превью розмови
+     */
+    public static final class Preview {
+        private final String messageId;
+        private final int typeCode;
+        private final String snippet;
+        private final long createdAtMillis;
+
+        Preview(String messageId, int typeCode, String snippet, long createdAtMillis) {
+            this.messageId = messageId;
+            this.typeCode = typeCode;
+            this.snippet = snippet;
+            this.createdAtMillis = createdAtMillis;
+        }
+
+        public String getMessageId() {
+            return messageId;
+        }
+
+        public int getTypeCode() {
+            return typeCode;
+        }
+
+        /**
+         * @return розшифрований фрагмент тексту або null
+         */
+        public String getSnippet() {
+            return snippet;
+        }
+
+        public long getCreatedAtMillis() {
+            return createdAtMillis;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.secure.messenger.android.data.local;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.secure.messenger.android.data.local.dao.MessageDao;
+import com.secure.messenger.android.util.AppExecutors;
+import com.secure.messenger.android.util.StorageUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Фонове видалення прострочених повідомлень.
+ * Повідомлення видаляються невеликими порціями за індексом expiresAtMillis,
+ * щоб кожна транзакція була короткою і не блокувала запис у базу надовго.
+ * Разом з рядками видаляються і файли вкладень повідомлень.
+ */
+public class ExpiredMessageReaper {
+    private static final String TAG = "ExpiredMessageReaper";
+
+    private static final int BATCH_SIZE = 500;
+    private static final long INITIAL_DELAY_SECONDS = 10;
+    private static final long PERIOD_MINUTES = 15;
+
+    private static ExpiredMessageReaper instance;
+
+    private final Context context;
+    private final MessageDao messageDao;
+    private final ScheduledExecutorService scheduler;
+    private final Executor dbWriteExecutor;
+    private ScheduledFuture<?> scheduledTask;
+
+    private ExpiredMessageReaper(Context context) {
+        this.context = context.getApplicationContext();
+        this.messageDao = AppDatabase.getInstance(context).messageDao();
+        this.scheduler = AppExecutors.getInstance().scheduler();
+        this.dbWriteExecutor = AppExecutors.getInstance().dbWrite();
+    }
+
+    /**
+     * Отримує екземпляр ExpiredMessageReaper
+     *
+     * @param context контекст додатка
+     * @return екземпляр ExpiredMessageReaper
+     */
+    public static synchronized ExpiredMessageReaper getInstance(Context context) {
+        if (instance == null) {
+            instance = new ExpiredMessageReaper(context);
+        }
+        return instance;
+    }
+
+    /**
+     * Запускає періодичне видалення прострочених повідомлень
+     */
+    public synchronized void start() {
+        if (scheduledTask != null) {
+            return;
+        }
+        // Планувальник лише ставить завдання в чергу запису, видалення йде в потоці запису
+        scheduledTask = scheduler.scheduleWithFixedDelay(() -> dbWriteExecutor.execute(this::reapSafely),
+                INITIAL_DELAY_SECONDS, TimeUnit.MINUTES.toSeconds(PERIOD_MINUTES), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Зупиняє періодичне видалення
+     */
+    public synchronized void stop() {
+        if (scheduledTask != null) {
+            scheduledTask.cancel(false);
+            scheduledTask = null;
+        }
+    }
+
+    /**
+     * Запускає позачергове видалення у фоновому потоці
+     */
+    public void reapNow() {
+        dbWriteExecutor.execute(this::reapSafely);
+    }
+
+    private void reapSafely() {
+        try {
+            int deleted = reapBatch(System.currentTimeMillis());
+            if (deleted > 0) {
+                Log.i(TAG, "Deleted " + deleted + " expired messages");
+            }
+            if (deleted == BATCH_SIZE) {
+                // Наступна порція ставиться в кінець черги, щоб інші записи не чекали
+                dbWriteExecutor.execute(this::reapSafely);
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error deleting expired messages: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Видаляє одну порцію (не більше BATCH_SIZE) повідомлень, термін дії яких закінчився.
+     * Кожна порція - окрема коротка транзакція
+     *
+     * @param nowMillis поточний час у мілісекундах від епохи
+     * @return кількість видалених повідомлень
+     */
+    int reapBatch(long nowMillis) {
+        List<String> ids = messageDao.getExpiredMessageIds(nowMillis, BATCH_SIZE);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        int deleted = messageDao.deleteByIds(ids);
+        StorageUtils.deleteAttachments(context, ids);
+        ConversationPreviewCache.getInstance(context).onMessagesRemoved(ids);
+
+        List<MessageChange> changes = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            changes.add(MessageChange.removed(id));
+        }
+        MessageChangeNotifier.getInstance().notifyChanges(changes);
+        return deleted;
+    }
+}
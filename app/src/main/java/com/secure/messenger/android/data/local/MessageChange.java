@@ -0,0 +1,64 @@
+package com.secure.messenger.android.data.local;
+
+import com.secure.messenger.android.data.local.entity.MessageEntity;
+
+/**
+ * Окрема зміна в таблиці повідомлень: вставка, оновлення або видалення одного повідомлення
+ */
+public final class MessageChange {
+
+    /**
+     * Тип зміни
+     */
+    public enum Type {
+        INSERTED,
+        UPDATED,
+        REMOVED
+    }
+
+    private final Type type;
+    private final String messageId;
+    private final MessageEntity entity;
+
+    private MessageChange(Type type, String messageId, MessageEntity entity) {
+        this.type = type;
+        this.messageId = messageId;
+        this.entity = entity;
+    }
+
+    /**
+     * @param entity вставлене повідомлення
+     */
+    public static MessageChange inserted(MessageEntity entity) {
+        return new MessageChange(Type.INSERTED, entity.getId(), entity);
+    }
+
+    /**
+     * @param entity повідомлення після оновлення
+     */
+    public static MessageChange updated(MessageEntity entity) {
+        return new MessageChange(Type.UPDATED, entity.getId(), entity);
+    }
+
+    /**
+     * @param messageId ідентифікатор видаленого повідомлення
+     */
+    public static MessageChange removed(String messageId) {
+        return new MessageChange(Type.REMOVED, messageId, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getMessageId() {
+        return messageId;
+    }
+
+    /**
+     * @return стан повідомлення після зміни або null для видалення
+     */
+    public MessageEntity getEntity() {
+        return entity;
+    }
+}
@@ -0,0 +1,75 @@
+package com.secure.messenger.android.data.local;
+
+import android.util.Log;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Розсилає окремі зміни повідомлень (вставка, оновлення, видалення) підписникам.
+ * Усі записи в таблицю повідомлень публікують тут свої зміни, тому підписнику
+ * не потрібно перечитувати весь чат після кожного запису.
+ */
+public class MessageChangeNotifier {
+    private static final String TAG = "MessageChangeNotifier";
+
+    private static MessageChangeNotifier instance;
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Отримує екземпляр MessageChangeNotifier
+     *
+     * @return екземпляр MessageChangeNotifier
+     */
+    public static synchronized MessageChangeNotifier getInstance() {
+        if (instance == null) {
+            instance = new MessageChangeNotifier();
+        }
+        return instance;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Публікує одну зміну
+     *
+     * @param change зміна
+     */
+    public void notifyChange(MessageChange change) {
+        notifyChanges(Collections.singletonList(change));
+    }
+
+    /**
+     * Публікує зміни в порядку їх запису. Викликати після успішного запису в базу даних
+     *
+     * @param changes зміни
+     */
+    public void notifyChanges(List<MessageChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        for (Listener listener : listeners) {
+            try {
+                listener.onMessagesChanged(changes);
+            } catch (Exception e) {
+                Log.e(TAG, "Error dispatching message changes: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Підписник на зміни повідомлень. Викликається в потоці, що виконав запис,
+     * тому обробка має лише передати зміни у власний executor
+     */
+    public interface Listener {
+        void onMessagesChanged(List<MessageChange> changes);
+    }
+}
@@ -1,73 +1,19 @@
 package com.secure.messenger.android.data.local;
 
 import android.content.Context;
-import android.content.SharedPreferences;
-import android.security.keystore.KeyGenParameterSpec;
-import android.security.keystore.KeyProperties;
-import android.util.Log;
 
 import androidx.annotation.NonNull;
-import androidx.security.crypto.EncryptedSharedPreferences;
-import androidx.security.crypto.MasterKey;
-
-import java.io.IOException;
-import java.security.GeneralSecurityException;
 
 /**
- * Менеджер для безпечного зберігання налаштувань додатку
+ * Менеджер для безпечного зберігання налаштувань додатку.
+ * Дані зберігаються в спільному SecureStore і читаються з пам'яті
  */
 public class PreferenceManager {
-    private static final String TAG = "PreferenceManager";
-
-    private static final String PREFERENCES_FILE = "secure_messenger_prefs";
-    private static final String ENCRYPTED_PREFERENCES_FILE = "secure_messenger_encrypted_prefs";
-
-    // Ключі для звичайних налаштувань
-    private static final String KEY_NOTIFICATION_ENABLED = "notification_enabled";
-    private static final String KEY_THEME_MODE = "theme_mode";
-    private static final String KEY_LANGUAGE = "language";
-
-    // Ключі для шифрованих налаштувань
-    private static final String KEY_AUTH_TOKEN = "auth_token";
-    private static final String KEY_REFRESH_TOKEN = "refresh_token";
-    private static final String KEY_USER_ID = "user_id";
-    private static final String KEY_USERNAME = "username";
-    private static final String KEY_PHONE_NUMBER = "phone_number";
-    private static final String KEY_KEYS_GENERATED = "keys_generated";
 
-    private final SharedPreferences preferences;
-    private final SharedPreferences encryptedPreferences;
+    private final SecureStore store;
 
     public PreferenceManager(Context context) {
-        preferences = context.getSharedPreferences(PREFERENCES_FILE, Context.MODE_PRIVATE);
-
-        // Ініціалізація шифрованих налаштувань
-        SharedPreferences encryptedPrefs = null;
-        try {
-            MasterKey masterKey = new MasterKey.Builder(context)
-                    .setKeyScheme(MasterKey.KeyScheme.AES256_GCM)
-                    .setKeyGenParameterSpec(new KeyGenParameterSpec.Builder(
-                            MasterKey.DEFAULT_MASTER_KEY_ALIAS,
-                            KeyProperties.PURPOSE_ENCRYPT | KeyProperties.PURPOSE_DECRYPT)
-                            .setBlockModes(KeyProperties.BLOCK_MODE_GCM)
-                            .setEncryptionPaddings(KeyProperties.ENCRYPTION_PADDING_NONE)
-                            .setKeySize(256)
-                            .build())
-                    .build();
-
-            encryptedPrefs = EncryptedSharedPreferences.create(
-                    context,
-                    ENCRYPTED_PREFERENCES_FILE,
-                    masterKey,
-                    EncryptedSharedPreferences.PrefKeyEncryptionScheme.AES256_SIV,
-                    EncryptedSharedPreferences.PrefValueEncryptionScheme.AES256_GCM
-            );
-        } catch (GeneralSecurityException | IOException e) {
-            Log.e(TAG, "Error initializing encrypted preferences: " + e.getMessage(), e);
-        }
-
-        encryptedPreferences = encryptedPrefs != null ? encryptedPrefs :
-                context.getSharedPreferences(ENCRYPTED_PREFERENCES_FILE, Context.MODE_PRIVATE);
+        this.store = SecureStore.getInstance(context);
     }
 
     /**
@@ -75,7 +21,7 @@ public class PreferenceManager {
      * @param token токен для зберігання
      */
     public void saveAuthToken(@NonNull String token) {
-        encryptedPreferences.edit().putString(KEY_AUTH_TOKEN, token).apply();
+        store.edit().putString(SecureStore.KEY_AUTH_TOKEN, token).apply();
     }
 
     /**
@@ -83,7 +29,7 @@ public class PreferenceManager {
      * @return токен або null, якщо не знайдено
      */
     public String getAuthToken() {
-        return encryptedPreferences.getString(KEY_AUTH_TOKEN, null);
+        return store.getString(SecureStore.KEY_AUTH_TOKEN, null);
     }
 
     /**
@@ -91,7 +37,7 @@ public class PreferenceManager {
      * @param token токен для зберігання
      */
     public void saveRefreshToken(@NonNull String token) {
-        encryptedPreferences.edit().putString(KEY_REFRESH_TOKEN, token).apply();
+        store.edit().putString(SecureStore.KEY_REFRESH_TOKEN, token).apply();
     }
 
     /**
@@ -99,19 +45,14 @@ public class PreferenceManager {
      * @return токен або null, якщо не знайдено
      */
     public String getRefreshToken() {
-        return encryptedPreferences.getString(KEY_REFRESH_TOKEN, null);
+        return store.getString(SecureStore.KEY_REFRESH_TOKEN, null);
     }
 
     /**
      * Очищає всі дані автентифікації
      */
     public void clearAuthData() {
-        encryptedPreferences.edit()
-                .remove(KEY_AUTH_TOKEN)
-                .remove(KEY_REFRESH_TOKEN)
-                .remove(KEY_USER_ID)
-                .remove(KEY_USERNAME)
-                .apply();
+        store.clearAuthData();
     }
 
     /**
@@ -119,7 +60,7 @@ public class PreferenceManager {
      * @param userId ID користувача
      */
     public void saveUserId(@NonNull String userId) {
-        encryptedPreferences.edit().putString(KEY_USER_ID, userId).apply();
+        store.edit().putString(SecureStore.KEY_USER_ID, userId).apply();
     }
 
     /**
@@ -127,7 +68,7 @@ public class PreferenceManager {
      * @return ID користувача або null, якщо не знайдено
      */
     public String getUserId() {
-        return encryptedPreferences.getString(KEY_USER_ID, null);
+        return store.getString(SecureStore.KEY_USER_ID, null);
     }
 
     /**
@@ -135,7 +76,7 @@ public class PreferenceManager {
      * @param username ім'я користувача
      */
     public void saveUsername(@NonNull String username) {
-        encryptedPreferences.edit().putString(KEY_USERNAME, username).apply();
+        store.edit().putString(SecureStore.KEY_USERNAME, username).apply();
     }
 
     /**
@@ -143,7 +84,7 @@ public class PreferenceManager {
      * @return ім'я користувача або null, якщо не знайдено
      */
     public String getUsername() {
-        return encryptedPreferences.getString(KEY_USERNAME, null);
+        return store.getString(SecureStore.KEY_USERNAME, null);
     }
 
     /**
@@ -151,7 +92,7 @@ public class PreferenceManager {
      * @param phoneNumber номер телефону
      */
     public void savePhoneNumber(@NonNull String phoneNumber) {
-        encryptedPreferences.edit().putString(KEY_PHONE_NUMBER, phoneNumber).apply();
+        store.edit().putString(SecureStore.KEY_USER_PHONE, phoneNumber).apply();
     }
 
     /**
@@ -159,7 +100,7 @@ public class PreferenceManager {
      * @return номер телефону або null, якщо не знайдено
      */
     public String getPhoneNumber() {
-        return encryptedPreferences.getString(KEY_PHONE_NUMBER, null);
+        return store.getString(SecureStore.KEY_USER_PHONE, null);
     }
 
     /**
@@ -167,7 +108,7 @@ public class PreferenceManager {
      * @param generated true, якщо ключі згенеровані
      */
     public void setKeysGenerated(boolean generated) {
-        encryptedPreferences.edit().putBoolean(KEY_KEYS_GENERATED, generated).apply();
+        store.edit().putBoolean(SecureStore.KEY_KEYS_GENERATED, generated).apply();
     }
 
     /**
@@ -175,7 +116,7 @@ public class PreferenceManager {
      * @return true, якщо ключі згенеровані
      */
     public boolean isKeysGenerated() {
-        return encryptedPreferences.getBoolean(KEY_KEYS_GENERATED, false);
+        return store.getBoolean(SecureStore.KEY_KEYS_GENERATED, false);
     }
 
     /**
@@ -183,7 +124,7 @@ public class PreferenceManager {
      * @param enabled true, якщо повідомлення включені
      */
     public void setNotificationsEnabled(boolean enabled) {
-        preferences.edit().putBoolean(KEY_NOTIFICATION_ENABLED, enabled).apply();
+        store.edit().putBoolean(SecureStore.KEY_NOTIFICATION_ENABLED, enabled).apply();
     }
 
     /**
@@ -191,7 +132,7 @@ public class PreferenceManager {
      * @return true, якщо повідомлення включені
      */
     public boolean areNotificationsEnabled() {
-        return preferences.getBoolean(KEY_NOTIFICATION_ENABLED, true);
+        return store.getBoolean(SecureStore.KEY_NOTIFICATION_ENABLED, true);
     }
 
     /**
@@ -199,7 +140,7 @@ public class PreferenceManager {
      * @param themeMode режим теми (0 - світла, 1 - темна, 2 - системна)
      */
     public void setThemeMode(int themeMode) {
-        preferences.edit().putInt(KEY_THEME_MODE, themeMode).apply();
+        store.edit().putInt(SecureStore.KEY_THEME_MODE, themeMode).apply();
     }
 
     /**
@@ -207,7 +148,7 @@ public class PreferenceManager {
      * @return режим теми (0 - світла, 1 - темна, 2 - системна)
      */
     public int getThemeMode() {
-        return preferences.getInt(KEY_THEME_MODE, 2); // За замовчуванням - системна
+        return store.getInt(SecureStore.KEY_THEME_MODE, 2); // За замовчуванням - системна
     }
 
     /**
@@ -215,7 +156,7 @@ public class PreferenceManager {
      * @param languageCode код мови
      */
     public void setLanguage(@NonNull String languageCode) {
-        preferences.edit().putString(KEY_LANGUAGE, languageCode).apply();
+        store.edit().putString(SecureStore.KEY_LANGUAGE, languageCode).apply();
     }
 
     /**
@@ -223,7 +164,7 @@ public class PreferenceManager {
      * @return код мови або null, якщо використовується системна мова
      */
     public String getLanguage() {
-        return preferences.getString(KEY_LANGUAGE, null);
+        return store.getString(SecureStore.KEY_LANGUAGE, null);
     }
 
     /**
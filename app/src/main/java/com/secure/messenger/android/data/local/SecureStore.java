@@ -0,0 +1,419 @@
+package com.secure.messenger.android.data.local;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.security.keystore.KeyGenParameterSpec;
+import android.security.keystore.KeyProperties;
+import android.util.Log;
+
+import androidx.annotation.VisibleForTesting;
+import androidx.security.crypto.EncryptedSharedPreferences;
+import androidx.security.crypto.MasterKey;
+
+import com.secure.messenger.android.util.AppExecutors;
+import com.secure.messenger.android.util.SecurityUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.SecretKey;
+
+/**
+ * Єдине захищене сховище налаштувань і авторизаційних даних.
+ * Файл EncryptedSharedPreferences розшифровується один раз при створенні в незмінний
+ * знімок у пам'яті, і всі читання обслуговуються з нього без повторного розшифрування.
+ * Зміни одразу застосовуються до знімка (копіюванням), а на диск записуються
+ * пакетами у фоні (write-behind).
+ * При першому запуску переносить дані зі старих файлів TokenManager, KeyValueStorage
+ * та PreferenceManager.
+ */
+public class SecureStore {
+    private static final String TAG = "SecureStore";
+
+    private static final String STORE_FILE_NAME = "secure_messenger_store";
+    private static final long FLUSH_DELAY_MS = 200;
+
+    // Ключі авторизаційних даних
+    static final String KEY_AUTH_TOKEN = "auth_token";
+    static final String KEY_REFRESH_TOKEN = "refresh_token";
+    static final String KEY_TOKEN_EXPIRATION = "token_expiration";
+    static final String KEY_USER_ID = "user_id";
+    static final String KEY_USERNAME = "username";
+    static final String KEY_USER_PHONE = "user_phone";
+    static final String KEY_USER_PUBLIC_KEY = "user_public_key";
+    static final String KEY_USER_STATUS = "user_status";
+
+    // Ключі налаштувань пристрою та додатку
+    static final String KEY_DEVICE_ID = "device_id";
+    static final String KEY_KEYS_GENERATED = "keys_generated";
+    static final String KEY_NOTIFICATION_ENABLED = "notification_enabled";
+    static final String KEY_THEME_MODE = "theme_mode";
+    static final String KEY_LANGUAGE = "language";
+    static final String KEY_PREVIEW_KEY = "preview_key";
+    static final String KEY_AVATAR_CACHE_KEY = "avatar_cache_key";
+    static final String KEY_ATTACHMENT_KEY = "attachment_key";
+
+    private static final String KEY_SCHEMA_VERSION = "schema_version";
+    private static final int SCHEMA_VERSION = 1;
+
+    private static final String[] AUTH_KEYS = {
+            KEY_AUTH_TOKEN, KEY_REFRESH_TOKEN, KEY_TOKEN_EXPIRATION, KEY_USER_ID,
+            KEY_USERNAME, KEY_USER_PHONE, KEY_USER_PUBLIC_KEY, KEY_USER_STATUS
+    };
+
+    // Старі файли налаштувань, які переносяться в сховище
+    private static final String LEGACY_TOKENS_FILE = "secure_messenger_tokens";
+    private static final String LEGACY_TOKENS_KEY_ALIAS = "_encrypted_token_store_key_";
+    private static final String LEGACY_ENCRYPTED_FILE = "secure_messenger_encrypted_prefs";
+    private static final String LEGACY_PREFERENCES_FILE = "secure_messenger_prefs";
+    private static final String LEGACY_DEVICE_FILE = "secure_messenger_device_prefs";
+
+    // Позначка видаленого ключа серед незаписаних змін
+    private static final Object REMOVED = new Object();
+
+    private static SecureStore instance;
+
+    private final SharedPreferences prefs;
+    private final ScheduledExecutorService scheduler;
+    private final Executor flushExecutor;
+    private final Object flushLock = new Object();
+    private final Object keyLock = new Object();
+
+    private volatile Map<String, Object> snapshot;
+    private Map<String, Object> pendingChanges = new LinkedHashMap<>();
+    private boolean flushScheduled;
+
+    private SecureStore(Context context) {
+        this(createEncryptedPrefs(context, STORE_FILE_NAME, MasterKey.DEFAULT_MASTER_KEY_ALIAS));
+        if (getInt(KEY_SCHEMA_VERSION, 0) < SCHEMA_VERSION) {
+            migrateLegacyPreferences(context);
+        }
+    }
+
+    /**
+     * Конструктор поверх готових SharedPreferences (для тестування)
+     *
+     * @param prefs сховище, у яке записуються зміни
+     */
+    SecureStore(SharedPreferences prefs) {
+        this.prefs = prefs;
+        this.scheduler = AppExecutors.getInstance().scheduler();
+        this.flushExecutor = AppExecutors.getInstance().io();
+        this.snapshot = Collections.unmodifiableMap(new HashMap<>(prefs.getAll()));
+    }
+
+    /**
+     * Отримує екземпляр SecureStore
+     *
+     * @param context контекст додатка
+     * @return екземпляр SecureStore
+     */
+    public static synchronized SecureStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new SecureStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Встановлює спільний екземпляр поверх звичайних SharedPreferences.
+     * Для тестів і бенчмарків на JVM, де немає Android KeyStore; викликати до першого getInstance.
+     * Тести з інших пакетів звертаються через TestSecureStore з тестового коду
+     *
+     * @param prefs сховище, у яке записуються зміни
+     */
+    @VisibleForTesting
+    static synchronized void initForTesting(SharedPreferences prefs) {
+        instance = new SecureStore(prefs);
+    }
+
+    // Читання зі знімка в пам'яті
+
+    public String getString(String key, String defaultValue) {
+        Object value = snapshot.get(key);
+        return value instanceof String ? (String) value : defaultValue;
+    }
+
+    public long getLong(String key, long defaultValue) {
+        Object value = snapshot.get(key);
+        return value instanceof Long ? (Long) value : defaultValue;
+    }
+
+    public int getInt(String key, int defaultValue) {
+        Object value = snapshot.get(key);
+        return value instanceof Integer ? (Integer) value : defaultValue;
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        Object value = snapshot.get(key);
+        return value instanceof Boolean ? (Boolean) value : defaultValue;
+    }
+
+    public boolean contains(String key) {
+        return snapshot.containsKey(key);
+    }
+
+    /**
+     * Починає групу змін, які застосовуються до знімка разом
+     *
+     * @return редактор змін
+     */
+    public Editor edit() {
+        return new Editor();
+    }
+
+    /**
+     * Повертає локальний AES-ключ, збережений під вказаним ключем сховища, або створює новий.
+     * Новий ключ одразу записується на диск: без нього наявні зашифровані дані неможливо прочитати
+     *
+     * @param key ключ сховища
+     * @return AES-ключ
+     * @throws Exception якщо ключ неможливо створити
+     */
+    public SecretKey getOrCreateAesKey(String key) throws Exception {
+        synchronized (keyLock) {
+            String encoded = getString(key, null);
+            if (encoded != null) {
+                return SecurityUtils.createAESKeyFromBytes(SecurityUtils.decodeBase64(encoded));
+            }
+
+            SecretKey created = SecurityUtils.generateAESKey();
+            edit().putString(key, SecurityUtils.encodeBase64(created.getEncoded())).apply();
+            flush();
+            return created;
+        }
+    }
+
+    /**
+     * Видаляє всі авторизаційні дані користувача
+     */
+    public void clearAuthData() {
+        Editor editor = edit();
+        for (String key : AUTH_KEYS) {
+            editor.remove(key);
+        }
+        editor.apply();
+    }
+
+    /**
+     * Негайно записує всі незаписані зміни на диск у поточному потоці
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            Map<String, Object> changes;
+            synchronized (this) {
+                if (pendingChanges.isEmpty()) {
+                    return;
+                }
+                changes = pendingChanges;
+                pendingChanges = new LinkedHashMap<>();
+            }
+
+            SharedPreferences.Editor editor = prefs.edit();
+            for (Map.Entry<String, Object> entry : changes.entrySet()) {
+                putValue(editor, entry.getKey(), entry.getValue());
+            }
+            if (!editor.commit()) {
+                Log.e(TAG, "Failed to write " + changes.size() + " changes to secure store");
+            }
+        }
+    }
+
+    /**
+     * Застосовує зміни до знімка і планує їх запис на диск
+     */
+    private synchronized void applyChanges(Map<String, Object> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        Map<String, Object> updated = new HashMap<>(snapshot);
+        for (Map.Entry<String, Object> entry : changes.entrySet()) {
+            if (entry.getValue() == REMOVED) {
+                updated.remove(entry.getKey());
+            } else {
+                updated.put(entry.getKey(), entry.getValue());
+            }
+        }
+        snapshot = Collections.unmodifiableMap(updated);
+        pendingChanges.putAll(changes);
+
+        if (!flushScheduled) {
+            flushScheduled = true;
+            // Зміни, що надійшли протягом затримки, записуються одним пакетом
+            scheduler.schedule(() -> flushExecutor.execute(this::flushScheduled),
+                    FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flushScheduled() {
+        synchronized (this) {
+            flushScheduled = false;
+        }
+        try {
+            flush();
+        } catch (Exception e) {
+            Log.e(TAG, "Error writing secure store: " + e.getMessage(), e);
+        }
+    }
+
+    private static void putValue(SharedPreferences.Editor editor, String key, Object value) {
+        if (value == REMOVED || value == null) {
+            editor.remove(key);
+        } else if (value instanceof String) {
+            editor.putString(key, (String) value);
+        } else if (value instanceof Long) {
+            editor.putLong(key, (Long) value);
+        } else if (value instanceof Integer) {
+            editor.putInt(key, (Integer) value);
+        } else if (value instanceof Boolean) {
+            editor.putBoolean(key, (Boolean) value);
+        } else {
+            Log.w(TAG, "Unsupported value type for key " + key);
+        }
+    }
+
+    /**
+     * Переносить дані зі старих файлів налаштувань і видаляє ці файли.
+     * Старі зашифровані файли відкриваються лише якщо вони існують
+     */
+    private void migrateLegacyPreferences(Context context) {
+        Editor editor = edit();
+
+        Map<String, Object> encrypted = readLegacyEncrypted(context, LEGACY_ENCRYPTED_FILE,
+                MasterKey.DEFAULT_MASTER_KEY_ALIAS);
+        // PreferenceManager зберігав номер телефону під іншим ключем
+        Object phone = encrypted.remove("phone_number");
+        if (phone != null && !encrypted.containsKey(KEY_USER_PHONE)) {
+            encrypted.put(KEY_USER_PHONE, phone);
+        }
+        copyAll(encrypted, editor);
+
+        // TokenManager використовував власні назви ключів токена і терміну дії
+        Map<String, Object> tokens = readLegacyEncrypted(context, LEGACY_TOKENS_FILE, LEGACY_TOKENS_KEY_ALIAS);
+        renameKey(tokens, "access_token", KEY_AUTH_TOKEN);
+        renameKey(tokens, "expires_at", KEY_TOKEN_EXPIRATION);
+        copyAll(tokens, editor);
+
+        copyAll(context.getSharedPreferences(LEGACY_PREFERENCES_FILE, Context.MODE_PRIVATE).getAll(), editor);
+        copyAll(context.getSharedPreferences(LEGACY_DEVICE_FILE, Context.MODE_PRIVATE).getAll(), editor);
+
+        editor.putInt(KEY_SCHEMA_VERSION, SCHEMA_VERSION).apply();
+        flush();
+
+        context.deleteSharedPreferences(LEGACY_ENCRYPTED_FILE);
+        context.deleteSharedPreferences(LEGACY_TOKENS_FILE);
+        context.deleteSharedPreferences(LEGACY_PREFERENCES_FILE);
+        context.deleteSharedPreferences(LEGACY_DEVICE_FILE);
+        Log.i(TAG, "Legacy preferences migrated to secure store");
+    }
+
+    private static Map<String, Object> readLegacyEncrypted(Context context, String fileName, String keyAlias) {
+        File file = new File(context.getApplicationInfo().dataDir, "shared_prefs/" + fileName + ".xml");
+        if (!file.exists()) {
+            return new HashMap<>();
+        }
+        try {
+            return new HashMap<>(openEncryptedPrefs(context, fileName, keyAlias).getAll());
+        } catch (Exception e) {
+            // Дані, які не вдається розшифрувати, не переносяться
+            Log.e(TAG, "Error reading legacy preferences " + fileName + ": " + e.getMessage(), e);
+            return new HashMap<>();
+        }
+    }
+
+    private static void renameKey(Map<String, Object> values, String oldKey, String newKey) {
+        Object value = values.remove(oldKey);
+        if (value != null) {
+            values.put(newKey, value);
+        }
+    }
+
+    private static void copyAll(Map<String, ?> values, Editor editor) {
+        for (Map.Entry<String, ?> entry : values.entrySet()) {
+            editor.put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Створює EncryptedSharedPreferences, а при помилці - звичайні SharedPreferences
+     */
+    private static SharedPreferences createEncryptedPrefs(Context context, String fileName, String keyAlias) {
+        try {
+            return openEncryptedPrefs(context, fileName, keyAlias);
+        } catch (GeneralSecurityException | IOException e) {
+            Log.e(TAG, "Error initializing EncryptedSharedPreferences: " + e.getMessage(), e);
+            // Якщо не вдалося створити захищене сховище, повертаємося до звичайного
+            return context.getSharedPreferences(fileName, Context.MODE_PRIVATE);
+        }
+    }
+
+    private static SharedPreferences openEncryptedPrefs(Context context, String fileName, String keyAlias)
+            throws GeneralSecurityException, IOException {
+        MasterKey masterKey = new MasterKey.Builder(context, keyAlias)
+                .setKeyGenParameterSpec(new KeyGenParameterSpec.Builder(
+                        keyAlias,
+                        KeyProperties.PURPOSE_ENCRYPT | KeyProperties.PURPOSE_DECRYPT)
+                        .setBlockModes(KeyProperties.BLOCK_MODE_GCM)
+                        .setEncryptionPaddings(KeyProperties.ENCRYPTION_PADDING_NONE)
+                        .setKeySize(256)
+                        .build())
+                .build();
+
+        return EncryptedSharedPreferences.create(
+                context,
+                fileName,
+                masterKey,
+                EncryptedSharedPreferences.PrefKeyEncryptionScheme.AES256_SIV,
+                EncryptedSharedPreferences.PrefValueEncryptionScheme.AES256_GCM
+        );
+    }
+
+    /**
+     * Група змін сховища. Зміни стають видимими для читання після apply()
+     */
+    public class Editor {
+        private final Map<String, Object> changes = new LinkedHashMap<>();
+
+        public Editor putString(String key, String value) {
+            return put(key, value);
+        }
+
+        public Editor putLong(String key, long value) {
+            return put(key, value);
+        }
+
+        public Editor putInt(String key, int value) {
+            return put(key, value);
+        }
+
+        public Editor putBoolean(String key, boolean value) {
+            return put(key, value);
+        }
+
+        public Editor remove(String key) {
+            changes.put(key, REMOVED);
+            return this;
+        }
+
+        private Editor put(String key, Object value) {
+            changes.put(key, value != null ? value : REMOVED);
+            return this;
+        }
+
+        /**
+         * Застосовує зміни до знімка; запис на диск виконується у фоні
+         */
+        public void apply() {
+            applyChanges(changes);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.secure.messenger.android.data.local;
+
+import android.content.Context;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+import androidx.room.InvalidationTracker;
+
+import com.secure.messenger.android.data.local.dao.UserDao;
+import com.secure.messenger.android.data.local.entity.UserEntity;
+import com.secure.messenger.android.data.model.ModelConverter;
+import com.secure.messenger.android.data.model.User;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Обмежений кеш користувачів у пам'яті.
+ * Відсутні в кеші користувачі завантажуються пакетом одним запитом WHERE id IN (...).
+ * Кеш очищується при будь-якій зміні таблиці users (через InvalidationTracker Room),
+ * тому не повертає застарілих імен чи ключів.
+ */
+public class UserCache {
+    private static final int MAX_USERS = 500;
+
+    private static UserCache instance;
+
+    private final UserDao userDao;
+    private final LruCache<String, User> cache = new LruCache<>(MAX_USERS);
+
+    // Збільшується при кожній зміні таблиці; завантаження, що почалося до зміни,
+    // не кладе свій результат у кеш; змінюється і перевіряється під монітором кешу
+    private volatile long generation;
+
+    private UserCache(Context context) {
+        AppDatabase database = AppDatabase.getInstance(context);
+        this.userDao = database.userDao();
+        database.getInvalidationTracker().addObserver(new InvalidationTracker.Observer("users") {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                invalidateAll();
+            }
+        });
+    }
+
+    /**
+     * Отримує екземпляр UserCache
+     *
+     * @param context контекст додатка
+     * @return екземпляр UserCache
+     */
+    public static synchronized UserCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new UserCache(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Повертає користувача лише з пам'яті, без звернення до бази даних
+     *
+     * @param userId ідентифікатор користувача
+     * @return користувач або null, якщо його немає в кеші
+     */
+    public User getCached(String userId) {
+        return userId != null ? cache.get(userId) : null;
+    }
+
+    /**
+     * Отримує користувача з кешу або з бази даних.
+     * Не викликати на головному потоці
+     *
+     * @param userId ідентифікатор користувача
+     * @return користувач або null, якщо його немає
+     */
+    public User get(String userId) {
+        User cached = getCached(userId);
+        if (cached != null || userId == null) {
+            return cached;
+        }
+        return getAll(Collections.singletonList(userId)).get(userId);
+    }
+
+    /**
+     * Отримує користувачів за ідентифікаторами. Усі відсутні в кеші користувачі
+     * завантажуються одним запитом (або кількома, якщо їх більше MAX_BATCH_SIZE).
+     * Не викликати на головному потоці
+     *
+     * @param userIds ідентифікатори користувачів (можуть повторюватися)
+     * @return знайдені користувачі за ідентифікатором
+     */
+    public Map<String, User> getAll(Collection<String> userIds) {
+        Map<String, User> result = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String userId : new LinkedHashSet<>(userIds)) {
+            if (userId == null) {
+                continue;
+            }
+            User cached = cache.get(userId);
+            if (cached != null) {
+                result.put(userId, cached);
+            } else {
+                missing.add(userId);
+            }
+        }
+
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        long loadGeneration = generation;
+        for (int start = 0; start < missing.size(); start += UserDao.MAX_BATCH_SIZE) {
+            List<String> chunk = missing.subList(start, Math.min(start + UserDao.MAX_BATCH_SIZE, missing.size()));
+            for (UserEntity entity : userDao.getUsersByIds(chunk)) {
+                result.put(entity.getId(), ModelConverter.convertToUser(entity));
+            }
+        }
+
+        // Перевірка покоління і запис атомарні відносно invalidateAll
+        synchronized (this) {
+            if (loadGeneration == generation) {
+                for (String userId : missing) {
+                    User user = result.get(userId);
+                    if (user != null) {
+                        cache.put(userId, user);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Очищує кеш
+     */
+    public synchronized void invalidateAll() {
+        generation++;
+        cache.evictAll();
+    }
+}
@@ -0,0 +1,75 @@
+package com.secure.messenger.android.data.local.converter;
+
+import com.secure.messenger.android.data.model.Message;
+import com.secure.messenger.proto.MessageType;
+
+/**
+ * Конвертер між числовим кодом типу повідомлення, який зберігається в базі даних,
+ * та типами повідомлень gRPC і моделі.
+ * Коди збігаються з номерами enum MessageType у messenger.proto, тому жодне
+ * перетворення не створює нових об'єктів.
+ */
+public final class MessageTypeConverter {
+
+    public static final int TEXT = 0;
+    public static final int IMAGE = 1;
+    public static final int DOCUMENT = 2;
+    public static final int VOICE = 3;
+    public static final int REPORT = 4;
+
+    private static final Message.MessageType[] MODEL_TYPES = Message.MessageType.values();
+
+    private MessageTypeConverter() {
+    }
+
+    /**
+     * Перетворює тип gRPC у код для збереження
+     *
+     * @param type тип повідомлення gRPC
+     * @return код типу
+     */
+    public static int fromProto(MessageType type) {
+        if (type == null || type == MessageType.UNRECOGNIZED) {
+            return TEXT;
+        }
+        return type.getNumber();
+    }
+
+    /**
+     * Перетворює код типу у тип gRPC
+     *
+     * @param code код типу
+     * @return тип повідомлення gRPC (TEXT для невідомих кодів)
+     */
+    public static MessageType toProto(int code) {
+        MessageType type = MessageType.forNumber(code);
+        return type != null ? type : MessageType.TEXT;
+    }
+
+    /**
+     * Перетворює код типу у тип моделі презентаційного шару
+     *
+     * @param code код типу
+     * @return тип повідомлення моделі (TEXT для невідомих кодів)
+     */
+    public static Message.MessageType toModel(int code) {
+        return code >= 0 && code < MODEL_TYPES.length ? MODEL_TYPES[code] : Message.MessageType.TEXT;
+    }
+
+    /**
+     * Перетворює назву типу (наприклад "TEXT") у код без зміни регістру рядка
+     *
+     * @param name назва типу
+     * @return код типу (TEXT для невідомих назв)
+     */
+    public static int fromName(String name) {
+        if (name == null) {
+            return TEXT;
+        }
+        if ("IMAGE".equalsIgnoreCase(name)) return IMAGE;
+        if ("DOCUMENT".equalsIgnoreCase(name)) return DOCUMENT;
+        if ("VOICE".equalsIgnoreCase(name)) return VOICE;
+        if ("REPORT".equalsIgnoreCase(name)) return REPORT;
+        return TEXT;
+    }
+}
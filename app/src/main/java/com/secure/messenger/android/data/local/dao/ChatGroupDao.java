@@ -1,10 +1,12 @@
 package com.secure.messenger.android.data.local.dao;
 
+import androidx.lifecycle.LiveData;
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
 
 import com.secure.messenger.android.data.local.entity.ChatGroupEntity;
@@ -19,20 +21,55 @@ import java.util.List;
 public interface ChatGroupDao {
 
     /**
-     * Вставка нової групи в базу даних
+     * Вставка нової групи, якщо її ще немає в базі даних
      *
      * @param group група
+     * @return rowId вставленого рядка або -1, якщо група вже існує
      */
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
-    void insert(ChatGroupEntity group);
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long insertIfAbsent(ChatGroupEntity group);
 
     /**
-     * Вставка списку груп
+     * Оновлення групи на місці лише тоді, коли змінилися дані з сервера.
+     * Час створення не змінюється, а null для ключа групи не затирає збережений ключ.
+     *
+     * @return кількість оновлених рядків (0, якщо змін немає)
+     */
+    @Query("UPDATE chat_groups SET name = :name, description = :description, adminId = :adminId, " +
+            "reportEnabled = :reportEnabled, memberCount = :memberCount, " +
+            "encryptedGroupKey = COALESCE(:encryptedGroupKey, encryptedGroupKey), updatedAt = :updatedAt " +
+            "WHERE id = :id AND (name IS NOT :name OR description IS NOT :description " +
+            "OR adminId IS NOT :adminId OR reportEnabled != :reportEnabled OR memberCount != :memberCount " +
+            "OR (:encryptedGroupKey IS NOT NULL AND encryptedGroupKey IS NOT :encryptedGroupKey))")
+    int updateIfChanged(String id, String name, String description, String adminId, boolean reportEnabled,
+                        int memberCount, byte[] encryptedGroupKey, LocalDateTime updatedAt);
+
+    /**
+     * Вставка або оновлення групи без видалення рядка.
+     * На відміну від REPLACE, не викликає каскадного видалення повідомлень групи
+     *
+     * @param group група
+     */
+    @Transaction
+    default void upsert(ChatGroupEntity group) {
+        if (insertIfAbsent(group) == -1) {
+            updateIfChanged(group.getId(), group.getName(), group.getDescription(), group.getAdminId(),
+                    group.isReportEnabled(), group.getMemberCount(), group.getEncryptedGroupKey(),
+                    group.getUpdatedAt());
+        }
+    }
+
+    /**
+     * Вставка або оновлення списку груп в одній транзакції
      *
      * @param groups список груп
      */
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
-    void insertAll(List<ChatGroupEntity> groups);
+    @Transaction
+    default void upsertAll(List<ChatGroupEntity> groups) {
+        for (ChatGroupEntity group : groups) {
+            upsert(group);
+        }
+    }
 
     /**
      * Оновлення групи
@@ -152,4 +189,23 @@ public interface ChatGroupDao {
      */
     @Query("UPDATE chat_groups SET encryptedGroupKey = :encryptedKey WHERE id = :groupId")
     void updateEncryptedGroupKey(String groupId, byte[] encryptedKey);
-}
\ No newline at end of file
+
+    // Спостережувані запити (оновлюються автоматично через InvalidationTracker Room)
+
+    /**
+     * Спостереження за групою за ID
+     *
+     * @param id ідентифікатор групи
+     * @return LiveData з групою
+     */
+    @Query("SELECT * FROM chat_groups WHERE id = :id")
+    LiveData<ChatGroupEntity> observeGroupById(String id);
+
+    /**
+     * Спостереження за всіма групами
+     *
+     * @return LiveData зі списком груп
+     */
+    @Query("SELECT * FROM chat_groups")
+    LiveData<List<ChatGroupEntity>> observeAllGroups();
+}
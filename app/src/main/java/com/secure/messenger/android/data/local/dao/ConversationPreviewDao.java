@@ -0,0 +1,82 @@
+package com.secure.messenger.android.data.local.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import com.secure.messenger.android.data.local.entity.ConversationPreviewEntity;
+
+import java.util.List;
+
+/**
+ * DAO для роботи з превью розмов в базі даних
+ */
+@Dao
+public interface ConversationPreviewDao {
+
+    /**
+     * Максимальна кількість параметрів в одному запиті
+     * (SQLite обмежує кількість змінних 999)
+     */
+    int MAX_BATCH_SIZE = 900;
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsert(ConversationPreviewEntity preview);
+
+    @Query("SELECT * FROM conversation_previews WHERE conversationKey = :conversationKey")
+    ConversationPreviewEntity getPreview(String conversationKey);
+
+    /**
+     * Отримання всіх превью одним запитом
+     *
+     * @return список превью
+     */
+    @Query("SELECT * FROM conversation_previews")
+    List<ConversationPreviewEntity> getAll();
+
+    /**
+     * Ідентифікатори повідомлень превью, текст яких ще не розшифровано
+     *
+     * @return список ідентифікаторів повідомлень
+     */
+    @Query("SELECT messageId FROM conversation_previews WHERE encryptedSnippet IS NULL")
+    List<String> getMessageIdsWithoutSnippet();
+
+    /**
+     * Встановлення фрагмента тексту превью після розшифрування повідомлення
+     *
+     * @return кількість оновлених рядків
+     */
+    @Query("UPDATE conversation_previews SET encryptedSnippet = :encryptedSnippet WHERE messageId = :messageId")
+    int updateSnippet(String messageId, byte[] encryptedSnippet);
+
+    /**
+     * Видалення превью видалених повідомлень
+     *
+     * @param messageIds ідентифікатори повідомлень (не більше MAX_BATCH_SIZE)
+     * @return кількість видалених рядків
+     */
+    @Query("DELETE FROM conversation_previews WHERE messageId IN (:messageIds)")
+    int deleteByMessageIds(List<String> messageIds);
+
+    @Query("DELETE FROM conversation_previews")
+    void deleteAll();
+
+    /**
+     * Зберігає превью, якщо повідомлення не старше вже збереженого для розмови
+     *
+     * @param preview превью
+     * @return true, якщо превью збережено
+     */
+    @Transaction
+    default boolean upsertIfNewer(ConversationPreviewEntity preview) {
+        ConversationPreviewEntity existing = getPreview(preview.getConversationKey());
+        if (existing != null && existing.getCreatedAtMillis() > preview.getCreatedAtMillis()) {
+            return false;
+        }
+        upsert(preview);
+        return true;
+    }
+}
@@ -0,0 +1,181 @@
+package com.secure.messenger.android.data.local.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import com.secure.messenger.android.data.local.entity.GroupMemberEntity;
+
+import java.util.List;
+
+/**
+ * DAO для роботи з учасниками груп в базі даних
+ */
+@Dao
+public interface GroupMemberDao {
+
+    /**
+     * Максимальна кількість параметрів в одному запиті
+     * (SQLite обмежує кількість змінних 999)
+     */
+    int MAX_BATCH_SIZE = 900;
+
+    /**
+     * Вставка учасників, яких ще немає в групі
+     *
+     * @param members список учасників
+     * @return rowId для кожного учасника (-1 для вже існуючих)
+     */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long[] insertAllIfAbsent(List<GroupMemberEntity> members);
+
+    /**
+     * Оновлення даних існуючого учасника на місці, якщо вони змінилися
+     *
+     * @return кількість оновлених рядків
+     */
+    @Query("UPDATE group_members SET username = :username, roleCode = :roleCode, " +
+            "encryptedKey = COALESCE(:encryptedKey, encryptedKey) " +
+            "WHERE groupId = :groupId AND userId = :userId AND (username IS NOT :username " +
+            "OR roleCode != :roleCode OR (:encryptedKey IS NOT NULL AND encryptedKey IS NOT :encryptedKey))")
+    int updateIfChanged(String groupId, String userId, String username, int roleCode, byte[] encryptedKey);
+
+    /**
+     * Видалення учасників групи за списком ідентифікаторів користувачів
+     *
+     * @param groupId ідентифікатор групи
+     * @param userIds ідентифікатори користувачів (не більше MAX_BATCH_SIZE)
+     * @return кількість видалених рядків
+     */
+    @Query("DELETE FROM group_members WHERE groupId = :groupId AND userId IN (:userIds)")
+    int deleteMembers(String groupId, List<String> userIds);
+
+    /**
+     * Видалення всіх учасників групи
+     *
+     * @param groupId ідентифікатор групи
+     */
+    @Query("DELETE FROM group_members WHERE groupId = :groupId")
+    void deleteAllMembers(String groupId);
+
+    /**
+     * Отримання сторінки учасників групи за ключем (keyset pagination).
+     * Для першої сторінки передається порожній рядок, для наступних - userId
+     * останнього учасника попередньої сторінки. Запит іде первинним ключем
+     * (groupId, userId), тому не залежить від розміру групи.
+     *
+     * @param groupId ідентифікатор групи
+     * @param afterUserId userId, після якого починається сторінка
+     * @param limit розмір сторінки
+     * @return список учасників
+     */
+    @Query("SELECT * FROM group_members WHERE groupId = :groupId AND userId > :afterUserId " +
+            "ORDER BY userId LIMIT :limit")
+    List<GroupMemberEntity> getMembersPage(String groupId, String afterUserId, int limit);
+
+    /**
+     * Отримання учасника групи
+     *
+     * @param groupId ідентифікатор групи
+     * @param userId ідентифікатор користувача
+     * @return учасник або null
+     */
+    @Query("SELECT * FROM group_members WHERE groupId = :groupId AND userId = :userId")
+    GroupMemberEntity getMember(String groupId, String userId);
+
+    /**
+     * Перевірка членства користувача в групі (пошук за первинним ключем)
+     *
+     * @param groupId ідентифікатор групи
+     * @param userId ідентифікатор користувача
+     * @return true, якщо користувач є учасником групи
+     */
+    @Query("SELECT EXISTS(SELECT 1 FROM group_members WHERE groupId = :groupId AND userId = :userId)")
+    boolean isMember(String groupId, String userId);
+
+    /**
+     * Отримання кількості учасників групи, збережених локально
+     *
+     * @param groupId ідентифікатор групи
+     * @return кількість учасників
+     */
+    @Query("SELECT COUNT(*) FROM group_members WHERE groupId = :groupId")
+    int countMembers(String groupId);
+
+    /**
+     * Отримання ідентифікаторів груп, в яких бере участь користувач
+     *
+     * @param userId ідентифікатор користувача
+     * @return список ідентифікаторів груп
+     */
+    @Query("SELECT groupId FROM group_members WHERE userId = :userId")
+    List<String> getGroupIdsForUser(String userId);
+
+    /**
+     * Зміна кількості учасників групи на вказану різницю
+     *
+     * @param groupId ідентифікатор групи
+     * @param delta різниця кількості учасників
+     */
+    @Query("UPDATE chat_groups SET memberCount = MAX(0, memberCount + :delta) WHERE id = :groupId")
+    void adjustMemberCount(String groupId, int delta);
+
+    /**
+     * Додає відомих учасників, яких ще немає в групах, в одній транзакції.
+     * Кількість учасників груп не змінюється: вона надходить із сервера разом із групою
+     *
+     * @param members учасники (можуть належати різним групам)
+     */
+    @Transaction
+    default void insertKnownMembers(List<GroupMemberEntity> members) {
+        for (int start = 0; start < members.size(); start += MAX_BATCH_SIZE) {
+            insertAllIfAbsent(members.subList(start, Math.min(start + MAX_BATCH_SIZE, members.size())));
+        }
+    }
+
+    /**
+     * Застосування змін складу групи, отриманих з сервера, в одній транзакції.
+     * Зміни обробляються порціями, щоб не перевищити ліміт параметрів SQLite;
+     * існуючі учасники оновлюються на місці, а кількість учасників групи
+     * змінюється на фактичну різницю без повного перерахунку.
+     *
+     * @param groupId ідентифікатор групи
+     * @param addedOrUpdated нові або змінені учасники
+     * @param removedUserIds ідентифікатори користувачів, які покинули групу
+     */
+    @Transaction
+    default void applyMembershipDiff(String groupId, List<GroupMemberEntity> addedOrUpdated,
+                                     List<String> removedUserIds) {
+        int delta = 0;
+
+        if (addedOrUpdated != null) {
+            for (int start = 0; start < addedOrUpdated.size(); start += MAX_BATCH_SIZE) {
+                List<GroupMemberEntity> chunk = addedOrUpdated.subList(start,
+                        Math.min(start + MAX_BATCH_SIZE, addedOrUpdated.size()));
+                long[] rowIds = insertAllIfAbsent(chunk);
+                for (int i = 0; i < rowIds.length; i++) {
+                    if (rowIds[i] != -1) {
+                        delta++;
+                    } else {
+                        GroupMemberEntity member = chunk.get(i);
+                        updateIfChanged(groupId, member.getUserId(), member.getUsername(),
+                                member.getRoleCode(), member.getEncryptedKey());
+                    }
+                }
+            }
+        }
+
+        if (removedUserIds != null) {
+            for (int start = 0; start < removedUserIds.size(); start += MAX_BATCH_SIZE) {
+                delta -= deleteMembers(groupId, removedUserIds.subList(start,
+                        Math.min(start + MAX_BATCH_SIZE, removedUserIds.size())));
+            }
+        }
+
+        if (delta != 0) {
+            adjustMemberCount(groupId, delta);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.secure.messenger.android.data.local.dao;
 
+import androidx.lifecycle.LiveData;
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
@@ -9,7 +10,6 @@ import androidx.room.Update;
 
 import com.secure.messenger.android.data.local.entity.MessageEntity;
 
-import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -19,21 +19,23 @@ import java.util.List;
 public interface MessageDao {
 
     /**
-     * Вставка нового повідомлення в базу даних
+     * Вставка нового повідомлення, якщо його ще немає в базі даних.
+     * Вже збережене повідомлення не перезаписується (зокрема його статус прочитання)
      *
      * @param message повідомлення
-     * @return ID вставленого повідомлення
+     * @return rowId вставленого рядка або -1, якщо повідомлення вже існує
      */
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
-    long insert(MessageEntity message);
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long insertIfAbsent(MessageEntity message);
 
     /**
-     * Вставка списку повідомлень
+     * Вставка списку повідомлень з пропуском вже збережених
      *
      * @param messages список повідомлень
+     * @return rowId для кожного повідомлення (-1 для пропущених)
      */
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
-    void insertAll(List<MessageEntity> messages);
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long[] insertAllIfAbsent(List<MessageEntity> messages);
 
     /**
      * Оновлення повідомлення
@@ -66,7 +68,7 @@ public interface MessageDao {
      * @param userId ідентифікатор користувача
      * @return список повідомлень
      */
-    @Query("SELECT * FROM messages WHERE senderId = :userId OR recipientId = :userId ORDER BY createdAt DESC")
+    @Query("SELECT * FROM messages WHERE senderId = :userId OR recipientId = :userId ORDER BY createdAtMillis DESC")
     List<MessageEntity> getUserMessages(String userId);
 
     /**
@@ -76,7 +78,7 @@ public interface MessageDao {
      * @param userId2 ідентифікатор другого користувача
      * @return список повідомлень
      */
-    @Query("SELECT * FROM messages WHERE (senderId = :userId1 AND recipientId = :userId2) OR (senderId = :userId2 AND recipientId = :userId1) ORDER BY createdAt ASC")
+    @Query("SELECT * FROM messages WHERE (senderId = :userId1 AND recipientId = :userId2) OR (senderId = :userId2 AND recipientId = :userId1) ORDER BY createdAtMillis ASC")
     List<MessageEntity> getMessagesBetweenUsers(String userId1, String userId2);
 
     /**
@@ -85,7 +87,7 @@ public interface MessageDao {
      * @param groupId ідентифікатор групи
      * @return список повідомлень
      */
-    @Query("SELECT * FROM messages WHERE groupId = :groupId ORDER BY createdAt ASC")
+    @Query("SELECT * FROM messages WHERE groupId = :groupId ORDER BY createdAtMillis ASC")
     List<MessageEntity> getGroupMessages(String groupId);
 
     /**
@@ -94,42 +96,62 @@ public interface MessageDao {
      * @param userId ідентифікатор користувача
      * @return список непрочитаних повідомлень
      */
-    @Query("SELECT * FROM messages WHERE recipientId = :userId AND isRead = 0 ORDER BY createdAt DESC")
+    @Query("SELECT * FROM messages WHERE recipientId = :userId AND (statusFlags & 4) = 0 ORDER BY createdAtMillis DESC")
     List<MessageEntity> getUnreadMessagesForUser(String userId);
 
     /**
      * Отримання повідомлень за типом
      *
-     * @param messageType тип повідомлення
+     * @param typeCode код типу повідомлення (див. MessageTypeConverter)
      * @return список повідомлень вказаного типу
      */
-    @Query("SELECT * FROM messages WHERE messageType = :messageType ORDER BY createdAt DESC")
-    List<MessageEntity> getMessagesByType(String messageType);
+    @Query("SELECT * FROM messages WHERE typeCode = :typeCode ORDER BY createdAtMillis DESC")
+    List<MessageEntity> getMessagesByType(int typeCode);
 
     /**
      * Отримання повідомлень, які створені після вказаного часу
      *
-     * @param time час
+     * @param timeMillis час у мілісекундах від епохи
      * @return список повідомлень
      */
-    @Query("SELECT * FROM messages WHERE createdAt >= :time ORDER BY createdAt ASC")
-    List<MessageEntity> getMessagesCreatedAfter(LocalDateTime time);
+    @Query("SELECT * FROM messages WHERE createdAtMillis >= :timeMillis ORDER BY createdAtMillis ASC")
+    List<MessageEntity> getMessagesCreatedAfter(long timeMillis);
 
     /**
      * Отримання повідомлень, термін дії яких закінчується
      *
-     * @param time поточний час
+     * @param nowMillis поточний час у мілісекундах від епохи
      * @return список повідомлень, термін дії яких закінчується
      */
-    @Query("SELECT * FROM messages WHERE expiresAt <= :time")
-    List<MessageEntity> getExpiredMessages(LocalDateTime time);
+    @Query("SELECT * FROM messages WHERE expiresAtMillis <= :nowMillis")
+    List<MessageEntity> getExpiredMessages(long nowMillis);
+
+    /**
+     * Отримання ідентифікаторів прострочених повідомлень обмеженою порцією.
+     * Використовує індекс за expiresAtMillis, тому не сканує всю таблицю
+     *
+     * @param nowMillis поточний час у мілісекундах від епохи
+     * @param limit максимальна кількість ідентифікаторів
+     * @return список ідентифікаторів
+     */
+    @Query("SELECT id FROM messages WHERE expiresAtMillis <= :nowMillis ORDER BY expiresAtMillis LIMIT :limit")
+    List<String> getExpiredMessageIds(long nowMillis, int limit);
+
+    /**
+     * Видалення повідомлень за списком ідентифікаторів
+     *
+     * @param ids ідентифікатори повідомлень
+     * @return кількість видалених рядків
+     */
+    @Query("DELETE FROM messages WHERE id IN (:ids)")
+    int deleteByIds(List<String> ids);
 
     /**
      * Позначення повідомлення як прочитане
      *
      * @param messageId ідентифікатор повідомлення
      */
-    @Query("UPDATE messages SET isRead = 1 WHERE id = :messageId")
+    @Query("UPDATE messages SET statusFlags = statusFlags | 4 WHERE id = :messageId")
     void markAsRead(String messageId);
 
     /**
@@ -137,7 +159,7 @@ public interface MessageDao {
      *
      * @param messageId ідентифікатор повідомлення
      */
-    @Query("UPDATE messages SET isSent = 1 WHERE id = :messageId")
+    @Query("UPDATE messages SET statusFlags = statusFlags | 1 WHERE id = :messageId")
     void markAsSent(String messageId);
 
     /**
@@ -145,7 +167,7 @@ public interface MessageDao {
      *
      * @param messageId ідентифікатор повідомлення
      */
-    @Query("UPDATE messages SET isDelivered = 1 WHERE id = :messageId")
+    @Query("UPDATE messages SET statusFlags = statusFlags | 2 WHERE id = :messageId")
     void markAsDelivered(String messageId);
 
     /**
@@ -178,7 +200,7 @@ public interface MessageDao {
      * @param userId2 ідентифікатор другого користувача
      * @return останнє повідомлення в чаті
      */
-    @Query("SELECT * FROM messages WHERE (senderId = :userId1 AND recipientId = :userId2) OR (senderId = :userId2 AND recipientId = :userId1) ORDER BY createdAt DESC LIMIT 1")
+    @Query("SELECT * FROM messages WHERE (senderId = :userId1 AND recipientId = :userId2) OR (senderId = :userId2 AND recipientId = :userId1) ORDER BY createdAtMillis DESC LIMIT 1")
     MessageEntity getLastMessageBetweenUsers(String userId1, String userId2);
 
     /**
@@ -187,6 +209,55 @@ public interface MessageDao {
      * @param groupId ідентифікатор групи
      * @return останнє повідомлення в групі
      */
-    @Query("SELECT * FROM messages WHERE groupId = :groupId ORDER BY createdAt DESC LIMIT 1")
+    @Query("SELECT * FROM messages WHERE groupId = :groupId ORDER BY createdAtMillis DESC LIMIT 1")
     MessageEntity getLastGroupMessage(String groupId);
-}
\ No newline at end of file
+
+    // Спостережувані запити (оновлюються автоматично через InvalidationTracker Room)
+
+    /**
+     * Спостереження за повідомленнями між двома користувачами
+     *
+     * @param userId1 ідентифікатор першого користувача
+     * @param userId2 ідентифікатор другого користувача
+     * @return LiveData зі списком повідомлень
+     */
+    @Query("SELECT * FROM messages WHERE (senderId = :userId1 AND recipientId = :userId2) OR (senderId = :userId2 AND recipientId = :userId1) ORDER BY createdAtMillis ASC")
+    LiveData<List<MessageEntity>> observeMessagesBetweenUsers(String userId1, String userId2);
+
+    /**
+     * Спостереження за повідомленнями групи
+     *
+     * @param groupId ідентифікатор групи
+     * @return LiveData зі списком повідомлень
+     */
+    @Query("SELECT * FROM messages WHERE groupId = :groupId ORDER BY createdAtMillis ASC")
+    LiveData<List<MessageEntity>> observeGroupMessages(String groupId);
+
+    /**
+     * Спостереження за непрочитаними повідомленнями користувача
+     *
+     * @param userId ідентифікатор користувача
+     * @return LiveData зі списком непрочитаних повідомлень
+     */
+    @Query("SELECT * FROM messages WHERE recipientId = :userId AND (statusFlags & 4) = 0 ORDER BY createdAtMillis DESC")
+    LiveData<List<MessageEntity>> observeUnreadMessagesForUser(String userId);
+
+    /**
+     * Спостереження за останнім повідомленням в чаті
+     *
+     * @param userId1 ідентифікатор першого користувача
+     * @param userId2 ідентифікатор другого користувача
+     * @return LiveData з останнім повідомленням
+     */
+    @Query("SELECT * FROM messages WHERE (senderId = :userId1 AND recipientId = :userId2) OR (senderId = :userId2 AND recipientId = :userId1) ORDER BY createdAtMillis DESC LIMIT 1")
+    LiveData<MessageEntity> observeLastMessageBetweenUsers(String userId1, String userId2);
+
+    /**
+     * Спостереження за останнім повідомленням в групі
+     *
+     * @param groupId ідентифікатор групи
+     * @return LiveData з останнім повідомленням
+     */
+    @Query("SELECT * FROM messages WHERE groupId = :groupId ORDER BY createdAtMillis DESC LIMIT 1")
+    LiveData<MessageEntity> observeLastGroupMessage(String groupId);
+}
@@ -1,10 +1,12 @@
 package com.secure.messenger.android.data.local.dao;
 
+import androidx.lifecycle.LiveData;
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
 
 import com.secure.messenger.android.data.local.entity.UserEntity;
@@ -19,20 +21,70 @@ import java.util.List;
 public interface UserDao {
 
     /**
-     * Вставка нового користувача в базу даних
+     * Вставка нового користувача, якщо його ще немає в базі даних
      *
      * @param user користувач
+     * @return rowId вставленого рядка або -1, якщо користувач вже існує
      */
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
-    void insert(UserEntity user);
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long insertIfAbsent(UserEntity user);
 
     /**
-     * Вставка списку користувачів
+     * Оновлення профілю користувача на місці лише тоді, коли щось змінилося.
+     * Прапорець isContact не змінюється, а null для ключа та часу активності
+     * не затирає вже збережені значення.
+     *
+     * @return кількість оновлених рядків (0, якщо змін немає)
+     */
+    @Query("UPDATE users SET username = :username, phoneNumber = :phoneNumber, status = :status, " +
+            "publicKey = COALESCE(:publicKey, publicKey), lastActive = COALESCE(:lastActive, lastActive) " +
+            "WHERE id = :id AND (username IS NOT :username OR phoneNumber IS NOT :phoneNumber " +
+            "OR status IS NOT :status OR (:publicKey IS NOT NULL AND publicKey IS NOT :publicKey) " +
+            "OR (:lastActive IS NOT NULL AND lastActive IS NOT :lastActive))")
+    int updateProfileIfChanged(String id, String username, String phoneNumber, String status,
+                               byte[] publicKey, LocalDateTime lastActive);
+
+    /**
+     * Максимальна кількість ідентифікаторів в одному запиті IN (...),
+     * з запасом нижче обмеження SQLite на кількість параметрів
+     */
+    int MAX_BATCH_SIZE = 900;
+
+    /**
+     * Отримання користувачів за списком ідентифікаторів одним запитом.
+     * Список не повинен перевищувати MAX_BATCH_SIZE
+     *
+     * @param ids ідентифікатори користувачів
+     * @return знайдені користувачі
+     */
+    @Query("SELECT * FROM users WHERE id IN (:ids)")
+    List<UserEntity> getUsersByIds(List<String> ids);
+
+    /**
+     * Вставка або оновлення користувача без видалення рядка.
+     * На відміну від REPLACE, не викликає каскадного видалення повідомлень користувача
+     *
+     * @param user користувач
+     */
+    @Transaction
+    default void upsert(UserEntity user) {
+        if (insertIfAbsent(user) == -1) {
+            updateProfileIfChanged(user.getId(), user.getUsername(), user.getPhoneNumber(),
+                    user.getStatus(), user.getPublicKey(), user.getLastActive());
+        }
+    }
+
+    /**
+     * Вставка або оновлення списку користувачів в одній транзакції
      *
      * @param users список користувачів
      */
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
-    void insertAll(List<UserEntity> users);
+    @Transaction
+    default void upsertAll(List<UserEntity> users) {
+        for (UserEntity user : users) {
+            upsert(user);
+        }
+    }
 
     /**
      * Оновлення користувача
@@ -134,4 +186,31 @@ public interface UserDao {
      */
     @Query("UPDATE users SET lastActive = :lastActive WHERE id = :userId")
     void updateLastActive(String userId, LocalDateTime lastActive);
-}
\ No newline at end of file
+
+    // Спостережувані запити (оновлюються автоматично через InvalidationTracker Room)
+
+    /**
+     * Спостереження за користувачем за ID
+     *
+     * @param id ідентифікатор користувача
+     * @return LiveData з користувачем
+     */
+    @Query("SELECT * FROM users WHERE id = :id")
+    LiveData<UserEntity> observeUserById(String id);
+
+    /**
+     * Спостереження за всіма користувачами
+     *
+     * @return LiveData зі списком користувачів
+     */
+    @Query("SELECT * FROM users")
+    LiveData<List<UserEntity>> observeAllUsers();
+
+    /**
+     * Спостереження за всіма контактами
+     *
+     * @return LiveData зі списком контактів
+     */
+    @Query("SELECT * FROM users WHERE isContact = 1")
+    LiveData<List<UserEntity>> observeAllContacts();
+}
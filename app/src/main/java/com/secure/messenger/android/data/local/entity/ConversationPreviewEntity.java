@@ -0,0 +1,115 @@
+package com.secure.messenger.android.data.local.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * Превью останнього повідомлення розмови для списку чатів.
+ * Короткий фрагмент тексту зберігається зашифрованим локальним ключем,
+ * тому список чатів не розшифровує повідомлення розмов під час завантаження.
+ */
+@Entity(
+        tableName = "conversation_previews",
+        indices = {
+                @Index("messageId")
+        }
+)
+public class ConversationPreviewEntity {
+
+    @PrimaryKey
+    @NonNull
+    private String conversationKey;
+
+    @NonNull
+    private String messageId;
+
+    private int typeCode;
+
+    // Зашифрований фрагмент тексту або null, якщо текст ще не розшифровано
+    private byte[] encryptedSnippet;
+
+    private long createdAtMillis;
+
+    /**
+     * Стандартний конструктор
+     */
+    public ConversationPreviewEntity() {
+        this.conversationKey = "";
+        this.messageId = "";
+    }
+
+    /**
+     * Конструктор з параметрами
+     *
+     * @param conversationKey ключ розмови (див. directKey та groupKey)
+     * @param typeCode код типу повідомлення (див. MessageTypeConverter)
+     */
+    @Ignore
+    public ConversationPreviewEntity(@NonNull String conversationKey, @NonNull String messageId, int typeCode,
+                                     byte[] encryptedSnippet, long createdAtMillis) {
+        this.conversationKey = conversationKey;
+        this.messageId = messageId;
+        this.typeCode = typeCode;
+        this.encryptedSnippet = encryptedSnippet;
+        this.createdAtMillis = createdAtMillis;
+    }
+
+    /**
+     * Ключ особистої розмови з користувачем
+     */
+    public static String directKey(String userId) {
+        return "u:" + userId;
+    }
+
+    /**
+     * Ключ розмови групи
+     */
+    public static String groupKey(String groupId) {
+        return "g:" + groupId;
+    }
+
+    @NonNull
+    public String getConversationKey() {
+        return conversationKey;
+    }
+
+    public void setConversationKey(@NonNull String conversationKey) {
+        this.conversationKey = conversationKey;
+    }
+
+    @NonNull
+    public String getMessageId() {
+        return messageId;
+    }
+
+    public void setMessageId(@NonNull String messageId) {
+        this.messageId = messageId;
+    }
+
+    public int getTypeCode() {
+        return typeCode;
+    }
+
+    public void setTypeCode(int typeCode) {
+        this.typeCode = typeCode;
+    }
+
+    public byte[] getEncryptedSnippet() {
+        return encryptedSnippet;
+    }
+
+    public void setEncryptedSnippet(byte[] encryptedSnippet) {
+        this.encryptedSnippet = encryptedSnippet;
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    public void setCreatedAtMillis(long createdAtMillis) {
+        this.createdAtMillis = createdAtMillis;
+    }
+}
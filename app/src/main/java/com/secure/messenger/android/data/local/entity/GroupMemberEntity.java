@@ -0,0 +1,119 @@
+package com.secure.messenger.android.data.local.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Ignore;
+import androidx.room.Index;
+
+/**
+ * Сутність для зберігання учасників груп у локальній базі даних.
+ * Первинний ключ (groupId, userId) служить індексом для сторінкового списку учасників
+ * та перевірки членства, а окремий індекс за userId - для пошуку груп користувача.
+ */
+@Entity(
+        tableName = "group_members",
+        primaryKeys = {"groupId", "userId"},
+        foreignKeys = {
+                @ForeignKey(
+                        entity = ChatGroupEntity.class,
+                        parentColumns = "id",
+                        childColumns = "groupId",
+                        onDelete = ForeignKey.CASCADE
+                )
+        },
+        indices = {
+                @Index("userId")
+        }
+)
+public class GroupMemberEntity {
+
+    @NonNull
+    private String groupId;
+
+    @NonNull
+    private String userId;
+
+    private String username;
+
+    private int roleCode;
+
+    private byte[] encryptedKey;
+
+    private long joinedAtMillis;
+
+    /**
+     * Стандартний конструктор
+     */
+    public GroupMemberEntity() {
+        this.groupId = "";
+        this.userId = "";
+    }
+
+    /**
+     * Конструктор з параметрами
+     *
+     * @param roleCode порядковий номер ролі GroupMember.Role
+     * @param joinedAtMillis час приєднання в мілісекундах від епохи
+     */
+    @Ignore
+    public GroupMemberEntity(@NonNull String groupId, @NonNull String userId, String username,
+                             int roleCode, byte[] encryptedKey, long joinedAtMillis) {
+        this.groupId = groupId;
+        this.userId = userId;
+        this.username = username;
+        this.roleCode = roleCode;
+        this.encryptedKey = encryptedKey;
+        this.joinedAtMillis = joinedAtMillis;
+    }
+
+    @NonNull
+    public String getGroupId() {
+        return groupId;
+    }
+
+    public void setGroupId(@NonNull String groupId) {
+        this.groupId = groupId;
+    }
+
+    @NonNull
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(@NonNull String userId) {
+        this.userId = userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public int getRoleCode() {
+        return roleCode;
+    }
+
+    public void setRoleCode(int roleCode) {
+        this.roleCode = roleCode;
+    }
+
+    public byte[] getEncryptedKey() {
+        return encryptedKey;
+    }
+
+    public void setEncryptedKey(byte[] encryptedKey) {
+        this.encryptedKey = encryptedKey;
+    }
+
+    public long getJoinedAtMillis() {
+        return joinedAtMillis;
+    }
+
+    public void setJoinedAtMillis(long joinedAtMillis) {
+        this.joinedAtMillis = joinedAtMillis;
+    }
+}
@@ -7,10 +7,10 @@ import androidx.room.Ignore;
 import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
-import java.time.LocalDateTime;
-
 /**
- * Сутність для зберігання повідомлень у локальній базі даних
+ * Сутність для зберігання повідомлень у локальній базі даних.
+ * Час зберігається як мілісекунди від епохи, тип - як числовий код,
+ * а статус доставки - як бітова маска, щоб читання курсора не створювало об'єктів.
  */
 @Entity(
         tableName = "messages",
@@ -37,11 +37,27 @@ import java.time.LocalDateTime;
         indices = {
                 @Index("senderId"),
                 @Index("recipientId"),
-                @Index("groupId")
+                @Index("groupId"),
+                @Index("expiresAtMillis")
         }
 )
 public class MessageEntity {
 
+    /**
+     * Біт статусу: повідомлення надіслане
+     */
+    public static final int FLAG_SENT = 1;
+
+    /**
+     * Біт статусу: повідомлення доставлене
+     */
+    public static final int FLAG_DELIVERED = 1 << 1;
+
+    /**
+     * Біт статусу: повідомлення прочитане
+     */
+    public static final int FLAG_READ = 1 << 2;
+
     @PrimaryKey
     @NonNull
     private String id;
@@ -52,19 +68,18 @@ public class MessageEntity {
 
     private String groupId;
 
-    private String messageType;
+    private int typeCode;
 
     private byte[] encryptedContent;
 
-    private LocalDateTime createdAt;
-
-    private LocalDateTime expiresAt;
+    private long createdAtMillis;
 
-    private boolean isRead;
+    private long expiresAtMillis;
 
-    private boolean isSent;
+    private int statusFlags;
 
-    private boolean isDelivered;
+    // Мініатюра медіа для миттєвого показу, зашифрована локальним ключем вкладень (null - немає)
+    private byte[] placeholder;
 
     /**
      * Стандартний конструктор
@@ -74,22 +89,25 @@ public class MessageEntity {
 
     /**
      * Конструктор з параметрами
+     *
+     * @param typeCode код типу повідомлення (див. MessageTypeConverter)
+     * @param createdAtMillis час створення в мілісекундах від епохи
+     * @param expiresAtMillis час закінчення терміну дії в мілісекундах від епохи
+     * @param statusFlags бітова маска статусу (FLAG_SENT, FLAG_DELIVERED, FLAG_READ)
      */
     @Ignore
     public MessageEntity(@NonNull String id, String senderId, String recipientId, String groupId,
-                         String messageType, byte[] encryptedContent, LocalDateTime createdAt,
-                         LocalDateTime expiresAt, boolean isRead, boolean isSent, boolean isDelivered) {
+                         int typeCode, byte[] encryptedContent, long createdAtMillis,
+                         long expiresAtMillis, int statusFlags) {
         this.id = id;
         this.senderId = senderId;
         this.recipientId = recipientId;
         this.groupId = groupId;
-        this.messageType = messageType;
+        this.typeCode = typeCode;
         this.encryptedContent = encryptedContent;
-        this.createdAt = createdAt;
-        this.expiresAt = expiresAt;
-        this.isRead = isRead;
-        this.isSent = isSent;
-        this.isDelivered = isDelivered;
+        this.createdAtMillis = createdAtMillis;
+        this.expiresAtMillis = expiresAtMillis;
+        this.statusFlags = statusFlags;
     }
 
     @NonNull
@@ -125,12 +143,12 @@ public class MessageEntity {
         this.groupId = groupId;
     }
 
-    public String getMessageType() {
-        return messageType;
+    public int getTypeCode() {
+        return typeCode;
     }
 
-    public void setMessageType(String messageType) {
-        this.messageType = messageType;
+    public void setTypeCode(int typeCode) {
+        this.typeCode = typeCode;
     }
 
     public byte[] getEncryptedContent() {
@@ -141,43 +159,63 @@ public class MessageEntity {
         this.encryptedContent = encryptedContent;
     }
 
-    public LocalDateTime getCreatedAt() {
-        return createdAt;
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
     }
 
-    public void setCreatedAt(LocalDateTime createdAt) {
-        this.createdAt = createdAt;
+    public void setCreatedAtMillis(long createdAtMillis) {
+        this.createdAtMillis = createdAtMillis;
     }
 
-    public LocalDateTime getExpiresAt() {
-        return expiresAt;
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
     }
 
-    public void setExpiresAt(LocalDateTime expiresAt) {
-        this.expiresAt = expiresAt;
+    public void setExpiresAtMillis(long expiresAtMillis) {
+        this.expiresAtMillis = expiresAtMillis;
     }
 
-    public boolean isRead() {
-        return isRead;
+    public int getStatusFlags() {
+        return statusFlags;
     }
 
-    public void setRead(boolean read) {
-        isRead = read;
+    public void setStatusFlags(int statusFlags) {
+        this.statusFlags = statusFlags;
     }
 
-    public boolean isSent() {
-        return isSent;
+    public byte[] getPlaceholder() {
+        return placeholder;
     }
 
-    public void setSent(boolean sent) {
-        isSent = sent;
+    public void setPlaceholder(byte[] placeholder) {
+        this.placeholder = placeholder;
     }
 
-    public boolean isDelivered() {
-        return isDelivered;
+    public boolean isRead() {
+        return (statusFlags & FLAG_READ) != 0;
     }
 
-    public void setDelivered(boolean delivered) {
-        isDelivered = delivered;
+    public boolean isSent() {
+        return (statusFlags & FLAG_SENT) != 0;
     }
-}
\ No newline at end of file
+
+    public boolean isDelivered() {
+        return (statusFlags & FLAG_DELIVERED) != 0;
+    }
+
+    /**
+     * Формує бітову маску статусу з окремих прапорців
+     *
+     * @param isRead чи прочитане повідомлення
+     * @param isSent чи надіслане повідомлення
+     * @param isDelivered чи доставлене повідомлення
+     * @return бітова маска статусу
+     */
+    public static int toStatusFlags(boolean isRead, boolean isSent, boolean isDelivered) {
+        int flags = 0;
+        if (isSent) flags |= FLAG_SENT;
+        if (isDelivered) flags |= FLAG_DELIVERED;
+        if (isRead) flags |= FLAG_READ;
+        return flags;
+    }
+}
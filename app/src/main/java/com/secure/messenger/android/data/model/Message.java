@@ -17,6 +17,8 @@ public class Message {
     private MessageType type;
     private byte[] encryptedContent;
     private byte[] decryptedContent;
+    // Мініатюра медіа, зашифрована локальним ключем вкладень (див. MessageEntity)
+    private byte[] placeholder;
     private MessageStatus status;
     private LocalDateTime createdAt;
     private LocalDateTime readAt;
@@ -82,6 +84,30 @@ public class Message {
         return message;
     }
 
+    /**
+     * Створює копію повідомлення (масиви вмісту спільні)
+     */
+    public Message copy() {
+        Message message = new Message();
+        message.id = id;
+        message.senderId = senderId;
+        message.senderName = senderName;
+        message.recipientId = recipientId;
+        message.recipientName = recipientName;
+        message.groupId = groupId;
+        message.groupName = groupName;
+        message.type = type;
+        message.encryptedContent = encryptedContent;
+        message.decryptedContent = decryptedContent;
+        message.placeholder = placeholder;
+        message.status = status;
+        message.createdAt = createdAt;
+        message.readAt = readAt;
+        message.errorMessage = errorMessage;
+        message.localId = localId;
+        return message;
+    }
+
     // --- Геттери / Сеттери ---
 
     public String getId() { return id; }
@@ -111,6 +137,9 @@ public class Message {
     public byte[] getEncryptedContent() { return encryptedContent; }
     public void setEncryptedContent(byte[] encryptedContent) { this.encryptedContent = encryptedContent; }
 
+    public byte[] getPlaceholder() { return placeholder; }
+    public void setPlaceholder(byte[] placeholder) { this.placeholder = placeholder; }
+
     public byte[] getDecryptedContent() { return decryptedContent; }
     public void setDecryptedContent(byte[] decryptedContent) { this.decryptedContent = decryptedContent; }
 
@@ -1,6 +1,8 @@
 package com.secure.messenger.android.data.model;
 
+import com.secure.messenger.android.data.local.converter.MessageTypeConverter;
 import com.secure.messenger.android.data.local.entity.ChatGroupEntity;
+import com.secure.messenger.android.data.local.entity.GroupMemberEntity;
 import com.secure.messenger.android.data.local.entity.MessageEntity;
 import com.secure.messenger.android.data.local.entity.UserEntity;
 import com.secure.messenger.proto.GroupResponse;
@@ -21,6 +23,8 @@ import java.util.List;
  */
 public class ModelConverter {
 
+    private static final long MESSAGE_TTL_MILLIS = 24L * 60 * 60 * 1000;
+
     // Конвертація користувачів
 
     /**
@@ -104,24 +108,23 @@ public class ModelConverter {
         String groupId = !response.getGroupId().isEmpty() ? response.getGroupId() : null;
 
         MessageContent content = response.getContent();
-        String messageType = content.getType().name();
+        int typeCode = MessageTypeConverter.fromProto(content.getType());
         byte[] encryptedContent = content.getEncryptedData().toByteArray();
 
-        LocalDateTime createdAt = convertTimestampToLocalDateTime(response.getTimestamp());
-        LocalDateTime expiresAt = createdAt.plusDays(1); // За замовчуванням повідомлення живе 1 день
+        long createdAt = response.getTimestamp();
+        long expiresAt = createdAt + MESSAGE_TTL_MILLIS; // За замовчуванням повідомлення живе 1 день
 
         return new MessageEntity(
                 messageId,
                 senderId,
                 recipientId,
                 groupId,
-                messageType,
+                typeCode,
                 encryptedContent,
                 createdAt,
                 expiresAt,
-                false, // За замовчуванням не прочитане
-                true,  // За замовчуванням надіслане
-                true   // За замовчуванням доставлене
+                // За замовчуванням надіслане та доставлене, але не прочитане
+                MessageEntity.FLAG_SENT | MessageEntity.FLAG_DELIVERED
         );
     }
 
@@ -139,16 +142,12 @@ public class ModelConverter {
         message.setRecipientId(entity.getRecipientId());
         message.setGroupId(entity.getGroupId());
 
-        // Перетворення типу повідомлення
-        try {
-            message.setType(Message.MessageType.valueOf(entity.getMessageType()));
-        } catch (IllegalArgumentException e) {
-            // За замовчуванням встановлюємо тип TEXT
-            message.setType(Message.MessageType.TEXT);
-        }
+        // Перетворення типу повідомлення (невідомі коди стають TEXT)
+        message.setType(MessageTypeConverter.toModel(entity.getTypeCode()));
 
         message.setEncryptedContent(entity.getEncryptedContent());
-        message.setCreatedAt(entity.getCreatedAt());
+        message.setPlaceholder(entity.getPlaceholder());
+        message.setCreatedAt(convertTimestampToLocalDateTime(entity.getCreatedAtMillis()));
 
         // Встановлення статусу повідомлення
         if (entity.isRead()) {
@@ -232,6 +231,60 @@ public class ModelConverter {
         return groups;
     }
 
+    // Конвертація учасників груп
+
+    private static final GroupMember.Role[] MEMBER_ROLES = GroupMember.Role.values();
+
+    /**
+     * Конвертує модель GroupMember у сутність GroupMemberEntity
+     */
+    public static GroupMemberEntity convertToGroupMemberEntity(GroupMember member) {
+        GroupMember.Role role = member.getRole() != null ? member.getRole() : GroupMember.Role.MEMBER;
+        long joinedAt = member.getJoinedAt() != null
+                ? convertLocalDateTimeToTimestamp(member.getJoinedAt())
+                : System.currentTimeMillis();
+
+        return new GroupMemberEntity(
+                member.getGroupId(),
+                member.getUserId(),
+                member.getUsername(),
+                role.ordinal(),
+                member.getEncryptedKey(),
+                joinedAt
+        );
+    }
+
+    /**
+     * Конвертує GroupMemberEntity в модель GroupMember для презентаційного шару
+     */
+    public static GroupMember convertToGroupMember(GroupMemberEntity entity) {
+        if (entity == null) {
+            return null;
+        }
+
+        int roleCode = entity.getRoleCode();
+        GroupMember.Role role = roleCode >= 0 && roleCode < MEMBER_ROLES.length
+                ? MEMBER_ROLES[roleCode] : GroupMember.Role.MEMBER;
+
+        GroupMember member = new GroupMember(entity.getUserId(), entity.getGroupId(), entity.getUsername(), role);
+        member.setEncryptedKey(entity.getEncryptedKey());
+        member.setJoinedAt(convertTimestampToLocalDateTime(entity.getJoinedAtMillis()));
+        return member;
+    }
+
+    /**
+     * Конвертує список GroupMemberEntity в список GroupMember
+     */
+    public static List<GroupMember> convertToGroupMembers(List<GroupMemberEntity> entities) {
+        List<GroupMember> members = new ArrayList<>();
+        if (entities != null) {
+            for (GroupMemberEntity entity : entities) {
+                members.add(convertToGroupMember(entity));
+            }
+        }
+        return members;
+    }
+
     /**
      * Конвертує UserProfile в UserInfo
      */
@@ -4,7 +4,9 @@ import android.content.Context;
 import android.util.Log;
 
 import com.secure.messenger.android.data.api.AuthServiceClient;
+import com.secure.messenger.android.data.local.ConversationPreviewCache;
 import com.secure.messenger.android.data.local.TokenManager;
+import com.secure.messenger.android.util.AppExecutors;
 import com.secure.messenger.android.util.SecurityUtils;
 import com.secure.messenger.proto.AuthResponse;
 import com.secure.messenger.proto.LoginRequest;
@@ -17,7 +19,6 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 
 /**
  * Репозиторій для автентифікації користувачів
@@ -27,7 +28,7 @@ public class AuthRepository {
 
     private final AuthServiceClient authServiceClient;
     private final TokenManager tokenManager;
-    private final Executor executor;
+    private final Executor ioExecutor;
     private final Context context;
 
     /**
@@ -37,10 +38,21 @@ public class AuthRepository {
      * @param authServiceClient клієнт для сервісу автентифікації
      */
     public AuthRepository(Context context, AuthServiceClient authServiceClient) {
+        this(context, authServiceClient, new TokenManager(context));
+    }
+
+    /**
+     * Створює новий екземпляр репозиторію автентифікації зі спільним менеджером токенів
+     *
+     * @param context контекст додатка
+     * @param authServiceClient клієнт для сервісу автентифікації
+     * @param tokenManager менеджер токенів
+     */
+    public AuthRepository(Context context, AuthServiceClient authServiceClient, TokenManager tokenManager) {
         this.context = context;
         this.authServiceClient = authServiceClient;
-        this.tokenManager = new TokenManager(context);
-        this.executor = Executors.newSingleThreadExecutor();
+        this.tokenManager = tokenManager;
+        this.ioExecutor = AppExecutors.getInstance().io();
     }
 
     /**
@@ -97,7 +109,7 @@ public class AuthRepository {
      * @param callback колбек з результатом операції
      */
     public void register(String username, String phoneNumber, String password, AuthCallback callback) {
-        executor.execute(() -> {
+        ioExecutor.execute(() -> {
             try {
                 // Генерація ключової пари для E2EE
                 byte[] publicKey = SecurityUtils.getPublicKeyForServer();
@@ -153,7 +165,7 @@ public class AuthRepository {
      * @param callback колбек з результатом операції
      */
     public void refreshToken(AuthCallback callback) {
-        executor.execute(() -> {
+        ioExecutor.execute(() -> {
             try {
                 String refreshToken = tokenManager.getRefreshToken();
                 if (refreshToken == null) {
@@ -187,7 +199,7 @@ public class AuthRepository {
      * @param callback колбек з результатом операції
      */
     public void logout(AuthCallback callback) {
-        executor.execute(() -> {
+        ioExecutor.execute(() -> {
             try {
                 // Отримання поточного токена
                 String token = tokenManager.getAccessToken();
@@ -196,21 +208,37 @@ public class AuthRepository {
                     authServiceClient.logout(token);
                 }
 
-                // Очищення локальних токенів
+                // Очищення локальних токенів та даних користувача
                 tokenManager.clearTokens();
+                clearLocalData();
 
                 // Оповіщення про успішний вихід
                 callback.onSuccess();
             } catch (Exception e) {
                 Log.e(TAG, "Logout error: " + e.getMessage(), e);
-                // Очищаємо токени локально навіть при помилці
+                // Очищаємо токени та дані локально навіть при помилці
                 tokenManager.clearTokens();
+                clearLocalData();
                 // Вважаємо вихід успішним навіть при помилці, оскільки локальні токени очищені
                 callback.onSuccess();
             }
         });
     }
 
+    /**
+     * Видаляє локальні дані користувача, що не повинні бути видимі після виходу:
+     * превью розмов містять фрагменти тексту останніх повідомлень, тому видаляється і їхній ключ
+     */
+    private void clearLocalData() {
+        AppExecutors.getInstance().dbWrite().execute(() -> {
+            try {
+                ConversationPreviewCache.getInstance(context).clear();
+            } catch (Exception e) {
+                Log.e(TAG, "Error clearing conversation previews: " + e.getMessage(), e);
+            }
+        });
+    }
+
     /**
      * Отримує ідентифікатор пристрою або генерує новий, якщо він не існує
      *
@@ -3,14 +3,27 @@ package com.secure.messenger.android.data.repository;
 import android.content.Context;
 import android.util.Log;
 
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Transformations;
+
 import com.secure.messenger.android.data.api.GroupServiceClient;
 import com.secure.messenger.android.data.local.AppDatabase;
 import com.secure.messenger.android.data.local.TokenManager;
+import com.secure.messenger.android.data.local.UserCache;
 import com.secure.messenger.android.data.local.dao.ChatGroupDao;
+import com.secure.messenger.android.data.local.dao.GroupMemberDao;
 import com.secure.messenger.android.data.local.entity.ChatGroupEntity;
+import com.secure.messenger.android.data.local.entity.GroupMemberEntity;
 import com.secure.messenger.android.data.model.Group;
+import com.secure.messenger.android.data.model.GroupMember;
 import com.secure.messenger.android.data.model.ModelConverter;
+import com.secure.messenger.android.data.model.User;
+import com.secure.messenger.android.util.AppExecutors;
+import com.secure.messenger.android.util.Futures;
+import com.secure.messenger.android.util.MetricsRegistry;
 import com.secure.messenger.android.util.SecurityUtils;
+import com.secure.messenger.android.util.SingleFlight;
+import com.secure.messenger.android.util.TtlCache;
 import com.secure.messenger.proto.CreateGroupRequest;
 import com.secure.messenger.proto.DeleteGroupRequest;
 import com.secure.messenger.proto.GetGroupRequest;
@@ -22,9 +35,14 @@ import com.secure.messenger.proto.UpdateGroupRequest;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import javax.crypto.SecretKey;
 
@@ -33,13 +51,26 @@ import javax.crypto.SecretKey;
  */
 public class GroupRepository {
     private static final String TAG = "GroupRepository";
+    private static final long CACHE_TTL_MILLIS = TimeUnit.MINUTES.toMillis(5);
 
     private final Context context;
     private final GroupServiceClient groupServiceClient;
     private final ChatGroupDao chatGroupDao;
+    private final GroupMemberDao groupMemberDao;
     private final TokenManager tokenManager;
     private final SecurityUtils securityUtils;
-    private final Executor executor;
+    private final Executor dbReadExecutor;
+    private final Executor dbWriteExecutor;
+    private final Executor ioExecutor;
+    // Тривалість усіх записів груп у базу даних
+    private final MetricsRegistry.Histogram dbWriteLatency;
+
+    // Кеш груп з терміном свіжості та об'єднання одночасних завантажень
+    private final TtlCache<String, Group> groupCache = new TtlCache<>(CACHE_TTL_MILLIS);
+    private final TtlCache<String, List<Group>> userGroupsCache = new TtlCache<>(CACHE_TTL_MILLIS);
+    private final SingleFlight<String, Group> groupFlight = new SingleFlight<>();
+    private final SingleFlight<String, Group> groupRefreshFlight = new SingleFlight<>();
+    private final SingleFlight<String, List<Group>> userGroupsFlight = new SingleFlight<>();
 
     /**
      * Конструктор
@@ -48,12 +79,29 @@ public class GroupRepository {
      * @param groupServiceClient клієнт для сервісу груп
      */
     public GroupRepository(Context context, GroupServiceClient groupServiceClient) {
+        this(context, groupServiceClient, new TokenManager(context), new SecurityUtils(context));
+    }
+
+    /**
+     * Конструктор зі спільними залежностями
+     *
+     * @param context            контекст додатка
+     * @param groupServiceClient клієнт для сервісу груп
+     * @param tokenManager       менеджер токенів
+     * @param securityUtils      криптографічні утиліти
+     */
+    public GroupRepository(Context context, GroupServiceClient groupServiceClient,
+                           TokenManager tokenManager, SecurityUtils securityUtils) {
         this.context = context;
         this.groupServiceClient = groupServiceClient;
         this.chatGroupDao = AppDatabase.getInstance(context).chatGroupDao();
-        this.tokenManager = new TokenManager(context);
-        this.securityUtils = new SecurityUtils(context);
-        this.executor = Executors.newSingleThreadExecutor();
+        this.groupMemberDao = AppDatabase.getInstance(context).groupMemberDao();
+        this.tokenManager = tokenManager;
+        this.securityUtils = securityUtils;
+        this.dbReadExecutor = AppExecutors.getInstance().dbRead();
+        this.dbWriteExecutor = AppExecutors.getInstance().dbWrite();
+        this.ioExecutor = AppExecutors.getInstance().io();
+        this.dbWriteLatency = MetricsRegistry.getInstance().histogram("group.db.write");
     }
 
     /**
@@ -65,7 +113,7 @@ public class GroupRepository {
      * @param callback    колбек з результатом
      */
     public void createGroup(String name, String description, List<String> memberIds, GroupCallback callback) {
-        executor.execute(() -> {
+        ioExecutor.execute(() -> {
             try {
                 // Аутентифікація запиту
                 String token = tokenManager.getAccessToken();
@@ -97,11 +145,17 @@ public class GroupRepository {
                     Log.e(TAG, "Error generating group key: " + e.getMessage(), e);
                 }
 
-                // Збереження групи локально
-                chatGroupDao.insert(groupEntity);
+                // Збереження групи та її початкових учасників локально
+                List<GroupMemberEntity> members = knownMembers(response, memberIds);
+                runOnDbWrite(() -> {
+                    chatGroupDao.upsert(groupEntity);
+                    groupMemberDao.insertKnownMembers(members);
+                });
 
                 // Створення моделі групи для відповіді
                 Group group = ModelConverter.convertEntityToGroup(groupEntity);
+                invalidateGroup(group.getId());
+                groupCache.put(group.getId(), group);
                 callback.onSuccess(group);
             } catch (Exception e) {
                 Log.e(TAG, "Error creating group: " + e.getMessage(), e);
@@ -111,94 +165,124 @@ public class GroupRepository {
     }
 
     /**
-     * Отримує групу за ідентифікатором
+     * Отримує групу за ідентифікатором: з кешу, локальної бази даних або сервера.
+     * Одночасні запити однієї групи з сервера об'єднуються в один
      *
      * @param groupId  ідентифікатор групи
      * @param callback колбек з результатом
      */
     public void getGroupById(String groupId, GroupCallback callback) {
-        executor.execute(() -> {
-            try {
-                // Спочатку перевіряємо локальну базу даних
-                ChatGroupEntity localGroup = chatGroupDao.getGroupById(groupId);
-
-                if (localGroup != null) {
-                    Group group = ModelConverter.convertEntityToGroup(localGroup);
-                    callback.onSuccess(group);
-                } else {
-                    // Якщо локально немає, запитуємо з сервера
-                    fetchGroupFromServer(groupId, callback);
-                }
-            } catch (Exception e) {
-                Log.e(TAG, "Error getting group by ID: " + e.getMessage(), e);
-                callback.onError("Помилка при отриманні групи: " + e.getMessage());
+        getGroupByIdAsync(groupId).whenComplete((group, error) -> {
+            if (error != null) {
+                Log.e(TAG, "Error getting group by ID: " + Futures.errorMessage(error));
+                callback.onError("Помилка при отриманні групи: " + Futures.errorMessage(error));
+            } else {
+                callback.onSuccess(group);
             }
         });
     }
 
     /**
-     * Отримує групу з сервера
+     * Завантажує групу з локальної бази даних, а якщо її там немає - з сервера.
+     * Локальна група повертається одразу, а з сервером звіряється у фоні
      *
-     * @param groupId  ідентифікатор групи
-     * @param callback колбек з результатом
+     * @param groupId ідентифікатор групи
+     * @return група
      */
-    private void fetchGroupFromServer(String groupId, GroupCallback callback) {
-        try {
-            // Аутентифікація запиту
-            String token = tokenManager.getAccessToken();
-            if (token == null) {
-                callback.onError("Відсутній токен авторизації");
-                return;
-            }
-            groupServiceClient.setAuthToken(token);
-
-            // Створення запиту на отримання групи
-            GetGroupRequest request = GetGroupRequest.newBuilder()
-                    .setGroupId(groupId)
-                    .build();
+    private Group loadGroup(String groupId) {
+        ChatGroupEntity localGroup = chatGroupDao.getGroupById(groupId);
+        if (localGroup == null) {
+            Group group = fetchGroupFromServer(groupId);
+            groupCache.put(groupId, group);
+            return group;
+        }
 
-            // Надсилання запиту на сервер
-            GroupResponse response = groupServiceClient.getGroup(request);
+        Group group = ModelConverter.convertEntityToGroup(localGroup);
+        groupCache.put(groupId, group);
+        revalidateGroup(groupId);
+        return group;
+    }
 
-            // Перетворення відповіді в сутність
-            ChatGroupEntity groupEntity = ModelConverter.convertToChatGroupEntity(response);
+    /**
+     * Оновлює групу з сервера у фоні; нові дані потрапляють у кеш
+     * та до спостерігачів observeGroup() через базу даних
+     */
+    private void revalidateGroup(String groupId) {
+        groupRefreshFlight.load(groupId, () -> {
+            Group group = fetchGroupFromServer(groupId);
+            groupCache.put(groupId, group);
+            return group;
+        }, ioExecutor).exceptionally(error -> {
+            Log.w(TAG, "Background group refresh failed: " + Futures.errorMessage(error));
+            return null;
+        });
+    }
 
-            // Збереження групи локально
-            chatGroupDao.insert(groupEntity);
+    /**
+     * Отримує групу з сервера та зберігає її локально
+     *
+     * @param groupId ідентифікатор групи
+     * @return група
+     */
+    private Group fetchGroupFromServer(String groupId) {
+        // Аутентифікація запиту
+        authenticate();
+
+        // Створення запиту на отримання групи
+        GetGroupRequest request = GetGroupRequest.newBuilder()
+                .setGroupId(groupId)
+                .build();
+
+        // Надсилання запиту на сервер
+        GroupResponse response = groupServiceClient.getGroup(request);
+
+        // Перетворення відповіді в сутність
+        ChatGroupEntity groupEntity = ModelConverter.convertToChatGroupEntity(response);
+
+        // Збереження групи та її адміністратора локально
+        List<GroupMemberEntity> members = knownMembers(response, Collections.emptyList());
+        runOnDbWrite(() -> {
+            chatGroupDao.upsert(groupEntity);
+            groupMemberDao.insertKnownMembers(members);
+        });
 
-            // Створення моделі групи для відповіді
-            Group group = ModelConverter.convertEntityToGroup(groupEntity);
-            callback.onSuccess(group);
-        } catch (Exception e) {
-            Log.e(TAG, "Error fetching group from server: " + e.getMessage(), e);
-            callback.onError("Помилка при отриманні групи з сервера: " + e.getMessage());
-        }
+        return ModelConverter.convertEntityToGroup(groupEntity);
     }
 
     /**
-     * Отримує всі групи користувача
+     * Отримує всі групи користувача. Колбек викликається один раз:
+     * свіжі дані з кешу повертаються без звернення до сервера; прострочені
+     * (або лише локальні) повертаються одразу, а оновлення з сервера виконується
+     * у фоні і потрапляє до спостерігачів observeGroups() через базу даних
      *
      * @param callback колбек зі списком груп
      */
     public void getUserGroups(GroupsCallback callback) {
-        executor.execute(() -> {
-            try {
-                String userId = tokenManager.getUserId();
-                if (userId == null) {
-                    callback.onError("Відсутній ідентифікатор користувача");
-                    return;
-                }
+        String userId = tokenManager.getUserId();
+        if (userId == null) {
+            callback.onError("Відсутній ідентифікатор користувача");
+            return;
+        }
 
-                // Спочатку отримуємо групи з локальної бази даних
-                List<ChatGroupEntity> localGroups = chatGroupDao.getAllGroups();
+        TtlCache.Entry<List<Group>> cached = userGroupsCache.get(userId);
+        if (cached != null) {
+            callback.onSuccess(cached.getValue());
+            if (!cached.isFresh()) {
+                revalidateUserGroups(userId);
+            }
+            return;
+        }
 
+        dbReadExecutor.execute(() -> {
+            try {
+                List<ChatGroupEntity> localGroups = chatGroupDao.getAllGroups();
                 if (!localGroups.isEmpty()) {
-                    List<Group> groups = ModelConverter.convertEntitiesToGroups(localGroups);
-                    callback.onSuccess(groups);
+                    // Локальні дані показуємо одразу, а з сервером звіряємося у фоні
+                    callback.onSuccess(ModelConverter.convertEntitiesToGroups(localGroups));
+                    revalidateUserGroups(userId);
+                } else {
+                    deliverUserGroups(loadUserGroups(userId), callback);
                 }
-
-                // Потім оновлюємо з сервера
-                fetchUserGroupsFromServer(userId, callback);
             } catch (Exception e) {
                 Log.e(TAG, "Error getting user groups: " + e.getMessage(), e);
                 callback.onError("Помилка при отриманні груп користувача: " + e.getMessage());
@@ -207,44 +291,170 @@ public class GroupRepository {
     }
 
     /**
-     * Отримує групи користувача з сервера
+     * Примусово оновлює групи користувача з сервера, незалежно від свіжості кешу
      *
-     * @param userId   ідентифікатор користувача
      * @param callback колбек зі списком груп
      */
-    private void fetchUserGroupsFromServer(String userId, GroupsCallback callback) {
-        try {
-            // Аутентифікація запиту
-            String token = tokenManager.getAccessToken();
-            if (token == null) {
-                callback.onError("Відсутній токен авторизації");
-                return;
+    public void refreshUserGroups(GroupsCallback callback) {
+        String userId = tokenManager.getUserId();
+        if (userId == null) {
+            callback.onError("Відсутній ідентифікатор користувача");
+            return;
+        }
+        deliverUserGroups(loadUserGroups(userId), callback);
+    }
+
+    private void deliverUserGroups(CompletableFuture<List<Group>> future, GroupsCallback callback) {
+        future.whenComplete((groups, error) -> {
+            if (error != null) {
+                Log.e(TAG, "Error fetching user groups from server: " + Futures.errorMessage(error));
+                callback.onError("Помилка при отриманні груп з сервера: " + Futures.errorMessage(error));
+            } else {
+                callback.onSuccess(groups);
             }
-            groupServiceClient.setAuthToken(token);
-
-            // Створення запиту на отримання груп користувача
-            GetUserGroupsRequest request = GetUserGroupsRequest.newBuilder()
-                    .setUserId(userId)
-                    .build();
-
-            // Надсилання запиту на сервер
-            GroupsResponse response = groupServiceClient.getUserGroups(request);
-
-            // Перетворення відповідей в сутності та збереження їх локально
-            List<ChatGroupEntity> groupEntities = new ArrayList<>();
-            for (GroupResponse groupResponse : response.getGroupsList()) {
-                ChatGroupEntity groupEntity = ModelConverter.convertToChatGroupEntity(groupResponse);
-                groupEntities.add(groupEntity);
-                chatGroupDao.insert(groupEntity);
+        });
+    }
+
+    private void revalidateUserGroups(String userId) {
+        loadUserGroups(userId).exceptionally(error -> {
+            Log.w(TAG, "Background group refresh failed: " + Futures.errorMessage(error));
+            return null;
+        });
+    }
+
+    private CompletableFuture<List<Group>> loadUserGroups(String userId) {
+        return userGroupsFlight.load(userId, () -> {
+            List<Group> groups = fetchUserGroupsFromServer(userId);
+            userGroupsCache.put(userId, groups);
+            for (Group group : groups) {
+                groupCache.put(group.getId(), group);
             }
+            return groups;
+        }, ioExecutor);
+    }
 
-            // Створення моделей груп для відповіді
-            List<Group> groups = ModelConverter.convertEntitiesToGroups(groupEntities);
-            callback.onSuccess(groups);
-        } catch (Exception e) {
-            Log.e(TAG, "Error fetching user groups from server: " + e.getMessage(), e);
-            callback.onError("Помилка при отриманні груп з сервера: " + e.getMessage());
+    /**
+     * Отримує групи користувача з сервера та зберігає їх локально
+     *
+     * @param userId ідентифікатор користувача
+     * @return список груп
+     */
+    private List<Group> fetchUserGroupsFromServer(String userId) {
+        // Аутентифікація запиту
+        authenticate();
+
+        // Створення запиту на отримання груп користувача
+        GetUserGroupsRequest request = GetUserGroupsRequest.newBuilder()
+                .setUserId(userId)
+                .build();
+
+        // Надсилання запиту на сервер
+        GroupsResponse response = groupServiceClient.getUserGroups(request);
+
+        // Перетворення відповідей в сутності та збереження їх локально;
+        // користувач є учасником кожної своєї групи
+        List<ChatGroupEntity> groupEntities = new ArrayList<>();
+        List<GroupMemberEntity> members = new ArrayList<>();
+        for (GroupResponse groupResponse : response.getGroupsList()) {
+            ChatGroupEntity groupEntity = ModelConverter.convertToChatGroupEntity(groupResponse);
+            groupEntities.add(groupEntity);
+            members.addAll(knownMembers(groupResponse, Collections.singletonList(userId)));
         }
+        // Оновлення на місці в одній транзакції, без каскадного видалення повідомлень.
+        // Незмінені рядки не оновлюються, тому спостерігачі отримують сповіщення лише при змінах
+        runOnDbWrite(() -> {
+            chatGroupDao.upsertAll(groupEntities);
+            groupMemberDao.insertKnownMembers(members);
+        });
+
+        return ModelConverter.convertEntitiesToGroups(groupEntities);
+    }
+
+    /**
+     * Учасники групи, відомі з відповіді сервера: адміністратор і вказані користувачі.
+     * Сервер не повертає повного складу групи, тому решта учасників додається
+     * через applyMembershipChanges
+     *
+     * @param response  відповідь сервера з даними групи
+     * @param memberIds ідентифікатори користувачів, які точно є учасниками групи
+     * @return сутності учасників (адміністратор першим)
+     */
+    private List<GroupMemberEntity> knownMembers(GroupResponse response, Collection<String> memberIds) {
+        List<GroupMemberEntity> members = new ArrayList<>();
+        String adminId = response.getAdminId();
+        if (!adminId.isEmpty()) {
+            members.add(ModelConverter.convertToGroupMemberEntity(new GroupMember(adminId, response.getId(),
+                    response.getAdminUsername(), GroupMember.Role.ADMIN)));
+        }
+
+        Map<String, User> users = UserCache.getInstance(context).getAll(memberIds);
+        for (String userId : memberIds) {
+            if (userId == null || userId.equals(adminId)) {
+                continue;
+            }
+            User user = users.get(userId);
+            members.add(ModelConverter.convertToGroupMemberEntity(new GroupMember(userId, response.getId(),
+                    user != null ? user.getUsername() : null, GroupMember.Role.MEMBER)));
+        }
+        return members;
+    }
+
+    /**
+     * Виконує запис у потоці запису бази даних і чекає на його завершення,
+     * щоб усі записи в базу проходили через одну чергу.
+     * Викликати лише з фонових потоків, відмінних від потоку запису
+     *
+     * @param write операція запису
+     */
+    private void runOnDbWrite(Runnable write) {
+        try {
+            Futures.supplyAsync(() -> {
+                dbWriteLatency.time(write);
+                return null;
+            }, dbWriteExecutor).join();
+        } catch (CompletionException e) {
+            Throwable cause = Futures.unwrap(e);
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : e;
+        }
+    }
+
+    /**
+     * Встановлює токен авторизації для клієнта груп
+     */
+    private void authenticate() {
+        String token = tokenManager.getAccessToken();
+        if (token == null) {
+            throw new IllegalStateException("Відсутній токен авторизації");
+        }
+        groupServiceClient.setAuthToken(token);
+    }
+
+    /**
+     * Скидає кешовані дані групи та списки груп
+     */
+    private void invalidateGroup(String groupId) {
+        groupCache.invalidate(groupId);
+        userGroupsCache.clear();
+    }
+
+    /**
+     * Спостерігає за всіма групами з локальної бази даних
+     *
+     * @return LiveData зі списком груп
+     */
+    public LiveData<List<Group>> observeGroups() {
+        return Transformations.map(chatGroupDao.observeAllGroups(), ModelConverter::convertEntitiesToGroups);
+    }
+
+    /**
+     * Спостерігає за групою за ідентифікатором
+     *
+     * @param groupId ідентифікатор групи
+     * @return LiveData з групою (null, якщо групу видалено)
+     */
+    public LiveData<Group> observeGroup(String groupId) {
+        return Transformations.map(chatGroupDao.observeGroupById(groupId),
+                entity -> entity != null ? ModelConverter.convertEntityToGroup(entity) : null);
     }
 
     /**
@@ -256,7 +466,7 @@ public class GroupRepository {
      * @param callback    колбек з результатом
      */
     public void updateGroup(String groupId, String name, String description, OperationCallback callback) {
-        executor.execute(() -> {
+        ioExecutor.execute(() -> {
             try {
                 // Аутентифікація запиту
                 String token = tokenManager.getAccessToken();
@@ -281,7 +491,8 @@ public class GroupRepository {
 
                 // Оновлення групи локально
                 groupEntity.setUpdatedAt(LocalDateTime.now());
-                chatGroupDao.update(groupEntity);
+                runOnDbWrite(() -> chatGroupDao.update(groupEntity));
+                invalidateGroup(groupId);
 
                 callback.onSuccess();
             } catch (Exception e) {
@@ -298,7 +509,7 @@ public class GroupRepository {
      * @param callback колбек з результатом
      */
     public void deleteGroup(String groupId, OperationCallback callback) {
-        executor.execute(() -> {
+        ioExecutor.execute(() -> {
             try {
                 // Аутентифікація запиту
                 String token = tokenManager.getAccessToken();
@@ -318,13 +529,16 @@ public class GroupRepository {
 
                 if (response.getSuccess()) {
                     // Видалення групи локально
-                    ChatGroupEntity group = chatGroupDao.getGroupById(groupId);
-                    if (group != null) {
-                        chatGroupDao.delete(group);
-                    }
-
-                    // Видалення ключа групи з кешу
+                    runOnDbWrite(() -> {
+                        ChatGroupEntity group = chatGroupDao.getGroupById(groupId);
+                        if (group != null) {
+                            chatGroupDao.delete(group);
+                        }
+                    });
+
+                    // Видалення ключа групи та самої групи з кешу
                     securityUtils.removeGroupKey(groupId);
+                    invalidateGroup(groupId);
 
                     callback.onSuccess();
                 } else {
@@ -345,10 +559,11 @@ public class GroupRepository {
      * @param callback колбек з результатом
      */
     public void setReportEnabled(String groupId, boolean enabled, OperationCallback callback) {
-        executor.execute(() -> {
+        dbWriteExecutor.execute(() -> {
             try {
                 // Оновлення звітів локально
-                chatGroupDao.setReportEnabled(groupId, enabled);
+                dbWriteLatency.time(() -> chatGroupDao.setReportEnabled(groupId, enabled));
+                groupCache.invalidate(groupId);
 
                 // TODO: Реалізувати надсилання запиту на сервер для оновлення налаштувань звітів
 
@@ -368,10 +583,11 @@ public class GroupRepository {
      * @param callback     колбек з результатом
      */
     public void updateGroupKey(String groupId, byte[] encryptedKey, OperationCallback callback) {
-        executor.execute(() -> {
+        dbWriteExecutor.execute(() -> {
             try {
                 // Оновлення ключа групи локально
-                chatGroupDao.updateEncryptedGroupKey(groupId, encryptedKey);
+                dbWriteLatency.time(() -> chatGroupDao.updateEncryptedGroupKey(groupId, encryptedKey));
+                groupCache.invalidate(groupId);
 
                 callback.onSuccess();
             } catch (Exception e) {
@@ -381,6 +597,132 @@ public class GroupRepository {
         });
     }
 
+    /**
+     * Отримує сторінку учасників групи з локальної бази даних
+     *
+     * @param groupId     ідентифікатор групи
+     * @param afterUserId userId останнього учасника попередньої сторінки (null для першої сторінки)
+     * @param pageSize    розмір сторінки
+     * @param callback    колбек зі списком учасників
+     */
+    public void getGroupMembersPage(String groupId, String afterUserId, int pageSize, MembersCallback callback) {
+        dbReadExecutor.execute(() -> {
+            try {
+                List<GroupMemberEntity> entities = groupMemberDao.getMembersPage(groupId,
+                        afterUserId != null ? afterUserId : "", pageSize);
+                callback.onSuccess(ModelConverter.convertToGroupMembers(entities));
+            } catch (Exception e) {
+                Log.e(TAG, "Error getting group members: " + e.getMessage(), e);
+                callback.onError("Помилка при отриманні учасників групи: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Перевіряє, чи є користувач учасником групи
+     *
+     * @param groupId  ідентифікатор групи
+     * @param userId   ідентифікатор користувача
+     * @param callback колбек з результатом
+     */
+    public void isGroupMember(String groupId, String userId, MembershipCallback callback) {
+        dbReadExecutor.execute(() -> {
+            try {
+                callback.onResult(groupMemberDao.isMember(groupId, userId));
+            } catch (Exception e) {
+                Log.e(TAG, "Error checking group membership: " + e.getMessage(), e);
+                callback.onError("Помилка при перевірці членства в групі: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Застосовує зміни складу групи, отримані з сервера
+     *
+     * @param groupId        ідентифікатор групи
+     * @param addedOrUpdated нові або змінені учасники
+     * @param removedUserIds ідентифікатори користувачів, які покинули групу
+     * @param callback       колбек з результатом
+     */
+    public void applyMembershipChanges(String groupId, List<GroupMember> addedOrUpdated,
+                                       List<String> removedUserIds, OperationCallback callback) {
+        dbWriteExecutor.execute(() -> {
+            try {
+                List<GroupMemberEntity> entities = new ArrayList<>();
+                if (addedOrUpdated != null) {
+                    for (GroupMember member : addedOrUpdated) {
+                        member.setGroupId(groupId);
+                        entities.add(ModelConverter.convertToGroupMemberEntity(member));
+                    }
+                }
+
+                dbWriteLatency.time(() -> groupMemberDao.applyMembershipDiff(groupId, entities, removedUserIds));
+                // Кількість учасників у кешованій групі змінилася
+                groupCache.invalidate(groupId);
+                callback.onSuccess();
+            } catch (Exception e) {
+                Log.e(TAG, "Error applying membership changes: " + e.getMessage(), e);
+                callback.onError("Помилка при оновленні учасників групи: " + e.getMessage());
+            }
+        });
+    }
+
+    // Асинхронний API на основі CompletableFuture
+
+    /**
+     * Отримує групу за ідентифікатором: з кешу, локальної бази даних або сервера.
+     * Прострочена група з кешу повертається одразу, а оновлення з сервера виконується у фоні
+     *
+     * @param groupId ідентифікатор групи
+     * @return future з групою
+     */
+    public CompletableFuture<Group> getGroupByIdAsync(String groupId) {
+        TtlCache.Entry<Group> cached = groupCache.get(groupId);
+        if (cached != null) {
+            if (!cached.isFresh()) {
+                revalidateGroup(groupId);
+            }
+            return CompletableFuture.completedFuture(cached.getValue());
+        }
+        return groupFlight.load(groupId, () -> loadGroup(groupId), ioExecutor);
+    }
+
+    /**
+     * Отримує всі групи з локальної бази даних
+     *
+     * @return future зі списком груп
+     */
+    public CompletableFuture<List<Group>> getLocalGroupsAsync() {
+        return Futures.supplyAsync(() -> ModelConverter.convertEntitiesToGroups(chatGroupDao.getAllGroups()),
+                dbReadExecutor);
+    }
+
+    /**
+     * Отримує сторінку учасників групи з локальної бази даних
+     *
+     * @param groupId     ідентифікатор групи
+     * @param afterUserId userId останнього учасника попередньої сторінки (null для першої сторінки)
+     * @param pageSize    розмір сторінки
+     * @return future зі списком учасників
+     */
+    public CompletableFuture<List<GroupMember>> getGroupMembersPageAsync(String groupId, String afterUserId,
+                                                                        int pageSize) {
+        return Futures.supplyAsync(() -> ModelConverter.convertToGroupMembers(
+                groupMemberDao.getMembersPage(groupId, afterUserId != null ? afterUserId : "", pageSize)),
+                dbReadExecutor);
+    }
+
+    /**
+     * Перевіряє, чи є користувач учасником групи
+     *
+     * @param groupId ідентифікатор групи
+     * @param userId  ідентифікатор користувача
+     * @return future з результатом перевірки
+     */
+    public CompletableFuture<Boolean> isGroupMemberAsync(String groupId, String userId) {
+        return Futures.supplyAsync(() -> groupMemberDao.isMember(groupId, userId), dbReadExecutor);
+    }
+
     /**
      * Колбек для операцій з однією групою
      */
@@ -399,6 +741,24 @@ public class GroupRepository {
         void onError(String error);
     }
 
+    /**
+     * Колбек для сторінки учасників групи
+     */
+    public interface MembersCallback {
+        void onSuccess(List<GroupMember> members);
+
+        void onError(String error);
+    }
+
+    /**
+     * Колбек для перевірки членства в групі
+     */
+    public interface MembershipCallback {
+        void onResult(boolean isMember);
+
+        void onError(String error);
+    }
+
     /**
      * Колбек для загальних операцій
      */
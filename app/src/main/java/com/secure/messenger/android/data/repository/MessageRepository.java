@@ -3,12 +3,29 @@ package com.secure.messenger.android.data.repository;
 import android.content.Context;
 import android.util.Log;
 
+import androidx.lifecycle.LiveData;
+
 import com.secure.messenger.android.data.api.MessageServiceClient;
 import com.secure.messenger.android.data.local.AppDatabase;
+import com.secure.messenger.android.data.local.AttachmentStore;
+import com.secure.messenger.android.data.local.ConversationPreviewCache;
+import com.secure.messenger.android.data.local.MessageChange;
+import com.secure.messenger.android.data.local.MessageChangeNotifier;
 import com.secure.messenger.android.data.local.TokenManager;
+import com.secure.messenger.android.data.local.converter.MessageTypeConverter;
 import com.secure.messenger.android.data.local.dao.MessageDao;
+import com.secure.messenger.android.data.local.dao.UserDao;
+import com.secure.messenger.android.data.local.entity.ConversationPreviewEntity;
 import com.secure.messenger.android.data.local.entity.MessageEntity;
+import com.secure.messenger.android.data.local.entity.UserEntity;
+import com.secure.messenger.android.data.model.Message;
+import com.secure.messenger.android.data.model.ModelConverter;
+import com.secure.messenger.android.util.AppExecutors;
+import com.secure.messenger.android.util.Futures;
+import com.secure.messenger.android.util.ImageAttachmentProcessor;
+import com.secure.messenger.android.util.MetricsRegistry;
 import com.secure.messenger.android.util.SecurityUtils;
+import com.secure.messenger.android.util.StorageUtils;
 import com.secure.messenger.proto.MessageContent;
 import com.secure.messenger.proto.MessageRequest;
 import com.secure.messenger.proto.MessageResponse;
@@ -21,14 +38,15 @@ import com.google.protobuf.ByteString;
 import java.io.ByteArrayOutputStream;
 import java.nio.ByteBuffer;
 import java.security.PublicKey;
-import java.time.Instant;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 
 import javax.crypto.SecretKey;
 
@@ -37,13 +55,31 @@ import javax.crypto.SecretKey;
  */
 public class MessageRepository {
     private static final String TAG = "MessageRepository";
+    private static final long MESSAGE_TTL_MILLIS = 24L * 60 * 60 * 1000;
 
     private final MessageServiceClient messageServiceClient;
     private final TokenManager tokenManager;
     private final MessageDao messageDao;
-    private final Executor executor;
+    private final UserDao userDao;
+    private final Executor dbReadExecutor;
+    private final Executor dbWriteExecutor;
+    private final Executor ioExecutor;
+    private final Executor cryptoExecutor;
     private final Context context;
     private final SecurityUtils securityUtils;
+    private final MessageChangeNotifier changeNotifier;
+    private final ConversationPreviewCache previewCache;
+    private final AttachmentStore attachmentStore;
+
+    // Метрики операцій з повідомленнями
+    private final MetricsRegistry.Histogram sendLatency;
+    private final MetricsRegistry.Counter sendErrors;
+    private final MetricsRegistry.Histogram fetchLatency;
+    private final MetricsRegistry.Counter fetchedMessages;
+    private final MetricsRegistry.Counter fetchErrors;
+    private final MetricsRegistry.Histogram decryptLatency;
+    private final MetricsRegistry.Counter decryptErrors;
+    private final MetricsRegistry.Histogram dbWriteLatency;
 
     /**
      * Створює новий екземпляр репозиторію повідомлень
@@ -52,12 +88,43 @@ public class MessageRepository {
      * @param messageServiceClient клієнт для сервісу повідомлень
      */
     public MessageRepository(Context context, MessageServiceClient messageServiceClient) {
+        this(context, messageServiceClient, new TokenManager(context), new SecurityUtils(context));
+    }
+
+    /**
+     * Створює новий екземпляр репозиторію повідомлень зі спільними залежностями
+     *
+     * @param context контекст додатка
+     * @param messageServiceClient клієнт для сервісу повідомлень
+     * @param tokenManager менеджер токенів
+     * @param securityUtils криптографічні утиліти
+     */
+    public MessageRepository(Context context, MessageServiceClient messageServiceClient,
+                             TokenManager tokenManager, SecurityUtils securityUtils) {
         this.context = context;
         this.messageServiceClient = messageServiceClient;
-        this.tokenManager = new TokenManager(context);
+        this.tokenManager = tokenManager;
         this.messageDao = AppDatabase.getInstance(context).messageDao();
-        this.executor = Executors.newSingleThreadExecutor();
-        this.securityUtils = new SecurityUtils(context);
+        this.userDao = AppDatabase.getInstance(context).userDao();
+        this.dbReadExecutor = AppExecutors.getInstance().dbRead();
+        this.dbWriteExecutor = AppExecutors.getInstance().dbWrite();
+        this.ioExecutor = AppExecutors.getInstance().io();
+        this.cryptoExecutor = AppExecutors.getInstance().crypto();
+        this.securityUtils = securityUtils;
+        this.changeNotifier = MessageChangeNotifier.getInstance();
+        this.previewCache = ConversationPreviewCache.getInstance(context);
+        this.attachmentStore = AttachmentStore.getInstance(context);
+
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        this.sendLatency = metrics.histogram("message.send");
+        this.sendErrors = metrics.counter("message.send.errors");
+        this.fetchLatency = metrics.histogram("message.fetch");
+        this.fetchedMessages = metrics.counter("message.fetch.received");
+        this.fetchErrors = metrics.counter("message.fetch.errors");
+        this.decryptLatency = metrics.histogram("message.decrypt");
+        this.decryptErrors = metrics.counter("message.decrypt.errors");
+        // Усі записи повідомлень у базу даних вимірюються через dbWriteLatency.time
+        this.dbWriteLatency = metrics.histogram("message.db.write");
     }
 
     /**
@@ -84,13 +151,19 @@ public class MessageRepository {
             return;
         }
 
-        executor.execute(() -> {
+        // Шифрування - в пулі обчислень, запис у базу - в потоці запису
+        cryptoExecutor.execute(() -> {
+            long startNanos = System.nanoTime();
             try {
                 // Генеруємо ID повідомлення
                 String messageId = UUID.randomUUID().toString();
 
                 // Шифруємо повідомлення
                 byte[] encryptedContent = encryptContentForUser(recipientId, content.getBytes());
+                // AES-ключ зашифровано ключем отримувача, тому відправник читає власну локальну копію
+                if (!attachmentStore.write(messageId, content.getBytes())) {
+                    Log.w(TAG, "Cannot store local copy of message " + messageId);
+                }
 
                 // Створюємо запит на відправку повідомлення
                 MessageRequest request = createMessageRequest(recipientId, null, encryptedContent, getMessageType(messageType));
@@ -103,37 +176,16 @@ public class MessageRepository {
                         null,
                         messageType,
                         encryptedContent,
-                        false,
-                        true,
-                        false
+                        MessageEntity.FLAG_SENT
                 );
 
-                messageDao.insert(messageEntity);
+                // Текст відомий під час відправки: превью створюється без розшифрування
+                storeOutgoing(messageEntity, content);
 
                 // Відправляємо повідомлення на сервер
-                messageServiceClient.sendMessage(request, new MessageServiceClient.StatusCallback() {
-                    @Override
-                    public void onResponse(StatusResponse response) {
-                        if (response != null && response.getSuccess()) {
-                            // Позначаємо повідомлення як надіслане
-                            messageDao.markAsSent(messageId);
-                            callback.onSuccess(messageId);
-                        } else {
-                            String errorMsg = "Failed to send message";
-                            if (response != null && response.getMessage() != null) {
-                                errorMsg += ": " + response.getMessage();
-                            }
-                            callback.onError(errorMsg);
-                        }
-                    }
-
-                    @Override
-                    public void onError(Throwable t) {
-                        Log.e(TAG, "Error sending message: " + t.getMessage(), t);
-                        callback.onError("Error sending message: " + (t.getMessage() != null ? t.getMessage() : "Unknown error"));
-                    }
-                });
+                sendToServer(request, messageId, startNanos, "message", callback);
             } catch (Exception e) {
+                sendErrors.increment();
                 Log.e(TAG, "Error sending direct message: " + e.getMessage(), e);
                 callback.onError("Error sending message: " + (e.getMessage() != null ? e.getMessage() : "Unknown error"));
             }
@@ -164,7 +216,8 @@ public class MessageRepository {
             return;
         }
 
-        executor.execute(() -> {
+        cryptoExecutor.execute(() -> {
+            long startNanos = System.nanoTime();
             try {
                 // Генеруємо ID повідомлення
                 String messageId = UUID.randomUUID().toString();
@@ -183,43 +236,97 @@ public class MessageRepository {
                         groupId,
                         messageType,
                         encryptedContent,
-                        false,
-                        true,
-                        false
+                        MessageEntity.FLAG_SENT
                 );
 
-                messageDao.insert(messageEntity);
+                // Текст відомий під час відправки: превью створюється без розшифрування
+                storeOutgoing(messageEntity, content);
 
                 // Відправляємо повідомлення на сервер
-                messageServiceClient.sendMessage(request, new MessageServiceClient.StatusCallback() {
-                    @Override
-                    public void onResponse(StatusResponse response) {
-                        if (response != null && response.getSuccess()) {
-                            // Позначаємо повідомлення як надіслане
-                            messageDao.markAsSent(messageId);
-                            callback.onSuccess(messageId);
-                        } else {
-                            String errorMsg = "Failed to send message";
-                            if (response != null && response.getMessage() != null) {
-                                errorMsg += ": " + response.getMessage();
-                            }
-                            callback.onError(errorMsg);
-                        }
-                    }
-
-                    @Override
-                    public void onError(Throwable t) {
-                        Log.e(TAG, "Error sending message: " + t.getMessage(), t);
-                        callback.onError("Error sending message: " + (t.getMessage() != null ? t.getMessage() : "Unknown error"));
-                    }
-                });
+                sendToServer(request, messageId, startNanos, "message", callback);
             } catch (Exception e) {
+                sendErrors.increment();
                 Log.e(TAG, "Error sending group message: " + e.getMessage(), e);
                 callback.onError("Error sending message: " + (e.getMessage() != null ? e.getMessage() : "Unknown error"));
             }
         });
     }
 
+    /**
+     * Відправляє підготовлене зображення користувачу або групі.
+     * Шифрування виконується в пулі обчислень, а мініатюра зберігається локально,
+     * щоб власне повідомлення відображалося без розшифрування повного зображення.
+     * Зашифроване тіло зображення зберігається в AttachmentStore, а не в рядку бази даних
+     *
+     * @param recipientId ідентифікатор отримувача (null для групи)
+     * @param groupId ідентифікатор групи (null для приватного повідомлення)
+     * @param image зображення, підготовлене ImageAttachmentProcessor
+     * @param callback колбек з результатом операції
+     */
+    public void sendImageMessage(String recipientId, String groupId, ImageAttachmentProcessor.ProcessedImage image,
+                                 MessageCallback callback) {
+        if (callback == null) {
+            Log.e(TAG, "Callback cannot be null");
+            return;
+        }
+
+        if (image == null) {
+            callback.onError("Image cannot be empty");
+            return;
+        }
+
+        boolean isGroup = groupId != null && !groupId.trim().isEmpty();
+        if (isGroup == (recipientId != null && !recipientId.trim().isEmpty())) {
+            callback.onError("Exactly one of recipient ID and group ID is required");
+            return;
+        }
+        String targetRecipientId = isGroup ? null : recipientId;
+        String targetGroupId = isGroup ? groupId : null;
+
+        cryptoExecutor.execute(() -> {
+            long startNanos = System.nanoTime();
+            try {
+                String messageId = UUID.randomUUID().toString();
+
+                // Шифруємо вже зменшене зображення, а не оригінал
+                byte[] encryptedContent = isGroup
+                        ? encryptContentForGroup(targetGroupId, image.getImageBytes())
+                        : encryptContentForUser(targetRecipientId, image.getImageBytes());
+                // Заглушка шифрується окремо, щоб отримувач показав її без розшифрування зображення
+                byte[] encryptedPlaceholder = isGroup
+                        ? encryptContentForGroup(targetGroupId, image.getPlaceholderBytes())
+                        : encryptContentForUser(targetRecipientId, image.getPlaceholderBytes());
+
+                MessageRequest request = createMessageRequest(targetRecipientId, targetGroupId, encryptedContent,
+                        encryptedPlaceholder, MessageType.IMAGE);
+
+                // Тіло зображення зберігається у файлі, а рядок містить лише посилання на нього
+                if (!attachmentStore.writeBody(messageId, encryptedContent)) {
+                    throw new IllegalStateException("Cannot store image");
+                }
+                MessageEntity messageEntity = createLocalMessage(
+                        messageId,
+                        tokenManager.getUserId(),
+                        targetRecipientId,
+                        targetGroupId,
+                        "IMAGE",
+                        AttachmentStore.BODY_REFERENCE,
+                        MessageEntity.FLAG_SENT
+                );
+                messageEntity.setPlaceholder(attachmentStore.encrypt(image.getPlaceholderBytes()));
+
+                attachmentStore.write(messageId, image.getThumbnailBytes());
+                storeOutgoing(messageEntity, null);
+
+                sendToServer(request, messageId, startNanos, "image", callback);
+            } catch (Exception e) {
+                sendErrors.increment();
+                Log.e(TAG, "Error sending image message: " + e.getMessage(), e);
+                callback.onError("Error sending image: " + (e.getMessage() != null ? e.getMessage() : "Unknown error"));
+            }
+        });
+    }
+
     /**
      * Отримує повідомлення з сервера, оновлює локальну базу даних та повертає повідомлення
      *
@@ -232,7 +339,8 @@ public class MessageRepository {
             return;
         }
 
-        executor.execute(() -> {
+        ioExecutor.execute(() -> {
+            long startNanos = System.nanoTime();
             try {
                 // Створюємо запит на отримання повідомлень
                 ReceiveRequest request = ReceiveRequest.newBuilder()
@@ -240,48 +348,80 @@ public class MessageRepository {
                         .setLimit(100) // Обмежуємо кількість повідомлень
                         .build();
 
-                final List<MessageEntity> messageEntities = new ArrayList<>();
-                final List<Throwable> errors = new ArrayList<>();
+                // Колбеки стріму лише накопичують відповіді: розшифрування та запис виконуються
+                // після завершення стріму однією транзакцією в потоці запису
+                final List<MessageResponse> responses = new ArrayList<>();
 
                 // Отримуємо повідомлення від сервера через стрімінг
                 messageServiceClient.receiveMessages(request, new MessageServiceClient.MessageResponseCallback() {
                     @Override
                     public void onMessageReceived(MessageResponse message) {
-                        try {
-                            // Перетворюємо отримане повідомлення у локальну сутність
-                            MessageEntity entity = mapMessageResponseToEntity(message);
-                            if (entity != null) {
-                                messageEntities.add(entity);
-                                // Зберігаємо повідомлення локально
-                                messageDao.insert(entity);
-                            }
-                        } catch (Exception e) {
-                            Log.e(TAG, "Error processing received message: " + e.getMessage(), e);
-                            errors.add(e);
-                        }
+                        responses.add(message);
                     }
 
                     @Override
                     public void onCompleted() {
-                        if (!errors.isEmpty()) {
-                            Log.w(TAG, "Completed with " + errors.size() + " errors during processing");
-                        }
-                        callback.onSuccess(messageEntities);
+                        cryptoExecutor.execute(() -> storeFetched(responses, startNanos, callback));
                     }
 
                     @Override
                     public void onError(Throwable t) {
+                        fetchErrors.increment();
                         Log.e(TAG, "Error receiving messages: " + t.getMessage(), t);
                         callback.onError("Error receiving messages: " + (t.getMessage() != null ? t.getMessage() : "Unknown error"));
                     }
                 });
             } catch (Exception e) {
+                fetchErrors.increment();
                 Log.e(TAG, "Error fetching messages: " + e.getMessage(), e);
                 callback.onError("Error fetching messages: " + (e.getMessage() != null ? e.getMessage() : "Unknown error"));
             }
         });
     }
 
+    /**
+     * Перетворює отримані відповіді на сутності (в пулі обчислень, бо заглушки медіа
+     * розшифровуються), зберігає їх однією транзакцією в потоці запису
+     * та розшифровує тексти, що стали превью розмов
+     */
+    private void storeFetched(List<MessageResponse> responses, long startNanos, FetchMessagesCallback callback) {
+        List<MessageEntity> messageEntities = new ArrayList<>(responses.size());
+        int errors = 0;
+        for (MessageResponse response : responses) {
+            try {
+                // Перетворюємо отримане повідомлення у локальну сутність
+                MessageEntity entity = mapMessageResponseToEntity(response);
+                if (entity != null) {
+                    messageEntities.add(entity);
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "Error processing received message: " + e.getMessage(), e);
+                errors++;
+            }
+        }
+        if (errors > 0) {
+            Log.w(TAG, "Completed with " + errors + " errors during processing");
+        }
+
+        dbWriteExecutor.execute(() -> {
+            try {
+                // Зберігаємо повідомлення локально (вже збережені не перезаписуються)
+                List<MessageEntity> previews = insertAllAndNotify(messageEntities);
+                fetchLatency.recordSince(startNanos);
+                fetchedMessages.add(messageEntities.size());
+
+                if (!previews.isEmpty()) {
+                    cryptoExecutor.execute(() -> decryptPreviews(previews));
+                }
+                callback.onSuccess(messageEntities);
+            } catch (Exception e) {
+                fetchErrors.increment();
+                Log.e(TAG, "Error storing received messages: " + e.getMessage(), e);
+                callback.onError("Error storing messages: " + (e.getMessage() != null ? e.getMessage() : "Unknown error"));
+            }
+        });
+    }
+
     /**
      * Отримує особисті повідомлення між поточним користувачем та іншим користувачем
      *
@@ -299,7 +439,7 @@ public class MessageRepository {
             return;
         }
 
-        executor.execute(() -> {
+        dbReadExecutor.execute(() -> {
             try {
                 String currentUserId = tokenManager.getUserId();
                 if (currentUserId == null) {
@@ -333,7 +473,7 @@ public class MessageRepository {
             return;
         }
 
-        executor.execute(() -> {
+        dbReadExecutor.execute(() -> {
             try {
                 List<MessageEntity> messages = messageDao.getGroupMessages(groupId);
                 callback.onSuccess(messages);
@@ -344,6 +484,33 @@ public class MessageRepository {
         });
     }
 
+    /**
+     * Спостерігає за приватними повідомленнями з користувачем.
+     * Room повторно виконує запит після кожного запису в таблицю повідомлень,
+     * тому підписникам не потрібно перезавантажувати список вручну.
+     *
+     * @param otherUserId ідентифікатор іншого користувача
+     * @return LiveData зі списком повідомлень або null, якщо користувач не автентифікований
+     */
+    public LiveData<List<MessageEntity>> observeDirectMessages(String otherUserId) {
+        String currentUserId = tokenManager.getUserId();
+        if (currentUserId == null) {
+            Log.e(TAG, "Current user is not authenticated");
+            return null;
+        }
+        return messageDao.observeMessagesBetweenUsers(currentUserId, otherUserId);
+    }
+
+    /**
+     * Спостерігає за груповими повідомленнями
+     *
+     * @param groupId ідентифікатор групи
+     * @return LiveData зі списком повідомлень
+     */
+    public LiveData<List<MessageEntity>> observeGroupMessages(String groupId) {
+        return messageDao.observeGroupMessages(groupId);
+    }
+
     /**
      * Позначає повідомлення як прочитане
      *
@@ -361,10 +528,11 @@ public class MessageRepository {
             return;
         }
 
-        executor.execute(() -> {
+        dbWriteExecutor.execute(() -> {
             try {
                 // Позначаємо повідомлення як прочитане локально
-                messageDao.markAsRead(messageId);
+                dbWriteLatency.time(() -> messageDao.markAsRead(messageId));
+                notifyUpdated(messageId);
 
                 // Відправляємо запит на сервер для позначення повідомлення як прочитане
                 // TODO: Реалізувати відправку запиту на сервер
@@ -388,7 +556,7 @@ public class MessageRepository {
             return;
         }
 
-        executor.execute(() -> {
+        dbReadExecutor.execute(() -> {
             try {
                 String userId = tokenManager.getUserId();
                 if (userId == null) {
@@ -422,7 +590,7 @@ public class MessageRepository {
             return;
         }
 
-        executor.execute(() -> {
+        dbWriteExecutor.execute(() -> {
             try {
                 // Отримуємо повідомлення з бази даних
                 MessageEntity message = messageDao.getMessageById(messageId);
@@ -431,8 +599,11 @@ public class MessageRepository {
                     return;
                 }
 
-                // Видаляємо повідомлення з бази даних
-                messageDao.delete(message);
+                // Видаляємо повідомлення з бази даних разом із вкладенням
+                dbWriteLatency.time(() -> messageDao.delete(message));
+                StorageUtils.deleteAttachments(context, Collections.singletonList(messageId));
+                changeNotifier.notifyChange(MessageChange.removed(messageId));
+                previewCache.onMessagesRemoved(Collections.singletonList(messageId));
 
                 // Відправляємо запит на видалення повідомлення на сервер
                 // TODO: Реалізувати відправку запиту на сервер
@@ -445,8 +616,355 @@ public class MessageRepository {
         });
     }
 
+    /**
+     * Підписує на окремі зміни повідомлень (вставка, оновлення, видалення).
+     * Слухач викликається у фоновому потоці, що виконав запис
+     *
+     * @param listener слухач змін
+     */
+    public void addMessageChangeListener(MessageChangeNotifier.Listener listener) {
+        changeNotifier.addListener(listener);
+    }
+
+    /**
+     * Відписує від змін повідомлень
+     *
+     * @param listener слухач змін
+     */
+    public void removeMessageChangeListener(MessageChangeNotifier.Listener listener) {
+        changeNotifier.removeListener(listener);
+    }
+
+    /**
+     * Розшифровує вміст повідомлення: групові - ключем групи, особисті - AES-ключем,
+     * зашифрованим приватним ключем отримувача. Власні особисті повідомлення читаються
+     * з локальної копії, бо їх може розшифрувати лише отримувач. Не викликати на головному потоці
+     *
+     * @param message повідомлення
+     * @return розшифрований вміст
+     * @throws Exception якщо вміст неможливо розшифрувати
+     */
+    public byte[] decryptContent(Message message) throws Exception {
+        long startNanos = System.nanoTime();
+        try {
+            byte[] plaintext = decryptContentInternal(message);
+            decryptLatency.recordSince(startNanos);
+            return plaintext;
+        } catch (Exception e) {
+            decryptErrors.increment();
+            throw e;
+        }
+    }
+
+    private byte[] decryptContentInternal(Message message) throws Exception {
+        // Власні особисті повідомлення зашифровані для отримувача: показуємо локальну копію
+        // (текст або мініатюру), збережену під час відправки. Власні групові зображення
+        // розшифровуються ключем групи з повного тіла
+        boolean own = message.getId() != null && message.getSenderId() != null
+                && message.getSenderId().equals(tokenManager.getUserId());
+        boolean isImage = message.getType() == Message.MessageType.IMAGE;
+        byte[] localCopy = own && message.getGroupId() == null
+                ? attachmentStore.read(message.getId()) : null;
+
+        if (isImage) {
+            if (localCopy != null) {
+                return localCopy;
+            }
+            byte[] body = AttachmentStore.isBodyReference(message.getEncryptedContent())
+                    ? attachmentStore.readBody(message.getId()) : message.getEncryptedContent();
+            return decryptPayload(message.getGroupId(), body);
+        }
+
+        byte[] plaintext = localCopy != null
+                ? localCopy : decryptPayload(message.getGroupId(), message.getEncryptedContent());
+        previewCache.onMessageDecrypted(message.getId(), plaintext);
+        return plaintext;
+    }
+
+    /**
+     * Розшифровує зашифровані дані повідомлення групи або особистого повідомлення
+     */
+    private byte[] decryptPayload(String groupId, byte[] data) throws Exception {
+        if (data == null) {
+            throw new IllegalArgumentException("Message has no encrypted content");
+        }
+
+        if (groupId != null) {
+            return securityUtils.decryptFromGroup(data, groupId);
+        }
+
+        // Формат: довжина зашифрованого ключа (4 байти), зашифрований ключ, зашифрований вміст
+        if (data.length < 4) {
+            throw new IllegalArgumentException("Encrypted content is too short");
+        }
+        int keyLength = ByteBuffer.wrap(data, 0, 4).getInt();
+        if (keyLength <= 0 || keyLength > data.length - 4) {
+            throw new IllegalArgumentException("Invalid encrypted key length: " + keyLength);
+        }
+
+        byte[] encryptedKey = Arrays.copyOfRange(data, 4, 4 + keyLength);
+        byte[] encryptedContent = Arrays.copyOfRange(data, 4 + keyLength, data.length);
+        SecretKey secretKey = SecurityUtils.createAESKeyFromBytes(securityUtils.decryptFromUser(encryptedKey));
+        return SecurityUtils.decryptWithAES(encryptedContent, secretKey);
+    }
+
+    // Асинхронний API на основі CompletableFuture
+
+    /**
+     * Отримує особисті повідомлення з іншим користувачем.
+     * Скасований до початку виконання запит не звертається до бази даних.
+     *
+     * @param otherUserId ідентифікатор іншого користувача
+     * @return future зі списком повідомлень
+     */
+    public CompletableFuture<List<MessageEntity>> getDirectMessagesAsync(String otherUserId) {
+        return Futures.supplyAsync(() -> {
+            String currentUserId = tokenManager.getUserId();
+            if (currentUserId == null) {
+                throw new IllegalStateException("Current user is not authenticated");
+            }
+            return messageDao.getMessagesBetweenUsers(currentUserId, otherUserId);
+        }, dbReadExecutor);
+    }
+
+    /**
+     * Отримує групові повідомлення
+     *
+     * @param groupId ідентифікатор групи
+     * @return future зі списком повідомлень
+     */
+    public CompletableFuture<List<MessageEntity>> getGroupMessagesAsync(String groupId) {
+        return Futures.supplyAsync(() -> messageDao.getGroupMessages(groupId), dbReadExecutor);
+    }
+
+    /**
+     * Отримує всі непрочитані повідомлення для поточного користувача
+     *
+     * @return future зі списком непрочитаних повідомлень
+     */
+    public CompletableFuture<List<MessageEntity>> getUnreadMessagesAsync() {
+        return Futures.supplyAsync(() -> {
+            String userId = tokenManager.getUserId();
+            if (userId == null) {
+                throw new IllegalStateException("Current user is not authenticated");
+            }
+            return messageDao.getUnreadMessagesForUser(userId);
+        }, dbReadExecutor);
+    }
+
+    /**
+     * Відправляє приватне повідомлення
+     *
+     * @return future з ідентифікатором повідомлення
+     */
+    public CompletableFuture<String> sendDirectMessageAsync(String recipientId, String content, String messageType) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        sendDirectMessage(recipientId, content, messageType, futureCallback(future));
+        return future;
+    }
+
+    /**
+     * Відправляє групове повідомлення
+     *
+     * @return future з ідентифікатором повідомлення
+     */
+    public CompletableFuture<String> sendGroupMessageAsync(String groupId, String content, String messageType) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        sendGroupMessage(groupId, content, messageType, futureCallback(future));
+        return future;
+    }
+
+    /**
+     * Відправляє підготовлене зображення
+     *
+     * @return future з ідентифікатором повідомлення
+     */
+    public CompletableFuture<String> sendImageMessageAsync(String recipientId, String groupId,
+                                                           ImageAttachmentProcessor.ProcessedImage image) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        sendImageMessage(recipientId, groupId, image, futureCallback(future));
+        return future;
+    }
+
+    /**
+     * Позначає повідомлення як прочитане
+     *
+     * @return future з ідентифікатором повідомлення
+     */
+    public CompletableFuture<String> markMessageAsReadAsync(String messageId) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        markMessageAsRead(messageId, futureCallback(future));
+        return future;
+    }
+
+    /**
+     * Видаляє повідомлення
+     *
+     * @return future з ідентифікатором повідомлення
+     */
+    public CompletableFuture<String> deleteMessageAsync(String messageId) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        deleteMessage(messageId, futureCallback(future));
+        return future;
+    }
+
+    /**
+     * Створює колбек, який завершує future
+     */
+    private static MessageCallback futureCallback(CompletableFuture<String> future) {
+        return new MessageCallback() {
+            @Override
+            public void onSuccess(String messageId) {
+                future.complete(messageId);
+            }
+
+            @Override
+            public void onError(String errorMessage) {
+                future.completeExceptionally(new IllegalStateException(errorMessage));
+            }
+        };
+    }
+
     // Допоміжні методи
 
+    /**
+     * Зберігає повідомлення, якщо його ще немає, і публікує вставку.
+     * Викликати лише в потоці запису бази даних
+     *
+     * @return true, якщо повідомлення вставлено
+     */
+    private boolean insertAndNotify(MessageEntity entity) {
+        long rowId = dbWriteLatency.timeAndGet(() -> messageDao.insertIfAbsent(entity));
+        if (rowId != -1) {
+            changeNotifier.notifyChange(MessageChange.inserted(entity));
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Зберігає список повідомлень однією транзакцією, публікує вставки та оновлює превью розмов.
+     * Викликати лише в потоці запису бази даних
+     *
+     * @return текстові повідомлення, що стали превью розмов і потребують розшифрування фрагмента
+     */
+    private List<MessageEntity> insertAllAndNotify(List<MessageEntity> entities) {
+        if (entities.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        long[] rowIds = dbWriteLatency.timeAndGet(() -> messageDao.insertAllIfAbsent(entities));
+
+        String currentUserId = tokenManager.getUserId();
+        List<MessageChange> changes = new ArrayList<>();
+        // Для кожної розмови розшифровується лише останнє текстове превью
+        Map<String, MessageEntity> previews = new LinkedHashMap<>();
+        for (int i = 0; i < entities.size(); i++) {
+            if (rowIds[i] == -1) {
+                continue;
+            }
+            MessageEntity entity = entities.get(i);
+            changes.add(MessageChange.inserted(entity));
+            if (previewCache.onMessageStored(entity, currentUserId, null)) {
+                String conversation = entity.getGroupId() != null
+                        ? ConversationPreviewEntity.groupKey(entity.getGroupId())
+                        : ConversationPreviewEntity.directKey(currentUserId.equals(entity.getSenderId())
+                        ? entity.getRecipientId() : entity.getSenderId());
+                if (entity.getTypeCode() == MessageTypeConverter.TEXT) {
+                    previews.put(conversation, entity);
+                } else {
+                    previews.remove(conversation);
+                }
+            }
+        }
+        changeNotifier.notifyChanges(changes);
+        return new ArrayList<>(previews.values());
+    }
+
+    /**
+     * Розшифровує текстові повідомлення, що стали превью, щоб кеш превью отримав фрагменти тексту
+     */
+    private void decryptPreviews(List<MessageEntity> previews) {
+        for (MessageEntity entity : previews) {
+            try {
+                decryptContent(ModelConverter.convertToMessage(entity));
+            } catch (Exception e) {
+                Log.w(TAG, "Cannot decrypt message for preview: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Зберігає власне повідомлення в потоці запису бази даних і оновлює превью розмови
+     *
+     * @param entity повідомлення
+     * @param plaintext текст повідомлення для превью або null
+     */
+    private void storeOutgoing(MessageEntity entity, String plaintext) {
+        dbWriteExecutor.execute(() -> {
+            try {
+                if (insertAndNotify(entity)) {
+                    previewCache.onMessageStored(entity, tokenManager.getUserId(), plaintext);
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "Error storing message: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Відправляє повідомлення на сервер. Після успішної відправки статус оновлюється
+     * в потоці запису бази даних, а не в потоці колбеку gRPC
+     *
+     * @param what назва вмісту для повідомлень про помилки ("message", "image")
+     */
+    private void sendToServer(MessageRequest request, String messageId, long startNanos, String what,
+                              MessageCallback callback) {
+        messageServiceClient.sendMessage(request, new MessageServiceClient.StatusCallback() {
+            @Override
+            public void onResponse(StatusResponse response) {
+                if (response != null && response.getSuccess()) {
+                    sendLatency.recordSince(startNanos);
+                    // Запис повідомлення стоїть у тій самій черзі раніше, тому рядок уже існує
+                    dbWriteExecutor.execute(() -> {
+                        try {
+                            // Позначаємо повідомлення як надіслане
+                            dbWriteLatency.time(() -> messageDao.markAsSent(messageId));
+                            notifyUpdated(messageId);
+                        } catch (Exception e) {
+                            Log.e(TAG, "Error marking message as sent: " + e.getMessage(), e);
+                        }
+                        callback.onSuccess(messageId);
+                    });
+                } else {
+                    sendErrors.increment();
+                    String errorMsg = "Failed to send " + what;
+                    if (response != null && response.getMessage() != null) {
+                        errorMsg += ": " + response.getMessage();
+                    }
+                    callback.onError(errorMsg);
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                sendErrors.increment();
+                Log.e(TAG, "Error sending " + what + ": " + t.getMessage(), t);
+                callback.onError("Error sending " + what + ": " + (t.getMessage() != null ? t.getMessage() : "Unknown error"));
+            }
+        });
+    }
+
+    /**
+     * Публікує оновлений стан повідомлення
+     */
+    private void notifyUpdated(String messageId) {
+        MessageEntity entity = messageDao.getMessageById(messageId);
+        if (entity != null) {
+            changeNotifier.notifyChange(MessageChange.updated(entity));
+        }
+    }
+
     /**
      * Шифрує вміст для конкретного користувача
      */
@@ -514,6 +1032,14 @@ public class MessageRepository {
      * Створює запит на відправку повідомлення
      */
     private MessageRequest createMessageRequest(String recipientId, String groupId, byte[] encryptedContent, MessageType messageType) {
+        return createMessageRequest(recipientId, groupId, encryptedContent, null, messageType);
+    }
+
+    /**
+     * Створює запит на відправку повідомлення з вбудованою заглушкою медіа
+     */
+    private MessageRequest createMessageRequest(String recipientId, String groupId, byte[] encryptedContent,
+                                                byte[] encryptedPlaceholder, MessageType messageType) {
         MessageRequest.Builder requestBuilder = MessageRequest.newBuilder();
 
         // Встановлюємо отримувача або групу
@@ -526,12 +1052,14 @@ public class MessageRepository {
         }
 
         // Встановлюємо тип та зашифрований вміст повідомлення
-        MessageContent content = MessageContent.newBuilder()
+        MessageContent.Builder content = MessageContent.newBuilder()
                 .setType(messageType)
-                .setEncryptedData(ByteString.copyFrom(encryptedContent))
-                .build();
+                .setEncryptedData(ByteString.copyFrom(encryptedContent));
+        if (encryptedPlaceholder != null) {
+            content.setEncryptedPlaceholder(ByteString.copyFrom(encryptedPlaceholder));
+        }
 
-        requestBuilder.setContent(content);
+        requestBuilder.setContent(content.build());
 
         return requestBuilder.build();
     }
@@ -541,22 +1069,20 @@ public class MessageRepository {
      */
     private MessageEntity createLocalMessage(String messageId, String senderId, String recipientId,
                                              String groupId, String messageType, byte[] encryptedContent,
-                                             boolean isRead, boolean isSent, boolean isDelivered) {
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime expiresAt = now.plusDays(1); // Повідомлення протримається 1 день
+                                             int statusFlags) {
+        long now = System.currentTimeMillis();
+        long expiresAt = now + MESSAGE_TTL_MILLIS; // Повідомлення протримається 1 день
 
         return new MessageEntity(
                 messageId,
                 senderId,
                 recipientId,
                 groupId,
-                messageType,
+                MessageTypeConverter.fromName(messageType),
                 encryptedContent,
                 now,
                 expiresAt,
-                isRead,
-                isSent,
-                isDelivered
+                statusFlags
         );
     }
 
@@ -564,20 +1090,7 @@ public class MessageRepository {
      * Перетворює тип повідомлення з рядка на enum
      */
     private MessageType getMessageType(String messageType) {
-        switch (messageType.toUpperCase()) {
-            case "TEXT":
-                return MessageType.TEXT;
-            case "IMAGE":
-                return MessageType.IMAGE;
-            case "DOCUMENT":
-                return MessageType.DOCUMENT;
-            case "VOICE":
-                return MessageType.VOICE;
-            case "REPORT":
-                return MessageType.REPORT;
-            default:
-                return MessageType.TEXT;
-        }
+        return MessageTypeConverter.toProto(MessageTypeConverter.fromName(messageType));
     }
 
     /**
@@ -610,46 +1123,62 @@ public class MessageRepository {
             return null;
         }
 
-        String messageType = content.getType().name();
+        int typeCode = MessageTypeConverter.fromProto(content.getType());
         byte[] encryptedContent = content.getEncryptedData().toByteArray();
 
-        LocalDateTime createdAt = LocalDateTime.ofInstant(
-                Instant.ofEpochMilli(response.getTimestamp()), ZoneId.systemDefault());
+        long createdAt = response.getTimestamp();
 
         // Перевірка часу закінчення терміну дії замість hasExpiresAt
-        LocalDateTime expiresAt = createdAt.plusDays(1);
-
+        long expiresAt = createdAt + MESSAGE_TTL_MILLIS;
 
         // За замовчуванням, повідомлення не прочитане, але відправлене та доставлене
-        boolean isRead = false;
-        boolean isSent = true;
-        boolean isDelivered = true;
+        int statusFlags = MessageEntity.FLAG_SENT | MessageEntity.FLAG_DELIVERED;
 
-        return new MessageEntity(
+        MessageEntity entity = new MessageEntity(
                 messageId,
                 senderId,
                 recipientId,
                 groupId,
-                messageType,
+                typeCode,
                 encryptedContent,
                 createdAt,
                 expiresAt,
-                isRead,
-                isSent,
-                isDelivered
+                statusFlags
         );
+        if (!content.getEncryptedPlaceholder().isEmpty()) {
+            entity.setPlaceholder(toLocalPlaceholder(groupId, content.getEncryptedPlaceholder().toByteArray()));
+        }
+        // Тіло зображення переноситься у файл, щоб рядок бази даних залишався малим.
+        // Повторна синхронізація отримує ті самі повідомлення, тому наявний файл не перезаписується
+        if (typeCode == MessageTypeConverter.IMAGE && encryptedContent.length > 0
+                && (attachmentStore.hasBody(messageId) || attachmentStore.writeBody(messageId, encryptedContent))) {
+            entity.setEncryptedContent(AttachmentStore.BODY_REFERENCE);
+        }
+        return entity;
+    }
+
+    /**
+     * Розшифровує отриману заглушку медіа та зберігає її під локальним ключем вкладень,
+     * щоб список показував її без асиметричного розшифрування
+     *
+     * @return заглушка для збереження або null, якщо її неможливо розшифрувати
+     */
+    private byte[] toLocalPlaceholder(String groupId, byte[] encryptedPlaceholder) {
+        try {
+            return attachmentStore.encrypt(decryptPayload(groupId, encryptedPlaceholder));
+        } catch (Exception e) {
+            Log.w(TAG, "Cannot decrypt media placeholder: " + e.getMessage());
+            return null;
+        }
     }
 
     /**
-     * Допоміжний метод для отримання публічного ключа користувача
+     * Допоміжний метод для отримання публічного ключа користувача з локальної бази даних
      */
     private byte[] getUserPublicKey(String userId) {
-        // Реалізація запиту на отримання публічного ключа з бази даних або API
-        // TODO: Реалізувати логіку отримання публічного ключа
         try {
-            // Приклад реалізації:
-            // return userDao.getUserById(userId).getPublicKey();
-            return null; // Замінити на реальну реалізацію
+            UserEntity user = userDao.getUserById(userId);
+            return user != null ? user.getPublicKey() : null;
         } catch (Exception e) {
             Log.e(TAG, "Error getting user public key: " + e.getMessage(), e);
             return null;
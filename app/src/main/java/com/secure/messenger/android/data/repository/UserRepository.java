@@ -3,18 +3,30 @@ package com.secure.messenger.android.data.repository;
 import android.content.Context;
 import android.util.Log;
 
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Transformations;
+
 import com.secure.messenger.android.data.local.AppDatabase;
+import com.secure.messenger.android.data.local.UserCache;
 import com.secure.messenger.android.data.local.dao.UserDao;
 import com.secure.messenger.android.data.local.entity.UserEntity;
+import com.secure.messenger.android.data.model.Message;
 import com.secure.messenger.android.data.model.ModelConverter;
 import com.secure.messenger.android.data.model.User;
+import com.secure.messenger.android.util.AppExecutors;
+import com.secure.messenger.android.util.MetricsRegistry;
+import com.secure.messenger.android.util.Futures;
 import com.secure.messenger.proto.UserInfo;
 import com.secure.messenger.proto.UserProfile;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 
 /**
  * Репозиторій для роботи з користувачами
@@ -24,7 +36,11 @@ public class UserRepository {
 
     private final Context context;
     private final UserDao userDao;
-    private final Executor executor;
+    private final UserCache userCache;
+    private final Executor dbReadExecutor;
+    private final Executor dbWriteExecutor;
+    // Тривалість усіх записів користувачів у базу даних
+    private final MetricsRegistry.Histogram dbWriteLatency;
 
     /**
      * Конструктор
@@ -34,7 +50,10 @@ public class UserRepository {
     public UserRepository(Context context) {
         this.context = context;
         this.userDao = AppDatabase.getInstance(context).userDao();
-        this.executor = Executors.newSingleThreadExecutor();
+        this.userCache = UserCache.getInstance(context);
+        this.dbReadExecutor = AppExecutors.getInstance().dbRead();
+        this.dbWriteExecutor = AppExecutors.getInstance().dbWrite();
+        this.dbWriteLatency = MetricsRegistry.getInstance().histogram("user.db.write");
     }
 
     /**
@@ -44,11 +63,16 @@ public class UserRepository {
      * @param callback колбек з результатом
      */
     public void getUserById(String userId, UserCallback callback) {
-        executor.execute(() -> {
+        User cached = userCache.getCached(userId);
+        if (cached != null) {
+            callback.onSuccess(cached);
+            return;
+        }
+
+        dbReadExecutor.execute(() -> {
             try {
-                UserEntity userEntity = userDao.getUserById(userId);
-                if (userEntity != null) {
-                    User user = ModelConverter.convertToUser(userEntity);
+                User user = userCache.get(userId);
+                if (user != null) {
                     callback.onSuccess(user);
                 } else {
                     callback.onError("Користувача не знайдено");
@@ -67,7 +91,7 @@ public class UserRepository {
      * @param callback колбек з результатом
      */
     public void getUserByUsername(String username, UserCallback callback) {
-        executor.execute(() -> {
+        dbReadExecutor.execute(() -> {
             try {
                 UserEntity userEntity = userDao.getUserByUsername(username);
                 if (userEntity != null) {
@@ -90,7 +114,7 @@ public class UserRepository {
      * @param callback колбек з результатом
      */
     public void getUserByPhoneNumber(String phoneNumber, UserCallback callback) {
-        executor.execute(() -> {
+        dbReadExecutor.execute(() -> {
             try {
                 UserEntity userEntity = userDao.getUserByPhoneNumber(phoneNumber);
                 if (userEntity != null) {
@@ -112,7 +136,7 @@ public class UserRepository {
      * @param callback колбек зі списком користувачів
      */
     public void getAllUsers(UsersCallback callback) {
-        executor.execute(() -> {
+        dbReadExecutor.execute(() -> {
             try {
                 List<UserEntity> userEntities = userDao.getAllUsers();
                 List<User> users = ModelConverter.convertToUsers(userEntities);
@@ -130,7 +154,7 @@ public class UserRepository {
      * @param callback колбек зі списком контактів
      */
     public void getAllContacts(UsersCallback callback) {
-        executor.execute(() -> {
+        dbReadExecutor.execute(() -> {
             try {
                 List<UserEntity> contactEntities = userDao.getAllContacts();
                 List<User> contacts = ModelConverter.convertToUsers(contactEntities);
@@ -142,6 +166,26 @@ public class UserRepository {
         });
     }
 
+    /**
+     * Спостерігає за користувачем за ідентифікатором
+     *
+     * @param userId ідентифікатор користувача
+     * @return LiveData з користувачем (null, якщо користувача немає)
+     */
+    public LiveData<User> observeUser(String userId) {
+        return Transformations.map(userDao.observeUserById(userId),
+                entity -> entity != null ? ModelConverter.convertToUser(entity) : null);
+    }
+
+    /**
+     * Спостерігає за всіма контактами
+     *
+     * @return LiveData зі списком контактів
+     */
+    public LiveData<List<User>> observeContacts() {
+        return Transformations.map(userDao.observeAllContacts(), ModelConverter::convertToUsers);
+    }
+
     /**
      * Шукає користувачів за ім'ям або номером телефону
      *
@@ -149,7 +193,7 @@ public class UserRepository {
      * @param callback колбек зі списком знайдених користувачів
      */
     public void searchUsers(String query, UsersCallback callback) {
-        executor.execute(() -> {
+        dbReadExecutor.execute(() -> {
             try {
                 List<UserEntity> userEntities = userDao.searchUsers(query);
                 List<User> users = ModelConverter.convertToUsers(userEntities);
@@ -168,7 +212,7 @@ public class UserRepository {
      * @param callback колбек з результатом
      */
     public void addOrUpdateUser(User user, OperationCallback callback) {
-        executor.execute(() -> {
+        dbWriteExecutor.execute(() -> {
             try {
                 UserEntity userEntity = new UserEntity(
                         user.getId(),
@@ -177,9 +221,9 @@ public class UserRepository {
                         user.getStatus(),
                         user.getPublicKey(),
                         user.getLastActive(),
-                        false  // За замовчуванням не є контактом
+                        false  // Для нового користувача; існуючий зберігає свій прапорець контакту
                 );
-                userDao.insert(userEntity);
+                dbWriteLatency.time(() -> userDao.upsert(userEntity));
                 callback.onSuccess();
             } catch (Exception e) {
                 Log.e(TAG, "Error adding/updating user: " + e.getMessage(), e);
@@ -195,10 +239,10 @@ public class UserRepository {
      * @param callback колбек з результатом
      */
     public void addOrUpdateUserFromProfile(UserProfile userProfile, OperationCallback callback) {
-        executor.execute(() -> {
+        dbWriteExecutor.execute(() -> {
             try {
                 UserEntity userEntity = ModelConverter.convertToUserEntity(userProfile);
-                userDao.insert(userEntity);
+                dbWriteLatency.time(() -> userDao.upsert(userEntity));
                 callback.onSuccess();
             } catch (Exception e) {
                 Log.e(TAG, "Error adding/updating user from profile: " + e.getMessage(), e);
@@ -214,10 +258,10 @@ public class UserRepository {
      * @param callback колбек з результатом
      */
     public void addOrUpdateUserFromInfo(UserInfo userInfo, OperationCallback callback) {
-        executor.execute(() -> {
+        dbWriteExecutor.execute(() -> {
             try {
                 UserEntity userEntity = ModelConverter.convertToUserEntity(userInfo);
-                userDao.insert(userEntity);
+                dbWriteLatency.time(() -> userDao.upsert(userEntity));
                 callback.onSuccess();
             } catch (Exception e) {
                 Log.e(TAG, "Error adding/updating user from info: " + e.getMessage(), e);
@@ -233,7 +277,7 @@ public class UserRepository {
      * @param callback колбек з результатом
      */
     public void updateUser(User user, OperationCallback callback) {
-        executor.execute(() -> {
+        dbWriteExecutor.execute(() -> {
             try {
                 // Отримуємо існуючу сутність
                 UserEntity existingUser = userDao.getUserById(user.getId());
@@ -254,7 +298,7 @@ public class UserRepository {
                 }
 
                 // Зберігаємо оновлену сутність
-                userDao.update(existingUser);
+                dbWriteLatency.time(() -> userDao.update(existingUser));
                 callback.onSuccess();
             } catch (Exception e) {
                 Log.e(TAG, "Error updating user: " + e.getMessage(), e);
@@ -271,9 +315,9 @@ public class UserRepository {
      * @param callback колбек з результатом
      */
     public void setContact(String userId, boolean isContact, OperationCallback callback) {
-        executor.execute(() -> {
+        dbWriteExecutor.execute(() -> {
             try {
-                userDao.setContact(userId, isContact);
+                dbWriteLatency.time(() -> userDao.setContact(userId, isContact));
                 callback.onSuccess();
             } catch (Exception e) {
                 Log.e(TAG, "Error setting contact status: " + e.getMessage(), e);
@@ -290,9 +334,9 @@ public class UserRepository {
      * @param callback колбек з результатом
      */
     public void updateLastActive(String userId, LocalDateTime lastActive, OperationCallback callback) {
-        executor.execute(() -> {
+        dbWriteExecutor.execute(() -> {
             try {
-                userDao.updateLastActive(userId, lastActive);
+                dbWriteLatency.time(() -> userDao.updateLastActive(userId, lastActive));
                 callback.onSuccess();
             } catch (Exception e) {
                 Log.e(TAG, "Error updating last active time: " + e.getMessage(), e);
@@ -308,11 +352,11 @@ public class UserRepository {
      * @param callback колбек з результатом
      */
     public void deleteUser(String userId, OperationCallback callback) {
-        executor.execute(() -> {
+        dbWriteExecutor.execute(() -> {
             try {
                 UserEntity userEntity = userDao.getUserById(userId);
                 if (userEntity != null) {
-                    userDao.delete(userEntity);
+                    dbWriteLatency.time(() -> userDao.delete(userEntity));
                     callback.onSuccess();
                 } else {
                     callback.onError("Користувача не знайдено");
@@ -324,6 +368,73 @@ public class UserRepository {
         });
     }
 
+    // Асинхронний API на основі CompletableFuture
+
+    /**
+     * Отримує користувача за ідентифікатором
+     *
+     * @param userId ідентифікатор користувача
+     * @return future з користувачем (null, якщо користувача немає)
+     */
+    public CompletableFuture<User> getUserByIdAsync(String userId) {
+        User cached = userCache.getCached(userId);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return Futures.supplyAsync(() -> userCache.get(userId), dbReadExecutor);
+    }
+
+    /**
+     * Отримує користувачів за списком ідентифікаторів: з кешу, а відсутніх - одним запитом
+     *
+     * @param userIds ідентифікатори користувачів
+     * @return future з користувачами за ідентифікатором
+     */
+    public CompletableFuture<Map<String, User>> getUsersByIdsAsync(Collection<String> userIds) {
+        return Futures.supplyAsync(() -> userCache.getAll(userIds), dbReadExecutor);
+    }
+
+    /**
+     * Заповнює імена відправників повідомлень. Усі відправники, яких немає в кеші,
+     * завантажуються одним запитом, незалежно від кількості повідомлень.
+     * Виконується синхронно, тому не викликати на головному потоці
+     *
+     * @param messages повідомлення
+     */
+    public void resolveSenderNames(List<Message> messages) {
+        Set<String> senderIds = new HashSet<>();
+        for (Message message : messages) {
+            senderIds.add(message.getSenderId());
+        }
+
+        Map<String, User> senders = userCache.getAll(senderIds);
+        for (Message message : messages) {
+            User sender = senders.get(message.getSenderId());
+            if (sender != null) {
+                message.setSenderName(sender.getUsername());
+            }
+        }
+    }
+
+    /**
+     * Отримує всі контакти
+     *
+     * @return future зі списком контактів
+     */
+    public CompletableFuture<List<User>> getAllContactsAsync() {
+        return Futures.supplyAsync(() -> ModelConverter.convertToUsers(userDao.getAllContacts()), dbReadExecutor);
+    }
+
+    /**
+     * Шукає користувачів за ім'ям або номером телефону
+     *
+     * @param query пошуковий запит
+     * @return future зі списком знайдених користувачів
+     */
+    public CompletableFuture<List<User>> searchUsersAsync(String query) {
+        return Futures.supplyAsync(() -> ModelConverter.convertToUsers(userDao.searchUsers(query)), dbReadExecutor);
+    }
+
     /**
      * Колбек для операцій з одним користувачем
      */
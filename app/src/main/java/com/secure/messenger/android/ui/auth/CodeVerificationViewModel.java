@@ -11,9 +11,9 @@ import androidx.lifecycle.MutableLiveData;
 // Припустимо, що є сервіс для виклику API верифікації
 // import com.secure.messenger.android.data.api.VerificationApiService;
 // import com.secure.messenger.android.data.model.VerificationResult;
+import com.secure.messenger.android.util.AppExecutors;
 
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 
 /**
  * ViewModel для екрану введення коду верифікації
@@ -34,7 +34,7 @@ public class CodeVerificationViewModel extends AndroidViewModel {
         super(application);
         // TODO: Ініціалізуйте ваш реальний API сервіс (використовуйте DI)
         // verificationApiService = new VerificationApiService(application.getApplicationContext());
-        executor = Executors.newSingleThreadExecutor();
+        executor = AppExecutors.getInstance().io();
     }
 
     /**
@@ -8,29 +8,24 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 
-import com.secure.messenger.android.data.api.AuthServiceClient;
+import com.secure.messenger.android.SecureMessengerApp;
 import com.secure.messenger.android.data.repository.AuthRepository;
 import com.secure.messenger.android.data.model.AuthResult;
+import com.secure.messenger.android.util.AppExecutors;
 
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 
 public class LoginViewModel extends AndroidViewModel {
 
     private final AuthRepository authRepository;
-    private final Executor executor = Executors.newSingleThreadExecutor();
+    private final Executor executor = AppExecutors.getInstance().io();
     private final MutableLiveData<AuthResult> authResultLiveData = new MutableLiveData<>();
 
     public LoginViewModel(@NonNull Application application) {
         super(application);
 
-        // Створюємо клієнт для API автентифікації
-        String serverHost = "10.0.2.2"; // localhost для емулятора
-        int serverPort = 9090;
-        AuthServiceClient authServiceClient = new AuthServiceClient(serverHost, serverPort);
-
-        // Ініціалізуємо репозиторій
-        this.authRepository = new AuthRepository(application.getApplicationContext(), authServiceClient);
+        // Спільний репозиторій з контейнера залежностей
+        this.authRepository = ((SecureMessengerApp) application).getContainer().getAuthRepository();
     }
 
     public void login(String username, String password) {
@@ -15,8 +15,9 @@ import com.google.i18n.phonenumbers.PhoneNumberUtil;
 import com.google.i18n.phonenumbers.Phonenumber;
 
 import java.util.Random;
+import com.secure.messenger.android.util.AppExecutors;
+
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 
 /**
  * ViewModel для екрану верифікації номера телефону
@@ -51,7 +52,7 @@ public class PhoneVerificationViewModel extends AndroidViewModel {
         phoneNumberUtil = PhoneNumberUtil.getInstance();
 
         // Ініціалізація виконавця для асинхронних операцій
-        executor = Executors.newSingleThreadExecutor();
+        executor = AppExecutors.getInstance().io();
     }
 
     /**
@@ -1,7 +1,6 @@
 package com.secure.messenger.android.ui.auth;
 
 import android.app.Application;
-import android.content.Context;
 import android.text.TextUtils;
 import android.util.Log;
 
@@ -13,11 +12,12 @@ import androidx.lifecycle.MutableLiveData;
 import com.google.i18n.phonenumbers.NumberParseException;
 import com.google.i18n.phonenumbers.PhoneNumberUtil;
 import com.google.i18n.phonenumbers.Phonenumber;
+import com.secure.messenger.android.SecureMessengerApp;
 import com.secure.messenger.android.data.api.AuthApiService;
 import com.secure.messenger.android.data.model.AuthResult;
+import com.secure.messenger.android.util.AppExecutors;
 
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 
 /**
  * ViewModel для екрану реєстрації
@@ -41,13 +41,12 @@ public class RegisterViewModel extends AndroidViewModel {
      */
     public RegisterViewModel(@NonNull Application application) {
         super(application);
-        Context context = application.getApplicationContext();
 
         // Ініціалізація сервісу автентифікації
-        authApiService = new AuthApiService(context);
+        authApiService = ((SecureMessengerApp) application).getContainer().getAuthApiService();
 
         // Ініціалізація виконавця для асинхронних операцій
-        executor = Executors.newSingleThreadExecutor();
+        executor = AppExecutors.getInstance().io();
 
         // Ініціалізація утиліти для валідації номерів телефонів
         phoneNumberUtil = PhoneNumberUtil.getInstance();
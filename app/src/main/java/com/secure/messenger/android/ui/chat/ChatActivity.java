@@ -4,22 +4,27 @@ import android.content.Intent;
 import android.os.Bundle;
 import android.text.TextUtils;
 import android.util.Log;
+import android.view.LayoutInflater;
 import android.view.MenuItem;
 import android.view.View;
 import android.widget.EditText;
 import android.widget.ImageButton;
+import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.annotation.NonNull;
 import androidx.appcompat.widget.Toolbar;
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.secure.messenger.android.R;
-import com.secure.messenger.android.data.model.Message;
 import com.secure.messenger.android.ui.common.BaseActivity;
-import com.secure.messenger.android.ui.common.adapter.BaseAdapter;
+import com.secure.messenger.android.ui.common.adapter.SharedViewPool;
 
 import java.util.ArrayList;
 
@@ -48,6 +53,14 @@ public class ChatActivity extends BaseActivity {
     private ChatViewModel viewModel;
     private MessageAdapter adapter;
 
+    // Вибір зображення для відправлення
+    private final ActivityResultLauncher<String> pickImageLauncher =
+            registerForActivityResult(new ActivityResultContracts.GetContent(), uri -> {
+                if (uri != null) {
+                    viewModel.sendImageMessage(uri);
+                }
+            });
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -103,11 +116,41 @@ public class ChatActivity extends BaseActivity {
     }
 
     private void setupRecyclerView() {
-        adapter = new MessageAdapter();
+        adapter = new MessageAdapter(preferenceManager.getUserId(), isGroup, preferenceManager);
         LinearLayoutManager layoutManager = new LinearLayoutManager(this);
         layoutManager.setStackFromEnd(true); // Прокрутка знизу вгору
         recyclerView.setLayoutManager(layoutManager);
+        SharedViewPool.setupMessageList(recyclerView, layoutManager);
         recyclerView.setAdapter(adapter);
+
+        // Розшифровуються лише видимі повідомлення та найближчі в напрямку прокрутки.
+        // onScrolled викликається і після розмітки, якщо змінився видимий діапазон
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
+                reportViewport(Integer.signum(dy));
+            }
+        });
+
+        // Параметри розкладки тексту беремо з тих самих макетів, що використовує адаптер,
+        // щоб текст повідомлень обчислювався у фоновому потоці
+        viewModel.setTextMetricsParams(
+                getMessageTextParams(R.layout.item_message_sent),
+                getMessageTextParams(R.layout.item_message_received));
+    }
+
+    private void reportViewport(int direction) {
+        LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+        if (layoutManager != null) {
+            viewModel.onViewportChanged(layoutManager.findFirstVisibleItemPosition(),
+                    layoutManager.findLastVisibleItemPosition(), direction);
+        }
+    }
+
+    private PrecomputedTextCompat.Params getMessageTextParams(int layoutRes) {
+        View itemView = LayoutInflater.from(this).inflate(layoutRes, recyclerView, false);
+        TextView messageText = itemView.findViewById(R.id.text_message);
+        return TextViewCompat.getTextMetricsParams(messageText);
     }
 
     private void setupClickListeners() {
@@ -115,14 +158,18 @@ public class ChatActivity extends BaseActivity {
         sendButton.setOnClickListener(v -> sendMessage());
 
         // Обробка натискання кнопки вкладення
-        attachmentButton.setOnClickListener(v -> showAttachmentOptions());
+        attachmentButton.setOnClickListener(v -> pickImage());
     }
 
     private void observeViewModel() {
         // Спостереження за списком повідомлень
-        viewModel.getMessages().observe(this, messages -> {
-            adapter.setItems(messages);
-            scrollToBottom();
+        viewModel.getMessageUpdates().observe(this, update -> {
+            // Нове повідомлення - одна позиційна зміна; прокручуємо лише при заміні списку
+            // або вставці в кінець, щоб оновлення статусу не збивало прокрутку
+            boolean scroll = update.getType() == MessageListUpdate.Type.RELOAD
+                    || (update.getType() == MessageListUpdate.Type.INSERTED
+                    && update.getPosition() == update.getItems().size() - 1);
+            adapter.applyUpdate(update, scroll ? this::scrollToBottom : null);
         });
 
         // Спостереження за статусом надсилання повідомлення
@@ -157,10 +204,8 @@ public class ChatActivity extends BaseActivity {
         }
     }
 
-    private void showAttachmentOptions() {
-        // Показуємо меню вибору типу вкладення (фото, документ, голосове повідомлення)
-        // TODO: Реалізувати діалог вибору типу вкладення
-        Toast.makeText(this, "Функція додавання вкладень у розробці", Toast.LENGTH_SHORT).show();
+    private void pickImage() {
+        pickImageLauncher.launch("image/*");
     }
 
     private void scrollToBottom() {
@@ -177,79 +222,4 @@ public class ChatActivity extends BaseActivity {
         }
         return super.onOptionsItemSelected(item);
     }
-
-    /**
-     * Адаптер для відображення повідомлень у чаті
-     */
-    private class MessageAdapter extends BaseAdapter<Message, MessageAdapter.MessageViewHolder> {
-        private static final int VIEW_TYPE_MY_MESSAGE = 0;
-        private static final int VIEW_TYPE_OTHER_MESSAGE = 1;
-        private String currentUserId;
-
-        MessageAdapter() {
-            currentUserId = preferenceManager.getUserId();
-        }
-
-        @Override
-        public int getItemViewType(int position) {
-            Message message = getItem(position);
-            if (message != null && message.getSenderId().equals(currentUserId)) {
-                return VIEW_TYPE_MY_MESSAGE;
-            } else {
-                return VIEW_TYPE_OTHER_MESSAGE;
-            }
-        }
-
-        @NonNull
-        @Override
-        public MessageViewHolder onCreateViewHolder(@NonNull android.view.ViewGroup parent, int viewType) {
-            if (viewType == VIEW_TYPE_MY_MESSAGE) {
-                View view = inflate(parent, R.layout.item_message_sent);
-                return new MessageViewHolder(view);
-            } else {
-                View view = inflate(parent, R.layout.item_message_received);
-                return new MessageViewHolder(view);
-            }
-        }
-
-        @Override
-        public void onBindViewHolder(@NonNull MessageViewHolder holder, int position) {
-            Message message = getItem(position);
-            if (message != null) {
-                holder.bind(message);
-            }
-        }
-
-        @Override
-        protected boolean areItemsTheSame(Message oldItem, Message newItem) {
-            return oldItem.getId() != null && oldItem.getId().equals(newItem.getId());
-        }
-
-        @Override
-        protected boolean areContentsTheSame(Message oldItem, Message newItem) {
-            return oldItem.getStatus() == newItem.getStatus();
-        }
-
-        /**
-         * ViewHolder для відображення повідомлення
-         */
-        class MessageViewHolder extends RecyclerView.ViewHolder {
-            // TODO: Додайте посилання на UI елементи повідомлення
-            // TextView messageText, timeText
-            // ImageView statusIcon, etc.
-
-            MessageViewHolder(@NonNull View itemView) {
-                super(itemView);
-                // TODO: Ініціалізуйте UI елементи
-            }
-
-            void bind(Message message) {
-                // TODO: Встановіть дані повідомлення у UI елементи
-                // messageText.setText(message.getTextContent());
-                // timeText.setText(message.getFormattedTime());
-                // Відображення статусу повідомлення (надіслано, доставлено, прочитано)
-                // Встановлення слухачів подій, якщо потрібно
-            }
-        }
-    }
-}
\ No newline at end of file
+}
@@ -5,6 +5,7 @@ import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.ImageView;
 import android.widget.TextView;
 import android.widget.Toast;
 
@@ -21,6 +22,8 @@ import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import com.secure.messenger.android.R;
 import com.secure.messenger.android.data.model.ChatPreview;
 import com.secure.messenger.android.ui.common.adapter.BaseAdapter;
+import com.secure.messenger.android.ui.common.adapter.SharedViewPool;
+import com.secure.messenger.android.ui.common.image.AvatarLoader;
 import com.secure.messenger.android.ui.contacts.ContactsActivity;
 
 import java.util.ArrayList;
@@ -61,6 +64,9 @@ public class ChatListFragment extends Fragment {
 
         // Завантаження даних
         viewModel.loadChats();
+
+        // Поки користувач переглядає список, готуємо елементи повідомлень для першого відкриття чату
+        MessageAdapter.prewarm();
     }
 
     private void initViews(View view) {
@@ -74,6 +80,7 @@ public class ChatListFragment extends Fragment {
         adapter = new ChatAdapter();
         recyclerView.setAdapter(adapter);
         recyclerView.setLayoutManager(new LinearLayoutManager(requireContext()));
+        SharedViewPool.setupRowList(recyclerView);
         recyclerView.addItemDecoration(new DividerItemDecoration(requireContext(), DividerItemDecoration.VERTICAL));
 
         // Налаштування обробника натиснень
@@ -140,10 +147,25 @@ public class ChatListFragment extends Fragment {
         @NonNull
         @Override
         public ChatViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-            View view = inflate(parent, R.layout.item_chat);
+            View view = SharedViewPool.inflate(parent, R.layout.item_chat);
             return new ChatViewHolder(view);
         }
 
+        @Override
+        public int getItemViewType(int position) {
+            // Тип view - ідентифікатор макета, щоб ViewHolder-и можна було ділити через спільний пул
+            return R.layout.item_chat;
+        }
+
+        @Override
+        public void onViewRecycled(@NonNull ChatViewHolder holder) {
+            super.onViewRecycled(holder);
+            // ViewHolder повертається у спільний пул і не повинен утримувати цей екран
+            holder.itemView.setOnClickListener(null);
+            holder.itemView.setOnLongClickListener(null);
+            AvatarLoader.getInstance(holder.itemView.getContext()).cancel(holder.imageAvatar);
+        }
+
         @Override
         public void onBindViewHolder(@NonNull ChatViewHolder holder, int position) {
             ChatPreview chat = getItem(position);
@@ -187,6 +209,7 @@ public class ChatListFragment extends Fragment {
          */
         static class ChatViewHolder extends RecyclerView.ViewHolder {
             private TextView textAvatar;
+            private ImageView imageAvatar;
             private TextView textName;
             private TextView textLastMessage;
             private TextView textTime;
@@ -196,6 +219,7 @@ public class ChatListFragment extends Fragment {
             public ChatViewHolder(@NonNull View itemView) {
                 super(itemView);
                 textAvatar = itemView.findViewById(R.id.text_avatar);
+                imageAvatar = itemView.findViewById(R.id.image_avatar);
                 textName = itemView.findViewById(R.id.text_name);
                 textLastMessage = itemView.findViewById(R.id.text_last_message);
                 textTime = itemView.findViewById(R.id.text_time);
@@ -207,6 +231,10 @@ public class ChatListFragment extends Fragment {
                 // Встановлюємо ініціали для аватара
                 textAvatar.setText(chat.getInitials());
 
+                // Аватар показується поверх ініціалів, коли завантажиться
+                AvatarLoader.getInstance(itemView.getContext())
+                        .load(imageAvatar, chat.getId(), chat.getAvatarUrl(), 0);
+
                 // Встановлюємо ім'я чату
                 textName.setText(chat.getName());
 
@@ -8,15 +8,20 @@ import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
-import com.secure.messenger.android.data.api.MessageServiceClient;
+import com.secure.messenger.android.AppContainer;
+import com.secure.messenger.android.SecureMessengerApp;
 import com.secure.messenger.android.data.local.AppDatabase;
+import com.secure.messenger.android.data.local.ConversationPreviewCache;
 import com.secure.messenger.android.data.local.TokenManager;
+import com.secure.messenger.android.data.local.converter.MessageTypeConverter;
 import com.secure.messenger.android.data.local.dao.MessageDao;
 import com.secure.messenger.android.data.local.dao.UserDao;
+import com.secure.messenger.android.data.local.entity.ConversationPreviewEntity;
 import com.secure.messenger.android.data.local.entity.MessageEntity;
 import com.secure.messenger.android.data.local.entity.UserEntity;
 import com.secure.messenger.android.data.model.ChatPreview;
 import com.secure.messenger.android.data.model.Message;
+import com.secure.messenger.android.data.model.ModelConverter;
 import com.secure.messenger.android.data.repository.MessageRepository;
 import com.secure.messenger.android.data.repository.UserRepository;
 
@@ -36,6 +41,7 @@ public class ChatListViewModel extends AndroidViewModel {
     private final MessageDao messageDao;
     private final UserDao userDao;
     private final TokenManager tokenManager;
+    private final ConversationPreviewCache previewCache;
 
     private final MutableLiveData<List<ChatPreview>> chatsLiveData = new MutableLiveData<>(new ArrayList<>());
     private final MutableLiveData<Boolean> isLoadingLiveData = new MutableLiveData<>(false);
@@ -57,16 +63,13 @@ public class ChatListViewModel extends AndroidViewModel {
         AppDatabase db = AppDatabase.getInstance(context);
         messageDao = db.messageDao();
         userDao = db.userDao();
-        tokenManager = new TokenManager(context);
+        previewCache = ConversationPreviewCache.getInstance(context);
 
-        // Створення клієнта для сервісу повідомлень
-        String serverHost = "10.0.2.2"; // localhost для емулятора
-        int serverPort = 9090;
-        MessageServiceClient messageServiceClient = new MessageServiceClient(serverHost, serverPort);
-
-        // Ініціалізація репозиторіїв
-        messageRepository = new MessageRepository(context, messageServiceClient);
-        userRepository = new UserRepository(context);
+        // Спільні залежності з контейнера
+        AppContainer container = ((SecureMessengerApp) application).getContainer();
+        tokenManager = container.getTokenManager();
+        messageRepository = container.getMessageRepository();
+        userRepository = container.getUserRepository();
 
         // Отримання ідентифікатора поточного користувача
         currentUserId = tokenManager.getUserId();
@@ -104,6 +107,9 @@ public class ChatListViewModel extends AndroidViewModel {
             // Отримання всіх активних чатів
             Map<String, ChatPreview> chatMap = new HashMap<>();
 
+            // Превью останніх повідомлень усіх розмов - одним запитом, без розшифрування повідомлень
+            Map<String, ConversationPreviewCache.Preview> previews = previewCache.getAll();
+
             // Отримання приватних чатів
             List<UserEntity> contacts = userDao.getAllContacts();
             for (UserEntity contact : contacts) {
@@ -112,7 +118,8 @@ public class ChatListViewModel extends AndroidViewModel {
 
                 if (lastMessage != null) {
                     // Створення превью чату
-                    ChatPreview chatPreview = createChatPreview(contact, lastMessage, false);
+                    ChatPreview chatPreview = createChatPreview(contact, lastMessage,
+                            previews.get(ConversationPreviewEntity.directKey(contact.getId())), false);
                     chatMap.put(contact.getId(), chatPreview);
                 }
             }
@@ -155,12 +162,14 @@ public class ChatListViewModel extends AndroidViewModel {
      *
      * @param user користувач
      * @param lastMessage останнє повідомлення
+     * @param preview збережене превью розмови (може бути null)
      * @param isGroup чи є це групою
      * @return превью чату
      */
-    private ChatPreview createChatPreview(UserEntity user, MessageEntity lastMessage, boolean isGroup) {
+    private ChatPreview createChatPreview(UserEntity user, MessageEntity lastMessage,
+                                          ConversationPreviewCache.Preview preview, boolean isGroup) {
         // Отримання тексту останнього повідомлення
-        String messageText = getMessagePreview(lastMessage);
+        String messageText = getMessagePreview(lastMessage, preview);
 
         // Отримання кількості непрочитаних повідомлень
         int unreadCount = getUnreadMessageCount(user.getId());
@@ -169,7 +178,7 @@ public class ChatListViewModel extends AndroidViewModel {
                 user.getId(),
                 user.getUsername(),
                 messageText,
-                lastMessage.getCreatedAt(),
+                ModelConverter.convertTimestampToLocalDateTime(lastMessage.getCreatedAtMillis()),
                 unreadCount,
                 isGroup,
                 user.getLastActive() != null && user.getLastActive().isAfter(LocalDateTime.now().minusMinutes(5)),
@@ -181,20 +190,27 @@ public class ChatListViewModel extends AndroidViewModel {
      * Отримує текстовий вміст повідомлення для відображення у превью
      *
      * @param messageEntity сутність повідомлення
+     * @param preview збережене превью розмови (може бути null)
      * @return текстовий вміст повідомлення
      */
-    private String getMessagePreview(MessageEntity messageEntity) {
-        // TODO: Замінити на розшифровку повідомлення
-        if ("TEXT".equals(messageEntity.getMessageType())) {
-            return "Текстове повідомлення";
-        } else if ("IMAGE".equals(messageEntity.getMessageType())) {
-            return "Зображення";
-        } else if ("DOCUMENT".equals(messageEntity.getMessageType())) {
-            return "Документ";
-        } else if ("VOICE".equals(messageEntity.getMessageType())) {
-            return "Голосове повідомлення";
-        } else {
-            return "Повідомлення";
+    private String getMessagePreview(MessageEntity messageEntity, ConversationPreviewCache.Preview preview) {
+        // Фрагмент тексту з кешу превью, якщо він належить саме останньому повідомленню
+        if (preview != null && preview.getSnippet() != null
+                && preview.getMessageId().equals(messageEntity.getId())) {
+            return preview.getSnippet();
+        }
+
+        switch (messageEntity.getTypeCode()) {
+            case MessageTypeConverter.TEXT:
+                return "Текстове повідомлення";
+            case MessageTypeConverter.IMAGE:
+                return "Зображення";
+            case MessageTypeConverter.DOCUMENT:
+                return "Документ";
+            case MessageTypeConverter.VOICE:
+                return "Голосове повідомлення";
+            default:
+                return "Повідомлення";
         }
     }
 
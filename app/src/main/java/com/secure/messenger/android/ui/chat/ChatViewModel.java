@@ -1,50 +1,99 @@
 package com.secure.messenger.android.ui.chat;
 
 import android.app.Application;
+import android.net.Uri;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.core.text.PrecomputedTextCompat;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.recyclerview.widget.RecyclerView;
 
-import com.secure.messenger.android.data.api.MessageServiceClient;
+import com.secure.messenger.android.AppContainer;
+import com.secure.messenger.android.SecureMessengerApp;
+import com.secure.messenger.android.data.local.AttachmentStore;
+import com.secure.messenger.android.data.local.MessageChange;
+import com.secure.messenger.android.data.local.MessageChangeNotifier;
 import com.secure.messenger.android.data.local.TokenManager;
 import com.secure.messenger.android.data.local.entity.MessageEntity;
 import com.secure.messenger.android.data.model.Message;
+import com.secure.messenger.android.data.model.ModelConverter;
 import com.secure.messenger.android.data.repository.MessageRepository;
+import com.secure.messenger.android.data.repository.UserRepository;
+import com.secure.messenger.android.util.AppExecutors;
+import com.secure.messenger.android.util.Futures;
+import com.secure.messenger.android.util.ImageAttachmentProcessor;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 
 /**
  * ViewModel для управління чатом
  */
 public class ChatViewModel extends AndroidViewModel {
     private static final String TAG = "ChatViewModel";
+    // Скільки повідомлень розшифровувати наперед у напрямку прокрутки та позаду видимих
+    private static final int DECRYPT_AHEAD = 15;
+    private static final int DECRYPT_BEHIND = 5;
 
     private final MessageRepository messageRepository;
+    private final UserRepository userRepository;
     private final TokenManager tokenManager;
     private final Executor executor;
+    private final Executor mainThread;
 
     private String chatId;
     private boolean isGroup;
 
     // LiveData для відстеження стану
-    private final MutableLiveData<List<Message>> messagesLiveData = new MutableLiveData<>(new ArrayList<>());
+    private final MutableLiveData<MessageListUpdate> messageUpdates = new MutableLiveData<>();
+    // Готує моделі відображення з обчисленим текстом; працює лише в потоці executor
+    private final MessageDisplayMapper displayMapper;
+
+    // Вікно повідомлень чату (лише головний потік)
+    private final List<MessageDisplayModel> window = new ArrayList<>();
+    private final List<MessageDisplayModel> windowView = Collections.unmodifiableList(window);
+    private final Set<String> windowKeys = new HashSet<>();
+    private int windowVersion;
+
+    // Стан завантаження (лише потік executor): зміни, що надійшли до першого знімка, відкладаються
+    private boolean snapshotLoaded;
+    private final List<MessageChange> pendingChanges = new ArrayList<>();
+    private String currentUserId;
+
+    private final MessageChangeNotifier.Listener changeListener = this::onMessagesChanged;
+    private boolean listening;
+
+    // Розшифрування лише видимих і найближчих повідомлень (лише головний потік)
+    private final DecryptionScheduler decryptionScheduler;
+    private int firstVisible = RecyclerView.NO_POSITION;
+    private int lastVisible = RecyclerView.NO_POSITION;
+    private int scrollDirection;
     private final MutableLiveData<Boolean> sendMessageStatus = new MutableLiveData<>();
     private final MutableLiveData<String> errorLiveData = new MutableLiveData<>();
 
     public ChatViewModel(@NonNull Application application) {
         super(application);
 
-        // Ініціалізація залежностей
-        MessageServiceClient messageServiceClient = new MessageServiceClient("localhost", 9090); // Змініть на реальні дані
-        this.messageRepository = new MessageRepository(application, messageServiceClient);
-        this.tokenManager = new TokenManager(application);
-        this.executor = Executors.newSingleThreadExecutor();
+        // Спільні залежності з контейнера
+        AppContainer container = ((SecureMessengerApp) application).getContainer();
+        this.messageRepository = container.getMessageRepository();
+        this.userRepository = container.getUserRepository();
+        this.tokenManager = container.getTokenManager();
+        // Послідовна черга поверх спільного пулу зберігає порядок оновлень списку
+        this.executor = AppExecutors.serial(AppExecutors.getInstance().crypto());
+        this.mainThread = AppExecutors.getInstance().mainThread();
+        this.displayMapper = new MessageDisplayMapper(AttachmentStore.getInstance(application));
+        this.decryptionScheduler = new DecryptionScheduler(messageRepository, AppExecutors.getInstance().crypto(),
+                mainThread, this::onDecrypted);
     }
 
     /**
@@ -59,120 +108,376 @@ public class ChatViewModel extends AndroidViewModel {
     }
 
     /**
-     * Завантажує повідомлення чату
+     * Завантажує повідомлення чату один раз, а далі застосовує лише окремі зміни
+     * (вставка, оновлення, видалення) з репозиторію. Нове повідомлення в кінці чату
+     * оновлює одну позицію списку незалежно від довжини розмови.
      */
     public void loadMessages() {
-        executor.execute(() -> {
+        if (listening || chatId == null) {
+            return;
+        }
+
+        String userId = tokenManager.getUserId();
+        if (userId == null) {
+            errorLiveData.setValue("Помилка завантаження повідомлень: користувач не автентифікований");
+            return;
+        }
+
+        // Підписуємося до читання знімка, щоб не пропустити зміни між ними
+        listening = true;
+        messageRepository.addMessageChangeListener(changeListener);
+
+        CompletableFuture<List<MessageEntity>> snapshot = isGroup
+                ? messageRepository.getGroupMessagesAsync(chatId)
+                : messageRepository.getDirectMessagesAsync(chatId);
+
+        snapshot.whenComplete((entities, error) -> executor.execute(() -> {
+            if (error != null) {
+                Log.e(TAG, "Error loading messages: " + Futures.errorMessage(error), Futures.unwrap(error));
+                errorLiveData.postValue("Помилка: " + Futures.errorMessage(error));
+                stopListening();
+                return;
+            }
             try {
-                if (isGroup) {
-                    // Завантаження групових повідомлень
-                    messageRepository.getGroupMessages(chatId, new MessageRepository.FetchMessagesCallback() {
-                        @Override
-                        public void onSuccess(List<MessageEntity> messages) {
-                            // Конвертуємо сутності в моделі для UI
-                            List<Message> messageList = convertMessageEntities(messages);
-                            messagesLiveData.postValue(messageList);
-                        }
-
-                        @Override
-                        public void onError(String errorMessage) {
-                            errorLiveData.postValue("Помилка завантаження повідомлень: " + errorMessage);
-                        }
-                    });
-                } else {
-                    // Завантаження приватних повідомлень
-                    messageRepository.getDirectMessages(chatId, new MessageRepository.FetchMessagesCallback() {
-                        @Override
-                        public void onSuccess(List<MessageEntity> messages) {
-                            // Конвертуємо сутності в моделі для UI
-                            List<Message> messageList = convertMessageEntities(messages);
-                            messagesLiveData.postValue(messageList);
-                        }
-
-                        @Override
-                        public void onError(String errorMessage) {
-                            errorLiveData.postValue("Помилка завантаження повідомлень: " + errorMessage);
-                        }
-                    });
-                }
+                currentUserId = userId;
+                List<MessageDisplayModel> models = convertMessageEntities(entities);
+                mainThread.execute(() -> replaceWindow(models));
+
+                snapshotLoaded = true;
+                // Зміни, записані під час читання знімка, застосовуються ідемпотентно
+                applyChanges(new ArrayList<>(pendingChanges));
+                pendingChanges.clear();
             } catch (Exception e) {
                 Log.e(TAG, "Error loading messages: " + e.getMessage(), e);
                 errorLiveData.postValue("Помилка: " + e.getMessage());
+                if (!snapshotLoaded) {
+                    stopListening();
+                }
             }
-        });
+        }));
     }
 
     /**
-     * Надсилає текстове повідомлення
-     *
-     * @param text текст повідомлення
+     * Відписується від змін після невдалого завантаження знімка, щоб відкладені зміни
+     * не накопичувалися, а наступний виклик loadMessages повторив завантаження.
+     * Викликається в потоці executor
      */
-    public void sendTextMessage(String text) {
+    private void stopListening() {
+        messageRepository.removeMessageChangeListener(changeListener);
+        pendingChanges.clear();
+        mainThread.execute(() -> listening = false);
+    }
+
+    /**
+     * Отримує зміни від репозиторію в потоці запису та передає їх у послідовну чергу
+     */
+    private void onMessagesChanged(List<MessageChange> changes) {
         executor.execute(() -> {
+            if (!snapshotLoaded) {
+                pendingChanges.addAll(changes);
+                return;
+            }
             try {
-                if (isGroup) {
-                    // Надсилання групового повідомлення
-                    messageRepository.sendGroupMessage(chatId, text, "TEXT", new MessageRepository.MessageCallback() {
-                        @Override
-                        public void onSuccess(String messageId) {
-                            sendMessageStatus.postValue(true);
-                            loadMessages(); // Оновлюємо список повідомлень
-                        }
-
-                        @Override
-                        public void onError(String errorMessage) {
-                            sendMessageStatus.postValue(false);
-                            errorLiveData.postValue("Помилка відправки повідомлення: " + errorMessage);
-                        }
-                    });
-                } else {
-                    // Надсилання приватного повідомлення
-                    messageRepository.sendDirectMessage(chatId, text, "TEXT", new MessageRepository.MessageCallback() {
-                        @Override
-                        public void onSuccess(String messageId) {
-                            sendMessageStatus.postValue(true);
-                            loadMessages(); // Оновлюємо список повідомлень
-                        }
-
-                        @Override
-                        public void onError(String errorMessage) {
-                            sendMessageStatus.postValue(false);
-                            errorLiveData.postValue("Помилка відправки повідомлення: " + errorMessage);
-                        }
-                    });
-                }
+                applyChanges(changes);
             } catch (Exception e) {
-                Log.e(TAG, "Error sending message: " + e.getMessage(), e);
-                sendMessageStatus.postValue(false);
-                errorLiveData.postValue("Помилка: " + e.getMessage());
+                Log.e(TAG, "Error applying message changes: " + e.getMessage(), e);
             }
         });
     }
 
     /**
-     * Позначає повідомлення як прочитане
+     * Готує моделі для змін цього чату та застосовує їх до вікна одним завданням на головному потоці
+     */
+    private void applyChanges(List<MessageChange> changes) {
+        List<Runnable> operations = new ArrayList<>();
+        for (MessageChange change : changes) {
+            if (change.getType() == MessageChange.Type.REMOVED) {
+                displayMapper.remove(change.getMessageId());
+                String key = change.getMessageId();
+                operations.add(() -> removeFromWindow(key));
+                continue;
+            }
+
+            MessageEntity entity = change.getEntity();
+            if (!belongsToChat(entity)) {
+                continue;
+            }
+
+            Message message = ModelConverter.convertToMessage(entity);
+            if (isGroup) {
+                userRepository.resolveSenderNames(Collections.singletonList(message));
+            }
+            MessageDisplayModel previous = displayMapper.get(MessageDisplayModel.keyOf(message));
+            MessageDisplayModel model = displayMapper.map(message, currentUserId);
+            if (model != previous) {
+                operations.add(() -> upsertIntoWindow(model));
+            }
+        }
+
+        if (!operations.isEmpty()) {
+            mainThread.execute(() -> {
+                for (Runnable operation : operations) {
+                    operation.run();
+                }
+            });
+        }
+    }
+
+    /**
+     * Перевіряє, чи належить повідомлення відкритому чату
+     */
+    private boolean belongsToChat(MessageEntity entity) {
+        if (isGroup) {
+            return chatId.equals(entity.getGroupId());
+        }
+        if (entity.getGroupId() != null) {
+            return false;
+        }
+        return (chatId.equals(entity.getSenderId()) && currentUserId.equals(entity.getRecipientId()))
+                || (currentUserId.equals(entity.getSenderId()) && chatId.equals(entity.getRecipientId()));
+    }
+
+    /**
+     * Повідомляє про видимий діапазон списку. Розшифровуються лише видимі повідомлення
+     * та найближчі до них у напрямку прокрутки; решта запланованих завдань скасовується
      *
-     * @param messageId ідентифікатор повідомлення
+     * @param first позиція першого видимого елемента
+     * @param last позиція останнього видимого елемента
+     * @param direction напрямок прокрутки: більше 0 - до новіших, менше 0 - до старіших
      */
-    public void markMessageAsRead(String messageId) {
+    public void onViewportChanged(int first, int last, int direction) {
+        if (first == RecyclerView.NO_POSITION || last == RecyclerView.NO_POSITION) {
+            return;
+        }
+        firstVisible = first;
+        lastVisible = last;
+        if (direction != 0) {
+            scrollDirection = direction;
+        }
+        scheduleDecryption();
+    }
+
+    private void scheduleDecryption() {
+        if (firstVisible == RecyclerView.NO_POSITION || window.isEmpty()) {
+            return;
+        }
+
+        int first = Math.min(firstVisible, window.size() - 1);
+        int last = Math.min(lastVisible, window.size() - 1);
+        // Чат відкривається внизу, тому без прокрутки наперед розшифровуються старіші повідомлення
+        boolean towardsNewer = scrollDirection > 0;
+        int aheadCount = towardsNewer ? DECRYPT_AHEAD : DECRYPT_BEHIND;
+        int behindCount = towardsNewer ? DECRYPT_BEHIND : DECRYPT_AHEAD;
+
+        List<MessageDisplayModel> wanted = new ArrayList<>();
+        for (int i = first; i <= last; i++) {
+            addIfNeedsDecryption(wanted, i);
+        }
+        // Чергуємо напрямки, починаючи з напрямку прокрутки
+        for (int i = 1; i <= Math.max(aheadCount, behindCount); i++) {
+            int newer = i <= aheadCount ? last + i : -1;
+            int older = i <= behindCount ? first - i : -1;
+            addIfNeedsDecryption(wanted, towardsNewer ? newer : older);
+            addIfNeedsDecryption(wanted, towardsNewer ? older : newer);
+        }
+        decryptionScheduler.schedule(wanted);
+    }
+
+    private void addIfNeedsDecryption(List<MessageDisplayModel> wanted, int position) {
+        if (position >= 0 && position < window.size()) {
+            MessageDisplayModel model = window.get(position);
+            if (model.needsDecryption()) {
+                wanted.add(model);
+            }
+        }
+    }
+
+    /**
+     * Отримує результат розшифрування у фоновому потоці та готує модель з текстом
+     */
+    private void onDecrypted(Message source, byte[] plaintext, Throwable error) {
         executor.execute(() -> {
-            try {
-                messageRepository.markMessageAsRead(messageId, new MessageRepository.MessageCallback() {
+            String key = MessageDisplayModel.keyOf(source);
+            MessageDisplayModel current = key != null ? displayMapper.get(key) : null;
+            if (current == null || !current.needsDecryption()) {
+                return;
+            }
+
+            MessageDisplayModel model;
+            if (error != null) {
+                Log.w(TAG, "Error decrypting message " + key + ": " + error.getMessage());
+                model = displayMapper.markDecryptionFailed(key);
+            } else {
+                Message message = current.getMessage().copy();
+                message.setDecryptedContent(plaintext);
+                model = displayMapper.map(message, currentUserId);
+            }
+            mainThread.execute(() -> replaceInWindow(model));
+        });
+    }
+
+    // Операції з вікном повідомлень (лише головний потік)
+
+    private void replaceWindow(List<MessageDisplayModel> models) {
+        window.clear();
+        window.addAll(models);
+        windowKeys.clear();
+        for (MessageDisplayModel model : models) {
+            windowKeys.add(model.getKey());
+        }
+        publish(MessageListUpdate.Type.RELOAD, 0);
+        scheduleDecryption();
+    }
+
+    /**
+     * Замінює модель повідомлення, якщо воно ще є у вікні
+     */
+    private void replaceInWindow(MessageDisplayModel model) {
+        if (!windowKeys.contains(model.getKey())) {
+            return;
+        }
+        int position = indexOf(model.getKey());
+        if (position >= 0) {
+            window.set(position, model);
+            publish(MessageListUpdate.Type.CHANGED, position);
+        }
+    }
+
+    private void upsertIntoWindow(MessageDisplayModel model) {
+        if (windowKeys.contains(model.getKey())) {
+            replaceInWindow(model);
+            return;
+        }
+
+        // Список відсортовано за часом: нове повідомлення зазвичай одразу потрапляє в кінець
+        int position = window.size();
+        while (position > 0 && isAfter(window.get(position - 1), model)) {
+            position--;
+        }
+        window.add(position, model);
+        windowKeys.add(model.getKey());
+        publish(MessageListUpdate.Type.INSERTED, position);
+        if (model.needsDecryption()) {
+            scheduleDecryption();
+        }
+    }
+
+    private void removeFromWindow(String key) {
+        if (!windowKeys.remove(key)) {
+            return;
+        }
+        int position = indexOf(key);
+        if (position >= 0) {
+            window.remove(position);
+            publish(MessageListUpdate.Type.REMOVED, position);
+        }
+    }
+
+    /**
+     * Шукає позицію з кінця списку, де знаходяться останні (найчастіше змінювані) повідомлення
+     */
+    private int indexOf(String key) {
+        for (int i = window.size() - 1; i >= 0; i--) {
+            if (key.equals(window.get(i).getKey())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isAfter(MessageDisplayModel first, MessageDisplayModel second) {
+        LocalDateTime firstTime = first.getMessage().getCreatedAt();
+        LocalDateTime secondTime = second.getMessage().getCreatedAt();
+        return firstTime != null && secondTime != null && firstTime.isAfter(secondTime);
+    }
+
+    private void publish(MessageListUpdate.Type type, int position) {
+        messageUpdates.setValue(new MessageListUpdate(type, position, ++windowVersion, windowView));
+    }
+
+    /**
+     * Надсилає текстове повідомлення
+     *
+     * @param text текст повідомлення
+     */
+    public void sendTextMessage(String text) {
+        try {
+            if (isGroup) {
+                // Надсилання групового повідомлення
+                messageRepository.sendGroupMessage(chatId, text, "TEXT", new MessageRepository.MessageCallback() {
                     @Override
                     public void onSuccess(String messageId) {
-                        loadMessages(); // Оновлюємо список повідомлень
+                        sendMessageStatus.postValue(true);
                     }
 
                     @Override
                     public void onError(String errorMessage) {
-                        errorLiveData.postValue("Помилка позначення повідомлення як прочитане: " + errorMessage);
+                        sendMessageStatus.postValue(false);
+                        errorLiveData.postValue("Помилка відправки повідомлення: " + errorMessage);
+                    }
+                });
+            } else {
+                // Надсилання приватного повідомлення
+                messageRepository.sendDirectMessage(chatId, text, "TEXT", new MessageRepository.MessageCallback() {
+                    @Override
+                    public void onSuccess(String messageId) {
+                        sendMessageStatus.postValue(true);
+                    }
+
+                    @Override
+                    public void onError(String errorMessage) {
+                        sendMessageStatus.postValue(false);
+                        errorLiveData.postValue("Помилка відправки повідомлення: " + errorMessage);
                     }
                 });
-            } catch (Exception e) {
-                Log.e(TAG, "Error marking message as read: " + e.getMessage(), e);
-                errorLiveData.postValue("Помилка: " + e.getMessage());
             }
-        });
+        } catch (Exception e) {
+            Log.e(TAG, "Error sending message: " + e.getMessage(), e);
+            sendMessageStatus.postValue(false);
+            errorLiveData.postValue("Помилка: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Надсилає зображення. Зображення зменшується та стискається у фоновому пулі,
+     * головний потік не працює з оригіналом
+     *
+     * @param imageUri URI вибраного зображення
+     */
+    public void sendImageMessage(Uri imageUri) {
+        ImageAttachmentProcessor.processAsync(getApplication(), imageUri)
+                .thenCompose(image -> messageRepository.sendImageMessageAsync(
+                        isGroup ? null : chatId, isGroup ? chatId : null, image))
+                .whenComplete((messageId, error) -> {
+                    if (error != null) {
+                        Log.e(TAG, "Error sending image: " + Futures.errorMessage(error), Futures.unwrap(error));
+                        errorLiveData.postValue("Помилка відправки зображення: " + Futures.errorMessage(error));
+                    }
+                });
+    }
+
+    /**
+     * Позначає повідомлення як прочитане
+     *
+     * @param messageId ідентифікатор повідомлення
+     */
+    public void markMessageAsRead(String messageId) {
+        try {
+            messageRepository.markMessageAsRead(messageId, new MessageRepository.MessageCallback() {
+                @Override
+                public void onSuccess(String messageId) {
+                    // Список оновиться через зміну з репозиторію
+                }
+
+                @Override
+                public void onError(String errorMessage) {
+                    errorLiveData.postValue("Помилка позначення повідомлення як прочитане: " + errorMessage);
+                }
+            });
+        } catch (Exception e) {
+            Log.e(TAG, "Error marking message as read: " + e.getMessage(), e);
+            errorLiveData.postValue("Помилка: " + e.getMessage());
+        }
     }
 
     /**
@@ -181,60 +486,58 @@ public class ChatViewModel extends AndroidViewModel {
      * @param messageId ідентифікатор повідомлення
      */
     public void deleteMessage(String messageId) {
-        executor.execute(() -> {
-            try {
-                messageRepository.deleteMessage(messageId, new MessageRepository.MessageCallback() {
-                    @Override
-                    public void onSuccess(String messageId) {
-                        loadMessages(); // Оновлюємо список повідомлень
-                    }
+        try {
+            messageRepository.deleteMessage(messageId, new MessageRepository.MessageCallback() {
+                @Override
+                public void onSuccess(String messageId) {
+                    // Список оновиться через зміну з репозиторію
+                }
 
-                    @Override
-                    public void onError(String errorMessage) {
-                        errorLiveData.postValue("Помилка видалення повідомлення: " + errorMessage);
-                    }
-                });
-            } catch (Exception e) {
-                Log.e(TAG, "Error deleting message: " + e.getMessage(), e);
-                errorLiveData.postValue("Помилка: " + e.getMessage());
-            }
-        });
+                @Override
+                public void onError(String errorMessage) {
+                    errorLiveData.postValue("Помилка видалення повідомлення: " + errorMessage);
+                }
+            });
+        } catch (Exception e) {
+            Log.e(TAG, "Error deleting message: " + e.getMessage(), e);
+            errorLiveData.postValue("Помилка: " + e.getMessage());
+        }
     }
 
     /**
-     * Конвертує сутності повідомлень у моделі для UI
+     * Конвертує сутності повідомлень у готові моделі відображення
      *
      * @param entities список сутностей повідомлень
-     * @return список моделей повідомлень
+     * @return список моделей відображення
      */
-    private List<Message> convertMessageEntities(List<MessageEntity> entities) {
-        List<Message> messages = new ArrayList<>();
-        for (MessageEntity entity : entities) {
-            Message message = new Message(
-                    entity.getId(),
-                    entity.getSenderId(),
-                    entity.getRecipientId(),
-                    entity.getGroupId(),
-                    entity.getMessageType(),
-                    entity.getEncryptedContent(),
-                    entity.getCreatedAt(),
-                    entity.getExpiresAt(),
-                    entity.isRead(),
-                    entity.isSent(),
-                    entity.isDelivered()
-            );
-            messages.add(message);
+    private List<MessageDisplayModel> convertMessageEntities(List<MessageEntity> entities) {
+        List<Message> messages = ModelConverter.convertToMessages(entities);
+        if (isGroup) {
+            // Імена всіх відправників - з кешу користувачів, відсутні одним запитом
+            userRepository.resolveSenderNames(messages);
         }
-        return messages;
+        return displayMapper.map(messages, currentUserId);
+    }
+
+    /**
+     * Встановлює параметри розкладки тексту повідомлень, щоб текст обчислювався
+     * у фоновому потоці. Викликати до loadMessages()
+     *
+     * @param sentParams параметри TextView відправлених повідомлень
+     * @param receivedParams параметри TextView отриманих повідомлень
+     */
+    public void setTextMetricsParams(PrecomputedTextCompat.Params sentParams,
+                                     PrecomputedTextCompat.Params receivedParams) {
+        displayMapper.setTextParams(sentParams, receivedParams);
     }
 
     /**
-     * Отримує LiveData зі списком повідомлень
+     * Отримує LiveData зі змінами списку повідомлень
      *
-     * @return LiveData зі списком повідомлень
+     * @return LiveData зі змінами списку повідомлень
      */
-    public LiveData<List<Message>> getMessages() {
-        return messagesLiveData;
+    public LiveData<MessageListUpdate> getMessageUpdates() {
+        return messageUpdates;
     }
 
     /**
@@ -268,4 +571,13 @@ public class ChatViewModel extends AndroidViewModel {
     public void resetError() {
         errorLiveData.setValue(null);
     }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        decryptionScheduler.cancelAll();
+        if (listening) {
+            messageRepository.removeMessageChangeListener(changeListener);
+        }
+    }
 }
\ No newline at end of file
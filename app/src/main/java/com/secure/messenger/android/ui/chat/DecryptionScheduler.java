@@ -0,0 +1,102 @@
+package com.secure.messenger.android.ui.chat;
+
+import com.secure.messenger.android.data.model.Message;
+import com.secure.messenger.android.data.repository.MessageRepository;
+import com.secure.messenger.android.util.Futures;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Планувальник розшифрування повідомлень, видимих у списку або поруч із ним.
+ * Завдання ставляться в чергу в порядку пріоритету (спочатку видимі, потім у напрямку прокрутки),
+ * а завдання для рядків, що вийшли за межі вікна, скасовуються ще до початку виконання.
+ * Усі методи - лише головний потік.
+ */
+class DecryptionScheduler {
+
+    private final MessageRepository messageRepository;
+    private final Executor executor;
+    private final Executor mainThread;
+    private final Listener listener;
+
+    // Заплановані та виконувані розшифрування за ключем повідомлення
+    private final Map<String, CompletableFuture<byte[]>> pending = new HashMap<>();
+
+    DecryptionScheduler(MessageRepository messageRepository, Executor executor, Executor mainThread,
+                        Listener listener) {
+        this.messageRepository = messageRepository;
+        this.executor = executor;
+        this.mainThread = mainThread;
+        this.listener = listener;
+    }
+
+    /**
+     * Замінює набір потрібних розшифрувань
+     *
+     * @param wanted моделі, що потребують розшифрування, у порядку пріоритету
+     */
+    void schedule(List<MessageDisplayModel> wanted) {
+        Set<String> wantedKeys = new HashSet<>();
+        for (MessageDisplayModel model : wanted) {
+            wantedKeys.add(model.getKey());
+        }
+
+        // Рядки, що вийшли за межі вікна, більше не потребують розшифрування
+        Iterator<Map.Entry<String, CompletableFuture<byte[]>>> iterator = pending.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, CompletableFuture<byte[]>> entry = iterator.next();
+            if (!wantedKeys.contains(entry.getKey())) {
+                Futures.cancel(entry.getValue());
+                iterator.remove();
+            }
+        }
+
+        for (MessageDisplayModel model : wanted) {
+            String key = model.getKey();
+            if (key == null || pending.containsKey(key)) {
+                continue;
+            }
+
+            Message message = model.getMessage();
+            CompletableFuture<byte[]> future = Futures.supplyAsync(
+                    () -> messageRepository.decryptContent(message), executor);
+            pending.put(key, future);
+            future.whenComplete((plaintext, error) -> {
+                if (future.isCancelled()) {
+                    return;
+                }
+                listener.onDecrypted(message, plaintext, error != null ? Futures.unwrap(error) : null);
+                mainThread.execute(() -> pending.remove(key, future));
+            });
+        }
+    }
+
+    /**
+     * Скасовує всі заплановані розшифрування
+     */
+    void cancelAll() {
+        for (CompletableFuture<byte[]> future : pending.values()) {
+            Futures.cancel(future);
+        }
+        pending.clear();
+    }
+
+    /**
+     * Отримувач результатів. Викликається у фоновому потоці розшифрування
+     */
+    interface Listener {
+        /**
+         * @param message повідомлення
+         * @param plaintext розшифрований вміст або null у разі помилки
+         * @param error помилка розшифрування або null
+         */
+        void onDecrypted(Message message, byte[] plaintext, Throwable error);
+    }
+}
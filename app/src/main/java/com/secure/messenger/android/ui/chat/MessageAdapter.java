@@ -1,6 +1,7 @@
 package com.secure.messenger.android.ui.chat;
 
 import android.content.Context;
+import android.graphics.Bitmap;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -8,45 +9,64 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.secure.messenger.android.R;
+import com.secure.messenger.android.SecureMessengerApp;
 import com.secure.messenger.android.data.local.PreferenceManager;
 import com.secure.messenger.android.data.model.Message;
 import com.secure.messenger.android.ui.common.adapter.BaseAdapter;
+import com.secure.messenger.android.ui.common.adapter.SharedViewPool;
+import com.secure.messenger.android.ui.common.image.AvatarLoader;
+
+import java.util.List;
+import java.util.Objects;
 
 /**
  * Адаптер для відображення повідомлень у RecyclerView
  */
-public class MessageAdapter extends BaseAdapter<Message, RecyclerView.ViewHolder> {
-    private static final int VIEW_TYPE_MY_MESSAGE = 0;
-    private static final int VIEW_TYPE_OTHER_MESSAGE = 1;
+public class MessageAdapter extends BaseAdapter<MessageDisplayModel, RecyclerView.ViewHolder> {
+    // Типи view - ідентифікатори макетів, щоб ViewHolder-и можна було ділити через спільний пул
+    private static final int VIEW_TYPE_MY_MESSAGE = R.layout.item_message_sent;
+    private static final int VIEW_TYPE_OTHER_MESSAGE = R.layout.item_message_received;
+    // Скільки елементів кожного типу створити заздалегідь
+    private static final int PREWARM_COUNT = 12;
+
+    // Payload зміни лише статусу повідомлення
+    private static final Object PAYLOAD_STATUS = new Object();
 
     private final String currentUserId;
+    private final boolean isGroupChat;
     private final PreferenceManager preferenceManager;
+    // Версія списку ViewModel, яку відображає адаптер (-1 - список ще не завантажено)
+    private int appliedVersion = -1;
 
     public MessageAdapter(Context context) {
-        this.preferenceManager = new PreferenceManager(context);
+        this.preferenceManager = SecureMessengerApp.getInstance().getContainer().getPreferenceManager();
         currentUserId = preferenceManager.getUserId();
+        isGroupChat = false;
+        setHasStableIds(true);
     }
 
-
-
     /**
      * Конструктор адаптера
      *
      * @param currentUserId ID поточного користувача
      * @param isGroupChat чи є чат груповим
      */
-     public MessageAdapter(String currentUserId, boolean isGroupChat, PreferenceManager preferenceManager) {
+    public MessageAdapter(String currentUserId, boolean isGroupChat, PreferenceManager preferenceManager) {
         this.currentUserId = currentUserId;
-         this.preferenceManager = preferenceManager;
+        this.isGroupChat = isGroupChat;
+        this.preferenceManager = preferenceManager;
+        setHasStableIds(true);
     }
 
     @Override
     public int getItemViewType(int position) {
-        Message message = getItem(position);
-        if (message != null && message.getSenderId().equals(currentUserId)) {
+        MessageDisplayModel model = getItem(position);
+        if (model != null && model.isOutgoing()) {
             return VIEW_TYPE_MY_MESSAGE;
         } else {
             return VIEW_TYPE_OTHER_MESSAGE;
@@ -57,68 +77,223 @@ public class MessageAdapter extends BaseAdapter<Message, RecyclerView.ViewHolder
     @Override
     public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         if (viewType == VIEW_TYPE_MY_MESSAGE) {
-            View view = inflate(parent, R.layout.item_message_sent);
+            View view = SharedViewPool.inflate(parent, R.layout.item_message_sent);
             return new SentMessageViewHolder(view);
         } else {
-            View view = inflate(parent, R.layout.item_message_received);
+            View view = SharedViewPool.inflate(parent, R.layout.item_message_received);
             return new ReceivedMessageViewHolder(view);
         }
     }
 
     @Override
     public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
-        Message message = getItem(position);
-        if (message != null) {
+        MessageDisplayModel model = getItem(position);
+        if (model != null) {
             if (holder instanceof SentMessageViewHolder) {
-                ((SentMessageViewHolder) holder).bind(message);
+                ((SentMessageViewHolder) holder).bind(model);
             } else if (holder instanceof ReceivedMessageViewHolder) {
-                ((ReceivedMessageViewHolder) holder).bind(message);
+                ((ReceivedMessageViewHolder) holder).bind(model, isGroupChat);
             }
+
+            // Налаштовуємо слухач для довгого натискання
+            holder.itemView.setOnLongClickListener(v -> {
+                int adapterPosition = holder.getAdapterPosition();
+                MessageDisplayModel item = getItem(adapterPosition);
+                if (onItemLongClickListener != null && item != null) {
+                    return onItemLongClickListener.onItemLongClick(item, adapterPosition, v);
+                }
+                return false;
+            });
+        }
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull RecyclerView.ViewHolder holder) {
+        super.onViewRecycled(holder);
+        // ViewHolder повертається у спільний пул і не повинен утримувати цей екран
+        holder.itemView.setOnLongClickListener(null);
+        if (holder instanceof ReceivedMessageViewHolder) {
+            AvatarLoader.getInstance(holder.itemView.getContext())
+                    .cancel(((ReceivedMessageViewHolder) holder).avatarImage);
+        }
+    }
+
+    /**
+     * Заздалегідь створює ViewHolder-и повідомлень у спільному пулі під час простою
+     * головного потоку, щоб перше відкриття чату не витрачало час на інфлейт. Лише головний потік
+     */
+    public static void prewarm() {
+        MessageAdapter adapter = new MessageAdapter(null, false, null);
+        SharedViewPool.prewarm(adapter, VIEW_TYPE_MY_MESSAGE, PREWARM_COUNT);
+        SharedViewPool.prewarm(adapter, VIEW_TYPE_OTHER_MESSAGE, PREWARM_COUNT);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        MessageDisplayModel model = getItem(position);
+        if (model != null && !payloads.isEmpty() && holder instanceof SentMessageViewHolder
+                && payloads.stream().allMatch(payload -> payload == PAYLOAD_STATUS)) {
+            // Змінився лише статус: оновлюємо тільки іконку
+            ((SentMessageViewHolder) holder).updateMessageStatus(model.getStatus());
+            return;
+        }
+        super.onBindViewHolder(holder, position, payloads);
+    }
+
+    /**
+     * Застосовує зміну списку з ViewModel. Позиційна зміна застосовується напряму,
+     * якщо адаптер має попередню версію списку; інакше список замінюється через DiffUtil
+     *
+     * @param update зміна списку
+     * @param commitCallback викликається після застосування зміни (може бути null)
+     */
+    public void applyUpdate(MessageListUpdate update, Runnable commitCallback) {
+        if (update.getType() == MessageListUpdate.Type.RELOAD || update.getVersion() != appliedVersion + 1) {
+            int version = update.getVersion();
+            setItems(update.getItems(), () -> {
+                appliedVersion = version;
+                if (commitCallback != null) {
+                    commitCallback.run();
+                }
+            });
+            return;
+        }
+
+        int position = update.getPosition();
+        switch (update.getType()) {
+            case INSERTED:
+                addItem(position, update.getItems().get(position));
+                break;
+            case CHANGED:
+                MessageDisplayModel newItem = update.getItems().get(position);
+                MessageDisplayModel oldItem = getItem(position);
+                updateItem(position, newItem, oldItem != null ? getChangePayload(oldItem, newItem) : null);
+                break;
+            case REMOVED:
+                removeItem(position);
+                break;
+            default:
+                break;
+        }
+        appliedVersion = update.getVersion();
+        if (commitCallback != null) {
+            commitCallback.run();
         }
     }
 
     @Override
-    protected boolean areItemsTheSame(Message oldItem, Message newItem) {
-        return oldItem.getId() != null && oldItem.getId().equals(newItem.getId());
+    protected long getStableId(MessageDisplayModel model) {
+        // Для ще не підтверджених сервером повідомлень ключ - локальний ідентифікатор
+        return stableIdFor(model.getKey());
     }
 
     @Override
-    protected boolean areContentsTheSame(Message oldItem, Message newItem) {
-        return oldItem.getStatus() == newItem.getStatus();
+    protected Object getChangePayload(MessageDisplayModel oldItem, MessageDisplayModel newItem) {
+        // Текст повторно використовується моделлю, тому достатньо порівняти посилання
+        // Payload лише статусу допустимий, якщо решта полів з areContentsTheSame не змінилася
+        if (oldItem.getStatus() != newItem.getStatus()
+                && oldItem.getText() == newItem.getText()
+                && oldItem.getImage() == newItem.getImage()
+                && oldItem.getPlaceholder() == newItem.getPlaceholder()
+                && oldItem.isDecryptionFailed() == newItem.isDecryptionFailed()
+                && Objects.equals(oldItem.getTimeText(), newItem.getTimeText())
+                && Objects.equals(oldItem.getSenderName(), newItem.getSenderName())) {
+            return PAYLOAD_STATUS;
+        }
+        return null;
+    }
+
+    @Override
+    protected boolean areItemsTheSame(MessageDisplayModel oldItem, MessageDisplayModel newItem) {
+        return oldItem.getKey() != null && oldItem.getKey().equals(newItem.getKey());
+    }
+
+    @Override
+    protected boolean areContentsTheSame(MessageDisplayModel oldItem, MessageDisplayModel newItem) {
+        return oldItem == newItem
+                || (oldItem.getStatus() == newItem.getStatus()
+                && oldItem.getText() == newItem.getText()
+                && oldItem.getImage() == newItem.getImage()
+                && oldItem.getPlaceholder() == newItem.getPlaceholder()
+                && oldItem.isDecryptionFailed() == newItem.isDecryptionFailed()
+                && Objects.equals(oldItem.getTimeText(), newItem.getTimeText())
+                && Objects.equals(oldItem.getSenderName(), newItem.getSenderName()));
+    }
+
+    /**
+     * Встановлює текст повідомлення; попередньо обчислений текст не потребує розкладки на головному потоці.
+     * Поки вміст не розшифровано, показується заглушка
+     */
+    private static void setMessageText(TextView textView, MessageDisplayModel model) {
+        boolean isImage = model.getMessage().getType() == Message.MessageType.IMAGE;
+        // У зображення без підпису текст показується лише при помилці розшифрування
+        textView.setVisibility(isImage && !model.isDecryptionFailed() ? View.GONE : View.VISIBLE);
+
+        CharSequence text = model.getText();
+        if (text instanceof PrecomputedTextCompat) {
+            TextViewCompat.setPrecomputedText(textView, (PrecomputedTextCompat) text);
+        } else if (text != null) {
+            textView.setText(text);
+        } else if (model.isDecryptionFailed()) {
+            textView.setText(R.string.message_decryption_failed);
+        } else if (model.needsDecryption()) {
+            textView.setText(R.string.message_decrypting);
+        } else {
+            textView.setText(null);
+        }
+    }
+
+    /**
+     * Показує зображення повідомлення: розшифроване, а до того - вбудовану заглушку
+     * з пропорціями зображення, тому рядок не змінює висоту після завантаження
+     */
+    private static void setMessageImage(ImageView imageView, MessageDisplayModel model) {
+        if (model.getMessage().getType() != Message.MessageType.IMAGE) {
+            imageView.setVisibility(View.GONE);
+            imageView.setImageDrawable(null);
+            return;
+        }
+
+        Bitmap bitmap = model.getImage() != null ? model.getImage() : model.getPlaceholder();
+        ViewGroup.LayoutParams params = imageView.getLayoutParams();
+        int height = bitmap != null && bitmap.getWidth() > 0
+                ? params.width * bitmap.getHeight() / bitmap.getWidth()
+                : params.width;
+        if (params.height != height) {
+            params.height = height;
+            imageView.setLayoutParams(params);
+        }
+        imageView.setImageBitmap(bitmap);
+        imageView.setVisibility(View.VISIBLE);
     }
 
     /**
      * ViewHolder для відправлених повідомлень
      */
-    class SentMessageViewHolder extends RecyclerView.ViewHolder {
+    static class SentMessageViewHolder extends RecyclerView.ViewHolder {
+        private final ImageView attachmentImage;
         private final TextView messageText;
         private final TextView timeText;
         private final ImageView statusIcon;
 
         SentMessageViewHolder(@NonNull View itemView) {
             super(itemView);
+            attachmentImage = itemView.findViewById(R.id.image_attachment);
             messageText = itemView.findViewById(R.id.text_message);
             timeText = itemView.findViewById(R.id.text_time);
             statusIcon = itemView.findViewById(R.id.image_status);
         }
 
-        void bind(Message message) {
-            // Встановлюємо текст повідомлення
-            messageText.setText(message.getTextContent());
+        void bind(MessageDisplayModel model) {
+            // Встановлюємо зображення та текст повідомлення
+            setMessageImage(attachmentImage, model);
+            setMessageText(messageText, model);
 
             // Встановлюємо час повідомлення
-            timeText.setText(message.getFormattedTime());
+            timeText.setText(model.getTimeText());
 
             // Встановлюємо статус повідомлення
-            updateMessageStatus(message.getStatus());
-
-            // Налаштовуємо слухач для довгого натискання
-            itemView.setOnLongClickListener(v -> {
-                if (onItemLongClickListener != null) {
-                    return onItemLongClickListener.onItemLongClick(message, getAdapterPosition(), v);
-                }
-                return false;
-            });
+            updateMessageStatus(model.getStatus());
         }
 
         /**
@@ -126,13 +301,15 @@ public class MessageAdapter extends BaseAdapter<Message, RecyclerView.ViewHolder
          *
          * @param status статус повідомлення
          */
-        private void updateMessageStatus(Message.MessageStatus status) {
+        void updateMessageStatus(Message.MessageStatus status) {
             if (status == null) {
                 statusIcon.setVisibility(View.GONE);
                 return;
             }
 
             statusIcon.setVisibility(View.VISIBLE);
+            // Перевикористаний ViewHolder міг зберегти колір попереднього статусу
+            statusIcon.clearColorFilter();
 
             switch (status) {
                 case SENDING:
@@ -164,8 +341,9 @@ public class MessageAdapter extends BaseAdapter<Message, RecyclerView.ViewHolder
     /**
      * ViewHolder для отриманих повідомлень
      */
-    class ReceivedMessageViewHolder extends RecyclerView.ViewHolder {
+    static class ReceivedMessageViewHolder extends RecyclerView.ViewHolder {
         private final TextView senderNameText;
+        private final ImageView attachmentImage;
         private final TextView messageText;
         private final TextView timeText;
         private final ImageView avatarImage;
@@ -173,36 +351,31 @@ public class MessageAdapter extends BaseAdapter<Message, RecyclerView.ViewHolder
         ReceivedMessageViewHolder(@NonNull View itemView) {
             super(itemView);
             senderNameText = itemView.findViewById(R.id.text_sender_name);
+            attachmentImage = itemView.findViewById(R.id.image_attachment);
             messageText = itemView.findViewById(R.id.text_message);
             timeText = itemView.findViewById(R.id.text_time);
             avatarImage = itemView.findViewById(R.id.image_avatar);
         }
 
-        void bind(Message message) {
-            // Встановлюємо текст повідомлення
-            messageText.setText(message.getTextContent());
+        void bind(MessageDisplayModel model, boolean isGroupChat) {
+            // Встановлюємо зображення та текст повідомлення
+            setMessageImage(attachmentImage, model);
+            setMessageText(messageText, model);
 
             // Встановлюємо час повідомлення
-            timeText.setText(message.getFormattedTime());
-//
-//            // Показуємо ім'я відправника в групових чатах
-//            if (isGroupChat) {
-//                senderNameText.setVisibility(View.VISIBLE);
-//                senderNameText.setText(message.getSenderName());
-//            } else {
-//                senderNameText.setVisibility(View.GONE);
-//            }
-
-            // Налаштовуємо аватар (заглушка)
-            // TODO: Завантажити реальний аватар
+            timeText.setText(model.getTimeText());
 
-            // Налаштовуємо слухач для довгого натискання
-            itemView.setOnLongClickListener(v -> {
-                if (onItemLongClickListener != null) {
-                    return onItemLongClickListener.onItemLongClick(message, getAdapterPosition(), v);
-                }
-                return false;
-            });
+            // Показуємо ім'я відправника в групових чатах (імена заповнюються у ViewModel)
+            if (isGroupChat && model.getSenderName() != null) {
+                senderNameText.setVisibility(View.VISIBLE);
+                senderNameText.setText(model.getSenderName());
+            } else {
+                senderNameText.setVisibility(View.GONE);
+            }
+
+            // Аватар відправника (сервер поки не передає URL аватарів, тому показується заглушка)
+            AvatarLoader.getInstance(itemView.getContext())
+                    .load(avatarImage, model.getMessage().getSenderId(), null, R.drawable.default_avatar);
         }
     }
 }
\ No newline at end of file
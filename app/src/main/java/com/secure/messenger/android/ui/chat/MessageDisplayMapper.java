@@ -0,0 +1,167 @@
+package com.secure.messenger.android.ui.chat;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.Log;
+
+import androidx.core.text.PrecomputedTextCompat;
+
+import com.secure.messenger.android.data.local.AttachmentStore;
+import com.secure.messenger.android.data.model.Message;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Перетворює повідомлення на моделі відображення.
+ * Моделі з попереднього списку повторно використовуються, тому при зміні статусу
+ * чи появі нового повідомлення текст обчислюється лише для нових або змінених повідомлень.
+ * Не потокобезпечний: викликати з одного (послідовного) фонового потоку.
+ */
+class MessageDisplayMapper {
+
+    private static final String TAG = "MessageDisplayMapper";
+
+    private final AttachmentStore attachmentStore;
+    private Map<String, MessageDisplayModel> previous = new HashMap<>();
+    private volatile PrecomputedTextCompat.Params sentTextParams;
+    private volatile PrecomputedTextCompat.Params receivedTextParams;
+    private volatile boolean paramsChanged;
+
+    /**
+     * @param attachmentStore сховище вкладень для розшифрування вбудованих заглушок медіа
+     */
+    MessageDisplayMapper(AttachmentStore attachmentStore) {
+        this.attachmentStore = attachmentStore;
+    }
+
+    /**
+     * Встановлює параметри розкладки тексту для відправлених та отриманих повідомлень.
+     * Параметри мають відповідати TextView, у яких відображається текст
+     */
+    void setTextParams(PrecomputedTextCompat.Params sentParams, PrecomputedTextCompat.Params receivedParams) {
+        this.sentTextParams = sentParams;
+        this.receivedTextParams = receivedParams;
+        this.paramsChanged = true;
+    }
+
+    /**
+     * Перетворює список повідомлень на список моделей відображення
+     *
+     * @param messages повідомлення
+     * @param currentUserId ідентифікатор поточного користувача
+     * @return моделі відображення в тому самому порядку
+     */
+    List<MessageDisplayModel> map(List<Message> messages, String currentUserId) {
+        resetIfParamsChanged();
+
+        Map<String, MessageDisplayModel> current = new HashMap<>(messages.size() * 2);
+        List<MessageDisplayModel> result = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            String key = MessageDisplayModel.keyOf(message);
+            MessageDisplayModel model = toModel(message, key != null ? previous.get(key) : null, currentUserId);
+            if (key != null) {
+                current.put(key, model);
+            }
+            result.add(model);
+        }
+
+        previous = current;
+        return result;
+    }
+
+    /**
+     * Перетворює одне вставлене або оновлене повідомлення, не зачіпаючи решту моделей
+     *
+     * @param message повідомлення
+     * @param currentUserId ідентифікатор поточного користувача
+     * @return модель відображення (та сама, що й раніше, якщо нічого не змінилося)
+     */
+    MessageDisplayModel map(Message message, String currentUserId) {
+        resetIfParamsChanged();
+
+        String key = MessageDisplayModel.keyOf(message);
+        MessageDisplayModel model = toModel(message, key != null ? previous.get(key) : null, currentUserId);
+        if (key != null) {
+            previous.put(key, model);
+        }
+        return model;
+    }
+
+    /**
+     * @param key ключ повідомлення
+     * @return остання модель для ключа або null
+     */
+    MessageDisplayModel get(String key) {
+        return previous.get(key);
+    }
+
+    /**
+     * Забуває модель видаленого повідомлення
+     *
+     * @param key ключ повідомлення
+     * @return true, якщо модель для ключа існувала
+     */
+    boolean remove(String key) {
+        return previous.remove(key) != null;
+    }
+
+    /**
+     * Позначає, що повідомлення не вдалося розшифрувати
+     *
+     * @param key ключ повідомлення
+     * @return нова модель або null, якщо повідомлення вже немає
+     */
+    MessageDisplayModel markDecryptionFailed(String key) {
+        MessageDisplayModel existing = previous.get(key);
+        if (existing == null) {
+            return null;
+        }
+        MessageDisplayModel model = existing.withDecryptionFailed();
+        previous.put(key, model);
+        return model;
+    }
+
+    private MessageDisplayModel toModel(Message message, MessageDisplayModel existing, String currentUserId) {
+        if (existing != null && message.getDecryptedContent() == null
+                && Arrays.equals(existing.getMessage().getEncryptedContent(), message.getEncryptedContent())) {
+            // Розшифрований вміст не зберігається в базі: переносимо його з попередньої моделі
+            message.setDecryptedContent(existing.getMessage().getDecryptedContent());
+        }
+        if (existing != null && existing.hasSameContent(message)) {
+            return existing.update(message);
+        }
+        boolean outgoing = message.getSenderId() != null && message.getSenderId().equals(currentUserId);
+        Bitmap placeholder = existing != null && existing.getPlaceholder() != null
+                ? existing.getPlaceholder() : decodePlaceholder(message);
+        return MessageDisplayModel.create(message, currentUserId, outgoing ? sentTextParams : receivedTextParams,
+                placeholder);
+    }
+
+    /**
+     * Розшифровує та декодує вбудовану заглушку медіа (кілька сотень байтів)
+     */
+    private Bitmap decodePlaceholder(Message message) {
+        if (message.getPlaceholder() == null) {
+            return null;
+        }
+        try {
+            byte[] data = attachmentStore.decrypt(message.getPlaceholder());
+            return BitmapFactory.decodeByteArray(data, 0, data.length);
+        } catch (Exception e) {
+            Log.w(TAG, "Cannot decode media placeholder: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void resetIfParamsChanged() {
+        if (paramsChanged) {
+            // Текст, обчислений з іншими параметрами, не можна показувати в TextView
+            paramsChanged = false;
+            previous = new HashMap<>();
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.secure.messenger.android.ui.chat;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+import androidx.core.text.PrecomputedTextCompat;
+
+import com.secure.messenger.android.data.model.Message;
+
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Незмінна модель повідомлення для відображення у списку.
+ * Усі рядки, час, розкладка тексту та зображення обчислюються заздалегідь у фоновому потоці,
+ * тому адаптер лише встановлює готові значення.
+ */
+public final class MessageDisplayModel {
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
+
+    // Зображення в списку декодується зі зменшенням: більша сторона не менша за цю
+    private static final int IMAGE_DISPLAY_SIZE = 640;
+
+    private final Message message;
+    private final String key;
+    private final boolean outgoing;
+    private final Message.MessageStatus status;
+    private final String senderName;
+    private final CharSequence text;
+    private final String timeText;
+    private final boolean decryptionFailed;
+    private final Bitmap placeholder;
+    private final Bitmap image;
+
+    private MessageDisplayModel(Message message, String key, boolean outgoing, Message.MessageStatus status,
+                                String senderName, CharSequence text, String timeText, boolean decryptionFailed,
+                                Bitmap placeholder, Bitmap image) {
+        this.message = message;
+        this.key = key;
+        this.outgoing = outgoing;
+        this.status = status;
+        this.senderName = senderName;
+        this.text = text;
+        this.timeText = timeText;
+        this.decryptionFailed = decryptionFailed;
+        this.placeholder = placeholder;
+        this.image = image;
+    }
+
+    /**
+     * Створює модель відображення. Виконувати у фоновому потоці
+     *
+     * @param message повідомлення
+     * @param currentUserId ідентифікатор поточного користувача
+     * @param textParams параметри розкладки тексту (null - текст без попереднього обчислення)
+     * @param placeholder розкодована заглушка медіа або null
+     * @return модель відображення
+     */
+    public static MessageDisplayModel create(Message message, String currentUserId,
+                                             PrecomputedTextCompat.Params textParams, Bitmap placeholder) {
+        CharSequence text = null;
+        Bitmap image = null;
+        boolean decodeFailed = false;
+        if (message.getType() == Message.MessageType.IMAGE) {
+            byte[] content = message.getDecryptedContent();
+            image = decodeImage(content);
+            if (image != null) {
+                // Розкодоване зображення замінює вміст: байти більше не потрібні в пам'яті
+                message.setDecryptedContent(null);
+            } else if (content != null) {
+                // Розшифровані байти не є зображенням: повторне розшифрування дасть те саме,
+                // тому повідомлення позначається як помилка, а не чекає розшифрування знову
+                decodeFailed = true;
+                message.setDecryptedContent(null);
+            }
+        } else {
+            String content = message.getTextContent();
+            text = content;
+            if (content != null && textParams != null) {
+                text = PrecomputedTextCompat.create(content, textParams);
+            }
+        }
+
+        String timeText = message.getCreatedAt() != null ? TIME_FORMATTER.format(message.getCreatedAt()) : "";
+        return new MessageDisplayModel(message, keyOf(message), Objects.equals(message.getSenderId(), currentUserId),
+                message.getStatus(), message.getSenderName(), text, timeText, decodeFailed, placeholder, image);
+    }
+
+    /**
+     * Створює модель для оновленого повідомлення з тим самим вмістом (див. hasSameContent),
+     * повторно використовуючи вже обчислений текст і час
+     *
+     * @param message оновлене повідомлення з тим самим ключем
+     * @return нова модель або ця сама, якщо нічого не змінилося
+     */
+    public MessageDisplayModel update(Message message) {
+        if (status == message.getStatus() && Objects.equals(senderName, message.getSenderName())) {
+            return this;
+        }
+        return new MessageDisplayModel(message, key, outgoing, message.getStatus(), message.getSenderName(),
+                text, timeText, decryptionFailed, placeholder, image);
+    }
+
+    /**
+     * Створює модель повідомлення, яке не вдалося розшифрувати
+     *
+     * @return нова модель з ознакою помилки розшифрування
+     */
+    public MessageDisplayModel withDecryptionFailed() {
+        return new MessageDisplayModel(message, key, outgoing, status, senderName, null, timeText, true,
+                placeholder, null);
+    }
+
+    /**
+     * Чи потрібно розшифрувати вміст перед показом: поки вміст не готовий, показується заглушка
+     *
+     * @return true, якщо текст або зображення повідомлення ще не розшифроване
+     */
+    public boolean needsDecryption() {
+        if (decryptionFailed || message.getEncryptedContent() == null) {
+            return false;
+        }
+        if (message.getType() == Message.MessageType.IMAGE) {
+            return image == null;
+        }
+        return message.getType() == Message.MessageType.TEXT && message.getDecryptedContent() == null;
+    }
+
+    /**
+     * Перевіряє, чи має оновлене повідомлення той самий вміст (текст і час)
+     *
+     * @param message оновлене повідомлення
+     * @return true, якщо обчислений текст можна використати повторно
+     */
+    public boolean hasSameContent(Message message) {
+        return this.message.getType() == message.getType()
+                && Objects.equals(this.message.getCreatedAt(), message.getCreatedAt())
+                && Arrays.equals(this.message.getDecryptedContent(), message.getDecryptedContent());
+    }
+
+    /**
+     * Ключ повідомлення: серверний ідентифікатор або локальний для ще не підтверджених
+     */
+    public static String keyOf(Message message) {
+        return message.getId() != null ? message.getId() : message.getLocalId();
+    }
+
+    public Message getMessage() {
+        return message;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public boolean isOutgoing() {
+        return outgoing;
+    }
+
+    public Message.MessageStatus getStatus() {
+        return status;
+    }
+
+    public String getSenderName() {
+        return senderName;
+    }
+
+    public CharSequence getText() {
+        return text;
+    }
+
+    public String getTimeText() {
+        return timeText;
+    }
+
+    public boolean isDecryptionFailed() {
+        return decryptionFailed;
+    }
+
+    /**
+     * @return вбудована заглушка медіа або null
+     */
+    public Bitmap getPlaceholder() {
+        return placeholder;
+    }
+
+    /**
+     * @return розшифроване зображення або null, якщо воно ще не завантажене
+     */
+    public Bitmap getImage() {
+        return image;
+    }
+
+    /**
+     * Декодує зображення зі зменшенням до розміру, достатнього для списку
+     */
+    private static Bitmap decodeImage(byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(data, 0, data.length, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            return null;
+        }
+
+        int sampleSize = 1;
+        while (Math.max(options.outWidth, options.outHeight) / (sampleSize * 2) >= IMAGE_DISPLAY_SIZE) {
+            sampleSize *= 2;
+        }
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSize;
+        // Фото без прозорості: вдвічі менше пам'яті на піксель
+        options.inPreferredConfig = Bitmap.Config.RGB_565;
+        return BitmapFactory.decodeByteArray(data, 0, data.length, options);
+    }
+}
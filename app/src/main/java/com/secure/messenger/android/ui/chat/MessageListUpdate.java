@@ -0,0 +1,58 @@
+package com.secure.messenger.android.ui.chat;
+
+import java.util.List;
+
+/**
+ * Зміна списку повідомлень чату для адаптера: повна заміна або одна позиційна зміна.
+ * Кожна зміна має номер версії списку; адаптер, що пропустив проміжні зміни
+ * (наприклад, поки екран був неактивний), замінює список повністю.
+ */
+public final class MessageListUpdate {
+
+    /**
+     * Тип зміни
+     */
+    public enum Type {
+        RELOAD,
+        INSERTED,
+        CHANGED,
+        REMOVED
+    }
+
+    private final Type type;
+    private final int position;
+    private final int version;
+    private final List<MessageDisplayModel> items;
+
+    MessageListUpdate(Type type, int position, int version, List<MessageDisplayModel> items) {
+        this.type = type;
+        this.position = position;
+        this.version = version;
+        this.items = items;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return позиція зміненого елемента (для RELOAD не використовується)
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * @return версія списку після цієї зміни
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * @return поточний список повідомлень (лише для читання, лише на головному потоці)
+     */
+    public List<MessageDisplayModel> getItems() {
+        return items;
+    }
+}
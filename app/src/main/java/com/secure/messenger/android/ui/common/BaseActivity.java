@@ -10,7 +10,9 @@ import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
 
+import com.secure.messenger.android.SecureMessengerApp;
 import com.secure.messenger.android.data.local.PreferenceManager;
+import com.secure.messenger.android.data.repository.AuthRepository;
 import com.secure.messenger.android.ui.auth.LoginActivity;
 
 /**
@@ -26,7 +28,7 @@ public abstract class BaseActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
 
         // Ініціалізація PreferenceManager
-        preferenceManager = new PreferenceManager(this);
+        preferenceManager = SecureMessengerApp.getInstance().getContainer().getPreferenceManager();
 
         // Перевірка автентифікації
         if (requiresAuth() && !isAuthenticated()) {
@@ -136,8 +138,19 @@ public abstract class BaseActivity extends AppCompatActivity {
      * Вийти з системи
      */
     protected void logout() {
-        preferenceManager.clearAuthData();
-        redirectToLogin();
+        // AuthRepository очищає авторизаційні та локальні дані користувача (превью розмов)
+        SecureMessengerApp.getInstance().getContainer().getAuthRepository()
+                .logout(new AuthRepository.AuthCallback() {
+                    @Override
+                    public void onSuccess() {
+                        runOnUiThread(BaseActivity.this::redirectToLogin);
+                    }
+
+                    @Override
+                    public void onError(String errorMessage) {
+                        runOnUiThread(BaseActivity.this::redirectToLogin);
+                    }
+                });
     }
 
     @Override
@@ -9,9 +9,13 @@ import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.secure.messenger.android.data.local.PreferenceManager;
+import com.secure.messenger.android.util.AppExecutors;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
 
 /**
  * Базовий адаптер для RecyclerView з підтримкою DiffUtil
@@ -26,6 +30,22 @@ public abstract class BaseAdapter<T, VH extends RecyclerView.ViewHolder> extends
     protected OnItemLongClickListener<T> onItemLongClickListener;
     protected PreferenceManager preferenceManager;
 
+    // Спільний фоновий executor для обчислення різниці списків усіх адаптерів
+    private static final Executor DIFF_EXECUTOR = AppExecutors.getInstance().crypto();
+    private static final Executor MAIN_THREAD = AppExecutors.getInstance().mainThread();
+
+    private boolean asyncDiffEnabled = true;
+    // Номер останнього запланованого оновлення списку (змінюється лише на головному потоці)
+    private int listGeneration;
+    // Номер прямої зміни списку через add/update/removeItem (змінюється лише на головному потоці)
+    private int itemsVersion;
+    // Відповідність рядкових ключів елементів стабільним числовим ідентифікаторам.
+    // Містить лише ключі поточного списку: решта відкидається після застосування нового списку
+    private Map<String, Long> stableIds = new HashMap<>();
+    // Ідентифікатори попереднього списку, які можна зберегти під час очищення
+    private Map<String, Long> retainedStableIds;
+    private long nextStableId;
+
     /**
      * Встановлює слухача кліків по елементах
      *
@@ -87,23 +107,188 @@ public abstract class BaseAdapter<T, VH extends RecyclerView.ViewHolder> extends
         return null;
     }
 
+    /**
+     * Стабільний ідентифікатор елемента. Використовується, якщо підклас викликав setHasStableIds(true)
+     *
+     * @param position позиція елемента
+     * @return стабільний ідентифікатор або RecyclerView.NO_ID
+     */
+    @Override
+    public long getItemId(int position) {
+        T item = getItem(position);
+        return item != null ? getStableId(item) : RecyclerView.NO_ID;
+    }
+
+    /**
+     * Повертає стабільний ідентифікатор елемента. Підкласи зі стабільними ідентифікаторами
+     * перевизначають цей метод
+     *
+     * @param item елемент
+     * @return стабільний ідентифікатор або RecyclerView.NO_ID
+     */
+    protected long getStableId(T item) {
+        return RecyclerView.NO_ID;
+    }
+
+    /**
+     * Перетворює рядковий ключ елемента на унікальний числовий ідентифікатор.
+     * Ідентифікатори видаються послідовно і повторно не використовуються,
+     * тому колізії неможливі (лише головний потік)
+     *
+     * @param key рядковий ключ елемента
+     * @return числовий ідентифікатор
+     */
+    protected long stableIdFor(String key) {
+        if (key == null) {
+            return RecyclerView.NO_ID;
+        }
+        Long id = stableIds.get(key);
+        if (id == null) {
+            id = retainedStableIds != null ? retainedStableIds.get(key) : null;
+            if (id == null) {
+                id = nextStableId++;
+            }
+            stableIds.put(key, id);
+        }
+        return id;
+    }
+
+    /**
+     * Залишає у відповідності ключів лише елементи поточного списку,
+     * щоб вона не росла з кожним показаним елементом
+     */
+    private void pruneStableIds() {
+        if (!hasStableIds() || stableIds.isEmpty()) {
+            return;
+        }
+        retainedStableIds = stableIds;
+        stableIds = new HashMap<>();
+        for (T item : items) {
+            getStableId(item);
+        }
+        retainedStableIds = null;
+    }
+
+    /**
+     * Повертає опис часткової зміни елемента для DiffUtil. Якщо повертається не null,
+     * ViewHolder оновлюється через onBindViewHolder з payloads замість повної перев'язки
+     *
+     * @param oldItem старий елемент
+     * @param newItem новий елемент
+     * @return payload зміни або null для повної перев'язки
+     */
+    protected Object getChangePayload(T oldItem, T newItem) {
+        return null;
+    }
+
     /**
      * Встановлення нового списку елементів з використанням DiffUtil
      *
      * @param newItems новий список елементів
      */
     public void setItems(List<T> newItems) {
-        if (newItems == null) {
-            newItems = new ArrayList<>();
+        setItems(newItems, null);
+    }
+
+    /**
+     * Встановлення нового списку елементів з використанням DiffUtil.
+     * В асинхронному режимі різниця між списками обчислюється у фоновому потоці,
+     * а застосовується на головному. Якщо поки обчислюється різниця надійшов новіший
+     * список, застарілий результат відкидається і застосовується лише новіший список.
+     * Якщо ж список змінили напряму (add/update/removeItem), різниця для запитаного
+     * списку обчислюється повторно відносно поточного вмісту, тож запитаний список
+     * все одно буде застосовано.
+     *
+     * @param newItems новий список елементів
+     * @param commitCallback викликається на головному потоці після застосування списку (може бути null)
+     */
+    public void setItems(List<T> newItems, Runnable commitCallback) {
+        final List<T> newList = newItems != null ? new ArrayList<>(newItems) : new ArrayList<>();
+        final int generation = ++listGeneration;
+
+        if (!asyncDiffEnabled) {
+            applyDiff(newList, DiffUtil.calculateDiff(createDiffCallback(items, newList)), commitCallback);
+            return;
         }
 
-        DiffUtilCallback<T> diffCallback = new DiffUtilCallback<>(items, newItems, this::areItemsTheSame, this::areContentsTheSame);
-        DiffUtil.DiffResult diffResult = DiffUtil.calculateDiff(diffCallback);
+        dispatchDiff(newList, commitCallback, generation);
+    }
 
-        items.clear();
-        items.addAll(newItems);
+    /**
+     * Обчислює різницю між поточним і запитаним списком у фоновому потоці
+     * та застосовує її на головному, якщо за цей час не надійшов новіший список
+     */
+    private void dispatchDiff(List<T> newList, Runnable commitCallback, int generation) {
+        // Якщо один зі списків порожній, обчислювати різницю не потрібно
+        if (items.isEmpty() || newList.isEmpty()) {
+            applyFullChange(newList, commitCallback);
+            return;
+        }
+
+        final List<T> oldList = new ArrayList<>(items);
+        final int version = itemsVersion;
+        DIFF_EXECUTOR.execute(() -> {
+            DiffUtil.DiffResult diffResult = DiffUtil.calculateDiff(createDiffCallback(oldList, newList));
+            MAIN_THREAD.execute(() -> {
+                if (generation != listGeneration) {
+                    // Новіший список застосує власне обчислення
+                    return;
+                }
+                if (version != itemsVersion) {
+                    // Різниця обчислена для списку, який уже змінено напряму
+                    dispatchDiff(newList, commitCallback, generation);
+                    return;
+                }
+                applyDiff(newList, diffResult, commitCallback);
+            });
+        });
+    }
 
+    /**
+     * Вмикає або вимикає обчислення різниці у фоновому потоці (за замовчуванням увімкнено)
+     *
+     * @param enabled true для асинхронного режиму
+     */
+    public void setAsyncDiffEnabled(boolean enabled) {
+        this.asyncDiffEnabled = enabled;
+    }
+
+    private DiffUtilCallback<T> createDiffCallback(List<T> oldList, List<T> newList) {
+        return new DiffUtilCallback<>(oldList, newList, this::areItemsTheSame, this::areContentsTheSame,
+                this::getChangePayload);
+    }
+
+    private void applyDiff(List<T> newList, DiffUtil.DiffResult diffResult, Runnable commitCallback) {
+        items = newList;
         diffResult.dispatchUpdatesTo(this);
+        pruneStableIds();
+        commit(commitCallback);
+    }
+
+    private void applyFullChange(List<T> newList, Runnable commitCallback) {
+        int oldSize = items.size();
+        items = newList;
+        if (oldSize == 0) {
+            notifyItemRangeInserted(0, newList.size());
+        } else {
+            notifyItemRangeRemoved(0, oldSize);
+        }
+        pruneStableIds();
+        commit(commitCallback);
+    }
+
+    private void commit(Runnable commitCallback) {
+        if (commitCallback != null) {
+            commitCallback.run();
+        }
+    }
+
+    /**
+     * Позначає, що список змінено напряму: незавершені фонові обчислення різниці
+     * буде повторено відносно зміненого списку
+     */
+    private void invalidatePendingDiffs() {
+        itemsVersion++;
     }
 
     /**
@@ -116,6 +301,7 @@ public abstract class BaseAdapter<T, VH extends RecyclerView.ViewHolder> extends
             return;
         }
 
+        invalidatePendingDiffs();
         items.add(item);
         notifyItemInserted(items.size() - 1);
     }
@@ -131,6 +317,7 @@ public abstract class BaseAdapter<T, VH extends RecyclerView.ViewHolder> extends
             return;
         }
 
+        invalidatePendingDiffs();
         items.add(position, item);
         notifyItemInserted(position);
     }
@@ -142,12 +329,24 @@ public abstract class BaseAdapter<T, VH extends RecyclerView.ViewHolder> extends
      * @param item новий елемент
      */
     public void updateItem(int position, T item) {
+        updateItem(position, item, null);
+    }
+
+    /**
+     * Оновлення елементу за вказаною позицією з описом часткової зміни
+     *
+     * @param position позиція для оновлення
+     * @param item новий елемент
+     * @param payload payload зміни (null для повної перев'язки)
+     */
+    public void updateItem(int position, T item, Object payload) {
         if (item == null || position < 0 || position >= items.size()) {
             return;
         }
 
+        invalidatePendingDiffs();
         items.set(position, item);
-        notifyItemChanged(position);
+        notifyItemChanged(position, payload);
     }
 
     /**
@@ -160,6 +359,7 @@ public abstract class BaseAdapter<T, VH extends RecyclerView.ViewHolder> extends
             return;
         }
 
+        invalidatePendingDiffs();
         items.remove(position);
         notifyItemRemoved(position);
     }
@@ -169,6 +369,7 @@ public abstract class BaseAdapter<T, VH extends RecyclerView.ViewHolder> extends
      */
     public void clearItems() {
         int size = items.size();
+        invalidatePendingDiffs();
         items.clear();
         notifyItemRangeRemoved(0, size);
     }
@@ -219,6 +420,7 @@ public abstract class BaseAdapter<T, VH extends RecyclerView.ViewHolder> extends
         private final List<T> newList;
         private final ItemComparator<T> itemsComparator;
         private final ItemComparator<T> contentsComparator;
+        private final PayloadProvider<T> payloadProvider;
 
         /**
          * Інтерфейс для порівняння елементів
@@ -229,6 +431,15 @@ public abstract class BaseAdapter<T, VH extends RecyclerView.ViewHolder> extends
             boolean compare(T oldItem, T newItem);
         }
 
+        /**
+         * Інтерфейс для отримання payload часткової зміни
+         *
+         * @param <T> тип елемента
+         */
+        interface PayloadProvider<T> {
+            Object getPayload(T oldItem, T newItem);
+        }
+
         /**
          * Конструктор
          *
@@ -236,12 +447,15 @@ public abstract class BaseAdapter<T, VH extends RecyclerView.ViewHolder> extends
          * @param newList новий список
          * @param itemsComparator порівнювач ідентичності елементів
          * @param contentsComparator порівнювач вмісту елементів
+         * @param payloadProvider джерело payload часткових змін
          */
-        DiffUtilCallback(List<T> oldList, List<T> newList, ItemComparator<T> itemsComparator, ItemComparator<T> contentsComparator) {
+        DiffUtilCallback(List<T> oldList, List<T> newList, ItemComparator<T> itemsComparator,
+                         ItemComparator<T> contentsComparator, PayloadProvider<T> payloadProvider) {
             this.oldList = oldList;
             this.newList = newList;
             this.itemsComparator = itemsComparator;
             this.contentsComparator = contentsComparator;
+            this.payloadProvider = payloadProvider;
         }
 
         @Override
@@ -263,6 +477,11 @@ public abstract class BaseAdapter<T, VH extends RecyclerView.ViewHolder> extends
         public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
             return contentsComparator.compare(oldList.get(oldItemPosition), newList.get(newItemPosition));
         }
+
+        @Override
+        public Object getChangePayload(int oldItemPosition, int newItemPosition) {
+            return payloadProvider.getPayload(oldList.get(oldItemPosition), newList.get(newItemPosition));
+        }
     }
 
     /**
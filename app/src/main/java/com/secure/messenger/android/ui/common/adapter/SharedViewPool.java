@@ -0,0 +1,132 @@
+package com.secure.messenger.android.ui.common.adapter;
+
+import android.content.Context;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.view.ContextThemeWrapper;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.secure.messenger.android.R;
+import com.secure.messenger.android.SecureMessengerApp;
+
+/**
+ * Спільний для всіх екранів пул ViewHolder-ів повідомлень і рядків списків.
+ * Тип view - ідентифікатор layout-ресурсу, тому адаптери різних екранів не конфліктують.
+ * Елементи пулу інфлейтяться з контекстом додатка (з темою додатка), а не активності,
+ * тому пул переживає закриття екранів і не утримує їх у пам'яті.
+ */
+public final class SharedViewPool {
+    private static final int MESSAGE_POOL_SIZE = 30;
+    private static final int ROW_POOL_SIZE = 15;
+    private static final int MESSAGE_VIEW_CACHE_SIZE = 10;
+
+    private static RecyclerView.RecycledViewPool pool;
+    private static Context themedContext;
+    private static RecyclerView prewarmParent;
+
+    private SharedViewPool() {
+    }
+
+    /**
+     * Отримує спільний пул (лише головний потік)
+     *
+     * @return спільний RecycledViewPool
+     */
+    public static RecyclerView.RecycledViewPool get() {
+        if (pool == null) {
+            pool = new RecyclerView.RecycledViewPool();
+            pool.setMaxRecycledViews(R.layout.item_message_sent, MESSAGE_POOL_SIZE);
+            pool.setMaxRecycledViews(R.layout.item_message_received, MESSAGE_POOL_SIZE);
+            pool.setMaxRecycledViews(R.layout.item_chat, ROW_POOL_SIZE);
+            pool.setMaxRecycledViews(R.layout.item_group, ROW_POOL_SIZE);
+        }
+        return pool;
+    }
+
+    /**
+     * Інфлейтить елемент списку для спільного пулу
+     *
+     * @param parent батьківський ViewGroup
+     * @param layoutId ідентифікатор layout-ресурсу
+     * @return створений View
+     */
+    public static View inflate(@NonNull ViewGroup parent, int layoutId) {
+        return LayoutInflater.from(getThemedContext()).inflate(layoutId, parent, false);
+    }
+
+    /**
+     * Налаштовує список повідомлень: спільний пул, більший кеш прокрутки та попереднє
+     * створення елементів під час простою між кадрами
+     *
+     * @param recyclerView список повідомлень
+     * @param layoutManager менеджер розмітки списку
+     */
+    public static void setupMessageList(RecyclerView recyclerView, LinearLayoutManager layoutManager) {
+        layoutManager.setItemPrefetchEnabled(true);
+        layoutManager.setInitialPrefetchItemCount(MESSAGE_VIEW_CACHE_SIZE);
+        recyclerView.setHasFixedSize(true);
+        recyclerView.setItemViewCacheSize(MESSAGE_VIEW_CACHE_SIZE);
+        recyclerView.setRecycledViewPool(get());
+    }
+
+    /**
+     * Налаштовує список рядків (чати, групи) на спільний пул
+     *
+     * @param recyclerView список
+     */
+    public static void setupRowList(RecyclerView recyclerView) {
+        recyclerView.setRecycledViewPool(get());
+    }
+
+    /**
+     * Поступово створює ViewHolder-и вказаного типу, поки головний потік простоює:
+     * по одному за раз, щоб не затримувати кадри. Лише головний потік
+     *
+     * @param adapter адаптер, що створює ViewHolder-и
+     * @param viewType тип view (ідентифікатор layout-ресурсу)
+     * @param count бажана кількість елементів у пулі
+     */
+    public static void prewarm(RecyclerView.Adapter<?> adapter, int viewType, int count) {
+        RecyclerView.RecycledViewPool recycledViewPool = get();
+        Looper.getMainLooper().getQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+            @Override
+            public boolean queueIdle() {
+                if (recycledViewPool.getRecycledViewCount(viewType) >= count) {
+                    return false;
+                }
+                recycledViewPool.putRecycledView(adapter.createViewHolder(getPrewarmParent(), viewType));
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Звільняє пул, наприклад при нестачі пам'яті
+     */
+    public static void clear() {
+        if (pool != null) {
+            pool.clear();
+        }
+    }
+
+    private static Context getThemedContext() {
+        if (themedContext == null) {
+            themedContext = new ContextThemeWrapper(SecureMessengerApp.getInstance(), R.style.Theme_SecureMessenger);
+        }
+        return themedContext;
+    }
+
+    private static RecyclerView getPrewarmParent() {
+        if (prewarmParent == null) {
+            prewarmParent = new RecyclerView(getThemedContext());
+            prewarmParent.setLayoutManager(new LinearLayoutManager(getThemedContext()));
+        }
+        return prewarmParent;
+    }
+}
@@ -0,0 +1,303 @@
+package com.secure.messenger.android.ui.common.image;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.Log;
+import android.util.LruCache;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+
+import androidx.annotation.DrawableRes;
+
+import com.secure.messenger.android.data.local.AvatarDiskCache;
+import com.secure.messenger.android.util.AppExecutors;
+import com.secure.messenger.android.util.Futures;
+import com.secure.messenger.android.util.SingleFlight;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Завантаження аватарів користувачів у списки.
+ * Зображення зменшується до розміру ImageView під час декодування і зберігається
+ * у кеші пам'яті (обмеженому за байтами) та в зашифрованому дисковому кеші,
+ * тому повторне відображення не декодує зображення вдруге.
+ * Одночасні запити одного аватара об'єднуються, а запит ImageView скасовується,
+ * коли рядок списку перевикористовується для іншого елемента.
+ * Методи load та cancel - лише головний потік.
+ */
+public class AvatarLoader {
+    private static final String TAG = "AvatarLoader";
+    private static final int DEFAULT_SIZE_DP = 48;
+    private static final int CONNECT_TIMEOUT_MS = 10_000;
+    private static final int READ_TIMEOUT_MS = 15_000;
+    private static final int MAX_DOWNLOAD_BYTES = 5 * 1024 * 1024;
+    private static final int DISK_JPEG_QUALITY = 90;
+
+    private static AvatarLoader instance;
+
+    private final Context context;
+    private final AvatarDiskCache diskCache;
+    private final AppExecutors executors;
+    private final LruCache<String, Bitmap> memoryCache;
+    private final SingleFlight<String, Bitmap> singleFlight = new SingleFlight<>();
+
+    // Поточний запит кожного ImageView (лише головний потік)
+    private final Map<ImageView, Request> requests = new WeakHashMap<>();
+
+    // Кількість активних запитів для ключа: завантаження без запитів не виконується
+    private final ConcurrentHashMap<String, Integer> interest = new ConcurrentHashMap<>();
+
+    private AvatarLoader(Context context) {
+        this.context = context;
+        this.diskCache = AvatarDiskCache.getInstance(context);
+        this.executors = AppExecutors.getInstance();
+
+        // Восьма частина доступної пам'яті процесу
+        int maxBytes = (int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / 8);
+        this.memoryCache = new LruCache<String, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return bitmap.getAllocationByteCount();
+            }
+        };
+    }
+
+    /**
+     * Отримує екземпляр AvatarLoader
+     *
+     * @param context контекст
+     * @return екземпляр AvatarLoader
+     */
+    public static synchronized AvatarLoader getInstance(Context context) {
+        if (instance == null) {
+            instance = new AvatarLoader(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Показує аватар користувача в ImageView. Попередній запит цього ImageView скасовується
+     *
+     * @param view ImageView аватара
+     * @param userId ідентифікатор користувача
+     * @param avatarUrl URL аватара або null, якщо аватара немає
+     * @param placeholder ресурс заглушки або 0, щоб очистити ImageView
+     */
+    public void load(ImageView view, String userId, String avatarUrl, @DrawableRes int placeholder) {
+        cancel(view);
+
+        if (userId == null || avatarUrl == null || avatarUrl.isEmpty()) {
+            showPlaceholder(view, placeholder);
+            return;
+        }
+
+        int size = targetSize(view);
+        String key = userId + '|' + size + '|' + avatarUrl;
+
+        Bitmap cached = memoryCache.get(key);
+        if (cached != null) {
+            view.setImageBitmap(cached);
+            return;
+        }
+
+        showPlaceholder(view, placeholder);
+
+        Request request = new Request(key);
+        requests.put(view, request);
+        interest.merge(key, 1, Integer::sum);
+
+        singleFlight.load(key, () -> loadBitmap(key, avatarUrl, size), executors.io())
+                .whenComplete((bitmap, error) -> executors.mainThread().execute(() -> {
+                    if (request.cancelled) {
+                        return;
+                    }
+                    requests.remove(view);
+                    release(request);
+                    Throwable cause = error != null ? Futures.unwrap(error) : null;
+                    if (bitmap != null) {
+                        view.setImageBitmap(bitmap);
+                    } else if (cause instanceof CancellationException) {
+                        // Запит приєднався до завантаження, яке саме скасувалося, - повторюємо
+                        load(view, userId, avatarUrl, placeholder);
+                    } else if (cause != null) {
+                        Log.e(TAG, "Error loading avatar: " + cause.getMessage(), cause);
+                    }
+                }));
+    }
+
+    /**
+     * Скасовує запит ImageView, наприклад коли рядок списку перевикористовується
+     *
+     * @param view ImageView аватара
+     */
+    public void cancel(ImageView view) {
+        Request request = requests.remove(view);
+        if (request != null) {
+            release(request);
+        }
+    }
+
+    /**
+     * Звільняє кеш пам'яті відповідно до рівня нестачі пам'яті
+     *
+     * @param level рівень з ComponentCallbacks2
+     */
+    public void trimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
+            memoryCache.evictAll();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+            memoryCache.trimToSize(memoryCache.maxSize() / 2);
+        }
+    }
+
+    private void release(Request request) {
+        request.cancelled = true;
+        interest.computeIfPresent(request.key, (key, count) -> count > 1 ? count - 1 : null);
+    }
+
+    /**
+     * Завантаження аватара у фоновому потоці: дисковий кеш або мережа
+     */
+    private Bitmap loadBitmap(String key, String avatarUrl, int size) throws IOException {
+        ensureWanted(key);
+
+        byte[] cached = diskCache.get(key);
+        if (cached != null) {
+            // У дисковому кеші зображення вже зменшене до потрібного розміру
+            Bitmap bitmap = BitmapFactory.decodeByteArray(cached, 0, cached.length);
+            if (bitmap != null) {
+                memoryCache.put(key, bitmap);
+                return bitmap;
+            }
+        }
+
+        byte[] original = download(avatarUrl);
+        ensureWanted(key);
+
+        Bitmap bitmap = decodeSampled(original, size);
+        if (bitmap == null) {
+            throw new IOException("Cannot decode avatar image");
+        }
+        memoryCache.put(key, bitmap);
+
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        if (bitmap.compress(Bitmap.CompressFormat.JPEG, DISK_JPEG_QUALITY, encoded)) {
+            diskCache.put(key, encoded.toByteArray());
+        }
+        return bitmap;
+    }
+
+    private void ensureWanted(String key) {
+        if (!interest.containsKey(key)) {
+            throw new CancellationException("Avatar is no longer needed");
+        }
+    }
+
+    /**
+     * Декодує зображення зі зменшенням до розміру view: спочатку inSampleSize
+     * (декодується лише кожен n-й піксель), потім точне масштабування
+     */
+    private static Bitmap decodeSampled(byte[] data, int size) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(data, 0, data.length, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            return null;
+        }
+
+        int sampleSize = 1;
+        while (options.outWidth / (sampleSize * 2) >= size && options.outHeight / (sampleSize * 2) >= size) {
+            sampleSize *= 2;
+        }
+
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSize;
+        Bitmap sampled = BitmapFactory.decodeByteArray(data, 0, data.length, options);
+        if (sampled == null) {
+            return null;
+        }
+
+        // Менша сторона дорівнює розміру view (CircleImageView обрізає по центру)
+        int minSide = Math.min(sampled.getWidth(), sampled.getHeight());
+        if (minSide <= size) {
+            return sampled;
+        }
+        Bitmap scaled = Bitmap.createScaledBitmap(sampled,
+                sampled.getWidth() * size / minSide, sampled.getHeight() * size / minSide, true);
+        if (scaled != sampled) {
+            sampled.recycle();
+        }
+        return scaled;
+    }
+
+    private static byte[] download(String avatarUrl) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(avatarUrl).openConnection();
+        connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+        connection.setReadTimeout(READ_TIMEOUT_MS);
+        try {
+            int code = connection.getResponseCode();
+            if (code != HttpURLConnection.HTTP_OK) {
+                throw new IOException("Avatar request failed with HTTP " + code);
+            }
+
+            try (InputStream in = connection.getInputStream()) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                    if (out.size() > MAX_DOWNLOAD_BYTES) {
+                        throw new IOException("Avatar image is too large");
+                    }
+                }
+                return out.toByteArray();
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Розмір, до якого зменшується аватар: розмір з розмітки, поточний розмір view або 48dp
+     */
+    private int targetSize(ImageView view) {
+        ViewGroup.LayoutParams params = view.getLayoutParams();
+        if (params != null && params.width > 0) {
+            return Math.max(params.width, params.height);
+        }
+        if (view.getWidth() > 0) {
+            return Math.max(view.getWidth(), view.getHeight());
+        }
+        return Math.round(DEFAULT_SIZE_DP * context.getResources().getDisplayMetrics().density);
+    }
+
+    private static void showPlaceholder(ImageView view, @DrawableRes int placeholder) {
+        if (placeholder != 0) {
+            view.setImageResource(placeholder);
+        } else {
+            view.setImageDrawable(null);
+        }
+    }
+
+    /**
+     * Запит аватара для одного ImageView
+     */
+    private static final class Request {
+        final String key;
+        boolean cancelled;
+
+        Request(String key) {
+            this.key = key;
+        }
+    }
+}
@@ -7,6 +7,7 @@ import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
+import com.secure.messenger.android.SecureMessengerApp;
 import com.secure.messenger.android.data.model.User;
 import com.secure.messenger.android.data.repository.UserRepository;
 
@@ -28,7 +29,7 @@ public class ContactsViewModel extends AndroidViewModel {
         super(application);
 
         // Ініціалізація репозиторію
-        userRepository = new UserRepository(application);
+        userRepository = ((SecureMessengerApp) application).getContainer().getUserRepository();
     }
 
     /**
@@ -7,7 +7,8 @@ import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
-import com.secure.messenger.android.data.api.GroupServiceClient;
+import com.secure.messenger.android.AppContainer;
+import com.secure.messenger.android.SecureMessengerApp;
 import com.secure.messenger.android.data.local.TokenManager;
 import com.secure.messenger.android.data.model.Group;
 import com.secure.messenger.android.data.model.User;
@@ -43,20 +44,11 @@ public class CreateGroupViewModel extends AndroidViewModel {
     public CreateGroupViewModel(@NonNull Application application) {
         super(application);
 
-        // Ініціалізація залежностей
-        // В реальному додатку краще використовувати DI
-        String serverHost = "10.0.2.2"; // localhost для емулятора
-        int serverPort = 9090;
-
-        // Створення клієнтів для роботи з API
-        GroupServiceClient groupServiceClient = new GroupServiceClient(serverHost, serverPort);
-
-        // Створення репозиторіїв
-        this.groupRepository = new GroupRepository(application, groupServiceClient);
-        this.userRepository = new UserRepository(application);
-
-        // Ініціалізація токен менеджера
-        this.tokenManager = new TokenManager(application);
+        // Спільні залежності з контейнера
+        AppContainer container = ((SecureMessengerApp) application).getContainer();
+        this.groupRepository = container.getGroupRepository();
+        this.userRepository = container.getUserRepository();
+        this.tokenManager = container.getTokenManager();
     }
 
     /**
@@ -13,6 +13,7 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.google.android.material.textfield.TextInputEditText;
 import com.secure.messenger.android.R;
 import com.secure.messenger.android.ui.common.BaseActivity;
+import com.secure.messenger.android.ui.common.adapter.SharedViewPool;
 
 /**
  * Активність для групового чату
@@ -59,7 +60,12 @@ public class GroupChatActivity extends BaseActivity {
         recyclerView = findViewById(R.id.recycler_view);
         messageInput = findViewById(R.id.message_input);
 
-        // TODO: Налаштувати RecyclerView та адаптер для повідомлень
+        LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        layoutManager.setStackFromEnd(true);
+        recyclerView.setLayoutManager(layoutManager);
+        SharedViewPool.setupMessageList(recyclerView, layoutManager);
+
+        // TODO: Налаштувати адаптер для повідомлень
     }
 
     private void observeViewModel() {
@@ -6,32 +6,47 @@ import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.MutableLiveData;
 
-import com.secure.messenger.android.data.api.MessageServiceClient;
+import com.secure.messenger.android.AppContainer;
+import com.secure.messenger.android.SecureMessengerApp;
 import com.secure.messenger.android.data.local.TokenManager;
 import com.secure.messenger.android.data.local.entity.MessageEntity;
 import com.secure.messenger.android.data.model.Group;
+import com.secure.messenger.android.data.model.GroupMember;
 import com.secure.messenger.android.data.model.Message;
+import com.secure.messenger.android.data.model.ModelConverter;
 import com.secure.messenger.android.data.repository.GroupRepository;
 import com.secure.messenger.android.data.repository.MessageRepository;
+import com.secure.messenger.android.data.repository.UserRepository;
+import com.secure.messenger.android.util.AppExecutors;
+import com.secure.messenger.android.util.Futures;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * ViewModel для групового чату
  */
 public class GroupChatViewModel extends AndroidViewModel {
     private static final String TAG = "GroupChatViewModel";
+    private static final int MEMBERS_PAGE_SIZE = 50;
 
     // Репозиторії для роботи з даними
     private final GroupRepository groupRepository;
     private final MessageRepository messageRepository;
+    private final UserRepository userRepository;
+    private final Executor executor;
 
     // LiveData для UI
     private final MutableLiveData<Group> group = new MutableLiveData<>();
-    private final MutableLiveData<List<Message>> messages = new MutableLiveData<>(new ArrayList<>());
+    private final MutableLiveData<List<GroupMember>> members = new MutableLiveData<>(new ArrayList<>());
+    private final MediatorLiveData<List<Message>> messages = new MediatorLiveData<>(new ArrayList<>());
+    private LiveData<List<MessageEntity>> messagesSource;
     private final MutableLiveData<Boolean> loading = new MutableLiveData<>(false);
     private final MutableLiveData<String> error = new MutableLiveData<>();
     private final MutableLiveData<Boolean> sendingMessage = new MutableLiveData<>(false);
@@ -39,26 +54,25 @@ public class GroupChatViewModel extends AndroidViewModel {
     // Ідентифікатор групи
     private String groupId;
 
+    // Поточне завантаження групи та його запити (скасовуються при закритті екрана)
+    private CompletableFuture<Void> pendingLoad;
+    private CompletableFuture<Group> pendingGroup;
+    private CompletableFuture<List<GroupMember>> pendingMembers;
+
     // Токен менеджер для перевірки авторизації
     private final TokenManager tokenManager;
 
     public GroupChatViewModel(@NonNull Application application) {
         super(application);
 
-        // Ініціалізація залежностей
-        // В реальному додатку краще використовувати DI
-        String serverHost = "10.0.2.2"; // localhost для емулятора
-        int serverPort = 9090;
-
-        // Створення клієнтів для роботи з API
-        MessageServiceClient messageServiceClient = new MessageServiceClient(serverHost, serverPort);
-
-        // Створення репозиторіїв
-        this.groupRepository = new GroupRepository(application, null);
-        this.messageRepository = new MessageRepository(application, messageServiceClient);
-
-        // Ініціалізація токен менеджера
-        this.tokenManager = new TokenManager(application);
+        // Спільні залежності з контейнера
+        AppContainer container = ((SecureMessengerApp) application).getContainer();
+        this.groupRepository = container.getGroupRepository();
+        this.messageRepository = container.getMessageRepository();
+        this.userRepository = container.getUserRepository();
+        // Послідовна черга поверх спільного пулу зберігає порядок оновлень списку
+        this.executor = AppExecutors.serial(AppExecutors.getInstance().crypto());
+        this.tokenManager = container.getTokenManager();
     }
 
     /**
@@ -72,7 +86,8 @@ public class GroupChatViewModel extends AndroidViewModel {
     }
 
     /**
-     * Завантажує інформацію про групу
+     * Завантажує інформацію про групу та першу сторінку учасників паралельно.
+     * Стан завантаження знімається, коли завершаться обидва запити
      */
     private void loadGroup() {
         if (groupId == null) {
@@ -80,24 +95,46 @@ public class GroupChatViewModel extends AndroidViewModel {
             return;
         }
 
+        cancelPendingLoad();
         loading.setValue(true);
-        groupRepository.getGroupById(groupId, new GroupRepository.GroupCallback() {
-            @Override
-            public void onSuccess(Group result) {
-                group.postValue(result);
-                loading.postValue(false);
-            }
 
-            @Override
-            public void onError(String errorMessage) {
-                error.postValue("Помилка завантаження групи: " + errorMessage);
-                loading.postValue(false);
-            }
-        });
+        CompletableFuture<Group> groupFuture = groupRepository.getGroupByIdAsync(groupId);
+        CompletableFuture<List<GroupMember>> membersFuture =
+                groupRepository.getGroupMembersPageAsync(groupId, null, MEMBERS_PAGE_SIZE);
+        pendingGroup = groupFuture;
+        pendingMembers = membersFuture;
+
+        pendingLoad = CompletableFuture.allOf(groupFuture, membersFuture)
+                .whenComplete((ignored, throwable) -> {
+                    if (throwable != null) {
+                        if (!(Futures.unwrap(throwable) instanceof CancellationException)) {
+                            error.postValue("Помилка завантаження групи: " + Futures.errorMessage(throwable));
+                        }
+                    } else {
+                        group.postValue(groupFuture.join());
+                        members.postValue(membersFuture.join());
+                    }
+                    loading.postValue(false);
+                });
+    }
+
+    /**
+     * Скасовує поточне завантаження. Скасування allOf не доходить до вихідних запитів,
+     * тому скасовуються і вони: запит до бази даних не виконається, якщо ще чекає в черзі,
+     * а запит групи з сервера скасується, якщо на нього більше ніхто не чекає
+     */
+    private void cancelPendingLoad() {
+        Futures.cancel(pendingGroup);
+        Futures.cancel(pendingMembers);
+        Futures.cancel(pendingLoad);
+        pendingGroup = null;
+        pendingMembers = null;
+        pendingLoad = null;
     }
 
     /**
-     * Завантажує повідомлення групи
+     * Підписується на повідомлення групи в локальній базі даних.
+     * Підписка створюється один раз, далі Room надсилає оновлення після кожного запису
      */
     public void loadMessages() {
         if (groupId == null) {
@@ -105,30 +142,22 @@ public class GroupChatViewModel extends AndroidViewModel {
             return;
         }
 
-        loading.setValue(true);
-        messageRepository.getGroupMessages(groupId, new MessageRepository.FetchMessagesCallback() {
-            @Override
-            public void onSuccess(List<MessageEntity> messageEntities) {
-                // Конвертуємо сутності в моделі
-                List<Message> messageList = new ArrayList<>();
-                for (MessageEntity entity : messageEntities) {
-                    try {
-                        // TODO: Реалізувати конвертацію MessageEntity в Message
-                        // messageList.add(convertEntityToMessage(entity));
-                    } catch (Exception e) {
-                        Log.e(TAG, "Error converting message entity: " + e.getMessage(), e);
-                    }
-                }
-                messages.postValue(messageList);
-                loading.postValue(false);
-            }
+        if (messagesSource != null) {
+            return;
+        }
 
-            @Override
-            public void onError(String errorMessage) {
-                error.postValue("Помилка завантаження повідомлень: " + errorMessage);
-                loading.postValue(false);
+        messagesSource = messageRepository.observeGroupMessages(groupId);
+        // Конвертація та імена відправників - у фоновому потоці
+        messages.addSource(messagesSource, messageEntities -> executor.execute(() -> {
+            try {
+                List<Message> converted = ModelConverter.convertToMessages(messageEntities);
+                userRepository.resolveSenderNames(converted);
+                messages.postValue(converted);
+            } catch (Exception e) {
+                Log.e(TAG, "Error loading group messages: " + e.getMessage(), e);
+                error.postValue("Помилка завантаження повідомлень: " + e.getMessage());
             }
-        });
+        }));
     }
 
     /**
@@ -146,8 +175,7 @@ public class GroupChatViewModel extends AndroidViewModel {
         messageRepository.sendGroupMessage(groupId, text, "TEXT", new MessageRepository.MessageCallback() {
             @Override
             public void onSuccess(String messageId) {
-                // Оновлюємо список повідомлень
-                loadMessages();
+                // Список оновиться через спостереження за базою даних
                 sendingMessage.postValue(false);
             }
 
@@ -178,6 +206,13 @@ public class GroupChatViewModel extends AndroidViewModel {
         });
     }
 
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        // Запити, які ще чекають у черзі, не будуть виконані
+        cancelPendingLoad();
+    }
+
     /**
      * Позначає помилку як оброблену
      */
@@ -191,6 +226,10 @@ public class GroupChatViewModel extends AndroidViewModel {
         return group;
     }
 
+    public LiveData<List<GroupMember>> getMembers() {
+        return members;
+    }
+
     public LiveData<List<Message>> getMessages() {
         return messages;
     }
@@ -21,6 +21,7 @@ import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import com.secure.messenger.android.R;
 import com.secure.messenger.android.data.model.Group;
 import com.secure.messenger.android.ui.common.adapter.BaseAdapter;
+import com.secure.messenger.android.ui.common.adapter.SharedViewPool;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -74,6 +75,7 @@ public class GroupListFragment extends Fragment {
         adapter = new GroupAdapter();
         recyclerView.setAdapter(adapter);
         recyclerView.setLayoutManager(new LinearLayoutManager(requireContext()));
+        SharedViewPool.setupRowList(recyclerView);
         recyclerView.addItemDecoration(new DividerItemDecoration(requireContext(), DividerItemDecoration.VERTICAL));
 
         // Налаштування обробника натиснень
@@ -147,10 +149,24 @@ public class GroupListFragment extends Fragment {
         @NonNull
         @Override
         public GroupViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-            View view = inflate(parent, R.layout.item_group);
+            View view = SharedViewPool.inflate(parent, R.layout.item_group);
             return new GroupViewHolder(view);
         }
 
+        @Override
+        public int getItemViewType(int position) {
+            // Тип view - ідентифікатор макета, щоб ViewHolder-и можна було ділити через спільний пул
+            return R.layout.item_group;
+        }
+
+        @Override
+        public void onViewRecycled(@NonNull GroupViewHolder holder) {
+            super.onViewRecycled(holder);
+            // ViewHolder повертається у спільний пул і не повинен утримувати цей екран
+            holder.itemView.setOnClickListener(null);
+            holder.itemView.setOnLongClickListener(null);
+        }
+
         @Override
         public void onBindViewHolder(@NonNull GroupViewHolder holder, int position) {
             Group group = getItem(position);
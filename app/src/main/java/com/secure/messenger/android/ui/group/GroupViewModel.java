@@ -5,9 +5,10 @@ import android.app.Application;
 import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.MutableLiveData;
 
-import com.secure.messenger.android.data.api.GroupServiceClient;
+import com.secure.messenger.android.SecureMessengerApp;
 import com.secure.messenger.android.data.model.Group;
 import com.secure.messenger.android.data.repository.GroupRepository;
 
@@ -20,46 +21,48 @@ public class GroupViewModel extends AndroidViewModel {
     private static final String TAG = "GroupViewModel";
 
     private final GroupRepository groupRepository;
-    private final MutableLiveData<List<Group>> groups = new MutableLiveData<>();
+    private final MediatorLiveData<List<Group>> groups = new MediatorLiveData<>();
     private final MutableLiveData<Boolean> loading = new MutableLiveData<>(false);
     private final MutableLiveData<String> error = new MutableLiveData<>();
 
+    private final GroupRepository.GroupsCallback loadCallback = new GroupRepository.GroupsCallback() {
+        @Override
+        public void onSuccess(List<Group> groupList) {
+            loading.postValue(false);
+        }
+
+        @Override
+        public void onError(String errorMessage) {
+            error.postValue(errorMessage);
+            loading.postValue(false);
+        }
+    };
+
     public GroupViewModel(@NonNull Application application) {
         super(application);
 
-        // Ініціалізація клієнта та репозиторію
-        // У реальному додатку використовуйте DI для ін'єкції залежностей
-        String serverHost = "10.0.2.2"; // localhost для емулятора
-        int serverPort = 9090;
-        GroupServiceClient groupServiceClient = new GroupServiceClient(serverHost, serverPort);
-        groupRepository = new GroupRepository(application, groupServiceClient);
+        // Спільний репозиторій з контейнера залежностей
+        groupRepository = ((SecureMessengerApp) application).getContainer().getGroupRepository();
+
+        // Підписуємося на локальну базу один раз: будь-який запис (зокрема синхронізація
+        // з сервером) автоматично оновить список
+        groups.addSource(groupRepository.observeGroups(), groups::setValue);
     }
 
     /**
-     * Завантажує список груп
+     * Завантажує список груп (з кешу або сервера). Результат потрапляє в список через спостереження за базою даних
      */
     public void loadGroups() {
         loading.setValue(true);
-        groupRepository.getUserGroups(new GroupRepository.GroupsCallback() {
-            @Override
-            public void onSuccess(List<Group> groupList) {
-                groups.postValue(groupList);
-                loading.postValue(false);
-            }
-
-            @Override
-            public void onError(String errorMessage) {
-                error.postValue(errorMessage);
-                loading.postValue(false);
-            }
-        });
+        groupRepository.getUserGroups(loadCallback);
     }
 
     /**
-     * Оновлює список груп
+     * Оновлює список груп з сервера, не зважаючи на кеш
      */
     public void refreshGroups() {
-        loadGroups();
+        loading.setValue(true);
+        groupRepository.refreshUserGroups(loadCallback);
     }
 
     /**
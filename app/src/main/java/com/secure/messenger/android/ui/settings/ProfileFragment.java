@@ -15,6 +15,7 @@ import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
 
 import com.secure.messenger.android.R;
+import com.secure.messenger.android.SecureMessengerApp;
 import com.secure.messenger.android.data.local.TokenManager;
 import com.secure.messenger.android.data.model.User;
 
@@ -48,7 +49,7 @@ public class ProfileFragment extends Fragment {
 
         // Ініціалізація ViewModel та TokenManager
         viewModel = new ViewModelProvider(this).get(ProfileViewModel.class);
-        tokenManager = new TokenManager(requireContext());
+        tokenManager = SecureMessengerApp.getInstance().getContainer().getTokenManager();
 
         // Ініціалізація UI компонентів
         initViews(view);
@@ -7,6 +7,8 @@ import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
+import com.secure.messenger.android.AppContainer;
+import com.secure.messenger.android.SecureMessengerApp;
 import com.secure.messenger.android.data.local.TokenManager;
 import com.secure.messenger.android.data.model.User;
 import com.secure.messenger.android.data.repository.UserRepository;
@@ -29,8 +31,9 @@ public class ProfileViewModel extends AndroidViewModel {
         super(application);
 
         // Ініціалізація залежностей
-        userRepository = new UserRepository(application);
-        tokenManager = new TokenManager(application);
+        AppContainer container = ((SecureMessengerApp) application).getContainer();
+        userRepository = container.getUserRepository();
+        tokenManager = container.getTokenManager();
     }
 
     /**
@@ -1,26 +1,39 @@
 package com.secure.messenger.android.ui.settings;
 
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.graphics.Typeface;
 import android.os.Bundle;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.CompoundButton;
+import android.widget.ScrollView;
 import android.widget.Switch;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.appcompat.app.AlertDialog;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
 
 import com.secure.messenger.android.R;
+import com.secure.messenger.android.SecureMessengerApp;
 import com.secure.messenger.android.data.local.PreferenceManager;
+import com.secure.messenger.android.util.AppExecutors;
+import com.secure.messenger.android.util.MetricsRegistry;
+
+import java.io.File;
+import java.io.IOException;
 
 /**
  * Фрагмент для налаштувань додатку
  */
 public class SettingsFragment extends Fragment {
+    private static final String TAG = "SettingsFragment";
 
     private SettingsViewModel viewModel;
     private PreferenceManager preferenceManager;
@@ -33,6 +46,7 @@ public class SettingsFragment extends Fragment {
     private View buttonPrivacyPolicy;
     private View buttonTermsOfService;
     private View buttonAbout;
+    private View buttonMetrics;
 
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
@@ -45,7 +59,7 @@ public class SettingsFragment extends Fragment {
 
         // Ініціалізація ViewModel та PreferenceManager
         viewModel = new ViewModelProvider(this).get(SettingsViewModel.class);
-        preferenceManager = new PreferenceManager(requireContext());
+        preferenceManager = SecureMessengerApp.getInstance().getContainer().getPreferenceManager();
 
         // Ініціалізація UI компонентів
         initViews(view);
@@ -66,6 +80,11 @@ public class SettingsFragment extends Fragment {
         buttonPrivacyPolicy = view.findViewById(R.id.button_privacy_policy);
         buttonTermsOfService = view.findViewById(R.id.button_terms_of_service);
         buttonAbout = view.findViewById(R.id.button_about);
+        buttonMetrics = view.findViewById(R.id.button_metrics);
+
+        // Екран метрик доступний лише в налагоджувальних збірках
+        boolean debuggable = (requireContext().getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+        buttonMetrics.setVisibility(debuggable ? View.VISIBLE : View.GONE);
     }
 
     private void setupListeners() {
@@ -104,6 +123,52 @@ public class SettingsFragment extends Fragment {
             // Відкриття екрану з інформацією про додаток
             // TODO: Реалізувати перехід на екран про додаток
         });
+
+        // Перегляд метрик продуктивності
+        buttonMetrics.setOnClickListener(v -> showMetrics());
+    }
+
+    /**
+     * Показує звіт метрик з можливістю зберегти його у файл або скинути
+     */
+    private void showMetrics() {
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        String report = metrics.formatReport();
+
+        TextView reportView = new TextView(requireContext());
+        reportView.setText(report.isEmpty() ? getString(R.string.metrics_empty) : report);
+        reportView.setTypeface(Typeface.MONOSPACE);
+        reportView.setTextSize(12);
+        reportView.setTextIsSelectable(true);
+        int padding = (int) (16 * getResources().getDisplayMetrics().density);
+        reportView.setPadding(padding, padding, padding, padding);
+        ScrollView scrollView = new ScrollView(requireContext());
+        scrollView.addView(reportView);
+
+        new AlertDialog.Builder(requireContext())
+                .setTitle(R.string.settings_metrics)
+                .setView(scrollView)
+                .setPositiveButton(R.string.metrics_save, (dialog, which) -> dumpMetrics())
+                .setNeutralButton(R.string.metrics_reset, (dialog, which) -> metrics.reset())
+                .setNegativeButton(android.R.string.ok, null)
+                .show();
+    }
+
+    private void dumpMetrics() {
+        Context context = requireContext().getApplicationContext();
+        AppExecutors executors = AppExecutors.getInstance();
+        executors.io().execute(() -> {
+            String message;
+            try {
+                File file = MetricsRegistry.getInstance().dumpToFile(context);
+                message = context.getString(R.string.metrics_saved, file.getAbsolutePath());
+            } catch (IOException e) {
+                Log.e(TAG, "Error dumping metrics: " + e.getMessage(), e);
+                message = context.getString(R.string.metrics_save_failed);
+            }
+            String toast = message;
+            executors.mainThread().execute(() -> Toast.makeText(context, toast, Toast.LENGTH_LONG).show());
+        });
     }
 
     private void loadSettings() {
@@ -0,0 +1,175 @@
+package com.secure.messenger.android.util;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Спільні пули потоків для всього додатку.
+ * Замість окремого потоку для кожного репозиторію чи ViewModel робота розподіляється
+ * між кількома обмеженими пулами:
+ * - dbWrite: один потік, усі записи в базу даних виконуються послідовно;
+ * - dbRead: кілька потоків для читання з бази даних;
+ * - crypto: потоки за кількістю ядер для шифрування та обробки даних;
+ * - io: блокуючі мережеві виклики.
+ */
+public class AppExecutors {
+    private static final String TAG = "AppExecutors";
+
+    private static final int CPU_COUNT = Runtime.getRuntime().availableProcessors();
+    private static final int DB_READ_THREADS = 3;
+    private static final int IO_THREADS = 6;
+
+    private static AppExecutors instance;
+
+    private final MonitoredExecutor dbWrite;
+    private final MonitoredExecutor dbRead;
+    private final MonitoredExecutor crypto;
+    private final MonitoredExecutor io;
+    private final Executor mainThread;
+    private final ScheduledExecutorService scheduler;
+
+    private AppExecutors() {
+        dbWrite = new MonitoredExecutor("db-write", 1, Process.THREAD_PRIORITY_BACKGROUND);
+        dbRead = new MonitoredExecutor("db-read", DB_READ_THREADS, Process.THREAD_PRIORITY_BACKGROUND);
+        crypto = new MonitoredExecutor("crypto", Math.max(2, CPU_COUNT - 1), Process.THREAD_PRIORITY_BACKGROUND);
+        io = new MonitoredExecutor("io", IO_THREADS, Process.THREAD_PRIORITY_BACKGROUND);
+        mainThread = new MainThreadExecutor();
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "scheduler"));
+
+        // Глибина черг пулів у звіті метрик; час очікування записує сам MonitoredExecutor
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        for (MonitoredExecutor executor : new MonitoredExecutor[]{dbWrite, dbRead, crypto, io}) {
+            metrics.gauge("executor." + executor.getName() + ".queue", executor::getQueueDepth);
+            metrics.gauge("executor." + executor.getName() + ".maxQueue", executor::getMaxQueueDepth);
+        }
+    }
+
+    /**
+     * Отримує екземпляр AppExecutors
+     *
+     * @return екземпляр AppExecutors
+     */
+    public static synchronized AppExecutors getInstance() {
+        if (instance == null) {
+            instance = new AppExecutors();
+        }
+        return instance;
+    }
+
+    /**
+     * @return пул для записів у базу даних (один потік)
+     */
+    public MonitoredExecutor dbWrite() {
+        return dbWrite;
+    }
+
+    /**
+     * @return пул для читання з бази даних
+     */
+    public MonitoredExecutor dbRead() {
+        return dbRead;
+    }
+
+    /**
+     * @return пул для шифрування та інших обчислень
+     */
+    public MonitoredExecutor crypto() {
+        return crypto;
+    }
+
+    /**
+     * @return пул для блокуючих мережевих операцій
+     */
+    public MonitoredExecutor io() {
+        return io;
+    }
+
+    /**
+     * @return executor головного потоку
+     */
+    public Executor mainThread() {
+        return mainThread;
+    }
+
+    /**
+     * @return планувальник для періодичних завдань (лише для постановки завдань у пули)
+     */
+    public ScheduledExecutorService scheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Створює послідовний executor поверх спільного пулу: завдання виконуються
+     * по одному в порядку надходження, але без власного потоку
+     *
+     * @param delegate пул, у якому виконуються завдання
+     * @return послідовний executor
+     */
+    public static Executor serial(Executor delegate) {
+        return new SerialExecutor(delegate);
+    }
+
+    /**
+     * Записує статистику всіх пулів у лог
+     */
+    public void logStats() {
+        Log.i(TAG, dbWrite.getStats());
+        Log.i(TAG, dbRead.getStats());
+        Log.i(TAG, crypto.getStats());
+        Log.i(TAG, io.getStats());
+    }
+
+    /**
+     * Executor, який виконує завдання на головному потоці
+     */
+    private static class MainThreadExecutor implements Executor {
+        private final Handler mainThreadHandler = new Handler(Looper.getMainLooper());
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            mainThreadHandler.post(command);
+        }
+    }
+
+    /**
+     * Послідовне виконання завдань поверх іншого executor
+     */
+    private static class SerialExecutor implements Executor {
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+        private final Executor delegate;
+        private Runnable active;
+
+        SerialExecutor(Executor delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public synchronized void execute(@NonNull Runnable command) {
+            tasks.offer(() -> {
+                try {
+                    command.run();
+                } finally {
+                    scheduleNext();
+                }
+            });
+            if (active == null) {
+                scheduleNext();
+            }
+        }
+
+        private synchronized void scheduleNext() {
+            if ((active = tasks.poll()) != null) {
+                delegate.execute(active);
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.secure.messenger.android.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+
+/**
+ * Допоміжні методи для роботи з CompletableFuture
+ */
+public final class Futures {
+
+    private Futures() {
+    }
+
+    /**
+     * Виконує завдання в executor та повертає його результат як CompletableFuture.
+     * На відміну від CompletableFuture.supplyAsync, завдання може кидати перевірювані
+     * винятки, а скасоване до початку виконання завдання взагалі не запускається.
+     *
+     * @param task завдання
+     * @param executor executor для виконання
+     * @return future з результатом завдання
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Callable<T> task, Executor executor) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            if (future.isDone()) {
+                // Future скасовано, поки завдання чекало в черзі
+                return;
+            }
+            try {
+                future.complete(task.call());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Скасовує future, якщо він ще не завершений
+     *
+     * @param future future (може бути null)
+     */
+    public static void cancel(Future<?> future) {
+        if (future != null && !future.isDone()) {
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * Повертає першопричину помилки, розгортаючи CompletionException
+     *
+     * @param throwable помилка з future
+     * @return першопричина помилки
+     */
+    public static Throwable unwrap(Throwable throwable) {
+        while (throwable instanceof CompletionException && throwable.getCause() != null) {
+            throwable = throwable.getCause();
+        }
+        return throwable;
+    }
+
+    /**
+     * Повертає повідомлення першопричини помилки
+     *
+     * @param throwable помилка з future
+     * @return текст помилки
+     */
+    public static String errorMessage(Throwable throwable) {
+        Throwable cause = unwrap(throwable);
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,254 @@
+package com.secure.messenger.android.util;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+import android.media.ExifInterface;
+import android.net.Uri;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Підготовка зображень-вкладень до шифрування та відправлення.
+ * Етапи: декодування зі зменшенням (inSampleSize), масштабування до максимального розміру
+ * з урахуванням орієнтації EXIF, повторне кодування в JPEG, створення мініатюри
+ * та вбудованої заглушки для миттєвого показу в списку.
+ * Оригінал у повній роздільності ніколи не декодується повністю і не потрапляє в головний потік.
+ */
+public class ImageAttachmentProcessor {
+
+    // Максимальна сторона зображення, що відправляється
+    private static final int MAX_DIMENSION = 1600;
+    private static final int IMAGE_QUALITY = 80;
+
+    // Максимальна сторона мініатюри для списку повідомлень
+    private static final int THUMBNAIL_DIMENSION = 320;
+    private static final int THUMBNAIL_QUALITY = 70;
+
+    // Вбудована заглушка: кілька десятків пікселів, не більше 1 КБ
+    private static final int PLACEHOLDER_DIMENSION = 32;
+    private static final int PLACEHOLDER_MAX_BYTES = 1024;
+    private static final int PLACEHOLDER_MIN_QUALITY = 10;
+
+    private ImageAttachmentProcessor() {
+    }
+
+    /**
+     * Обробляє зображення у пулі обчислень
+     *
+     * @param context контекст
+     * @param uri URI вибраного зображення
+     * @return future з підготовленим зображенням
+     */
+    public static CompletableFuture<ProcessedImage> processAsync(Context context, Uri uri) {
+        Context appContext = context.getApplicationContext();
+        return Futures.supplyAsync(() -> process(appContext, uri), AppExecutors.getInstance().crypto());
+    }
+
+    /**
+     * Обробляє зображення в поточному (фоновому) потоці
+     *
+     * @param context контекст
+     * @param uri URI вибраного зображення
+     * @return підготовлене зображення
+     * @throws IOException якщо зображення неможливо прочитати або декодувати
+     */
+    public static ProcessedImage process(Context context, Uri uri) throws IOException {
+        ContentResolver resolver = context.getContentResolver();
+
+        // Етап 1: розміри оригіналу без декодування пікселів
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        try (InputStream in = resolver.openInputStream(uri)) {
+            if (in == null) {
+                throw new IOException("Cannot open image: " + uri);
+            }
+            BitmapFactory.decodeStream(in, null, options);
+        }
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            throw new IOException("Unsupported image format");
+        }
+        long originalSize = querySize(resolver, uri);
+
+        // Етап 2: декодування лише кожного n-го пікселя
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = calculateSampleSize(options.outWidth, options.outHeight, MAX_DIMENSION);
+        Bitmap bitmap;
+        try (InputStream in = resolver.openInputStream(uri)) {
+            bitmap = in != null ? BitmapFactory.decodeStream(in, null, options) : null;
+        }
+        if (bitmap == null) {
+            throw new IOException("Cannot decode image");
+        }
+
+        // Етап 3: точне масштабування та поворот за EXIF
+        Bitmap image = transform(bitmap, MAX_DIMENSION, readRotation(resolver, uri));
+        if (image != bitmap) {
+            bitmap.recycle();
+        }
+        Bitmap thumbnail = null;
+        Bitmap placeholder = null;
+        try {
+            // Етап 4: кодування зображення, мініатюри та вбудованої заглушки
+            byte[] imageBytes = compress(image, IMAGE_QUALITY);
+            thumbnail = transform(image, THUMBNAIL_DIMENSION, 0);
+            byte[] thumbnailBytes = compress(thumbnail, THUMBNAIL_QUALITY);
+            placeholder = transform(thumbnail, PLACEHOLDER_DIMENSION, 0);
+            byte[] placeholderBytes = compressPlaceholder(placeholder);
+            return new ProcessedImage(imageBytes, thumbnailBytes, placeholderBytes,
+                    image.getWidth(), image.getHeight(), originalSize);
+        } finally {
+            if (placeholder != null && placeholder != thumbnail && placeholder != image) {
+                placeholder.recycle();
+            }
+            if (thumbnail != null && thumbnail != image) {
+                thumbnail.recycle();
+            }
+            image.recycle();
+        }
+    }
+
+    /**
+     * Кодує заглушку, знижуючи якість, поки вона не вміститься в ліміт
+     */
+    private static byte[] compressPlaceholder(Bitmap bitmap) throws IOException {
+        int quality = THUMBNAIL_QUALITY;
+        byte[] bytes = compress(bitmap, quality);
+        while (bytes.length > PLACEHOLDER_MAX_BYTES && quality > PLACEHOLDER_MIN_QUALITY) {
+            quality -= 20;
+            bytes = compress(bitmap, Math.max(quality, PLACEHOLDER_MIN_QUALITY));
+        }
+        return bytes;
+    }
+
+    /**
+     * Найбільший степінь двійки, з яким більша сторона зображення ще не менша за потрібну
+     */
+    private static int calculateSampleSize(int width, int height, int maxDimension) {
+        int sampleSize = 1;
+        while (Math.max(width, height) / (sampleSize * 2) >= maxDimension) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    /**
+     * Масштабує зображення так, щоб більша сторона не перевищувала maxDimension, та повертає
+     * нове зображення або вхідне, якщо змін не потрібно
+     */
+    private static Bitmap transform(Bitmap source, int maxDimension, int rotation) {
+        int largest = Math.max(source.getWidth(), source.getHeight());
+        float scale = largest > maxDimension ? (float) maxDimension / largest : 1f;
+        if (scale == 1f && rotation == 0) {
+            return source;
+        }
+
+        Matrix matrix = new Matrix();
+        matrix.postScale(scale, scale);
+        matrix.postRotate(rotation);
+        return Bitmap.createBitmap(source, 0, 0, source.getWidth(), source.getHeight(), matrix, true);
+    }
+
+    private static byte[] compress(Bitmap bitmap, int quality) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (!bitmap.compress(Bitmap.CompressFormat.JPEG, quality, out)) {
+            throw new IOException("Cannot encode image");
+        }
+        return out.toByteArray();
+    }
+
+    private static int readRotation(ContentResolver resolver, Uri uri) {
+        try (InputStream in = resolver.openInputStream(uri)) {
+            if (in == null) {
+                return 0;
+            }
+            int orientation = new ExifInterface(in).getAttributeInt(
+                    ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
+            switch (orientation) {
+                case ExifInterface.ORIENTATION_ROTATE_90:
+                    return 90;
+                case ExifInterface.ORIENTATION_ROTATE_180:
+                    return 180;
+                case ExifInterface.ORIENTATION_ROTATE_270:
+                    return 270;
+                default:
+                    return 0;
+            }
+        } catch (IOException e) {
+            // Без EXIF зображення відправляється без повороту
+            return 0;
+        }
+    }
+
+    private static long querySize(ContentResolver resolver, Uri uri) {
+        try (AssetFileDescriptor descriptor = resolver.openAssetFileDescriptor(uri, "r")) {
+            return descriptor != null ? descriptor.getLength() : -1;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Підготовлене зображення
+     */
+    public static final class ProcessedImage {
+        private final byte[] imageBytes;
+        private final byte[] thumbnailBytes;
+        private final byte[] placeholderBytes;
+        private final int width;
+        private final int height;
+        private final long originalSize;
+
+        ProcessedImage(byte[] imageBytes, byte[] thumbnailBytes, byte[] placeholderBytes,
+                       int width, int height, long originalSize) {
+            this.imageBytes = imageBytes;
+            this.thumbnailBytes = thumbnailBytes;
+            this.placeholderBytes = placeholderBytes;
+            this.width = width;
+            this.height = height;
+            this.originalSize = originalSize;
+        }
+
+        /**
+         * @return зображення у форматі JPEG
+         */
+        public byte[] getImageBytes() {
+            return imageBytes;
+        }
+
+        /**
+         * @return мініатюра у форматі JPEG
+         */
+        public byte[] getThumbnailBytes() {
+            return thumbnailBytes;
+        }
+
+        /**
+         * @return вбудована заглушка у форматі JPEG (до 1 КБ)
+         */
+        public byte[] getPlaceholderBytes() {
+            return placeholderBytes;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        /**
+         * @return розмір оригінального файлу в байтах або -1, якщо невідомий
+         */
+        public long getOriginalSize() {
+            return originalSize;
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package com.secure.messenger.android.util;
+
+import android.content.Context;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Реєстр метрик додатку: лічильники, показники (gauge) та гістограми затримок.
+ * Метрика створюється один раз за назвою; запис значень не створює об'єктів,
+ * тому посилання на метрики варто зберігати в полях, а не шукати за назвою при кожному записі.
+ * Гістограми мають фіксовані межі кошиків, тому перцентилі наближені до верхньої межі кошика.
+ */
+public class MetricsRegistry {
+    private static final String METRICS_DIR = "metrics";
+
+    private static MetricsRegistry instance;
+
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Gauge> gauges = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+    private MetricsRegistry() {
+    }
+
+    /**
+     * Отримує екземпляр MetricsRegistry
+     *
+     * @return екземпляр MetricsRegistry
+     */
+    public static synchronized MetricsRegistry getInstance() {
+        if (instance == null) {
+            instance = new MetricsRegistry();
+        }
+        return instance;
+    }
+
+    /**
+     * Отримує або створює лічильник
+     *
+     * @param name назва метрики
+     * @return лічильник
+     */
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, key -> new Counter());
+    }
+
+    /**
+     * Отримує або створює показник, значення якого встановлюється викликом set
+     *
+     * @param name назва метрики
+     * @return показник
+     */
+    public Gauge gauge(String name) {
+        return gauges.computeIfAbsent(name, key -> new Gauge(null));
+    }
+
+    /**
+     * Реєструє показник, значення якого читається під час формування звіту
+     *
+     * @param name назва метрики
+     * @param supplier джерело значення
+     */
+    public void gauge(String name, LongSupplier supplier) {
+        gauges.put(name, new Gauge(supplier));
+    }
+
+    /**
+     * Отримує або створює гістограму затримок
+     *
+     * @param name назва метрики
+     * @return гістограма
+     */
+    public Histogram histogram(String name) {
+        return histograms.computeIfAbsent(name, key -> new Histogram());
+    }
+
+    /**
+     * Скидає значення лічильників і гістограм (показники не змінюються)
+     */
+    public void reset() {
+        for (Counter counter : counters.values()) {
+            counter.reset();
+        }
+        for (Histogram histogram : histograms.values()) {
+            histogram.reset();
+        }
+    }
+
+    /**
+     * Формує текстовий звіт для екрана налагодження
+     *
+     * @return звіт
+     */
+    public String formatReport() {
+        StringBuilder report = new StringBuilder();
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(histograms).entrySet()) {
+            Histogram histogram = entry.getValue();
+            report.append(String.format(Locale.US, "%s: n=%d p50=%.1fms p90=%.1fms p99=%.1fms max=%.1fms%n",
+                    entry.getKey(), histogram.getCount(), histogram.getPercentileMillis(50),
+                    histogram.getPercentileMillis(90), histogram.getPercentileMillis(99),
+                    histogram.getMaxMillis()));
+        }
+        for (Map.Entry<String, Counter> entry : new TreeMap<>(counters).entrySet()) {
+            report.append(entry.getKey()).append(": ").append(entry.getValue().get()).append('\n');
+        }
+        for (Map.Entry<String, Gauge> entry : new TreeMap<>(gauges).entrySet()) {
+            report.append(entry.getKey()).append(" = ").append(entry.getValue().get()).append('\n');
+        }
+        return report.toString();
+    }
+
+    /**
+     * Формує звіт у форматі JSON для аналізу поза пристроєм
+     *
+     * @return звіт
+     * @throws JSONException якщо звіт неможливо сформувати
+     */
+    public JSONObject toJson() throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("timestampMillis", System.currentTimeMillis());
+
+        JSONObject histogramsJson = new JSONObject();
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            histogramsJson.put(entry.getKey(), entry.getValue().toJson());
+        }
+        json.put("histograms", histogramsJson);
+
+        JSONObject countersJson = new JSONObject();
+        for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+            countersJson.put(entry.getKey(), entry.getValue().get());
+        }
+        json.put("counters", countersJson);
+
+        JSONObject gaugesJson = new JSONObject();
+        for (Map.Entry<String, Gauge> entry : gauges.entrySet()) {
+            gaugesJson.put(entry.getKey(), entry.getValue().get());
+        }
+        json.put("gauges", gaugesJson);
+        return json;
+    }
+
+    /**
+     * Записує звіт JSON у файл у директорії додатка. Не викликати на головному потоці
+     *
+     * @param context контекст
+     * @return створений файл
+     * @throws IOException якщо файл неможливо записати
+     */
+    public File dumpToFile(Context context) throws IOException {
+        File dir = new File(context.getExternalFilesDir(null) != null
+                ? context.getExternalFilesDir(null) : context.getFilesDir(), METRICS_DIR);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create metrics directory");
+        }
+
+        File file = new File(dir, "metrics-" + System.currentTimeMillis() + ".json");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(toJson().toString(2).getBytes(StandardCharsets.UTF_8));
+        } catch (JSONException e) {
+            throw new IOException("Cannot serialize metrics", e);
+        }
+        return file;
+    }
+
+    /**
+     * Лічильник подій або обсягу
+     */
+    public static final class Counter {
+        private final LongAdder value = new LongAdder();
+
+        Counter() {
+        }
+
+        public void increment() {
+            value.increment();
+        }
+
+        public void add(long delta) {
+            value.add(delta);
+        }
+
+        public long get() {
+            return value.sum();
+        }
+
+        void reset() {
+            value.reset();
+        }
+    }
+
+    /**
+     * Поточне значення (наприклад, глибина черги)
+     */
+    public static final class Gauge {
+        private final AtomicLong value = new AtomicLong();
+        private final LongSupplier supplier;
+
+        Gauge(LongSupplier supplier) {
+            this.supplier = supplier;
+        }
+
+        public void set(long newValue) {
+            value.set(newValue);
+        }
+
+        public long get() {
+            return supplier != null ? supplier.getAsLong() : value.get();
+        }
+    }
+
+    /**
+     * Гістограма затримок з фіксованими кошиками від 0.1 мс до ~2 хв (крок x1.5)
+     */
+    public static final class Histogram {
+        // Верхні межі кошиків у наносекундах; останній кошик - усе, що більше
+        private static final long[] BOUNDS_NANOS = createBounds();
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS_NANOS.length + 1);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sumNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        Histogram() {
+        }
+
+        private static long[] createBounds() {
+            long[] bounds = new long[36];
+            double bound = 100_000; // 0.1 мс
+            for (int i = 0; i < bounds.length; i++) {
+                bounds[i] = (long) bound;
+                bound *= 1.5;
+            }
+            return bounds;
+        }
+
+        /**
+         * Записує тривалість
+         *
+         * @param nanos тривалість у наносекундах
+         */
+        public void recordNanos(long nanos) {
+            if (nanos < 0) {
+                return;
+            }
+            int index = Arrays.binarySearch(BOUNDS_NANOS, nanos);
+            buckets.incrementAndGet(index >= 0 ? index : -index - 1);
+            count.increment();
+            sumNanos.add(nanos);
+            long max;
+            while (nanos > (max = maxNanos.get())) {
+                if (maxNanos.compareAndSet(max, nanos)) {
+                    break;
+                }
+            }
+        }
+
+        /**
+         * Записує час, що минув від startNanos (значення System.nanoTime())
+         *
+         * @param startNanos час початку операції
+         */
+        public void recordSince(long startNanos) {
+            recordNanos(System.nanoTime() - startNanos);
+        }
+
+        /**
+         * Виконує операцію та записує її тривалість (також якщо операція кинула виняток)
+         *
+         * @param operation операція
+         */
+        public void time(Runnable operation) {
+            long startNanos = System.nanoTime();
+            try {
+                operation.run();
+            } finally {
+                recordSince(startNanos);
+            }
+        }
+
+        /**
+         * Виконує операцію з результатом та записує її тривалість (також якщо операція кинула виняток)
+         *
+         * @param operation операція
+         * @return результат операції
+         */
+        public <T> T timeAndGet(Supplier<T> operation) {
+            long startNanos = System.nanoTime();
+            try {
+                return operation.get();
+            } finally {
+                recordSince(startNanos);
+            }
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public double getMaxMillis() {
+            return maxNanos.get() / 1_000_000d;
+        }
+
+        public double getMeanMillis() {
+            long n = count.sum();
+            return n == 0 ? 0 : sumNanos.sum() / (double) n / 1_000_000d;
+        }
+
+        /**
+         * Перцентиль як верхня межа кошика, в який він потрапляє (не більше максимуму)
+         *
+         * @param percentile перцентиль від 0 до 100
+         * @return значення в мілісекундах
+         */
+        public double getPercentileMillis(double percentile) {
+            long n = count.sum();
+            if (n == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(n * percentile / 100d);
+            long seen = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) {
+                    long upper = i < BOUNDS_NANOS.length ? BOUNDS_NANOS[i] : Long.MAX_VALUE;
+                    return Math.min(upper, maxNanos.get()) / 1_000_000d;
+                }
+            }
+            return getMaxMillis();
+        }
+
+        JSONObject toJson() throws JSONException {
+            JSONObject json = new JSONObject();
+            json.put("count", getCount());
+            json.put("meanMs", getMeanMillis());
+            json.put("p50Ms", getPercentileMillis(50));
+            json.put("p90Ms", getPercentileMillis(90));
+            json.put("p99Ms", getPercentileMillis(99));
+            json.put("maxMs", getMaxMillis());
+            return json;
+        }
+
+        void reset() {
+            for (int i = 0; i < buckets.length(); i++) {
+                buckets.set(i, 0);
+            }
+            count.reset();
+            sumNanos.reset();
+            maxNanos.set(0);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.secure.messenger.android.util;
+
+import android.os.Process;
+
+import androidx.annotation.NonNull;
+
+import java.util.Locale;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Пул потоків з фіксованою кількістю потоків, який збирає метрики:
+ * глибину черги та час очікування завдань у черзі.
+ * Час очікування також записується в гістограму executor.<назва>.wait у MetricsRegistry
+ */
+public class MonitoredExecutor extends ThreadPoolExecutor {
+
+    private final String name;
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong startedTasks = new AtomicLong();
+    private final MetricsRegistry.Histogram waitHistogram;
+
+    /**
+     * Створює пул потоків
+     *
+     * @param name назва пулу (використовується в назвах потоків)
+     * @param threads кількість потоків
+     * @param threadPriority пріоритет потоків (android.os.Process.THREAD_PRIORITY_*)
+     */
+    public MonitoredExecutor(String name, int threads, int threadPriority) {
+        super(threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new NamedThreadFactory(name, threadPriority));
+        this.name = name;
+        this.waitHistogram = MetricsRegistry.getInstance().histogram("executor." + name + ".wait");
+        // Простоюючі потоки завершуються, тому пул не тримає потоки без роботи
+        allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public void execute(@NonNull Runnable command) {
+        super.execute(new TimedRunnable(command));
+        int depth = getQueue().size();
+        int max;
+        while (depth > (max = maxQueueDepth.get())) {
+            if (maxQueueDepth.compareAndSet(max, depth)) {
+                break;
+            }
+        }
+    }
+
+    @Override
+    protected void beforeExecute(Thread t, Runnable r) {
+        super.beforeExecute(t, r);
+        if (r instanceof TimedRunnable) {
+            long wait = System.nanoTime() - ((TimedRunnable) r).enqueuedAtNanos;
+            totalWaitNanos.addAndGet(wait);
+            startedTasks.incrementAndGet();
+            waitHistogram.recordNanos(wait);
+            long max;
+            while (wait > (max = maxWaitNanos.get())) {
+                if (maxWaitNanos.compareAndSet(max, wait)) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return назва пулу
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return поточна кількість завдань у черзі
+     */
+    public int getQueueDepth() {
+        return getQueue().size();
+    }
+
+    /**
+     * @return максимальна зафіксована кількість завдань у черзі
+     */
+    public int getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    /**
+     * @return середній час очікування завдання в черзі в мілісекундах
+     */
+    public double getAverageWaitMillis() {
+        long started = startedTasks.get();
+        return started == 0 ? 0 : totalWaitNanos.get() / (double) started / 1_000_000d;
+    }
+
+    /**
+     * @return максимальний час очікування завдання в черзі в мілісекундах
+     */
+    public double getMaxWaitMillis() {
+        return maxWaitNanos.get() / 1_000_000d;
+    }
+
+    /**
+     * Формує короткий опис стану пулу для логів
+     *
+     * @return рядок зі статистикою
+     */
+    public String getStats() {
+        return String.format(Locale.US,
+                "%s: threads=%d active=%d queue=%d maxQueue=%d completed=%d avgWait=%.2fms maxWait=%.2fms",
+                name, getPoolSize(), getActiveCount(), getQueueDepth(), getMaxQueueDepth(),
+                getCompletedTaskCount(), getAverageWaitMillis(), getMaxWaitMillis());
+    }
+
+    /**
+     * Завдання з позначкою часу постановки в чергу
+     */
+    private static final class TimedRunnable implements Runnable {
+        final Runnable delegate;
+        final long enqueuedAtNanos = System.nanoTime();
+
+        TimedRunnable(Runnable delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void run() {
+            delegate.run();
+        }
+    }
+
+    /**
+     * Фабрика потоків з іменами та пріоритетом
+     */
+    private static final class NamedThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final int priority;
+        private final AtomicInteger counter = new AtomicInteger(1);
+
+        NamedThreadFactory(String prefix, int priority) {
+            this.prefix = prefix;
+            this.priority = priority;
+        }
+
+        @Override
+        public Thread newThread(@NonNull Runnable r) {
+            return new Thread(() -> {
+                Process.setThreadPriority(priority);
+                r.run();
+            }, prefix + "-" + counter.getAndIncrement());
+        }
+    }
+}
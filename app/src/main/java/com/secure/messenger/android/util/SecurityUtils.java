@@ -25,9 +25,9 @@ import java.security.UnrecoverableEntryException;
 import java.security.cert.CertificateException;
 import java.security.spec.ECGenParameterSpec;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
@@ -69,9 +69,20 @@ public class SecurityUtils {
      * @param context контекст додатку
      */
     public SecurityUtils(Context context) {
+        this(context, new PreferenceManager(context));
+    }
+
+    /**
+     * Конструктор зі спільним менеджером налаштувань
+     *
+     * @param context контекст додатку
+     * @param preferenceManager менеджер налаштувань
+     */
+    public SecurityUtils(Context context, PreferenceManager preferenceManager) {
         this.context = context;
-        this.groupKeyCache = new HashMap<>();
-        this.preferenceManager = new PreferenceManager(context);
+        // Екземпляр спільний для всього додатку, тому кеш має бути потокобезпечним
+        this.groupKeyCache = new ConcurrentHashMap<>();
+        this.preferenceManager = preferenceManager;
 
         KeyStore ks = null;
         try {
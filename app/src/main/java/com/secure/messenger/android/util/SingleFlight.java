@@ -0,0 +1,112 @@
+package com.secure.messenger.android.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Об'єднання одночасних завантажень за ключем.
+ * Поки завантаження для ключа виконується, повторні запити приєднуються до нього
+ * замість запуску нового завантаження. Після завершення ключ звільняється.
+ * Кожен запит отримує власний future: скасування одного запиту не зачіпає інших,
+ * а коли скасовано всі запити, скасовується і спільне завантаження
+ * (ще не розпочате завантаження взагалі не виконується).
+ *
+ * @param <K> тип ключа
+ * @param <V> тип результату
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Повертає future, який завершиться результатом поточного завантаження для ключа,
+     * або запускає нове завантаження
+     *
+     * @param key ключ
+     * @param loader завантаження, яке виконується не більше одного разу одночасно для ключа
+     * @param executor executor для виконання завантаження
+     * @return future з результатом завантаження для цього запиту
+     */
+    public CompletableFuture<V> load(K key, Callable<V> loader, Executor executor) {
+        while (true) {
+            Flight<V> flight = inFlight.get(key);
+            if (flight == null) {
+                Flight<V> created = new Flight<>();
+                flight = inFlight.putIfAbsent(key, created);
+                if (flight == null) {
+                    created.shared.whenComplete((result, error) -> inFlight.remove(key, created));
+                    CompletableFuture<V> caller = created.subscribe();
+                    executor.execute(() -> {
+                        if (created.shared.isDone()) {
+                            // Усі запити скасовано, поки завантаження чекало в черзі
+                            return;
+                        }
+                        try {
+                            created.shared.complete(loader.call());
+                        } catch (Throwable t) {
+                            created.shared.completeExceptionally(t);
+                        }
+                    });
+                    return caller;
+                }
+            }
+
+            CompletableFuture<V> caller = flight.subscribe();
+            if (caller != null) {
+                return caller;
+            }
+            // Завантаження щойно скасоване - прибираємо його і запускаємо нове
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * @param key ключ
+     * @return true, якщо для ключа виконується завантаження
+     */
+    public boolean isLoading(K key) {
+        return inFlight.containsKey(key);
+    }
+
+    /**
+     * Спільне завантаження та кількість запитів, що на нього чекають
+     */
+    private static final class Flight<V> {
+        final CompletableFuture<V> shared = new CompletableFuture<>();
+        private int subscribers;
+
+        /**
+         * @return future запиту або null, якщо завантаження вже скасоване
+         */
+        synchronized CompletableFuture<V> subscribe() {
+            if (shared.isCancelled()) {
+                return null;
+            }
+            subscribers++;
+
+            CompletableFuture<V> caller = new CompletableFuture<>();
+            shared.whenComplete((result, error) -> {
+                if (error != null) {
+                    caller.completeExceptionally(error);
+                } else {
+                    caller.complete(result);
+                }
+            });
+            caller.whenComplete((result, error) -> {
+                // Скасування, що прийшло зі спільного завантаження, не рахується як відмова запиту
+                if (caller.isCancelled() && !shared.isDone()) {
+                    unsubscribe();
+                }
+            });
+            return caller;
+        }
+
+        private synchronized void unsubscribe() {
+            if (--subscribers == 0) {
+                shared.cancel(false);
+            }
+        }
+    }
+}
@@ -1,13 +1,76 @@
 package com.secure.messenger.android.util;
 
+import android.content.Context;
+
 import java.io.File;
 import java.text.DecimalFormat;
+import java.util.List;
 
 /**
  * Утиліти для роботи зі сховищем
  */
 public class StorageUtils {
 
+    private static final String ATTACHMENTS_DIR = "attachments";
+    private static final String BODY_SUFFIX = ".body";
+
+    /**
+     * Отримує директорію для вкладень повідомлень (зображення, документи, голос)
+     *
+     * @param context контекст
+     * @return директорія вкладень
+     */
+    public static File getAttachmentsDir(Context context) {
+        return new File(context.getFilesDir(), ATTACHMENTS_DIR);
+    }
+
+    /**
+     * Отримує файл вкладення повідомлення
+     *
+     * @param context контекст
+     * @param messageId ідентифікатор повідомлення
+     * @return файл вкладення (може не існувати)
+     */
+    public static File getAttachmentFile(Context context, String messageId) {
+        return new File(getAttachmentsDir(context), messageId);
+    }
+
+    /**
+     * Отримує файл тіла медіаповідомлення (зашифрованого вмісту, що не зберігається в базі даних)
+     *
+     * @param context контекст
+     * @param messageId ідентифікатор повідомлення
+     * @return файл тіла (може не існувати)
+     */
+    public static File getAttachmentBodyFile(Context context, String messageId) {
+        return new File(getAttachmentsDir(context), messageId + BODY_SUFFIX);
+    }
+
+    /**
+     * Видаляє вкладення повідомлень, якщо вони існують
+     *
+     * @param context контекст
+     * @param messageIds ідентифікатори повідомлень
+     * @return кількість видалених файлів
+     */
+    public static int deleteAttachments(Context context, List<String> messageIds) {
+        File dir = getAttachmentsDir(context);
+        if (!dir.isDirectory()) {
+            return 0;
+        }
+
+        int deleted = 0;
+        for (String messageId : messageIds) {
+            if (new File(dir, messageId).delete()) {
+                deleted++;
+            }
+            if (new File(dir, messageId + BODY_SUFFIX).delete()) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
     /**
      * Отримує розмір директорії (включно з піддиректоріями)
      *
@@ -0,0 +1,70 @@
+package com.secure.messenger.android.util;
+
+import android.os.SystemClock;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Потокобезпечний кеш значень з терміном свіжості.
+ * Прострочені значення не видаляються: їх можна показати одразу,
+ * поки у фоні завантажується свіже значення (stale-while-revalidate).
+ *
+ * @param <K> тип ключа
+ * @param <V> тип значення
+ */
+public class TtlCache<K, V> {
+
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final long ttlMillis;
+
+    /**
+     * @param ttlMillis час, протягом якого значення вважається свіжим
+     */
+    public TtlCache(long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * @param key ключ
+     * @return запис кешу (свіжий або прострочений) або null
+     */
+    public Entry<V> get(K key) {
+        return entries.get(key);
+    }
+
+    public void put(K key, V value) {
+        entries.put(key, new Entry<>(value, SystemClock.elapsedRealtime() + ttlMillis));
+    }
+
+    /**
+     * Видаляє значення, наступне звернення завантажить його заново
+     */
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Запис кешу
+     */
+    public static final class Entry<V> {
+        private final V value;
+        private final long freshUntil;
+
+        Entry(V value, long freshUntil) {
+            this.value = value;
+            this.freshUntil = freshUntil;
+        }
+
+        public V getValue() {
+            return value;
+        }
+
+        public boolean isFresh() {
+            return SystemClock.elapsedRealtime() < freshUntil;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.secure.messenger.android.benchmark;
+
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Запис звітів бенчмарків у app/build/benchmarks (або в директорію з benchmark.outputDir)
+ * і точна статистика за сирими вибірками тривалостей
+ */
+final class BenchmarkReports {
+
+    private BenchmarkReports() {
+    }
+
+    /**
+     * Записує звіт JSON, замінюючи попередній звіт з тією ж назвою
+     *
+     * @param report звіт
+     * @param fileName назва файлу
+     * @return створений файл
+     * @throws Exception якщо звіт неможливо записати
+     */
+    static File write(JSONObject report, String fileName) throws Exception {
+        File dir = new File(System.getProperty("benchmark.outputDir", "build/benchmarks"));
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        File file = new File(dir, fileName);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(report.toString(2).getBytes(StandardCharsets.UTF_8));
+        }
+        return file;
+    }
+
+    /**
+     * Перцентиль за найближчим рангом
+     *
+     * @param sorted відсортовані тривалості в наносекундах
+     * @param percentile перцентиль від 0 до 100
+     * @return значення в мілісекундах
+     */
+    static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(sorted.length * percentile / 100d);
+        return sorted[Math.max(0, rank - 1)] / 1_000_000d;
+    }
+
+    /**
+     * @param samples тривалості в наносекундах
+     * @return середнє значення в мілісекундах
+     */
+    static double meanMillis(long[] samples) {
+        if (samples.length == 0) {
+            return 0;
+        }
+        long sum = 0;
+        for (long sample : samples) {
+            sum += sample;
+        }
+        return sum / (double) samples.length / 1_000_000d;
+    }
+}
@@ -0,0 +1,486 @@
+package com.secure.messenger.android.benchmark;
+
+import static org.junit.Assert.assertNotNull;
+
+import android.app.Application;
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.secure.messenger.android.data.local.AppDatabase;
+import com.secure.messenger.android.data.local.converter.MessageTypeConverter;
+import com.secure.messenger.android.data.local.dao.ChatGroupDao;
+import com.secure.messenger.android.data.local.dao.MessageDao;
+import com.secure.messenger.android.data.local.dao.UserDao;
+import com.secure.messenger.android.data.local.entity.ChatGroupEntity;
+import com.secure.messenger.android.data.local.entity.MessageEntity;
+import com.secure.messenger.android.data.local.entity.UserEntity;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Бенчмарк запитів MessageDao, UserDao та ChatGroupDao на великому синтетичному наборі даних
+ * (за замовчуванням 1 млн повідомлень, 10 тис. користувачів, 1 тис. груп).
+ * Дані відтворюють стан пристрою: особисті повідомлення завжди з власником, співрозмовники
+ * та групи нерівномірно популярні, більшість повідомлень прочитані, ~1% прострочені.
+ * Для кожного запиту вимірюються затримки та кількість рядків, а SQL, перехоплений
+ * через QueryCallback Room, проганяється через EXPLAIN QUERY PLAN.
+ * Не виконуються: видалення (змінюють набір даних), LiveData-варіанти (той самий SQL)
+ * і транзакційні upsert. ANALYZE не запускається, бо Room не запускає його на пристрої.
+ *
+ * Запуск: ./gradlew :app:testDebugUnitTest -Pbenchmark --tests '*DaoQueryBenchmark'
+ * Параметри: -Pbenchmark.dao.messages, -Pbenchmark.dao.users, -Pbenchmark.dao.groups, -Pbenchmark.dao.iterations
+ * Звіт: app/build/benchmarks/dao-query-benchmark.json
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(application = Application.class, sdk = 33)
+public class DaoQueryBenchmark {
+    private static final String DATABASE_NAME = "dao-benchmark.db";
+    private static final String OWNER_ID = "user-0";
+    private static final long SEED = 42;
+    private static final int BATCH_SIZE = 10_000;
+    private static final int WARMUP_ITERATIONS = 2;
+
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+    private static final long HISTORY_MILLIS = 30 * DAY_MILLIS;
+    // Найстаріший 1% історії вже прострочений і чекає на очищення
+    private static final long RETENTION_MILLIS = HISTORY_MILLIS * 99 / 100;
+
+    // Популярні співрозмовники та групи, для яких виконуються запити
+    private static final int HOT_CONVERSATIONS = 20;
+
+    private static final String[] NAMES = {
+            "olena", "taras", "iryna", "andrii", "oksana", "dmytro", "natalia", "serhii", "kateryna", "yurii"
+    };
+    private static final String[] GROUP_WORDS = {"team", "family", "project", "friends", "support", "news"};
+    private static final int[] MEDIA_TYPES = {
+            MessageTypeConverter.IMAGE, MessageTypeConverter.DOCUMENT, MessageTypeConverter.VOICE
+    };
+
+    private final Random random = new Random(SEED);
+    private final List<String> sampleMessageIds = new ArrayList<>();
+
+    private Context context;
+    private AppDatabase database;
+    private MessageDao messageDao;
+    private UserDao userDao;
+    private ChatGroupDao chatGroupDao;
+
+    private int messageCount;
+    private int userCount;
+    private int groupCount;
+    private int iterations;
+    private long nowMillis;
+
+    // Перехоплення SQL для EXPLAIN QUERY PLAN (колбек Room виконується в потоці запиту)
+    private volatile boolean capturing;
+    private volatile String capturedSql;
+    private volatile List<Object> capturedArgs;
+
+    @Before
+    public void setUp() {
+        messageCount = Integer.getInteger("benchmark.dao.messages", 1_000_000);
+        userCount = Integer.getInteger("benchmark.dao.users", 10_000);
+        groupCount = Integer.getInteger("benchmark.dao.groups", 1_000);
+        iterations = Integer.getInteger("benchmark.dao.iterations", 10);
+        nowMillis = System.currentTimeMillis();
+
+        context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(DATABASE_NAME);
+        database = Room.databaseBuilder(context, AppDatabase.class, DATABASE_NAME)
+                .allowMainThreadQueries()
+                .setQueryCallback(this::onQuery, Runnable::run)
+                .build();
+        messageDao = database.messageDao();
+        userDao = database.userDao();
+        chatGroupDao = database.chatGroupDao();
+    }
+
+    @After
+    public void tearDown() {
+        if (database != null) {
+            database.close();
+        }
+        context.deleteDatabase(DATABASE_NAME);
+    }
+
+    @Test
+    public void queries() throws Exception {
+        long populateStart = System.nanoTime();
+        populate();
+        long populateMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - populateStart);
+
+        JSONArray results = new JSONArray();
+        for (QueryCase queryCase : createCases()) {
+            results.put(run(queryCase));
+        }
+
+        JSONObject dataset = new JSONObject();
+        dataset.put("messages", messageCount);
+        dataset.put("users", userCount);
+        dataset.put("groups", groupCount);
+        dataset.put("populateMillis", populateMillis);
+        dataset.put("databaseBytes", databaseSize());
+
+        JSONObject report = new JSONObject();
+        report.put("dataset", dataset);
+        report.put("iterations", iterations);
+        report.put("queries", results);
+        File file = BenchmarkReports.write(report, "dao-query-benchmark.json");
+        System.out.println("DAO benchmark report: " + file);
+    }
+
+    /**
+     * Виконує запит: перший виклик перехоплює SQL, далі прогрів і вимірювання
+     * з різними параметрами на кожній ітерації
+     */
+    private JSONObject run(QueryCase queryCase) throws Exception {
+        capturedSql = null;
+        capturedArgs = null;
+        capturing = true;
+        try {
+            queryCase.query.apply(0);
+        } finally {
+            capturing = false;
+        }
+        assertNotNull("No SQL captured for " + queryCase.name, capturedSql);
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            queryCase.query.apply(i);
+        }
+
+        // Сирі вибірки замість гістограми реєстру: перцентилі точні, а не межі кошиків
+        long[] samples = new long[iterations];
+        long rows = 0;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            Object result = queryCase.query.apply(i);
+            samples[i] = System.nanoTime() - start;
+            rows += rowCount(result);
+        }
+        Arrays.sort(samples);
+        double p50 = BenchmarkReports.percentileMillis(samples, 50);
+        double p90 = BenchmarkReports.percentileMillis(samples, 90);
+
+        JSONObject json = new JSONObject();
+        json.put("name", queryCase.name);
+        json.put("sql", capturedSql);
+        json.put("meanMs", BenchmarkReports.meanMillis(samples));
+        json.put("p50Ms", p50);
+        json.put("p90Ms", p90);
+        json.put("p99Ms", BenchmarkReports.percentileMillis(samples, 99));
+        json.put("maxMs", samples.length > 0 ? samples[samples.length - 1] / 1_000_000d : 0);
+        json.put("meanRows", iterations > 0 ? (double) rows / iterations : 0);
+        json.put("plan", explain(capturedSql, capturedArgs));
+
+        System.out.println(String.format(Locale.US, "%-40s p50 %8.2f ms  p90 %8.2f ms  rows %10.1f",
+                queryCase.name, p50, p90, json.getDouble("meanRows")));
+        return json;
+    }
+
+    /**
+     * План запиту з ознаками повного сканування таблиці та тимчасового B-дерева для сортування
+     */
+    private JSONObject explain(String sql, List<Object> args) throws Exception {
+        JSONArray steps = new JSONArray();
+        boolean fullScan = false;
+        boolean tempBTree = false;
+        try (Cursor cursor = database.query(new SimpleSQLiteQuery("EXPLAIN QUERY PLAN " + sql, args.toArray()))) {
+            int detailColumn = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                String detail = cursor.getString(detailColumn);
+                steps.put(detail);
+                // "SCAN messages" - повне сканування; "SCAN ... USING INDEX" - обхід індексу
+                fullScan |= detail.startsWith("SCAN") && !detail.contains("INDEX");
+                tempBTree |= detail.contains("TEMP B-TREE");
+            }
+        }
+        JSONObject plan = new JSONObject();
+        plan.put("steps", steps);
+        plan.put("fullScan", fullScan);
+        plan.put("tempBTree", tempBTree);
+        return plan;
+    }
+
+    private synchronized void onQuery(String sql, List<Object> args) {
+        // Запити трекера змін Room виконуються асинхронно і до запиту DAO не належать
+        if (!capturing || capturedSql != null || sql.contains("room_table_modification_log")) {
+            return;
+        }
+        String statement = sql.trim().toUpperCase(Locale.ROOT);
+        if (statement.startsWith("SELECT") || statement.startsWith("UPDATE")) {
+            capturedSql = sql;
+            capturedArgs = new ArrayList<>(args);
+        }
+    }
+
+    private List<QueryCase> createCases() {
+        List<QueryCase> cases = new ArrayList<>();
+        long hourAgo = nowMillis - TimeUnit.HOURS.toMillis(1);
+        LocalDateTime dayAgo = LocalDateTime.now().minusDays(1);
+
+        // MessageDao
+        cases.add(new QueryCase("MessageDao.getMessageById", i -> messageDao.getMessageById(sampleMessageId(i))));
+        cases.add(new QueryCase("MessageDao.getUserMessages", i -> messageDao.getUserMessages(contact(i))));
+        cases.add(new QueryCase("MessageDao.getMessagesBetweenUsers",
+                i -> messageDao.getMessagesBetweenUsers(OWNER_ID, contact(i))));
+        cases.add(new QueryCase("MessageDao.getGroupMessages", i -> messageDao.getGroupMessages(group(i))));
+        cases.add(new QueryCase("MessageDao.getUnreadMessagesForUser",
+                i -> messageDao.getUnreadMessagesForUser(OWNER_ID)));
+        cases.add(new QueryCase("MessageDao.getMessagesByType",
+                i -> messageDao.getMessagesByType(MEDIA_TYPES[i % MEDIA_TYPES.length])));
+        cases.add(new QueryCase("MessageDao.getMessagesCreatedAfter", i -> messageDao.getMessagesCreatedAfter(hourAgo)));
+        cases.add(new QueryCase("MessageDao.getExpiredMessages", i -> messageDao.getExpiredMessages(nowMillis)));
+        cases.add(new QueryCase("MessageDao.getExpiredMessageIds", i -> messageDao.getExpiredMessageIds(nowMillis, 500)));
+        cases.add(new QueryCase("MessageDao.getLastMessageBetweenUsers",
+                i -> messageDao.getLastMessageBetweenUsers(OWNER_ID, contact(i))));
+        cases.add(new QueryCase("MessageDao.getLastGroupMessage", i -> messageDao.getLastGroupMessage(group(i))));
+        cases.add(new QueryCase("MessageDao.markAsRead", i -> {
+            messageDao.markAsRead(sampleMessageId(i));
+            return null;
+        }));
+        cases.add(new QueryCase("MessageDao.markAsSent", i -> {
+            messageDao.markAsSent(sampleMessageId(i));
+            return null;
+        }));
+        cases.add(new QueryCase("MessageDao.markAsDelivered", i -> {
+            messageDao.markAsDelivered(sampleMessageId(i));
+            return null;
+        }));
+
+        // UserDao
+        cases.add(new QueryCase("UserDao.getUserById", i -> userDao.getUserById(user(i))));
+        cases.add(new QueryCase("UserDao.getUsersByIds", i -> userDao.getUsersByIds(users(i, 50))));
+        cases.add(new QueryCase("UserDao.getUserByUsername", i -> userDao.getUserByUsername(username(userIndex(i)))));
+        cases.add(new QueryCase("UserDao.getUserByPhoneNumber",
+                i -> userDao.getUserByPhoneNumber(phoneNumber(userIndex(i)))));
+        cases.add(new QueryCase("UserDao.getAllUsers", i -> userDao.getAllUsers()));
+        cases.add(new QueryCase("UserDao.getAllContacts", i -> userDao.getAllContacts()));
+        cases.add(new QueryCase("UserDao.getActiveUsersSince", i -> userDao.getActiveUsersSince(dayAgo)));
+        cases.add(new QueryCase("UserDao.searchUsers", i -> userDao.searchUsers(searchQuery(i))));
+        cases.add(new QueryCase("UserDao.setContact", i -> {
+            userDao.setContact(user(i), true);
+            return null;
+        }));
+        cases.add(new QueryCase("UserDao.updateLastActive", i -> {
+            userDao.updateLastActive(user(i), LocalDateTime.now());
+            return null;
+        }));
+
+        // ChatGroupDao
+        cases.add(new QueryCase("ChatGroupDao.getGroupById", i -> chatGroupDao.getGroupById(group(i))));
+        cases.add(new QueryCase("ChatGroupDao.getGroupsByAdmin", i -> chatGroupDao.getGroupsByAdmin(user(i))));
+        cases.add(new QueryCase("ChatGroupDao.getAllGroups", i -> chatGroupDao.getAllGroups()));
+        cases.add(new QueryCase("ChatGroupDao.searchGroups",
+                i -> chatGroupDao.searchGroups(GROUP_WORDS[i % GROUP_WORDS.length])));
+        cases.add(new QueryCase("ChatGroupDao.getGroupsWithEnabledReporting",
+                i -> chatGroupDao.getGroupsWithEnabledReporting()));
+        cases.add(new QueryCase("ChatGroupDao.getGroupsUpdatedAfter", i -> chatGroupDao.getGroupsUpdatedAfter(dayAgo)));
+        cases.add(new QueryCase("ChatGroupDao.exists", i -> chatGroupDao.exists(group(i))));
+        cases.add(new QueryCase("ChatGroupDao.updateMemberCount", i -> {
+            chatGroupDao.updateMemberCount(group(i), 10 + i);
+            return null;
+        }));
+        cases.add(new QueryCase("ChatGroupDao.setReportEnabled", i -> {
+            chatGroupDao.setReportEnabled(group(i), i % 2 == 0);
+            return null;
+        }));
+        cases.add(new QueryCase("ChatGroupDao.updateLastUpdateTime", i -> {
+            chatGroupDao.updateLastUpdateTime(group(i), LocalDateTime.now());
+            return null;
+        }));
+        cases.add(new QueryCase("ChatGroupDao.updateEncryptedGroupKey", i -> {
+            chatGroupDao.updateEncryptedGroupKey(group(i), randomBytes(256));
+            return null;
+        }));
+        return cases;
+    }
+
+    /**
+     * Заповнює базу пакетами, як під час синхронізації
+     */
+    private void populate() {
+        LocalDateTime now = LocalDateTime.now();
+
+        database.runInTransaction(() -> {
+            for (int i = 0; i < userCount; i++) {
+                LocalDateTime lastActive = now.minusMinutes(random.nextInt((int) TimeUnit.DAYS.toMinutes(30)));
+                userDao.insertIfAbsent(new UserEntity("user-" + i, username(i), phoneNumber(i),
+                        random.nextInt(4) == 0 ? "online" : null, randomBytes(294), lastActive,
+                        i == 0 || random.nextInt(5) == 0));
+            }
+            for (int i = 0; i < groupCount; i++) {
+                LocalDateTime createdAt = now.minusDays(1 + random.nextInt(365));
+                LocalDateTime updatedAt = now.minusMinutes(random.nextInt((int) TimeUnit.DAYS.toMinutes(30)));
+                chatGroupDao.insertIfAbsent(new ChatGroupEntity("group-" + i,
+                        "Group " + i + " " + GROUP_WORDS[i % GROUP_WORDS.length], null,
+                        "user-" + random.nextInt(userCount), random.nextInt(10) == 0,
+                        2 + random.nextInt(200), randomBytes(256), createdAt, updatedAt));
+            }
+        });
+
+        long firstTimestamp = nowMillis - HISTORY_MILLIS;
+        int sampleStep = Math.max(1, messageCount / 1000);
+        List<MessageEntity> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < messageCount; i++) {
+            // Повідомлення надходять у порядку часу, як під час синхронізації
+            long createdAt = firstTimestamp + HISTORY_MILLIS * i / messageCount;
+            MessageEntity message = createMessage(i, createdAt);
+            batch.add(message);
+            if (i % sampleStep == 0) {
+                sampleMessageIds.add(message.getId());
+            }
+            if (batch.size() == BATCH_SIZE || i == messageCount - 1) {
+                // Вставка списку виконується Room в одній транзакції
+                messageDao.insertAllIfAbsent(batch);
+                batch = new ArrayList<>(BATCH_SIZE);
+            }
+        }
+    }
+
+    private MessageEntity createMessage(int index, long createdAt) {
+        int typeRoll = random.nextInt(100);
+        int typeCode = typeRoll < 85 ? MessageTypeConverter.TEXT
+                : typeRoll < 95 ? MessageTypeConverter.IMAGE
+                : typeRoll < 98 ? MessageTypeConverter.VOICE
+                : MessageTypeConverter.DOCUMENT;
+        // Розмір шифрованого тексту або посилання на медіа; самі медіа в базі не зберігаються
+        byte[] content = randomBytes(typeCode == MessageTypeConverter.TEXT ? 40 + random.nextInt(260) : 512);
+
+        String senderId;
+        String recipientId = null;
+        String groupId = null;
+        int flags = MessageEntity.FLAG_SENT | MessageEntity.FLAG_DELIVERED | MessageEntity.FLAG_READ;
+        if (random.nextInt(10) < 7) {
+            // Особисте повідомлення завжди з власником пристрою
+            String partner = "user-" + (1 + skewed(userCount - 1));
+            boolean outgoing = random.nextBoolean();
+            senderId = outgoing ? OWNER_ID : partner;
+            recipientId = outgoing ? partner : OWNER_ID;
+            // Непрочитані - лише серед найновіших вхідних
+            if (!outgoing && index > messageCount * 98L / 100 && random.nextBoolean()) {
+                flags &= ~MessageEntity.FLAG_READ;
+            }
+        } else {
+            groupId = "group-" + skewed(groupCount);
+            senderId = "user-" + random.nextInt(userCount);
+        }
+
+        MessageEntity message = new MessageEntity(new UUID(random.nextLong(), random.nextLong()).toString(),
+                senderId, recipientId, groupId, typeCode, content, createdAt, createdAt + RETENTION_MILLIS, flags);
+        if (typeCode == MessageTypeConverter.IMAGE) {
+            message.setPlaceholder(randomBytes(600));
+        }
+        return message;
+    }
+
+    /**
+     * Нерівномірний вибір: невеликі індекси (популярні розмови) випадають найчастіше
+     */
+    private int skewed(int bound) {
+        double value = random.nextDouble();
+        return Math.min(bound - 1, (int) (value * value * value * bound));
+    }
+
+    private byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+
+    private String sampleMessageId(int iteration) {
+        return sampleMessageIds.get((iteration * 37) % sampleMessageIds.size());
+    }
+
+    private String contact(int iteration) {
+        return "user-" + (1 + iteration % Math.min(HOT_CONVERSATIONS, userCount - 1));
+    }
+
+    private String group(int iteration) {
+        return "group-" + iteration % Math.min(HOT_CONVERSATIONS, groupCount);
+    }
+
+    private int userIndex(int iteration) {
+        return (iteration * 7919) % userCount;
+    }
+
+    private String user(int iteration) {
+        return "user-" + userIndex(iteration);
+    }
+
+    private List<String> users(int iteration, int count) {
+        List<String> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(user(iteration * count + i));
+        }
+        return ids;
+    }
+
+    private static String username(int index) {
+        return NAMES[index % NAMES.length] + "_" + index;
+    }
+
+    private static String phoneNumber(int index) {
+        return String.format(Locale.US, "+38050%07d", index);
+    }
+
+    private static String searchQuery(int iteration) {
+        // Частина імені, префікс номера та рідкісний збіг
+        switch (iteration % 3) {
+            case 0:
+                return NAMES[iteration % NAMES.length];
+            case 1:
+                return "050" + (iteration % 10);
+            default:
+                return "_" + (1000 + iteration);
+        }
+    }
+
+    private long databaseSize() {
+        File file = context.getDatabasePath(DATABASE_NAME);
+        File wal = new File(file.getPath() + "-wal");
+        return file.length() + (wal.isFile() ? wal.length() : 0);
+    }
+
+    private static long rowCount(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        return result instanceof Collection ? ((Collection<?>) result).size() : 1;
+    }
+
+    /**
+     * Запит DAO з параметрами, що залежать від номера ітерації
+     */
+    private static final class QueryCase {
+        final String name;
+        final IntFunction<Object> query;
+
+        QueryCase(String name, IntFunction<Object> query) {
+            this.name = name;
+            this.query = query;
+        }
+    }
+}
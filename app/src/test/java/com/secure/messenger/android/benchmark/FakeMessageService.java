@@ -0,0 +1,92 @@
+package com.secure.messenger.android.benchmark;
+
+import com.secure.messenger.proto.MessageRequest;
+import com.secure.messenger.proto.MessageResponse;
+import com.secure.messenger.proto.MessageServiceGrpc;
+import com.secure.messenger.proto.ReceiveRequest;
+import com.secure.messenger.proto.StatusResponse;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.grpc.stub.StreamObserver;
+
+/**
+ * Замінник сервера повідомлень для бенчмарків: наперед підготовлені повідомлення
+ * віддаються сторінками за часом, а відправлені повідомлення лише підраховуються
+ */
+class FakeMessageService extends MessageServiceGrpc.MessageServiceImplBase {
+
+    // Упорядковані за часом; після створення лише читаються
+    private final List<MessageResponse> messages;
+    private final AtomicLong receivedRequests = new AtomicLong();
+
+    FakeMessageService(List<MessageResponse> seeded) {
+        messages = new ArrayList<>(seeded);
+        messages.sort(Comparator.comparingLong(MessageResponse::getTimestamp));
+    }
+
+    @Override
+    public void receiveMessages(ReceiveRequest request, StreamObserver<MessageResponse> responseObserver) {
+        int from = firstAfter(request.getSinceTimestamp());
+        int limit = request.getLimit() > 0 ? request.getLimit() : messages.size();
+        int to = Math.min(messages.size(), from + limit);
+        for (int i = from; i < to; i++) {
+            responseObserver.onNext(messages.get(i));
+        }
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public StreamObserver<MessageRequest> sendMessage(StreamObserver<StatusResponse> responseObserver) {
+        return new StreamObserver<MessageRequest>() {
+            private int received;
+
+            @Override
+            public void onNext(MessageRequest request) {
+                received++;
+                receivedRequests.incrementAndGet();
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                // Клієнт скасував відправлення - відповідати нікому
+            }
+
+            @Override
+            public void onCompleted() {
+                responseObserver.onNext(StatusResponse.newBuilder()
+                        .setSuccess(received > 0)
+                        .setMessage(received > 0 ? "Message sent" : "Empty request")
+                        .build());
+                responseObserver.onCompleted();
+            }
+        };
+    }
+
+    /**
+     * @return кількість отриманих сервером повідомлень
+     */
+    long getReceivedRequests() {
+        return receivedRequests.get();
+    }
+
+    /**
+     * Індекс першого повідомлення, новішого за sinceTimestamp
+     */
+    private int firstAfter(long sinceTimestamp) {
+        int low = 0;
+        int high = messages.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (messages.get(mid).getTimestamp() <= sinceTimestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,320 @@
+package com.secure.messenger.android.benchmark;
+
+import static org.junit.Assert.assertEquals;
+
+import android.app.Application;
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.google.protobuf.ByteString;
+import com.secure.messenger.android.data.api.MessageServiceClient;
+import com.secure.messenger.android.data.api.MetricsClientInterceptor;
+import com.secure.messenger.android.data.local.AppDatabase;
+import com.secure.messenger.android.data.local.TestSecureStore;
+import com.secure.messenger.android.data.local.TokenManager;
+import com.secure.messenger.android.data.local.entity.ChatGroupEntity;
+import com.secure.messenger.android.data.local.entity.MessageEntity;
+import com.secure.messenger.android.data.local.entity.UserEntity;
+import com.secure.messenger.android.data.repository.MessageRepository;
+import com.secure.messenger.android.util.AppExecutors;
+import com.secure.messenger.android.util.Futures;
+import com.secure.messenger.android.util.MetricsRegistry;
+import com.secure.messenger.android.util.SecurityUtils;
+import com.secure.messenger.proto.MessageContent;
+import com.secure.messenger.proto.MessageResponse;
+import com.secure.messenger.proto.MessageType;
+
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.crypto.SecretKey;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+
+/**
+ * Наскрізний бенчмарк синхронізації та відправлення повідомлень.
+ * Справжні MessageRepository, MessageServiceClient і Room працюють проти in-process
+ * замінника сервера (FakeMessageService), тому результат не залежить від мережі.
+ * Вимірюється час наздоганяючої синхронізації N повідомлень, швидкість збереження в Room,
+ * пропускна здатність і затримки відправлення. Повідомлення групові, бо особисті
+ * розшифровуються ключем з Android KeyStore, якого немає на JVM.
+ *
+ * Запуск: ./gradlew :app:testDebugUnitTest -Pbenchmark -Pbenchmark.messages=10000
+ * Звіт: app/build/benchmarks/message-sync-benchmark.json
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(application = Application.class, sdk = 33)
+public class MessageSyncBenchmark {
+    private static final String CURRENT_USER_ID = "benchmark-user";
+    private static final int USER_COUNT = 50;
+    private static final int GROUP_COUNT = 20;
+    private static final int WARMUP_MESSAGES = 1000;
+    private static final int WARMUP_SENDS = 100;
+    private static final int SEND_CONCURRENCY = 8;
+    private static final long TIMEOUT_SECONDS = 300;
+
+    private final List<String> userIds = new ArrayList<>();
+    private final List<String> groupIds = new ArrayList<>();
+    private final List<SecretKey> groupKeys = new ArrayList<>();
+
+    private Context context;
+    private SecurityUtils securityUtils;
+    private TokenManager tokenManager;
+    private Server server;
+    private ManagedChannel channel;
+    private long syncedUntil;
+
+    @Before
+    public void setUp() throws Exception {
+        context = ApplicationProvider.getApplicationContext();
+
+        // EncryptedSharedPreferences потребує Android KeyStore, тому сховище працює поверх звичайних налаштувань
+        TestSecureStore.install(context.getSharedPreferences("benchmark_store", Context.MODE_PRIVATE));
+        tokenManager = new TokenManager(context.getSharedPreferences("benchmark_tokens", Context.MODE_PRIVATE));
+        tokenManager.saveUserInfo(CURRENT_USER_ID, "benchmark");
+        securityUtils = new SecurityUtils(context);
+
+        for (int i = 0; i < USER_COUNT; i++) {
+            userIds.add("user-" + i);
+        }
+        for (int i = 0; i < GROUP_COUNT; i++) {
+            String groupId = "group-" + i;
+            groupIds.add(groupId);
+            groupKeys.add(securityUtils.generateGroupKey(groupId));
+        }
+        seedDatabase();
+    }
+
+    @After
+    public void tearDown() {
+        if (channel != null) {
+            channel.shutdownNow();
+        }
+        if (server != null) {
+            server.shutdownNow();
+        }
+    }
+
+    @Test
+    public void syncAndSend() throws Exception {
+        int messageCount = Integer.getInteger("benchmark.messages", 10_000);
+        int sendCount = Integer.getInteger("benchmark.sends", 1_000);
+
+        FakeMessageService service = new FakeMessageService(createMessages(WARMUP_MESSAGES + messageCount));
+        String serverName = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(serverName)
+                .directExecutor()
+                .addService(service)
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(serverName)
+                .intercept(MetricsClientInterceptor.getInstance())
+                .build();
+
+        MessageRepository repository = new MessageRepository(
+                context, new MessageServiceClient(channel), tokenManager, securityUtils);
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+
+        // Прогрів JIT та пулів потоків не входить у вимірювання
+        sync(repository, WARMUP_MESSAGES);
+        metrics.reset();
+
+        long syncStart = System.nanoTime();
+        int synced = sync(repository, Integer.MAX_VALUE);
+        long syncNanos = System.nanoTime() - syncStart;
+        assertEquals("Not every message was stored", WARMUP_MESSAGES + messageCount, countMessages());
+        JSONObject syncMetrics = metrics.toJson();
+
+        int warmupSends = Math.min(WARMUP_SENDS, sendCount);
+        int warmupErrors = send(repository, warmupSends, new long[warmupSends]);
+        metrics.reset();
+
+        // Сирі вибірки замість гістограми реєстру: перцентилі точні, а не межі кошиків
+        long[] sendSamples = new long[sendCount];
+        long sendStart = System.nanoTime();
+        int sendErrors = send(repository, sendCount, sendSamples);
+        long sendNanos = System.nanoTime() - sendStart;
+        JSONObject sendMetrics = metrics.toJson();
+        Arrays.sort(sendSamples);
+        double sendP50 = BenchmarkReports.percentileMillis(sendSamples, 50);
+        double sendP99 = BenchmarkReports.percentileMillis(sendSamples, 99);
+
+        double syncMillis = syncNanos / 1_000_000d;
+        double sendMillis = sendNanos / 1_000_000d;
+        JSONObject report = new JSONObject();
+        report.put("messages", synced);
+        report.put("syncMillis", syncMillis);
+        report.put("syncMessagesPerSecond", synced * 1000d / syncMillis);
+        report.put("sends", sendCount);
+        report.put("sendErrors", sendErrors);
+        report.put("sendMillis", sendMillis);
+        report.put("sendsPerSecond", sendCount * 1000d / sendMillis);
+        report.put("sendMeanMs", BenchmarkReports.meanMillis(sendSamples));
+        report.put("sendP50Ms", sendP50);
+        report.put("sendP90Ms", BenchmarkReports.percentileMillis(sendSamples, 90));
+        report.put("sendP99Ms", sendP99);
+        report.put("sendMaxMs", sendCount > 0 ? sendSamples[sendCount - 1] / 1_000_000d : 0);
+        report.put("syncMetrics", syncMetrics);
+        report.put("sendMetrics", sendMetrics);
+        File file = BenchmarkReports.write(report, "message-sync-benchmark.json");
+
+        System.out.println(String.format(Locale.US,
+                "Synced %d messages in %.0f ms (%.0f msg/s); sent %d in %.0f ms (%.0f msg/s, p50 %.1f ms, p99 %.1f ms, %d errors). Report: %s",
+                synced, syncMillis, synced * 1000d / syncMillis, sendCount, sendMillis, sendCount * 1000d / sendMillis,
+                sendP50, sendP99, sendErrors, file));
+        assertEquals("Server did not receive every message",
+                warmupSends - warmupErrors + sendCount - sendErrors, service.getReceivedRequests());
+    }
+
+    /**
+     * Наздоганяюча синхронізація сторінками, як у додатку: кожен запит продовжує з часу останнього повідомлення
+     *
+     * @return кількість отриманих повідомлень
+     */
+    private int sync(MessageRepository repository, int maxMessages) throws Exception {
+        int synced = 0;
+        while (synced < maxMessages) {
+            CompletableFuture<List<MessageEntity>> page = new CompletableFuture<>();
+            repository.fetchMessages(syncedUntil, new MessageRepository.FetchMessagesCallback() {
+                @Override
+                public void onSuccess(List<MessageEntity> messages) {
+                    page.complete(messages);
+                }
+
+                @Override
+                public void onError(String errorMessage) {
+                    page.completeExceptionally(new IllegalStateException(errorMessage));
+                }
+            });
+
+            List<MessageEntity> messages = page.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            if (messages.isEmpty()) {
+                break;
+            }
+            for (MessageEntity message : messages) {
+                syncedUntil = Math.max(syncedUntil, message.getCreatedAtMillis());
+            }
+            synced += messages.size();
+        }
+        return synced;
+    }
+
+    /**
+     * Відправляє повідомлення в групи, обмежуючи кількість одночасних відправлень
+     *
+     * @param samples масив для тривалостей відправлень (від виклику до відповіді сервера) в наносекундах
+     * @return кількість помилок
+     */
+    private int send(MessageRepository repository, int count, long[] samples) throws Exception {
+        Semaphore inFlight = new Semaphore(SEND_CONCURRENCY);
+        CountDownLatch done = new CountDownLatch(count);
+        AtomicInteger errors = new AtomicInteger();
+        for (int i = 0; i < count; i++) {
+            inFlight.acquire();
+            int index = i;
+            long start = System.nanoTime();
+            repository.sendGroupMessageAsync(groupIds.get(i % GROUP_COUNT), messageText(i), "TEXT")
+                    .whenComplete((messageId, error) -> {
+                        samples[index] = System.nanoTime() - start;
+                        if (error != null) {
+                            errors.incrementAndGet();
+                        }
+                        inFlight.release();
+                        done.countDown();
+                    });
+        }
+        if (!done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Sending did not finish in time");
+        }
+        return errors.get();
+    }
+
+    /**
+     * Користувачі та групи мають бути в базі до повідомлень (зовнішні ключі)
+     */
+    private void seedDatabase() throws Exception {
+        AppDatabase database = AppDatabase.getInstance(context);
+        LocalDateTime now = LocalDateTime.now();
+        Futures.supplyAsync(() -> {
+            database.runInTransaction(() -> {
+                database.userDao().insertIfAbsent(
+                        new UserEntity(CURRENT_USER_ID, "benchmark", null, null, null, now, false));
+                for (String userId : userIds) {
+                    database.userDao().insertIfAbsent(new UserEntity(userId, userId, null, null, null, now, true));
+                }
+                for (String groupId : groupIds) {
+                    database.chatGroupDao().insertIfAbsent(new ChatGroupEntity(
+                            groupId, groupId, null, CURRENT_USER_ID, false, USER_COUNT, null, now, now));
+                }
+            });
+            return null;
+        }, AppExecutors.getInstance().dbWrite()).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Групові повідомлення, зашифровані ключами груп, з унікальним зростаючим часом
+     */
+    private List<MessageResponse> createMessages(int count) throws Exception {
+        long firstTimestamp = System.currentTimeMillis() - count - 60_000;
+        List<MessageResponse> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int group = i % GROUP_COUNT;
+            String senderId = userIds.get(i % USER_COUNT);
+            byte[] encrypted = SecurityUtils.encryptWithAES(
+                    messageText(i).getBytes(StandardCharsets.UTF_8), groupKeys.get(group));
+            messages.add(MessageResponse.newBuilder()
+                    .setMessageId("message-" + i)
+                    .setSenderId(senderId)
+                    .setSenderName(senderId)
+                    .setGroupId(groupIds.get(group))
+                    .setGroupName(groupIds.get(group))
+                    .setContent(MessageContent.newBuilder()
+                            .setType(MessageType.TEXT)
+                            .setEncryptedData(ByteString.copyFrom(encrypted)))
+                    .setTimestamp(firstTimestamp + i)
+                    .build());
+        }
+        return messages;
+    }
+
+    private static String messageText(int index) {
+        // Довжина типового короткого повідомлення - від 20 до ~140 символів
+        StringBuilder text = new StringBuilder("Benchmark message #").append(index);
+        for (int i = 0; i < index % 8; i++) {
+            text.append(" lorem ipsum");
+        }
+        return text.toString();
+    }
+
+    private int countMessages() throws Exception {
+        AppDatabase database = AppDatabase.getInstance(context);
+        return Futures.supplyAsync(() -> {
+            try (Cursor cursor = database.query("SELECT COUNT(*) FROM messages", null)) {
+                return cursor.moveToFirst() ? cursor.getInt(0) : 0;
+            }
+        }, AppExecutors.getInstance().dbRead()).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,22 @@
+package com.secure.messenger.android.data.local;
+
+import android.content.SharedPreferences;
+
+/**
+ * Доступ тестів і бенчмарків з інших пакетів до тестового SecureStore
+ */
+public final class TestSecureStore {
+
+    private TestSecureStore() {
+    }
+
+    /**
+     * Встановлює спільний SecureStore поверх звичайних SharedPreferences,
+     * бо EncryptedSharedPreferences потребує Android KeyStore, якого немає на JVM
+     *
+     * @param prefs сховище, у яке записуються зміни
+     */
+    public static void install(SharedPreferences prefs) {
+        SecureStore.initForTesting(prefs);
+    }
+}
@@ -0,0 +1,154 @@
+package com.secure.messenger.android.data.repository;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import android.app.Application;
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.secure.messenger.android.data.api.MessageServiceClient;
+import com.secure.messenger.android.data.local.AppDatabase;
+import com.secure.messenger.android.data.local.TestSecureStore;
+import com.secure.messenger.android.data.local.TokenManager;
+import com.secure.messenger.android.data.local.entity.MessageEntity;
+import com.secure.messenger.android.data.local.entity.UserEntity;
+import com.secure.messenger.android.data.model.ModelConverter;
+import com.secure.messenger.android.util.AppExecutors;
+import com.secure.messenger.android.util.Futures;
+import com.secure.messenger.android.util.SecurityUtils;
+import com.secure.messenger.proto.MessageRequest;
+import com.secure.messenger.proto.MessageServiceGrpc;
+import com.secure.messenger.proto.StatusResponse;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+
+/**
+ * Тести MessageRepository проти in-process сервера та Room
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(application = Application.class, sdk = 33)
+public class MessageRepositoryTest {
+    private static final long TIMEOUT_SECONDS = 30;
+
+    private Context context;
+    private TokenManager tokenManager;
+    private Server server;
+    private ManagedChannel channel;
+    private MessageRepository repository;
+
+    @Before
+    public void setUp() throws Exception {
+        context = ApplicationProvider.getApplicationContext();
+
+        // EncryptedSharedPreferences потребує Android KeyStore, тому сховище працює поверх звичайних налаштувань
+        TestSecureStore.install(context.getSharedPreferences("test_store", Context.MODE_PRIVATE));
+        tokenManager = new TokenManager(context.getSharedPreferences("test_tokens", Context.MODE_PRIVATE));
+        tokenManager.saveUserInfo("sender-" + UUID.randomUUID(), "sender");
+
+        String serverName = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(serverName)
+                .directExecutor()
+                .addService(new AcceptingMessageService())
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(serverName).build();
+        repository = new MessageRepository(context, new MessageServiceClient(channel), tokenManager,
+                new SecurityUtils(context));
+    }
+
+    @After
+    public void tearDown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+    }
+
+    @Test
+    public void ownDirectTextIsReadableAfterSending() throws Exception {
+        KeyPair recipientKeys = KeyPairGenerator.getInstance("RSA").generateKeyPair();
+        String recipientId = "recipient-" + UUID.randomUUID();
+        seedUsers(recipientId, recipientKeys);
+        String text = "Привіт, це особисте повідомлення";
+
+        String messageId = repository.sendDirectMessageAsync(recipientId, text, "TEXT")
+                .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        MessageEntity stored = Futures.supplyAsync(
+                () -> AppDatabase.getInstance(context).messageDao().getMessageById(messageId),
+                AppExecutors.getInstance().dbRead()).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertNotNull("Sent message was not stored", stored);
+
+        // Відправник читає власне повідомлення, хоча AES-ключ зашифровано ключем отримувача
+        byte[] plaintext = repository.decryptContent(ModelConverter.convertToMessage(stored));
+        assertEquals(text, new String(plaintext, StandardCharsets.UTF_8));
+
+        // Отримувач розшифровує збережений вміст власним приватним ключем
+        byte[] data = stored.getEncryptedContent();
+        int keyLength = ByteBuffer.wrap(data, 0, 4).getInt();
+        byte[] aesKey = SecurityUtils.decryptWithRSA(Arrays.copyOfRange(data, 4, 4 + keyLength),
+                recipientKeys.getPrivate());
+        byte[] received = SecurityUtils.decryptWithAES(Arrays.copyOfRange(data, 4 + keyLength, data.length),
+                SecurityUtils.createAESKeyFromBytes(aesKey));
+        assertArrayEquals(text.getBytes(StandardCharsets.UTF_8), received);
+    }
+
+    /**
+     * Відправник і отримувач мають бути в базі до повідомлень (зовнішні ключі)
+     */
+    private void seedUsers(String recipientId, KeyPair recipientKeys) throws Exception {
+        AppDatabase database = AppDatabase.getInstance(context);
+        LocalDateTime now = LocalDateTime.now();
+        Futures.supplyAsync(() -> {
+            database.userDao().insertIfAbsent(
+                    new UserEntity(tokenManager.getUserId(), "sender", null, null, null, now, false));
+            database.userDao().insertIfAbsent(new UserEntity(recipientId, "recipient", null, null,
+                    recipientKeys.getPublic().getEncoded(), now, true));
+            return null;
+        }, AppExecutors.getInstance().dbWrite()).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Сервер, що приймає кожне надіслане повідомлення
+     */
+    private static class AcceptingMessageService extends MessageServiceGrpc.MessageServiceImplBase {
+        @Override
+        public StreamObserver<MessageRequest> sendMessage(StreamObserver<StatusResponse> responseObserver) {
+            return new StreamObserver<MessageRequest>() {
+                @Override
+                public void onNext(MessageRequest request) {
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                }
+
+                @Override
+                public void onCompleted() {
+                    responseObserver.onNext(StatusResponse.newBuilder().setSuccess(true).build());
+                    responseObserver.onCompleted();
+                }
+            };
+        }
+    }
+}